@@ -0,0 +1,35 @@
+package CircleTSP.algo.cluster;
+
+import CircleTSP.benchmark.BenchmarkData;
+import CircleTSP.entities.Cluster;
+import CircleTSP.entities.Point;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class DBSCANBenchmark {
+
+    @Param({"4UC", "4CC", "4LC"})
+    public String distribution;
+
+    @Param({"1000", "10000", "100000"})
+    public int numPoints;
+
+    private List<Point> points;
+    private double epsilon;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        points = BenchmarkData.generate(distribution, numPoints);
+        epsilon = BenchmarkData.epsilon(points);
+    }
+
+    @Benchmark
+    public List<Cluster> getClusters() {
+        return new DBSCAN(points, 4, epsilon).getClusters();
+    }
+}
@@ -0,0 +1,33 @@
+package CircleTSP.algo.cluster;
+
+import CircleTSP.benchmark.BenchmarkData;
+import CircleTSP.entities.Point;
+import org.apache.commons.math3.linear.RealVector;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class PCABenchmark {
+
+    @Param({"RL", "RU"})
+    public String distribution;
+
+    @Param({"1000", "100000"})
+    public int numPoints;
+
+    private List<Point> points;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        points = BenchmarkData.generate(distribution, numPoints);
+    }
+
+    @Benchmark
+    public RealVector principalComponent() {
+        return new PCA(points).getEigenvector(0);
+    }
+}
@@ -0,0 +1,29 @@
+package CircleTSP.algo.path;
+
+import CircleTSP.benchmark.BenchmarkData;
+import CircleTSP.entities.Point;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class LinearPathBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int numPoints;
+
+    private List<Point> points;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        points = BenchmarkData.generate("RL", numPoints);
+    }
+
+    @Benchmark
+    public List<Point> findPath() {
+        return LinearPath.findPath(points);
+    }
+}
@@ -0,0 +1,33 @@
+package CircleTSP.algo.solvers;
+
+import CircleTSP.benchmark.BenchmarkData;
+import CircleTSP.entities.Point;
+import CircleTSP.entities.Tour;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class CircleTSPBenchmark {
+
+    @Param({"RU", "4UC", "RC"})
+    public String distribution;
+
+    @Param({"1000", "10000", "100000"})
+    public int numPoints;
+
+    private List<Point> points;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        points = BenchmarkData.generate(distribution, numPoints);
+    }
+
+    @Benchmark
+    public Tour calculateTour() {
+        return CircleTSP.calculateTour(points);
+    }
+}
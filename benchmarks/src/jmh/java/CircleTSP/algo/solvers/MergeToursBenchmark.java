@@ -0,0 +1,69 @@
+package CircleTSP.algo.solvers;
+
+import CircleTSP.algo.cluster.DBSCAN;
+import CircleTSP.algo.estimators.CheapestInsertion;
+import CircleTSP.algo.estimators.EntrypointHeuristic;
+import CircleTSP.algo.estimators.IntersectingEdges;
+import CircleTSP.benchmark.BenchmarkData;
+import CircleTSP.entities.Point;
+import CircleTSP.entities.Tour;
+import CircleTSP.entities.Tuple;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges the cluster tours of ClusteredCircleTSP into the global tour. The benchmark is in the package of the solvers,
+ * as mergeTours is only visible to them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class MergeToursBenchmark {
+
+    @Param({"4UC", "4CC", "4LC"})
+    public String distribution;
+
+    @Param({"10000", "100000"})
+    public int numPoints;
+
+    @Param({"CheapestInsertion", "IntersectingEdges"})
+    public String heuristic;
+
+    private Tour globalTour;
+    private Point globalCenter;
+    private List<Tour> clusterTours;
+    private List<Point> clusterCenters;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Point> points = BenchmarkData.generate(distribution, numPoints);
+        DBSCAN dbscan = new DBSCAN(points, 4, BenchmarkData.epsilon(points));
+        Tuple<List<List<Point>>, List<Point>> partition = TSPClusterSolver.partitionClusters(dbscan.getPoints(),
+                dbscan.getLabels(), dbscan.getNumClusters());
+        List<List<Point>> clusters = partition.getFirst();
+
+        clusterTours = new ArrayList<>(clusters.size());
+        clusterCenters = new ArrayList<>(clusters.size());
+        for (int i = 0; i < clusters.size(); i++) {
+            clusterTours.add(CircleTSP.calculateTour(clusters.get(i)));
+            clusterCenters.add(TSPClusterSolver.createClusterCenter("cluster", i, clusters.get(i)));
+        }
+        List<Point> clusterCentersAndNoise = new ArrayList<>(partition.getSecond());
+        clusterCentersAndNoise.addAll(clusterCenters);
+        globalTour = CircleTSP.calculateTour(clusterCentersAndNoise);
+        globalCenter = CircleTSP.getCenterPoint(clusterCentersAndNoise);
+    }
+
+    @Benchmark
+    public Tour mergeTours() {
+        // The cluster tours are inserted into the global tour, so every invocation starts from a copy. A new
+        // heuristic is created like in the solvers, so that the indices of CheapestInsertion are built every time.
+        EntrypointHeuristic entrypointHeuristic = heuristic.equals("CheapestInsertion") ? new CheapestInsertion()
+                : new IntersectingEdges();
+        return TSPClusterSolver.mergeTours(new Tour(globalTour), globalCenter, clusterTours, clusterCenters, null,
+                entrypointHeuristic);
+    }
+}
@@ -0,0 +1,41 @@
+package CircleTSP.algo.sorting;
+
+import CircleTSP.algo.solvers.CircleTSP;
+import CircleTSP.benchmark.BenchmarkData;
+import CircleTSP.entities.Point;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class BucketSortBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int numPoints;
+
+    // Average number of points per bucket, CircleTSP uses 4
+    @Param({"1", "4", "16"})
+    public int pointsPerBucket;
+
+    @Param({"1", "2", "4", "8"})
+    public int numThreads;
+
+    private List<Point> points;
+    private int numBuckets;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        points = BenchmarkData.generate("RU", numPoints);
+        // Sets the angles of the points to [0,1), which are the keys of the sort
+        CircleTSP.calculateTour(points);
+        numBuckets = (int) Math.ceil((double) numPoints / pointsPerBucket);
+    }
+
+    @Benchmark
+    public List<Point> sort() {
+        return new BucketSort().sort(points, numBuckets, numThreads);
+    }
+}
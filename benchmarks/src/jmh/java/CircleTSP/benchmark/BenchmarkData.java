@@ -0,0 +1,74 @@
+package CircleTSP.benchmark;
+
+import CircleTSP.entities.Point;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Inputs of the JMH benchmarks: seeded problems of the ProblemGenerator and the bundled TSPLIB files.
+ */
+public class BenchmarkData {
+
+    public static final long SEED = 42;
+
+    /**
+     * Generates the same problem for every fork and iteration of a benchmark.
+     * @param distribution Name of the distribution of the Runner: 4UC, 4CC, 4LC, RU, RC or RL.
+     * @param n Number of points.
+     * @return Points of the problem.
+     */
+    public static List<Point> generate(String distribution, int n) {
+        ProblemGenerator.setSeed(SEED);
+        Collection<Point> points;
+        switch (distribution) {
+            case "4UC":
+                points = ProblemGenerator.fourUniformClusters(n);
+                break;
+            case "4CC":
+                points = ProblemGenerator.fourCircleClusters(n);
+                break;
+            case "4LC":
+                points = ProblemGenerator.fourLinearClusters(n);
+                break;
+            case "RU":
+                points = ProblemGenerator.randomUniform(n);
+                break;
+            case "RC":
+                points = ProblemGenerator.randomCircle(n, 0.1);
+                break;
+            case "RL":
+                points = ProblemGenerator.randomLinear(n, new double[]{-1.0, 1.0}, 0.1);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown distribution: " + distribution + "!");
+        }
+        return new ArrayList<>(points);
+    }
+
+    /**
+     * @param name Name of a TSPLIB instance, e.g. berlin52.
+     * @return Path of the TSPLIB file, in the folder given by the system property circletsp.res or res/.
+     */
+    public static String tsplibFile(String name) {
+        return System.getProperty("circletsp.res", "res") + "/TSPLIB/TSP/" + name + ".tsp";
+    }
+
+    /**
+     * Epsilon for DBSCAN of half the average distance between neighboring points of a uniform distribution over the
+     * bounding box, i.e. 0.5 * sqrt(area / n). The generated clusters are much denser than that, so this finds all four
+     * of them without learning epsilon for every problem.
+     */
+    public static double epsilon(Collection<Point> points) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (Point p : points) {
+            minX = Math.min(minX, p.getCoordinates()[0]);
+            maxX = Math.max(maxX, p.getCoordinates()[0]);
+            minY = Math.min(minY, p.getCoordinates()[1]);
+            maxY = Math.max(maxY, p.getCoordinates()[1]);
+        }
+        return 0.5 * Math.sqrt((maxX - minX) * (maxY - minY) / points.size());
+    }
+}
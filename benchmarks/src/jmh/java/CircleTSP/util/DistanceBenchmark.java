@@ -0,0 +1,29 @@
+package CircleTSP.util;
+
+import CircleTSP.algo.solvers.CircleTSP;
+import CircleTSP.benchmark.BenchmarkData;
+import CircleTSP.entities.Tour;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class DistanceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int numPoints;
+
+    private Tour tour;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tour = CircleTSP.calculateTour(BenchmarkData.generate("RU", numPoints));
+    }
+
+    @Benchmark
+    public double calculateTourLength() {
+        return Distance.calculateTourLength(tour);
+    }
+}
@@ -0,0 +1,30 @@
+package CircleTSP.util;
+
+import CircleTSP.benchmark.BenchmarkData;
+import CircleTSP.entities.Point;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class TSPLIBBenchmark {
+
+    @Param({"berlin52", "pr1002", "usa13509", "d18512"})
+    public String instance;
+
+    private String fileName;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fileName = BenchmarkData.tsplibFile(instance);
+    }
+
+    @Benchmark
+    public HashMap<String, Point> readPoints() throws IOException {
+        return TSPLIB.readPoints(fileName);
+    }
+}
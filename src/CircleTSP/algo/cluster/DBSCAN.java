@@ -2,108 +2,170 @@ package CircleTSP.algo.cluster;
 
 import CircleTSP.entities.Cluster;
 import CircleTSP.util.Distance;
+import CircleTSP.util.SolveContext;
 import CircleTSP.entities.Point;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
+import java.util.concurrent.CancellationException;
 
 public class DBSCAN {
 
+    /**
+     * Label of points that do not belong to any cluster.
+     */
+    public static final int NOISE = -1;
+    private static final int UNCLASSIFIED = -2;
+
     private int minPts;
     private double epsilon;
+    private SolveContext context;
 
-    private Collection<Point> setOfPoints;
+    private Point[] points;
+    private int[] labels;
+    private int numClusters;
 
-    private Set<Point> unclassified;
-    private Set<Point> noise;
     private ArrayList<Cluster> clusters;
 
     public DBSCAN(Collection<Point> setOfPoints, int minPts, double epsilon) {
-        this.setOfPoints = setOfPoints;
+        this(setOfPoints, minPts, epsilon, new SolveContext());
+    }
+
+    /**
+     * @param context Context of the computation, which is checked before every region query. If the context is
+     *                cancelled, the methods computing the clusters throw a CancellationException.
+     */
+    public DBSCAN(Collection<Point> setOfPoints, int minPts, double epsilon, SolveContext context) {
+        this.points = setOfPoints.toArray(new Point[0]);
         this.minPts = minPts;
         this.epsilon = epsilon;
-
-        unclassified = new HashSet<>(setOfPoints);
-        noise = new HashSet<>();
+        this.context = context;
     }
 
     // TODO: Use R*-Tree for making this query more efficient
-    private Set<Point> regionQuery(Point p, double epsilon) {
-        Set<Point> N = new HashSet<>();
-        for (Point neighbor : setOfPoints){
-            double distance = Distance.euclidianDistance(p.getCoordinates(), neighbor.getCoordinates());
-            if (distance <= epsilon)
-                N.add(neighbor);
-        }
-        return N;
-    }
-
     /**
-     * Add a point to a cluster with clusterID. Create new cluster if this cluster does not exist.
+     * Finds the indices of all points in the epsilon-neighborhood of a point, including the point itself.
+     * @param p Index of the point.
+     * @param neighbors Buffer the indices of the neighbors are written to.
+     * @return Number of neighbors written to the buffer.
      */
-    private void addToCluster(int clusterID, Point point) {
-        unclassified.remove(point);
-        noise.remove(point);
-
-        try {
-            clusters.get(clusterID).add(point);
-        } catch (IndexOutOfBoundsException e) {
-            HashSet<Point> pointSet = new HashSet<>();
-            pointSet.add(point);
-            clusters.add(clusterID, new Cluster(epsilon, minPts, pointSet));
+    private int regionQuery(int p, int[] neighbors) {
+        context.checkCancelled("DBSCAN");
+        double[] coordinates = points[p].getCoordinates();
+        int count = 0;
+        for (int i = 0; i < points.length; i++) {
+            double distance = Distance.euclidianDistance(coordinates, points[i].getCoordinates());
+            if (distance <= epsilon)
+                neighbors[count++] = i;
         }
+        return count;
     }
 
-    private boolean expandCluster(Point point, int clusterID) {
-        Set<Point> seeds = regionQuery(point, epsilon);
-        if (seeds.size() < minPts) {
-            noise.add(point);
-            unclassified.remove(point);
+    private boolean expandCluster(int point, int clusterID, int[] neighbors, int[] seeds) {
+        int numNeighbors = regionQuery(point, neighbors);
+        if (numNeighbors < minPts) {
+            labels[point] = NOISE;
             return false;
         }
-        else {
-            addToCluster(clusterID, point);
-            seeds.remove(point);
-
-            while (!seeds.isEmpty()) {
-                Point currentP = seeds.iterator().next();
-                Set<Point> result = regionQuery(currentP, epsilon);
-
-                if (result.size() >= minPts) {
-                    for (Point resultP : result) {
-                        if (unclassified.contains(resultP) || noise.contains(resultP)) {
-                            if (unclassified.contains(resultP))
-                                seeds.add(resultP);
-                            addToCluster(clusterID, resultP);
-                        }
+
+        // Every point is added to the seeds at most once, when it is classified for the first time
+        int head = 0, tail = 0;
+        for (int i = 0; i < numNeighbors; i++) {
+            int neighbor = neighbors[i];
+            if (labels[neighbor] == UNCLASSIFIED && neighbor != point)
+                seeds[tail++] = neighbor;
+            if (labels[neighbor] == UNCLASSIFIED || labels[neighbor] == NOISE)
+                labels[neighbor] = clusterID;
+        }
+
+        while (head < tail) {
+            int currentP = seeds[head++];
+            int numResults = regionQuery(currentP, neighbors);
+
+            if (numResults >= minPts) {
+                for (int i = 0; i < numResults; i++) {
+                    int resultP = neighbors[i];
+                    if (labels[resultP] == UNCLASSIFIED) {
+                        seeds[tail++] = resultP;
+                        labels[resultP] = clusterID;
+                    } else if (labels[resultP] == NOISE) {
+                        labels[resultP] = clusterID;
                     }
                 }
-                seeds.remove(currentP);
             }
-            return true;
         }
+        return true;
     }
 
-    private ArrayList<Cluster> Run() {
-        clusters = new ArrayList<>();
+    private void Run() {
+        int[] neighbors = new int[points.length];
+        int[] seeds = new int[points.length];
         int clusterID = 0;
 
-        for (Point point : setOfPoints) {
-            if (unclassified.contains(point)) {
-                if (expandCluster(point, clusterID)) {
-                    clusterID++;
+        int[] labels = new int[points.length];
+        Arrays.fill(labels, UNCLASSIFIED);
+        this.labels = labels;
+        try {
+            for (int point = 0; point < points.length; point++) {
+                if (labels[point] == UNCLASSIFIED) {
+                    if (expandCluster(point, clusterID, neighbors, seeds)) {
+                        clusterID++;
+                    }
+                    context.reportProgress("DBSCAN", (point + 1.0) / points.length, Double.NaN);
                 }
             }
+        } catch (CancellationException e) {
+            // Incomplete labels must not be returned by later calls
+            this.labels = null;
+            throw e;
         }
-        return clusters;
+        numClusters = clusterID;
     }
 
+    /**
+     * Gets the cluster labels of all points, in the order of getPoints().
+     * Points that belong to a cluster are labeled with the index of their cluster starting from 0,
+     * points that do not belong to any cluster are labeled as NOISE.
+     * @return Cluster label of each point.
+     */
+    public int[] getLabels() {
+        if (labels == null)
+            Run();
+        return labels;
+    }
+
+    /**
+     * @return Number of clusters that have been found.
+     */
+    public int getNumClusters() {
+        if (labels == null)
+            Run();
+        return numClusters;
+    }
+
+    /**
+     * @return Clustered points in the order of their labels.
+     */
+    public List<Point> getPoints() {
+        return Arrays.asList(points);
+    }
 
     public ArrayList<Cluster> getClusters() {
-        if (clusters == null){
-            clusters = Run();
+        if (clusters == null) {
+            int[] labels = getLabels();
+            List<List<Point>> clusterPoints = new ArrayList<>(numClusters);
+            for (int i = 0; i < numClusters; i++)
+                clusterPoints.add(new ArrayList<>());
+            for (int i = 0; i < points.length; i++) {
+                if (labels[i] != NOISE)
+                    clusterPoints.get(labels[i]).add(points[i]);
+            }
+
+            clusters = new ArrayList<>(numClusters);
+            for (List<Point> cluster : clusterPoints)
+                clusters.add(new Cluster(epsilon, minPts, cluster));
         }
         return clusters;
     }
@@ -0,0 +1,146 @@
+package CircleTSP.algo.embedding;
+
+import CircleTSP.util.DistanceMatrix;
+import org.apache.commons.math3.linear.EigenDecomposition;
+import org.apache.commons.math3.linear.MatrixUtils;
+import org.apache.commons.math3.linear.RealMatrix;
+
+import java.util.Arrays;
+
+/**
+ * Landmark multidimensional scaling (de Silva and Tenenbaum), which embeds the nodes of a distance matrix in the
+ * plane so the angular solvers can be used on instances without coordinates.
+ * Classical MDS is applied to a small set of landmarks chosen by farthest point sampling, then all other nodes are
+ * placed by triangulation from their distances to the landmarks. This needs O(n*m) distances for m landmarks instead
+ * of the O(n^2) of classical MDS. If all nodes are landmarks, the result equals classical MDS.
+ */
+public class LandmarkMDS {
+
+    public static final int DEFAULT_NUM_LANDMARKS = 64;
+
+    private final int numLandmarks;
+
+    public LandmarkMDS() {
+        this(DEFAULT_NUM_LANDMARKS);
+    }
+
+    /**
+     * @param numLandmarks Maximum number of landmarks, at least 3.
+     */
+    public LandmarkMDS(int numLandmarks) {
+        if (numLandmarks < 3)
+            throw new IllegalArgumentException("Landmark MDS needs at least 3 landmarks!");
+        this.numLandmarks = numLandmarks;
+    }
+
+    public int getNumLandmarks() {
+        return numLandmarks;
+    }
+
+    /**
+     * Embeds the nodes of a distance matrix in the plane.
+     * @param matrix Distances between the nodes.
+     * @return x coordinates and y coordinates of the nodes, as {xs, ys}.
+     */
+    public double[][] embed(DistanceMatrix matrix) {
+        int n = matrix.size();
+        double[][] coordinates = new double[2][n];
+        if (n < 2)
+            return coordinates;
+        int[] landmarks = chooseLandmarks(matrix, Math.min(n, numLandmarks));
+        int m = landmarks.length;
+
+        // Double centering of the squared distances between the landmarks
+        double[][] squared = new double[m][m];
+        double[] means = new double[m];
+        double totalMean = 0;
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < m; j++) {
+                double d = matrix.get(landmarks[i], landmarks[j]);
+                squared[i][j] = d * d;
+                means[i] += d * d / m;
+            }
+            totalMean += means[i] / m;
+        }
+        double[][] centered = new double[m][m];
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < m; j++)
+                centered[i][j] = -0.5 * (squared[i][j] - means[i] - means[j] + totalMean);
+        }
+
+        // Pseudo-inverse of the landmark coordinates from the two largest eigenvalues. Distances that are not
+        // euclidean can lead to negative eigenvalues, whose axes are left out
+        RealMatrix b = MatrixUtils.createRealMatrix(centered);
+        EigenDecomposition ed = new EigenDecomposition(b);
+        double[] eigenvalues = ed.getRealEigenvalues();
+        int[] axes = largestTwo(eigenvalues);
+        double[][] pseudoInverse = new double[2][m];
+        for (int k = 0; k < 2; k++) {
+            double eigenvalue = eigenvalues[axes[k]];
+            if (eigenvalue <= 0)
+                continue;
+            double[] eigenvector = ed.getEigenvector(axes[k]).toArray();
+            for (int j = 0; j < m; j++)
+                pseudoInverse[k][j] = eigenvector[j] / Math.sqrt(eigenvalue);
+        }
+
+        // Triangulation of all nodes from their squared distances to the landmarks
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < m; j++) {
+                double d = matrix.get(i, landmarks[j]);
+                double delta = d * d - means[j];
+                coordinates[0][i] -= 0.5 * pseudoInverse[0][j] * delta;
+                coordinates[1][i] -= 0.5 * pseudoInverse[1][j] * delta;
+            }
+        }
+        return coordinates;
+    }
+
+    /**
+     * Farthest point sampling: starts with node 0 and repeatedly adds the node farthest from all chosen landmarks.
+     */
+    private static int[] chooseLandmarks(DistanceMatrix matrix, int m) {
+        int n = matrix.size();
+        int[] landmarks = new int[m];
+        double[] minDistances = new double[n];
+        Arrays.fill(minDistances, Double.POSITIVE_INFINITY);
+        int next = 0;
+        for (int l = 0; l < m; l++) {
+            landmarks[l] = next;
+            int farthest = -1;
+            for (int i = 0; i < n; i++) {
+                minDistances[i] = Math.min(minDistances[i], matrix.get(i, landmarks[l]));
+                if (farthest < 0 || minDistances[i] > minDistances[farthest])
+                    farthest = i;
+            }
+            next = farthest;
+            // Only duplicates of the landmarks are left, any other node can be used
+            if (minDistances[farthest] == 0 && l + 1 < m)
+                next = firstUnused(landmarks, l + 1, n);
+        }
+        return landmarks;
+    }
+
+    private static int firstUnused(int[] landmarks, int numUsed, int n) {
+        boolean[] used = new boolean[n];
+        for (int l = 0; l < numUsed; l++)
+            used[landmarks[l]] = true;
+        int i = 0;
+        while (used[i])
+            i++;
+        return i;
+    }
+
+    private static int[] largestTwo(double[] values) {
+        int first = 0, second = -1;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] > values[first]) {
+                second = first;
+                first = i;
+            } else if (second < 0 || values[i] > values[second]) {
+                second = i;
+            }
+        }
+        return new int[]{first, second};
+    }
+}
@@ -0,0 +1,88 @@
+package CircleTSP.algo.estimators;
+
+import CircleTSP.entities.Point;
+import CircleTSP.entities.Tour;
+import CircleTSP.entities.Tuple;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Entry point heuristic that inserts a local tour at its edge with the lowest insertion costs.
+ * The edges of each local tour are searched through a TourSegmentIndex, which is built on the first query of the
+ * local tour and kept for all later queries, so that every further query takes O(log m) time for m edges.
+ * A local tour that is changed after its first query has to be updated through its index (see getIndex) or
+ * discarded with remove. Instances are not thread-safe.
+ */
+public class CheapestInsertion implements EntrypointHeuristic {
+
+    // Local tours are identified by reference, as equals and hashCode of a tour take linear time
+    private final Map<Tour, TourSegmentIndex> indices = new IdentityHashMap<>();
+
+    /**
+     * Finds the edge in a localTour with the lowest costs for inserting the local tour between the neighbors of
+     * localCenter in the global tour.
+     * If localCenter is not part of the global tour, the local tour is inserted next to globalCenter.
+     * @param localTour Local (cluster) tour to find the entry points from.
+     * @param localCenter Center point of the local tour.
+     * @param globalTour Tour to be connected with the local tour.
+     * @param globalCenter Center point of the global tour.
+     * @return Tuple containing two subsequent entry points from the local tour.
+     */
+    @Override
+    public Tuple<Point, Point> findEntryPoints(Tour localTour, Point localCenter, Tour globalTour, Point globalCenter) {
+        int centerIndex = globalTour.indexOf(localCenter);
+        if (centerIndex < 0)
+            return findEntryPoints(localTour, localCenter, globalCenter, globalCenter, globalTour, globalCenter);
+        return findEntryPoints(localTour, localCenter, globalTour.getPreviousPoint(centerIndex),
+                globalTour.getNextPoint(centerIndex), globalTour, globalCenter);
+    }
+
+    /**
+     * Finds the edge (e1,e2) in a localTour that results in the shortest tour if the edge is replaced by connecting
+     * its entry points to the goal points g1 and g2, i.e. the edge with the lowest insertion costs
+     * min(d(g1,e1) + d(e2,g2), d(g1,e2) + d(e1,g2)) - d(e1,e2).
+     * The edges of the local tour are searched through a TourSegmentIndex.
+     * Other than IntersectingEdges this heuristic always returns an edge of the local tour.
+     * @param localTour Local (cluster) tour with at least two points to find the entry points from.
+     * @param localCenter Center point of the local tour.
+     * @param g1 Point prior to localCenter in the global tour.
+     * @param g2 Point subsequent to localCenter in the global tour.
+     * @param globalTour Tour to be connected with the local tour.
+     * @param globalCenter Center point of the global tour.
+     * @return Tuple containing two subsequent entry points from the local tour.
+     */
+    @Override
+    public Tuple<Point, Point> findEntryPoints(Tour localTour, Point localCenter, Point g1, Point g2,
+                                               Tour globalTour, Point globalCenter) {
+        TourSegmentIndex index = getIndex(localTour);
+        int edge = index.findCheapestInsertion(g1.getCoordinates()[0], g1.getCoordinates()[1],
+                g2.getCoordinates()[0], g2.getCoordinates()[1]);
+        int next = edge + 1 < index.size() ? edge + 1 : 0;
+        return new Tuple<>(index.getPoint(edge), index.getPoint(next));
+    }
+
+    /**
+     * Returns the index of the edges of a local tour, which is built if the tour has not been queried before or if
+     * points have been added to or removed from it since then. Points replaced in the local tour have to be replaced
+     * in the index with TourSegmentIndex.set as well.
+     * @param localTour Local (cluster) tour with at least two points.
+     * @return Index of the edges of the local tour.
+     */
+    public TourSegmentIndex getIndex(Tour localTour) {
+        TourSegmentIndex index = indices.get(localTour);
+        if (index == null || index.size() != localTour.size()) {
+            index = new TourSegmentIndex(localTour);
+            indices.put(localTour, index);
+        }
+        return index;
+    }
+
+    /**
+     * Discards the index of a local tour, e.g. after the tour has been merged into the global tour.
+     * @param localTour Local tour that has been queried before.
+     */
+    public void remove(Tour localTour) {
+        indices.remove(localTour);
+    }
+}
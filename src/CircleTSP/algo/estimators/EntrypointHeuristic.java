@@ -8,4 +8,20 @@ public interface EntrypointHeuristic {
 
     Tuple<Point, Point> findEntryPoints(Tour localTour, Point localCenter,
                                         Tour globalTour, Point globalCenter);
+
+    /**
+     * Finds entry points for a local tour if the goal points, i.e. the neighbors of the local center in the global
+     * tour that will be connected to the entry points, are already known.
+     * @param localTour Local (cluster) tour to find the entry points from.
+     * @param localCenter Center point of the local tour.
+     * @param g1 Point prior to localCenter in the global tour.
+     * @param g2 Point subsequent to localCenter in the global tour.
+     * @param globalTour Tour to be connected with the local tour.
+     * @param globalCenter Center point of the global tour.
+     * @return Tuple containing two entry points from the local tour.
+     */
+    default Tuple<Point, Point> findEntryPoints(Tour localTour, Point localCenter, Point g1, Point g2,
+                                                Tour globalTour, Point globalCenter) {
+        return findEntryPoints(localTour, localCenter, globalTour, globalCenter);
+    }
 }
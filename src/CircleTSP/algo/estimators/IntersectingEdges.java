@@ -1,11 +1,25 @@
 package CircleTSP.algo.estimators;
 
 import CircleTSP.entities.*;
-import CircleTSP.util.Distance;
 import CircleTSP.util.Intersection;
 
 public class IntersectingEdges implements EntrypointHeuristic {
 
+    private final boolean robust;
+
+    public IntersectingEdges() {
+        this(false);
+    }
+
+    /**
+     * @param robust If true, intersections are determined with exact orientations, which is only necessary for
+     *               nearly colinear points.
+     * @see Intersection#robustOrientation(double, double, double, double, double, double)
+     */
+    public IntersectingEdges(boolean robust) {
+        this.robust = robust;
+    }
+
     /**
      * Finds the edge in a localTour that intersects with an auxiliary edge between localCenter and globalCenter,
      * and whose center has the shortest distance to the center of the global tour.
@@ -18,39 +32,48 @@ public class IntersectingEdges implements EntrypointHeuristic {
      * @return Tuple containing two entry points from the local tour.
      */
     public Tuple<Point, Point> findEntryPoints(Tour localTour, Point localCenter, Tour globalTour, Point globalCenter) {
-        Edge result = null;
-        double shortestDistance = Double.POSITIVE_INFINITY;
+        int n = localTour.size();
+        if (n < 2)
+            return null;
+
+        // Coordinates of the local tour, the first point is repeated to include the closing edge
+        double[] xs = new double[n + 1];
+        double[] ys = new double[n + 1];
+        Point[] points = new Point[n];
+        int i = 0;
+        for (Point point : localTour) {
+            points[i] = point;
+            xs[i] = point.getCoordinates()[0];
+            ys[i] = point.getCoordinates()[1];
+            i++;
+        }
+        xs[n] = xs[0];
+        ys[n] = ys[0];
+
+        // Find all edges intersecting with the auxiliary edge between localCenter and globalCenter
+        double[] lc = localCenter.getCoordinates();
+        double[] gc = globalCenter.getCoordinates();
+        int[] intersecting = new int[n];
+        int count = Intersection.intersectingEdges(lc[0], lc[1], gc[0], gc[1], xs, ys, 0, n, robust, intersecting);
 
-        // Create auxiliary edge between globalCenter and clusterCenter
-        Edge ec = new Edge(localCenter, globalCenter);
-
-        // For each edge corresponding to a point...
-        for (int i = 0; i < localTour.size(); i++) {
-            Edge currentEdge;
-
-            // Check if edge intersects
-            if (i+1 < localTour.size())
-                currentEdge = new Edge(localTour.get(i), localTour.get(i+1));
-            else
-                currentEdge = new Edge(localTour.get(i), localTour.get(0));
-            boolean intersects = Intersection.doIntersect(ec, currentEdge);
-
-            // Finds the intersecting edge whose center has the shortest distance to
-            // the center of the global tour.
-            // TODO: Implement more precise heuristic that finds the intersecting edge resulting in the shortest tour.
-            if (intersects) {
-                Point edgeCenter = new Point("edgeCenter", new double[]{
-                        (currentEdge.getFirst().getCoordinates()[0] + currentEdge.getSecond().getCoordinates()[0]) / 2,
-                        (currentEdge.getFirst().getCoordinates()[1] + currentEdge.getSecond().getCoordinates()[1]) / 2
-                });
-                double distance = Distance.euclidianDistance(edgeCenter, globalCenter);
-                if (distance < shortestDistance) {
-                    result = currentEdge;
-                    shortestDistance = distance;
-                }
+        // Finds the intersecting edge whose center has the shortest distance to
+        // the center of the global tour.
+        // TODO: Implement more precise heuristic that finds the intersecting edge resulting in the shortest tour.
+        int result = -1;
+        double shortestDistance = Double.POSITIVE_INFINITY;
+        for (int j = 0; j < count; j++) {
+            int edge = intersecting[j];
+            double dx = (xs[edge] + xs[edge + 1]) / 2 - gc[0];
+            double dy = (ys[edge] + ys[edge + 1]) / 2 - gc[1];
+            double distance = Math.sqrt(dx * dx + dy * dy);
+            if (distance < shortestDistance) {
+                result = edge;
+                shortestDistance = distance;
             }
         }
         // TODO: Return some edge if no intersecting edge exists
-        return result;
+        if (result < 0)
+            return null;
+        return new Edge(points[result], points[result + 1 < n ? result + 1 : 0]);
     }
 }
@@ -0,0 +1,203 @@
+package CircleTSP.algo.estimators;
+
+import CircleTSP.entities.Point;
+import CircleTSP.entities.Tour;
+
+import java.util.Arrays;
+
+/**
+ * Spatial index over the edges of a closed tour.
+ * Consecutive edges of a tour are grouped into buckets, which are the leaves of an implicit binary tree of
+ * bounding boxes. Since consecutive tour edges are spatially close to each other, the bounding boxes of a subtree
+ * stay small, so that queries only have to descend into few subtrees.
+ * All data is stored in primitive arrays, so queries do not allocate any objects.
+ * Replacing a point only updates the buckets of its two edges and their ancestors, so an index can be kept up to date
+ * with a tour that changes between queries without being rebuilt.
+ */
+public class TourSegmentIndex {
+
+    private static final int BUCKET_SIZE = 8;
+
+    private final int size;
+    private final Point[] points;
+    private final double[] xs;
+    private final double[] ys;
+
+    // Implicit binary tree: node i has the children 2i and 2i+1, the leaves start at index leafOffset
+    private final int leafOffset;
+    private final double[] minX, minY, maxX, maxY;
+    // Length of the longest edge in the subtree of a node
+    private final double[] maxLength;
+    private final int[] stack;
+
+    /**
+     * Builds the index over all edges of a closed tour, where edge i connects point i with its subsequent point.
+     * @param tour Closed tour with at least two points.
+     */
+    public TourSegmentIndex(Tour tour) {
+        if (tour.size() < 2)
+            throw new IllegalArgumentException("A tour needs at least two points to have edges!");
+        size = tour.size();
+        points = tour.toArray(new Point[0]);
+        xs = new double[size];
+        ys = new double[size];
+        for (int i = 0; i < size; i++) {
+            xs[i] = points[i].getCoordinates()[0];
+            ys[i] = points[i].getCoordinates()[1];
+        }
+
+        int numBuckets = (size + BUCKET_SIZE - 1) / BUCKET_SIZE;
+        int offset = 1;
+        while (offset < numBuckets)
+            offset *= 2;
+        leafOffset = offset;
+
+        minX = new double[2 * leafOffset];
+        minY = new double[2 * leafOffset];
+        maxX = new double[2 * leafOffset];
+        maxY = new double[2 * leafOffset];
+        maxLength = new double[2 * leafOffset];
+        // Empty nodes get inverted boxes, which are infinitely far away from any point
+        Arrays.fill(minX, Double.POSITIVE_INFINITY);
+        Arrays.fill(minY, Double.POSITIVE_INFINITY);
+        Arrays.fill(maxX, Double.NEGATIVE_INFINITY);
+        Arrays.fill(maxY, Double.NEGATIVE_INFINITY);
+
+        for (int bucket = 0; bucket < numBuckets; bucket++)
+            updateLeaf(bucket);
+        for (int node = leafOffset - 1; node >= 1; node--)
+            updateNode(node);
+
+        int depth = Integer.numberOfTrailingZeros(leafOffset);
+        stack = new int[depth + 2];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Point getPoint(int i) {
+        return points[i];
+    }
+
+    /**
+     * Replaces the point at index i of the indexed tour and updates the bounding boxes of its two edges.
+     * Takes O(log m) time for a tour with m points.
+     * @param i Index of the point in the tour.
+     * @param p New point at index i.
+     */
+    public void set(int i, Point p) {
+        points[i] = p;
+        xs[i] = p.getCoordinates()[0];
+        ys[i] = p.getCoordinates()[1];
+        // Point i is part of the edges i-1 and i
+        int previous = i > 0 ? i - 1 : size - 1;
+        updatePath(previous / BUCKET_SIZE);
+        if (i / BUCKET_SIZE != previous / BUCKET_SIZE)
+            updatePath(i / BUCKET_SIZE);
+    }
+
+    /**
+     * Finds the edge of the tour with the lowest costs for inserting the tour between two points g1 and g2.
+     * The insertion costs of an edge (a,b) are the costs of the cheaper connection (g1,a),(b,g2) or (g1,b),(a,g2)
+     * minus the length of the edge (a,b), which is removed from the tour.
+     * Subtrees are pruned if a lower bound of the insertion costs of their edges, based on the distance of g1 and
+     * g2 to their bounding box and their longest edge, exceeds the best insertion costs found so far.
+     * @return Index i of the edge with the lowest insertion costs, connecting point i with its subsequent point.
+     */
+    public int findCheapestInsertion(double g1x, double g1y, double g2x, double g2y) {
+        int bestEdge = 0;
+        double bestCosts = insertionCosts(0, g1x, g1y, g2x, g2y);
+
+        int top = 0;
+        stack[top++] = 1;
+        while (top > 0) {
+            int node = stack[--top];
+            if (lowerBound(node, g1x, g1y, g2x, g2y) >= bestCosts)
+                continue;
+
+            if (node >= leafOffset) {
+                int first = (node - leafOffset) * BUCKET_SIZE;
+                int last = Math.min(first + BUCKET_SIZE, size);
+                for (int edge = first; edge < last; edge++) {
+                    double costs = insertionCosts(edge, g1x, g1y, g2x, g2y);
+                    if (costs < bestCosts) {
+                        bestCosts = costs;
+                        bestEdge = edge;
+                    }
+                }
+            } else {
+                // Visit the more promising child first, by pushing it last
+                int left = 2 * node;
+                int right = left + 1;
+                if (lowerBound(left, g1x, g1y, g2x, g2y) < lowerBound(right, g1x, g1y, g2x, g2y)) {
+                    stack[top++] = right;
+                    stack[top++] = left;
+                } else {
+                    stack[top++] = left;
+                    stack[top++] = right;
+                }
+            }
+        }
+        return bestEdge;
+    }
+
+    private void updatePath(int bucket) {
+        updateLeaf(bucket);
+        for (int node = (leafOffset + bucket) / 2; node >= 1; node /= 2)
+            updateNode(node);
+    }
+
+    private void updateLeaf(int bucket) {
+        int node = leafOffset + bucket;
+        // Start with an inverted box and extend it by every edge of the bucket
+        minX[node] = Double.POSITIVE_INFINITY;
+        minY[node] = Double.POSITIVE_INFINITY;
+        maxX[node] = Double.NEGATIVE_INFINITY;
+        maxY[node] = Double.NEGATIVE_INFINITY;
+        maxLength[node] = 0;
+        int last = Math.min((bucket + 1) * BUCKET_SIZE, size);
+        for (int edge = bucket * BUCKET_SIZE; edge < last; edge++) {
+            int next = edge + 1 < size ? edge + 1 : 0;
+            minX[node] = Math.min(minX[node], Math.min(xs[edge], xs[next]));
+            minY[node] = Math.min(minY[node], Math.min(ys[edge], ys[next]));
+            maxX[node] = Math.max(maxX[node], Math.max(xs[edge], xs[next]));
+            maxY[node] = Math.max(maxY[node], Math.max(ys[edge], ys[next]));
+            maxLength[node] = Math.max(maxLength[node], edgeLength(edge));
+        }
+    }
+
+    private void updateNode(int node) {
+        minX[node] = Math.min(minX[2 * node], minX[2 * node + 1]);
+        minY[node] = Math.min(minY[2 * node], minY[2 * node + 1]);
+        maxX[node] = Math.max(maxX[2 * node], maxX[2 * node + 1]);
+        maxY[node] = Math.max(maxY[2 * node], maxY[2 * node + 1]);
+        maxLength[node] = Math.max(maxLength[2 * node], maxLength[2 * node + 1]);
+    }
+
+    private double insertionCosts(int edge, double g1x, double g1y, double g2x, double g2y) {
+        int next = edge + 1 < size ? edge + 1 : 0;
+        double ax = xs[edge], ay = ys[edge];
+        double bx = xs[next], by = ys[next];
+        double connection1 = Math.hypot(g1x - ax, g1y - ay) + Math.hypot(g2x - bx, g2y - by);
+        double connection2 = Math.hypot(g1x - bx, g1y - by) + Math.hypot(g2x - ax, g2y - ay);
+        return Math.min(connection1, connection2) - Math.hypot(ax - bx, ay - by);
+    }
+
+    private double lowerBound(int node, double g1x, double g1y, double g2x, double g2y) {
+        if (minX[node] > maxX[node])
+            return Double.POSITIVE_INFINITY;
+        return boxDistance(node, g1x, g1y) + boxDistance(node, g2x, g2y) - maxLength[node];
+    }
+
+    private double boxDistance(int node, double x, double y) {
+        double dx = Math.max(0, Math.max(minX[node] - x, x - maxX[node]));
+        double dy = Math.max(0, Math.max(minY[node] - y, y - maxY[node]));
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    private double edgeLength(int edge) {
+        int next = edge + 1 < size ? edge + 1 : 0;
+        return Math.hypot(xs[edge] - xs[next], ys[edge] - ys[next]);
+    }
+}
@@ -0,0 +1,40 @@
+package CircleTSP.algo.improvement;
+
+/**
+ * FIFO queue of the points whose don't-look bit is not set.
+ * Every point is contained at most once.
+ */
+class ActiveQueue {
+    private final int[] queue;
+    private final boolean[] active;
+    private int head, size;
+
+    ActiveQueue(int n) {
+        queue = new int[n];
+        active = new boolean[n];
+        for (int p = 0; p < n; p++)
+            add(p);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void add(int p) {
+        if (active[p])
+            return;
+        active[p] = true;
+        int tail = head + size;
+        queue[tail >= queue.length ? tail - queue.length : tail] = p;
+        size++;
+    }
+
+    int poll() {
+        int p = queue[head];
+        active[p] = false;
+        if (++head == queue.length)
+            head = 0;
+        size--;
+        return p;
+    }
+}
@@ -0,0 +1,142 @@
+package CircleTSP.algo.improvement;
+
+import CircleTSP.entities.ArrayTour;
+import CircleTSP.entities.Point;
+import CircleTSP.entities.TourOrder;
+import CircleTSP.util.Intersection;
+
+import java.util.Collection;
+
+/**
+ * Removes all crossing edges from a tour.
+ * The edges of the tour are registered in a uniform grid, so that every edge is only tested for intersections against
+ * the edges passing through the same cells, which takes near-linear time for tours with short edges.
+ * Two crossing edges (a,b) and (c,d) are replaced with (a,c) and (b,d) by a 2-opt move, which is always shorter due to
+ * the triangle inequality. The new edges are tested again, until the tour is free of crossings.
+ * Overlapping collinear edges are only replaced if this shortens the tour.
+ * Intersections are determined with exact orientations, so that nearly colinear edges are not affected by rounding errors.
+ */
+public class CrossingRemoval implements TourImprover {
+
+    @Override
+    public boolean improve(TourOrder tour, NeighborLists neighbors) {
+        return removeCrossings(tour) > 0;
+    }
+
+    /**
+     * Removes all crossing edges from a tour.
+     * @param tour Tour to be improved.
+     * @return Number of 2-opt moves that have been applied to remove crossings.
+     */
+    public static int removeCrossings(TourOrder tour) {
+        int n = tour.size();
+        if (n < 4)
+            return 0;
+
+        EdgeGrid grid = new EdgeGrid(tour);
+        ActiveQueue queue = new ActiveQueue(n);
+        int[] testedBy = new int[n];
+        int stamp = 0;
+        int numMoves = 0;
+
+        while (!queue.isEmpty() && !Thread.currentThread().isInterrupted()) {
+            int e = queue.poll();
+            stamp++;
+            grid.traverse(e);
+            boolean moved = false;
+            for (int i = 0; i < grid.numCells() && !moved; i++) {
+                for (int entry = grid.firstEntry(grid.cell(i)); entry >= 0; entry = grid.nextEntry(entry)) {
+                    int f = grid.getEdge(entry);
+                    if (f == e || testedBy[f] == stamp || !grid.isValid(entry))
+                        continue;
+                    testedBy[f] = stamp;
+                    if (crosses(tour, grid, e, f) && resolve(tour, grid, e, f)) {
+                        queue.add(e);
+                        queue.add(f);
+                        numMoves++;
+                        moved = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return numMoves;
+    }
+
+    /**
+     * Counts the pairs of crossing edges of a tour, where edges sharing a point are not considered crossing.
+     * @param tour Points in the order they are visited.
+     * @return Number of crossing pairs of edges.
+     */
+    public static int countCrossings(Collection<Point> tour) {
+        if (tour.size() < 4)
+            return 0;
+        return countCrossings(new ArrayTour(tour));
+    }
+
+    /**
+     * Counts the pairs of crossing edges of a tour, where edges sharing a point are not considered crossing.
+     * @param tour Tour to count the crossings of.
+     * @return Number of crossing pairs of edges.
+     */
+    public static int countCrossings(TourOrder tour) {
+        int n = tour.size();
+        if (n < 4)
+            return 0;
+
+        EdgeGrid grid = new EdgeGrid(tour);
+        int[] testedBy = new int[n];
+        int count = 0;
+        for (int e = 0; e < n; e++) {
+            grid.traverse(e);
+            for (int i = 0; i < grid.numCells(); i++) {
+                for (int entry = grid.firstEntry(grid.cell(i)); entry >= 0; entry = grid.nextEntry(entry)) {
+                    int f = grid.getEdge(entry);
+                    // Every pair is only counted from the edge with the lower id
+                    if (f <= e || testedBy[f] == e + 1)
+                        continue;
+                    testedBy[f] = e + 1;
+                    if (crosses(tour, grid, e, f))
+                        count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static boolean crosses(TourOrder tour, EdgeGrid grid, int e, int f) {
+        int a = grid.getFrom(e), b = grid.getTo(e);
+        int c = grid.getFrom(f), d = grid.getTo(f);
+        if (a == c || a == d || b == c || b == d)
+            return false;
+        return Intersection.doIntersect(tour.getX(a), tour.getY(a), tour.getX(b), tour.getY(b),
+                tour.getX(c), tour.getY(c), tour.getX(d), tour.getY(d), true);
+    }
+
+    /**
+     * Replaces the crossing edges e and f by a 2-opt move, if this shortens the tour.
+     */
+    private static boolean resolve(TourOrder tour, EdgeGrid grid, int e, int f) {
+        int a = grid.getFrom(e), b = grid.getTo(e);
+        int c = grid.getFrom(f), d = grid.getTo(f);
+        // Orient both edges along the tour
+        if (tour.next(a) != b) {
+            int temp = a;
+            a = b;
+            b = temp;
+        }
+        if (tour.next(c) != d) {
+            int temp = c;
+            c = d;
+            d = temp;
+        }
+        double delta = tour.distance(a, c) + tour.distance(b, d) - tour.distance(a, b) - tour.distance(c, d);
+        if (delta >= -TwoOpt.EPSILON)
+            return false;
+
+        tour.twoOptMove(a, b, c, d);
+        grid.setEdge(e, a, c);
+        grid.setEdge(f, b, d);
+        return true;
+    }
+}
@@ -0,0 +1,174 @@
+package CircleTSP.algo.improvement;
+
+import CircleTSP.entities.TourOrder;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid of square cells over the points of a tour, in which every edge is registered in all cells it passes
+ * through. Two edges can only intersect if they share a cell.
+ * Edges are identified by an id and a version, changing the endpoints of an edge increments its version, so that
+ * entries of older versions of the edge are skipped instead of being removed from the cells.
+ */
+class EdgeGrid {
+
+    private final TourOrder tour;
+    private final int gridSize;
+    private final double minX, minY, cellSize;
+
+    // Endpoints and versions of the edges
+    private final int[] from;
+    private final int[] to;
+    private final int[] version;
+
+    // Entries of all cells as linked lists in a pool
+    private final int[] cellHead;
+    private int[] entryEdge;
+    private int[] entryVersion;
+    private int[] entryNext;
+    private int numEntries;
+
+    // Cells of the last traversed segment
+    private final int[] cells;
+    private int numCells;
+
+    /**
+     * Creates a grid containing the edge (p, next(p)) with id p for every point p of the tour.
+     */
+    EdgeGrid(TourOrder tour) {
+        this.tour = tour;
+        int n = tour.size();
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int p = 0; p < n; p++) {
+            minX = Math.min(minX, tour.getX(p));
+            minY = Math.min(minY, tour.getY(p));
+            maxX = Math.max(maxX, tour.getX(p));
+            maxY = Math.max(maxY, tour.getY(p));
+        }
+        this.minX = minX;
+        this.minY = minY;
+        this.gridSize = Math.max(1, (int) Math.sqrt(n));
+        this.cellSize = Math.max(Math.max(maxX - minX, maxY - minY) / gridSize, Double.MIN_NORMAL);
+
+        from = new int[n];
+        to = new int[n];
+        version = new int[n];
+        cellHead = new int[gridSize * gridSize];
+        Arrays.fill(cellHead, -1);
+        entryEdge = new int[4 * n];
+        entryVersion = new int[4 * n];
+        entryNext = new int[4 * n];
+        cells = new int[4 * gridSize + 4];
+
+        for (int p = 0; p < n; p++)
+            setEdge(p, p, tour.next(p));
+    }
+
+    int getFrom(int edge) {
+        return from[edge];
+    }
+
+    int getTo(int edge) {
+        return to[edge];
+    }
+
+    boolean isValid(int entry) {
+        return entryVersion[entry] == version[entryEdge[entry]];
+    }
+
+    int getEdge(int entry) {
+        return entryEdge[entry];
+    }
+
+    int firstEntry(int cell) {
+        return cellHead[cell];
+    }
+
+    int nextEntry(int entry) {
+        return entryNext[entry];
+    }
+
+    /**
+     * Changes the endpoints of an edge and registers it in all cells it passes through.
+     */
+    void setEdge(int edge, int a, int b) {
+        from[edge] = a;
+        to[edge] = b;
+        version[edge]++;
+        traverse(edge);
+        for (int i = 0; i < numCells; i++) {
+            if (numEntries == entryEdge.length) {
+                int capacity = 2 * numEntries;
+                entryEdge = Arrays.copyOf(entryEdge, capacity);
+                entryVersion = Arrays.copyOf(entryVersion, capacity);
+                entryNext = Arrays.copyOf(entryNext, capacity);
+            }
+            int cell = cells[i];
+            entryEdge[numEntries] = edge;
+            entryVersion[numEntries] = version[edge];
+            entryNext[numEntries] = cellHead[cell];
+            cellHead[cell] = numEntries++;
+        }
+    }
+
+    /**
+     * Finds all cells an edge passes through, the result is available through numCells() and cell(i).
+     * Where the edge passes exactly through a corner of a cell, both neighboring cells are included.
+     */
+    void traverse(int edge) {
+        double x1 = tour.getX(from[edge]), y1 = tour.getY(from[edge]);
+        double x2 = tour.getX(to[edge]), y2 = tour.getY(to[edge]);
+        int cx = cellX(x1), cy = cellY(y1);
+        int ex = cellX(x2), ey = cellY(y2);
+        numCells = 0;
+        cells[numCells++] = cy * gridSize + cx;
+
+        double dx = x2 - x1, dy = y2 - y1;
+        int stepX = dx > 0 ? 1 : -1;
+        int stepY = dy > 0 ? 1 : -1;
+        double tDeltaX = dx != 0 ? cellSize / Math.abs(dx) : Double.POSITIVE_INFINITY;
+        double tDeltaY = dy != 0 ? cellSize / Math.abs(dy) : Double.POSITIVE_INFINITY;
+        double tMaxX = dx != 0 ? (minX + (cx + (stepX > 0 ? 1 : 0)) * cellSize - x1) / dx : Double.POSITIVE_INFINITY;
+        double tMaxY = dy != 0 ? (minY + (cy + (stepY > 0 ? 1 : 0)) * cellSize - y1) / dy : Double.POSITIVE_INFINITY;
+
+        // The number of steps is bounded by the manhattan distance between the cells of both endpoints
+        int remainingSteps = Math.abs(ex - cx) + Math.abs(ey - cy);
+        while ((cx != ex || cy != ey) && remainingSteps > 0) {
+            if (cx == ex || cy != ey && tMaxY < tMaxX) {
+                cy += stepY;
+                tMaxY += tDeltaY;
+            } else if (cy == ey || tMaxX < tMaxY) {
+                cx += stepX;
+                tMaxX += tDeltaX;
+            } else {
+                // The edge passes through a corner
+                cells[numCells++] = cy * gridSize + cx + stepX;
+                cells[numCells++] = (cy + stepY) * gridSize + cx;
+                cx += stepX;
+                cy += stepY;
+                tMaxX += tDeltaX;
+                tMaxY += tDeltaY;
+                remainingSteps--;
+            }
+            remainingSteps--;
+            cells[numCells++] = cy * gridSize + cx;
+        }
+    }
+
+    int numCells() {
+        return numCells;
+    }
+
+    int cell(int i) {
+        return cells[i];
+    }
+
+    private int cellX(double x) {
+        return Math.min(gridSize - 1, Math.max(0, (int) ((x - minX) / cellSize)));
+    }
+
+    private int cellY(double y) {
+        return Math.min(gridSize - 1, Math.max(0, (int) ((y - minY) / cellSize)));
+    }
+}
@@ -0,0 +1,201 @@
+package CircleTSP.algo.improvement;
+
+import CircleTSP.entities.TourOrder;
+
+/**
+ * Lin-Kernighan style variable depth local search.
+ * Starting from a point t1 and one of its tour neighbors t2, the edge (t1,t2) is removed and a sequence of 2-opt moves
+ * is applied, where every move adds an edge (t2,t3) to one of the nearest neighbors t3 of the current t2 and removes
+ * the edge (t3,t4) that keeps the tour closed by the edge (t1,t4). The point t4 becomes the next t2.
+ * A sequence of up to maxDepth moves therefore forms a sequential k-opt move with k <= maxDepth + 1.
+ * The search only follows moves with a positive cumulative gain, tries the best breadth[i] candidates at depth i and
+ * keeps the prefix of the sequence that resulted in the shortest tour.
+ * Points whose search did not lead to an improvement are not looked at again until one of their tour edges changes.
+ * @see <a href="https://doi.org/10.1287/opre.21.2.498">An Effective Heuristic Algorithm for the
+ * Traveling-Salesman Problem - S. Lin, B. W. Kernighan</a>
+ */
+public class LinKernighan implements TourImprover {
+
+    private static final int[] DEFAULT_BREADTH = {5, 3, 1, 1};
+
+    private final int maxDepth;
+    private final int[] breadth;
+
+    // Search state of the current run, allocated once per run
+    private TourOrder tour;
+    private NeighborLists neighbors;
+    // Applied 2-opt moves (t1,t2,t4,t3) and the edges (t2,t3) added by them
+    private int[] moves;
+    private int numMoves;
+    private double bestGain;
+    private int bestNumMoves;
+    private int[][] candidates;
+    private double[][] candidateScores;
+
+    /**
+     * Creates a search for sequential moves of up to 5-opt.
+     */
+    public LinKernighan() {
+        this(DEFAULT_BREADTH);
+    }
+
+    /**
+     * @param breadth Number of candidates that are tried at each depth of the search, the length of this array
+     *                determines the maximum depth.
+     */
+    public LinKernighan(int... breadth) {
+        if (breadth.length == 0)
+            throw new IllegalArgumentException("The search depth has to be at least 1!");
+        for (int b : breadth) {
+            if (b < 1)
+                throw new IllegalArgumentException("The breadth of the search has to be at least 1 at every depth!");
+        }
+        this.maxDepth = breadth.length;
+        this.breadth = breadth.clone();
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    @Override
+    public synchronized boolean improve(TourOrder tour, NeighborLists neighbors) {
+        int n = tour.size();
+        if (n < 5)
+            return false;
+
+        this.tour = tour;
+        this.neighbors = neighbors;
+        this.moves = new int[4 * maxDepth];
+        int maxBreadth = 1;
+        for (int b : breadth)
+            maxBreadth = Math.max(maxBreadth, b);
+        this.candidates = new int[maxDepth][maxBreadth];
+        this.candidateScores = new double[maxDepth][maxBreadth];
+
+        ActiveQueue queue = new ActiveQueue(n);
+        boolean improved = false;
+        try {
+            while (!queue.isEmpty() && !Thread.currentThread().isInterrupted()) {
+                int t1 = queue.poll();
+                if (improvePoint(t1, queue)) {
+                    improved = true;
+                    queue.add(t1);
+                }
+            }
+        } finally {
+            this.tour = null;
+            this.neighbors = null;
+        }
+        return improved;
+    }
+
+    private boolean improvePoint(int t1, ActiveQueue queue) {
+        for (int side = 0; side < 2; side++) {
+            int t2 = side == 0 ? tour.next(t1) : tour.prev(t1);
+            numMoves = 0;
+            bestGain = TwoOpt.EPSILON;
+            bestNumMoves = 0;
+
+            step(0, t1, t2, tour.distance(t1, t2));
+
+            // Undo all moves after the best prefix of the sequence
+            while (numMoves > bestNumMoves)
+                undoMove();
+            if (bestNumMoves > 0) {
+                for (int i = 0; i < 4 * bestNumMoves; i++)
+                    queue.add(moves[i]);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Extends the current sequence of moves, where the edge (t1,t2) is considered removed.
+     * @param depth Number of moves applied so far.
+     * @param gain Sum of the removed minus the sum of the added edges so far, including the removed edge (t1,t2).
+     */
+    private void step(int depth, int t1, int t2, double gain) {
+        boolean forward = tour.next(t1) == t2;
+        int[] depthCandidates = candidates[depth];
+        double[] scores = candidateScores[depth];
+        int numCandidates = 0;
+
+        for (int i = 0; i < neighbors.size(); i++) {
+            int t3 = neighbors.get(t2, i);
+            double g1 = gain - tour.distance(t2, t3);
+            // Neighbors are sorted by distance, so no further neighbor leads to a positive gain
+            if (g1 <= 0)
+                break;
+            int t4 = forward ? tour.prev(t3) : tour.next(t3);
+            if (t3 == t1 || t4 == t2 || isAdded(t3, t4))
+                continue;
+
+            // Keep the candidates with the largest d(t3,t4) - d(t2,t3) sorted
+            double score = tour.distance(t3, t4) - tour.distance(t2, t3);
+            if (numCandidates < breadth[depth] || score > scores[numCandidates - 1]) {
+                int j = numCandidates < breadth[depth] ? numCandidates++ : numCandidates - 1;
+                while (j > 0 && scores[j - 1] < score) {
+                    scores[j] = scores[j - 1];
+                    depthCandidates[j] = depthCandidates[j - 1];
+                    j--;
+                }
+                scores[j] = score;
+                depthCandidates[j] = t3;
+            }
+        }
+
+        for (int i = 0; i < numCandidates; i++) {
+            int t3 = depthCandidates[i];
+            // The orientation of the tour may have changed by deeper moves that have been undone
+            int t4 = tour.next(t1) == t2 ? tour.prev(t3) : tour.next(t3);
+            double newGain = gain - tour.distance(t2, t3) + tour.distance(t3, t4);
+
+            applyMove(t1, t2, t4, t3);
+            double closedGain = newGain - tour.distance(t4, t1);
+            if (closedGain > bestGain) {
+                bestGain = closedGain;
+                bestNumMoves = numMoves;
+            }
+            if (depth + 1 < maxDepth)
+                step(depth + 1, t1, t4, newGain);
+            // Stop exploring alternatives once an improving sequence has been found
+            if (bestNumMoves > 0)
+                return;
+            undoMove();
+        }
+    }
+
+    private boolean isAdded(int a, int b) {
+        for (int i = 0; i < numMoves; i++) {
+            int t2 = moves[4 * i + 1];
+            int t3 = moves[4 * i + 3];
+            if (t2 == a && t3 == b || t2 == b && t3 == a)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Replaces the edges (t1,t2) and (t4,t3) with the edges (t1,t4) and (t2,t3).
+     */
+    private void applyMove(int t1, int t2, int t4, int t3) {
+        tour.twoOptMove(t1, t2, t4, t3);
+        moves[4 * numMoves] = t1;
+        moves[4 * numMoves + 1] = t2;
+        moves[4 * numMoves + 2] = t4;
+        moves[4 * numMoves + 3] = t3;
+        numMoves++;
+    }
+
+    private void undoMove() {
+        numMoves--;
+        int t1 = moves[4 * numMoves];
+        int t2 = moves[4 * numMoves + 1];
+        int t4 = moves[4 * numMoves + 2];
+        int t3 = moves[4 * numMoves + 3];
+        // Replaces the edges (t1,t4) and (t2,t3) with the original edges (t1,t2) and (t4,t3)
+        tour.twoOptMove(t1, t4, t2, t3);
+    }
+}
@@ -0,0 +1,53 @@
+package CircleTSP.algo.improvement;
+
+import CircleTSP.entities.TourOrder;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Applies several tour improvers alternately until none of them is able to improve the tour any further,
+ * i.e. until the tour is a local optimum with respect to all of their neighborhoods.
+ */
+public class LocalSearch implements TourImprover {
+
+    private final List<TourImprover> improvers;
+
+    /**
+     * Creates a local search alternating between 2-opt and Or-opt.
+     */
+    public LocalSearch() {
+        this(new TwoOpt(), new OrOpt());
+    }
+
+    /**
+     * @param improvers Improvers that are applied in the given order.
+     */
+    public LocalSearch(TourImprover... improvers) {
+        if (improvers.length == 0)
+            throw new IllegalArgumentException("A local search needs at least one tour improver!");
+        this.improvers = Arrays.asList(improvers);
+    }
+
+    public List<TourImprover> getImprovers() {
+        return improvers;
+    }
+
+    @Override
+    public boolean improve(TourOrder tour, NeighborLists neighbors) {
+        boolean improved = false;
+        // The last improver that changed the tour, the search stops once every other improver failed after it
+        int lastImproved = -1;
+        for (int i = 0; ; i = (i + 1) % improvers.size()) {
+            if (i == lastImproved || Thread.currentThread().isInterrupted())
+                break;
+            if (improvers.get(i).improve(tour, neighbors)) {
+                improved = true;
+                lastImproved = i;
+            } else if (lastImproved < 0 && i == improvers.size() - 1) {
+                break;
+            }
+        }
+        return improved;
+    }
+}
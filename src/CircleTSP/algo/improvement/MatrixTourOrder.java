@@ -0,0 +1,83 @@
+package CircleTSP.algo.improvement;
+
+import CircleTSP.entities.Point;
+import CircleTSP.entities.TourOrder;
+import CircleTSP.util.DistanceMatrix;
+
+/**
+ * Tour order that measures distances with a distance matrix instead of the coordinates of the points, so the tour
+ * improvers evaluate their moves against the true weights of an instance whose coordinates are only an embedding.
+ * All other operations are delegated to the wrapped tour.
+ */
+public class MatrixTourOrder implements TourOrder {
+
+    private final TourOrder tour;
+    private final DistanceMatrix matrix;
+    // Node of the matrix for every point of the tour
+    private final int[] nodes;
+
+    /**
+     * @param tour Tour of points whose identifiers are the TSPLIB node ids 1..n of the matrix.
+     * @param matrix Weights between the nodes, where the point with the id i is node i-1.
+     */
+    public MatrixTourOrder(TourOrder tour, DistanceMatrix matrix) {
+        this.tour = tour;
+        this.matrix = matrix;
+        this.nodes = new int[tour.size()];
+        for (int p = 0; p < nodes.length; p++) {
+            String id = tour.getPoint(p).getId();
+            try {
+                nodes[p] = Integer.parseInt(id) - 1;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("The identifier of a point has to be a node id! Id: " + id);
+            }
+            if (nodes[p] < 0 || nodes[p] >= matrix.size())
+                throw new IllegalArgumentException("The point is not a node of the distance matrix! Id: " + id);
+        }
+    }
+
+    @Override
+    public double distance(int a, int b) {
+        return matrix.get(nodes[a], nodes[b]);
+    }
+
+    @Override
+    public int size() {
+        return tour.size();
+    }
+
+    @Override
+    public Point getPoint(int p) {
+        return tour.getPoint(p);
+    }
+
+    @Override
+    public double getX(int p) {
+        return tour.getX(p);
+    }
+
+    @Override
+    public double getY(int p) {
+        return tour.getY(p);
+    }
+
+    @Override
+    public int next(int p) {
+        return tour.next(p);
+    }
+
+    @Override
+    public int prev(int p) {
+        return tour.prev(p);
+    }
+
+    @Override
+    public boolean between(int a, int b, int c) {
+        return tour.between(a, b, c);
+    }
+
+    @Override
+    public void twoOptMove(int a, int b, int c, int d) {
+        tour.twoOptMove(a, b, c, d);
+    }
+}
@@ -0,0 +1,155 @@
+package CircleTSP.algo.improvement;
+
+import CircleTSP.entities.TourOrder;
+
+/**
+ * Candidate lists containing the k nearest neighbors of every point of a tour, sorted by ascending distance.
+ * The neighbors are found using a uniform grid of square cells with about two points per cell, which is searched in growing rings of
+ * cells around every point.
+ */
+public class NeighborLists {
+
+    public static final int DEFAULT_SIZE = 8;
+
+    private final int k;
+    private final int[] neighbors;
+
+    /**
+     * @param tour Tour containing the points to find the nearest neighbors for.
+     * @param k Maximum number of neighbors per point.
+     */
+    public NeighborLists(TourOrder tour, int k) {
+        if (k < 1)
+            throw new IllegalArgumentException("The number of neighbors has to be at least 1!");
+        int n = tour.size();
+        this.k = Math.min(k, Math.max(n - 1, 0));
+        this.neighbors = new int[n * this.k];
+        if (this.k == 0)
+            return;
+
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int p = 0; p < n; p++) {
+            minX = Math.min(minX, tour.getX(p));
+            minY = Math.min(minY, tour.getY(p));
+            maxX = Math.max(maxX, tour.getX(p));
+            maxY = Math.max(maxY, tour.getY(p));
+        }
+        int gridSize = Math.max(1, (int) Math.sqrt(n / 2.0));
+        double cellSize = Math.max(Math.max(maxX - minX, maxY - minY) / gridSize, Double.MIN_NORMAL);
+
+        // Counting sort of the points by their grid cell
+        int[] cellOf = new int[n];
+        int[] cellStart = new int[gridSize * gridSize + 1];
+        for (int p = 0; p < n; p++) {
+            int cx = Math.min(gridSize - 1, (int) ((tour.getX(p) - minX) / cellSize));
+            int cy = Math.min(gridSize - 1, (int) ((tour.getY(p) - minY) / cellSize));
+            cellOf[p] = cy * gridSize + cx;
+            cellStart[cellOf[p] + 1]++;
+        }
+        for (int c = 0; c < gridSize * gridSize; c++)
+            cellStart[c + 1] += cellStart[c];
+        int[] cellPoints = new int[n];
+        int[] fill = new int[gridSize * gridSize];
+        for (int p = 0; p < n; p++)
+            cellPoints[cellStart[cellOf[p]] + fill[cellOf[p]]++] = p;
+
+        int[] bestPoints = new int[this.k];
+        double[] bestDistances = new double[this.k];
+        for (int p = 0; p < n; p++) {
+            int found = 0;
+            int cx = cellOf[p] % gridSize;
+            int cy = cellOf[p] / gridSize;
+            for (int ring = 0; ring < gridSize; ring++) {
+                // Points in this ring are at least (ring-1) cells away, stop if all k neighbors are closer
+                if (found == this.k && (ring - 1) * cellSize > bestDistances[found - 1])
+                    break;
+                for (int y = cy - ring; y <= cy + ring; y++) {
+                    if (y < 0 || y >= gridSize)
+                        continue;
+                    boolean border = y == cy - ring || y == cy + ring;
+                    for (int x = cx - ring; x <= cx + ring; x += border ? 1 : 2 * ring) {
+                        if (x >= 0 && x < gridSize) {
+                            int cell = y * gridSize + x;
+                            for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                                int q = cellPoints[i];
+                                if (q == p)
+                                    continue;
+                                found = insert(bestPoints, bestDistances, found, q, tour.distance(p, q));
+                            }
+                        }
+                    }
+                }
+            }
+            System.arraycopy(bestPoints, 0, neighbors, p * this.k, this.k);
+        }
+    }
+
+    private NeighborLists(int k, int[] neighbors) {
+        this.k = k;
+        this.neighbors = neighbors;
+    }
+
+    /**
+     * Finds the k nearest neighbors of every point by comparing all pairs of points in O(n^2).
+     * Unlike the grid search this only relies on tour.distance, so it finds the exact neighbors for any metric, e.g.
+     * for a tour measuring distances with an explicit distance matrix.
+     * @param tour Tour containing the points to find the nearest neighbors for.
+     * @param k Maximum number of neighbors per point.
+     * @return Candidate lists of the points.
+     */
+    public static NeighborLists exhaustive(TourOrder tour, int k) {
+        if (k < 1)
+            throw new IllegalArgumentException("The number of neighbors has to be at least 1!");
+        int n = tour.size();
+        k = Math.min(k, Math.max(n - 1, 0));
+        int[] neighbors = new int[n * k];
+        int[] bestPoints = new int[k];
+        double[] bestDistances = new double[k];
+        for (int p = 0; p < n && k > 0; p++) {
+            int found = 0;
+            for (int q = 0; q < n; q++) {
+                if (q != p)
+                    found = insert(bestPoints, bestDistances, found, q, tour.distance(p, q));
+            }
+            System.arraycopy(bestPoints, 0, neighbors, p * k, k);
+        }
+        return new NeighborLists(k, neighbors);
+    }
+
+    /**
+     * Inserts q into the sorted list of the best neighbors, if it is closer than the farthest of them or the list is
+     * not full yet.
+     * @return New number of neighbors in the list.
+     */
+    private static int insert(int[] bestPoints, double[] bestDistances, int found, int q, double d) {
+        int k = bestPoints.length;
+        if (found == k && d >= bestDistances[found - 1])
+            return found;
+        int j = found < k ? found++ : found - 1;
+        while (j > 0 && bestDistances[j - 1] > d) {
+            bestDistances[j] = bestDistances[j - 1];
+            bestPoints[j] = bestPoints[j - 1];
+            j--;
+        }
+        bestDistances[j] = d;
+        bestPoints[j] = q;
+        return found;
+    }
+
+    /**
+     * @return Number of neighbors per point.
+     */
+    public int size() {
+        return k;
+    }
+
+    /**
+     * @param p Index of a point.
+     * @param i Rank of the neighbor, where 0 is the nearest neighbor.
+     * @return Index of the i-th nearest neighbor of point p.
+     */
+    public int get(int p, int i) {
+        return neighbors[p * k + i];
+    }
+}
@@ -0,0 +1,147 @@
+package CircleTSP.algo.improvement;
+
+import CircleTSP.entities.TourOrder;
+
+/**
+ * Or-opt local search restricted to nearest neighbor candidate lists.
+ * An Or-opt move relocates a segment of up to three consecutive points between two other adjacent points of the tour,
+ * either in its original or in reversed order.
+ * A segment starting at point a is only moved next to one of the nearest neighbors c of a, and only if d(a,c) is lower
+ * than the gain of removing the segment from its current position.
+ * The costs of a move are evaluated in O(1), the move itself is performed by two or three segment reversals.
+ */
+public class OrOpt implements TourImprover {
+
+    public static final int MAX_SEGMENT_LENGTH = 3;
+
+    private final int maxSegmentLength;
+
+    public OrOpt() {
+        this(MAX_SEGMENT_LENGTH);
+    }
+
+    /**
+     * @param maxSegmentLength Maximum number of consecutive points that are relocated by a single move.
+     */
+    public OrOpt(int maxSegmentLength) {
+        if (maxSegmentLength < 1)
+            throw new IllegalArgumentException("Segments have to contain at least one point!");
+        this.maxSegmentLength = maxSegmentLength;
+    }
+
+    @Override
+    public boolean improve(TourOrder tour, NeighborLists neighbors) {
+        int n = tour.size();
+        if (n < 5)
+            return false;
+
+        ActiveQueue queue = new ActiveQueue(n);
+        boolean improved = false;
+        while (!queue.isEmpty() && !Thread.currentThread().isInterrupted()) {
+            int a = queue.poll();
+            if (improvePoint(tour, neighbors, a, queue)) {
+                improved = true;
+                queue.add(a);
+            }
+        }
+        return improved;
+    }
+
+    /**
+     * Applies the best Or-opt move of a segment starting at point a, if there is an improving one.
+     */
+    private boolean improvePoint(TourOrder tour, NeighborLists neighbors, int a, ActiveQueue queue) {
+        int maxLength = Math.min(maxSegmentLength, tour.size() - 3);
+        double bestDelta = -TwoOpt.EPSILON;
+        int bestEnd = -1, bestC = -1, bestY = -1;
+        boolean bestForward = true;
+
+        for (int direction = 0; direction < 2; direction++) {
+            boolean forward = direction == 0;
+            int p = forward ? tour.prev(a) : tour.next(a);
+            int end = a;
+            int middle = a;
+
+            for (int length = 1; length <= maxLength; length++) {
+                if (length > 1) {
+                    middle = end;
+                    end = forward ? tour.next(end) : tour.prev(end);
+                }
+                int nx = forward ? tour.next(end) : tour.prev(end);
+                double removalGain = tour.distance(p, a) + tour.distance(end, nx) - tour.distance(p, nx);
+                if (removalGain <= -bestDelta)
+                    continue;
+
+                for (int i = 0; i < neighbors.size(); i++) {
+                    int c = neighbors.get(a, i);
+                    double dAC = tour.distance(a, c);
+                    if (dAC >= removalGain)
+                        break;
+                    if (c == end || c == middle)
+                        continue;
+
+                    // Insert the segment between c and one of its tour neighbors y, so that a is adjacent to c
+                    for (int side = 0; side < 2; side++) {
+                        int y = side == 0 ? tour.next(c) : tour.prev(c);
+                        if (y == a || y == middle || y == end)
+                            continue;
+                        double delta = dAC + tour.distance(end, y) - tour.distance(c, y) - removalGain;
+                        if (delta < bestDelta) {
+                            bestDelta = delta;
+                            bestEnd = end;
+                            bestC = c;
+                            bestY = y;
+                            bestForward = forward;
+                        }
+                    }
+                }
+            }
+        }
+        if (bestEnd < 0)
+            return false;
+
+        if (bestForward)
+            moveSegment(tour, a, bestEnd, bestC, bestY, queue);
+        else
+            moveSegment(tour, bestEnd, a, bestY, bestC, queue);
+        return true;
+    }
+
+    /**
+     * Moves the segment going forward in the tour from point first to point last between the adjacent points c and y,
+     * so that first becomes adjacent to c and last becomes adjacent to y.
+     */
+    private static void moveSegment(TourOrder tour, int first, int last, int c, int y, ActiveQueue queue) {
+        int p = tour.prev(first);
+        int nx = tour.next(last);
+        // Orient the target edge along the tour: p -> first .. last -> nx .. x -> z .. p
+        int x = tour.next(c) == y ? c : y;
+        int z = x == c ? y : c;
+        int xEnd = x == c ? first : last;
+
+        queue.add(p);
+        queue.add(nx);
+        queue.add(first);
+        queue.add(last);
+        queue.add(x);
+        queue.add(z);
+
+        if (z == p) {
+            // x p first .. last nx  ->  x last .. first p nx
+            tour.twoOptMove(nx, last, p, x);
+        } else {
+            // p first .. last nx .. x z  ->  p x .. nx last .. first z
+            tour.twoOptMove(p, first, x, z);
+            // p x .. nx last .. first z  ->  p nx .. x last .. first z
+            if (x != nx)
+                tour.twoOptMove(p, x, nx, last);
+        }
+
+        // The segment now lies between x and z, restore the requested orientation
+        int xNeighbor = tour.next(x) == first || tour.next(x) == last ? tour.next(x) : tour.prev(x);
+        if (xNeighbor != xEnd) {
+            int zNeighbor = xNeighbor == first ? last : first;
+            tour.twoOptMove(x, xNeighbor, zNeighbor, z);
+        }
+    }
+}
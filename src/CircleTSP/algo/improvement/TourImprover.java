@@ -0,0 +1,56 @@
+package CircleTSP.algo.improvement;
+
+import CircleTSP.entities.ArrayTour;
+import CircleTSP.entities.Point;
+import CircleTSP.entities.Tour;
+import CircleTSP.entities.TourOrder;
+import CircleTSP.entities.TwoLevelTour;
+
+import java.util.Collection;
+
+/**
+ * Post-optimization stage that improves an existing tour by local modifications.
+ */
+public interface TourImprover {
+
+    /**
+     * Minimum number of points for which tours are represented as TwoLevelTour instead of ArrayTour.
+     */
+    int TWO_LEVEL_MIN_SIZE = 5000;
+
+    /**
+     * Improves a tour in place.
+     * If the current thread is interrupted, the improvement stops after the current move and leaves a valid tour,
+     * which is at least as short as the original tour. The interrupt status is not cleared.
+     * @param tour Tour to be improved.
+     * @param neighbors Candidate lists of the points of the tour.
+     * @return True if the tour has been improved.
+     */
+    boolean improve(TourOrder tour, NeighborLists neighbors);
+
+    /**
+     * Improves a tour using candidate lists of the DEFAULT_SIZE nearest neighbors of every point.
+     * @param tour Tour to be improved.
+     * @return Improved copy of the tour.
+     */
+    default Tour improve(Tour tour) {
+        if (tour.size() < 4)
+            return tour;
+        TourOrder tourOrder = createTourOrder(tour);
+        improve(tourOrder, new NeighborLists(tourOrder, NeighborLists.DEFAULT_SIZE));
+        return tourOrder.toTour();
+    }
+
+    /**
+     * Creates the tour representation with the fastest reversals for the size of a tour.
+     * Reversals in an ArrayTour cost O(n), which is faster for small tours, while reversals in a TwoLevelTour cost
+     * O(sqrt(n)).
+     * @param tour Points in the order they are visited.
+     * @return ArrayTour or TwoLevelTour of the points.
+     */
+    static TourOrder createTourOrder(Collection<Point> tour) {
+        if (tour.size() >= TWO_LEVEL_MIN_SIZE)
+            return new TwoLevelTour(tour);
+        return new ArrayTour(tour);
+    }
+}
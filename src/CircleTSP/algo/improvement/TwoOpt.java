@@ -0,0 +1,76 @@
+package CircleTSP.algo.improvement;
+
+import CircleTSP.entities.TourOrder;
+
+/**
+ * 2-opt local search restricted to nearest neighbor candidate lists.
+ * A 2-opt move replaces the edges (a,b) and (c,d) of a tour with the edges (a,c) and (b,d) by reversing the path
+ * between b and c. Only moves where c is one of the nearest neighbors of a and d(a,c) < d(a,b) are considered.
+ * Points whose neighborhood did not lead to an improvement are not looked at again until one of their tour edges
+ * changes (don't-look bits).
+ */
+public class TwoOpt implements TourImprover {
+
+    static final double EPSILON = 1e-10;
+
+    @Override
+    public boolean improve(TourOrder tour, NeighborLists neighbors) {
+        int n = tour.size();
+        if (n < 4)
+            return false;
+
+        ActiveQueue queue = new ActiveQueue(n);
+        boolean improved = false;
+        while (!queue.isEmpty() && !Thread.currentThread().isInterrupted()) {
+            int a = queue.poll();
+            if (improvePoint(tour, neighbors, a, queue)) {
+                improved = true;
+                queue.add(a);
+            }
+        }
+        return improved;
+    }
+
+    /**
+     * Applies the best 2-opt move that removes one of the tour edges of point a, if there is an improving one.
+     */
+    private static boolean improvePoint(TourOrder tour, NeighborLists neighbors, int a, ActiveQueue queue) {
+        double bestDelta = -EPSILON;
+        int bestC = -1;
+        boolean bestForward = true;
+
+        for (int direction = 0; direction < 2; direction++) {
+            boolean forward = direction == 0;
+            int b = forward ? tour.next(a) : tour.prev(a);
+            double dAB = tour.distance(a, b);
+
+            for (int i = 0; i < neighbors.size(); i++) {
+                int c = neighbors.get(a, i);
+                double dAC = tour.distance(a, c);
+                // Neighbors are sorted by distance, so no further neighbor can lead to an improvement
+                if (dAC >= dAB)
+                    break;
+                int d = forward ? tour.next(c) : tour.prev(c);
+                if (c == b || d == a)
+                    continue;
+
+                double delta = dAC + tour.distance(b, d) - dAB - tour.distance(c, d);
+                if (delta < bestDelta) {
+                    bestDelta = delta;
+                    bestC = c;
+                    bestForward = forward;
+                }
+            }
+        }
+        if (bestC < 0)
+            return false;
+
+        int b = bestForward ? tour.next(a) : tour.prev(a);
+        int d = bestForward ? tour.next(bestC) : tour.prev(bestC);
+        tour.twoOptMove(a, b, bestC, d);
+        queue.add(b);
+        queue.add(bestC);
+        queue.add(d);
+        return true;
+    }
+}
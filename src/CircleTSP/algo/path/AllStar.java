@@ -4,10 +4,12 @@ import CircleTSP.algo.cluster.PCA;
 import CircleTSP.entities.Point;
 import CircleTSP.entities.Tuple;
 import CircleTSP.util.Distance;
+import CircleTSP.util.SolveContext;
 import org.apache.commons.math3.linear.ArrayRealVector;
 import org.apache.commons.math3.linear.RealVector;
 
 import java.util.*;
+import java.util.concurrent.CancellationException;
 
 /**
  * AllStar is an adaptation of A* calculating an optimal path that includes all
@@ -26,6 +28,9 @@ import java.util.*;
  */
 public class AllStar {
 
+    // Number of expanded points between two progress reports
+    private static final int PROGRESS_INTERVAL = 256;
+
     private static class DistancePoint implements Comparable {
         Point point;
         DistancePoint predecessor;
@@ -143,7 +148,31 @@ public class AllStar {
         }
     }
 
+    /**
+     * @return Number of points on the path leading to a point, including the point itself.
+     */
+    private static int depth(DistancePoint p) {
+        int depth = 0;
+        for (DistancePoint dp = p; dp != null; dp = dp.predecessor)
+            depth++;
+        return depth;
+    }
+
     public static List<Point> findPath(Collection<Point> points, Point start, Point goal) {
+        return findPath(points, start, goal, new SolveContext());
+    }
+
+    /**
+     * Searches a path through all points from start to goal, while checking the context regularly.
+     * The progress is reported as phase "AllStar" with the fraction of points on the currently expanded path.
+     * @param points Points to be visited by the path, including start and goal.
+     * @param start First point of the path.
+     * @param goal Last point of the path.
+     * @param context Context of the computation.
+     * @return Path from start to goal or null if no path has been found.
+     * @throws CancellationException If the context has been cancelled or its deadline has passed.
+     */
+    public static List<Point> findPath(Collection<Point> points, Point start, Point goal, SolveContext context) {
         List<Point> path = new LinkedList<>();
 
         // Convert Points to DistancePoints
@@ -161,11 +190,16 @@ public class AllStar {
 
         DistancePoint goal_dp;
 
-        while (true) {
+        for (int iteration = 1; ; iteration++) {
             if (frontier.isEmpty())
                 return null;
+            // Stop the search if it has been cancelled or the thread running it has been interrupted
+            // (e.g. by a SubtourPortfolio)
+            context.checkCancelled("The AllStar search");
             // Get the point with the shortest heuristic distance
             DistancePoint p = frontier.poll();
+            if (iteration % PROGRESS_INTERVAL == 0)
+                context.reportProgress("AllStar", (double) depth(p) / pointSet.size(), Double.NaN);
             // If goal point has been found, finish
             if (p.point.equals(goal)) {
                 goal_dp = p;
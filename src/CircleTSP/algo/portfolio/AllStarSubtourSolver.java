@@ -0,0 +1,58 @@
+package CircleTSP.algo.portfolio;
+
+import CircleTSP.algo.path.AllStar;
+import CircleTSP.algo.path.LinearPath;
+import CircleTSP.entities.Point;
+import CircleTSP.entities.Subtour;
+import CircleTSP.entities.Tour;
+import CircleTSP.entities.Tuple;
+import CircleTSP.util.Distance;
+
+import java.util.Collection;
+import java.util.List;
+
+public class AllStarSubtourSolver implements SubtourSolver {
+
+    private static final int DEFAULT_MAX_POINTS = 12;
+
+    private int maxPoints;
+
+    public AllStarSubtourSolver() {
+        this(DEFAULT_MAX_POINTS);
+    }
+
+    /**
+     * @param maxPoints Maximum number of points of a cluster for which AllStar will be started.
+     */
+    public AllStarSubtourSolver(int maxPoints) {
+        this.maxPoints = maxPoints;
+    }
+
+    @Override
+    public String getName() {
+        return "AllStar";
+    }
+
+    @Override
+    public boolean isApplicable(Collection<Point> points) {
+        return points.size() <= maxPoints;
+    }
+
+    /**
+     * Calculates a path between the two outermost points on the first principal component of the points using
+     * AllStar. Those two points are used as entry points.
+     * @param points Points of a cluster.
+     * @return Sub tour containing the path through all points.
+     */
+    @Override
+    public Subtour solve(Collection<Point> points) {
+        List<Point> linearPath = LinearPath.findPath(points);
+        Point start = linearPath.get(0);
+        Point goal = linearPath.get(linearPath.size()-1);
+
+        List<Point> path = AllStar.findPath(points, start, goal);
+        if (path == null)
+            throw new IllegalStateException("AllStar could not find a path through the cluster!");
+        return new Subtour(new Tour(path), new Tuple<>(start, goal), Distance.calculatePathLength(path));
+    }
+}
@@ -0,0 +1,29 @@
+package CircleTSP.algo.portfolio;
+
+import CircleTSP.algo.solvers.CircleTSP;
+import CircleTSP.entities.Point;
+import CircleTSP.entities.Subtour;
+import CircleTSP.entities.Tour;
+import CircleTSP.util.Distance;
+
+import java.util.Collection;
+
+public class CircleSubtourSolver implements SubtourSolver {
+
+    @Override
+    public String getName() {
+        return "CircleTSP";
+    }
+
+    /**
+     * Calculates a closed sub tour using CircleTSP.
+     * Entry points of the sub tour have to be calculated later using an entry point heuristic.
+     * @param points Points of a cluster.
+     * @return Closed sub tour through all points.
+     */
+    @Override
+    public Subtour solve(Collection<Point> points) {
+        Tour tour = CircleTSP.calculateTour(points);
+        return new Subtour(tour, null, Distance.calculateTourLength(tour));
+    }
+}
@@ -0,0 +1,58 @@
+package CircleTSP.algo.portfolio;
+
+import CircleTSP.algo.solvers.BnBTSP;
+import CircleTSP.entities.Point;
+import CircleTSP.entities.Subtour;
+import CircleTSP.entities.Tour;
+import CircleTSP.util.Distance;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+public class ExactSubtourSolver implements SubtourSolver {
+
+    private static final int DEFAULT_MAX_POINTS = 10;
+
+    private int maxPoints;
+
+    public ExactSubtourSolver() {
+        this(DEFAULT_MAX_POINTS);
+    }
+
+    /**
+     * @param maxPoints Maximum number of points of a cluster for which the exact solver will be started.
+     */
+    public ExactSubtourSolver(int maxPoints) {
+        this.maxPoints = maxPoints;
+    }
+
+    @Override
+    public String getName() {
+        return "BnBTSP";
+    }
+
+    @Override
+    public boolean isApplicable(Collection<Point> points) {
+        return points.size() <= maxPoints;
+    }
+
+    @Override
+    public boolean isExact() {
+        return true;
+    }
+
+    /**
+     * Calculates an optimal closed sub tour using branch and bound.
+     * Entry points of the sub tour have to be calculated later using an entry point heuristic.
+     * @param points Points of a cluster.
+     * @return Optimal closed sub tour through all points.
+     */
+    @Override
+    public Subtour solve(Collection<Point> points) {
+        Tour tour = BnBTSP.Run(new ArrayList<>(points));
+        // BnBTSP returns the start point a second time at the end of the tour
+        if (tour.size() > points.size())
+            tour.removeLast();
+        return new Subtour(tour, null, Distance.calculateTourLength(tour));
+    }
+}
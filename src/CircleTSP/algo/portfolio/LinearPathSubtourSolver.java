@@ -0,0 +1,32 @@
+package CircleTSP.algo.portfolio;
+
+import CircleTSP.algo.path.LinearPath;
+import CircleTSP.entities.Point;
+import CircleTSP.entities.Subtour;
+import CircleTSP.entities.Tour;
+import CircleTSP.entities.Tuple;
+import CircleTSP.util.Distance;
+
+import java.util.Collection;
+import java.util.List;
+
+public class LinearPathSubtourSolver implements SubtourSolver {
+
+    @Override
+    public String getName() {
+        return "LinearPath";
+    }
+
+    /**
+     * Calculates a path along the first principal component of the points using LinearPath.
+     * The first and the last point of the path are used as entry points.
+     * @param points Points of a cluster.
+     * @return Sub tour containing the path through all points.
+     */
+    @Override
+    public Subtour solve(Collection<Point> points) {
+        List<Point> path = LinearPath.findPath(points);
+        Tuple<Point, Point> entryPoints = new Tuple<>(path.get(0), path.get(path.size()-1));
+        return new Subtour(new Tour(path), entryPoints, Distance.calculatePathLength(path));
+    }
+}
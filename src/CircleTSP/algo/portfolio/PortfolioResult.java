@@ -0,0 +1,108 @@
+package CircleTSP.algo.portfolio;
+
+import CircleTSP.entities.Subtour;
+
+import java.util.*;
+
+/**
+ * Statistics of a SubtourPortfolio run on a single cluster, containing the winning sub tour,
+ * the name of the solver that won and the runtimes and costs of all solvers that have been started.
+ */
+public class PortfolioResult {
+
+    private int numPoints;
+    private Subtour subtour;
+    private String winner;
+    private boolean optimal;
+
+    private Map<String, Double> runtimes = new LinkedHashMap<>();
+    private Map<String, Double> costs = new LinkedHashMap<>();
+    private Set<String> cancelled = new LinkedHashSet<>();
+    private Set<String> failed = new LinkedHashSet<>();
+
+    PortfolioResult(int numPoints) {
+        this.numPoints = numPoints;
+    }
+
+    void setWinner(String winner, Subtour subtour, boolean optimal) {
+        this.winner = winner;
+        this.subtour = subtour;
+        this.optimal = optimal;
+    }
+
+    void addFinished(String solver, double runtime, double cost) {
+        runtimes.put(solver, runtime);
+        costs.put(solver, cost);
+    }
+
+    void addCancelled(String solver, double runtime) {
+        runtimes.put(solver, runtime);
+        cancelled.add(solver);
+    }
+
+    void addFailed(String solver, double runtime) {
+        runtimes.put(solver, runtime);
+        failed.add(solver);
+    }
+
+    public int getNumPoints() {
+        return numPoints;
+    }
+
+    public Subtour getSubtour() {
+        return subtour;
+    }
+
+    public String getWinner() {
+        return winner;
+    }
+
+    /**
+     * @return True if the winning sub tour has been calculated by an exact solver and is therefore an optimal
+     * closed tour.
+     */
+    public boolean isOptimal() {
+        return optimal;
+    }
+
+    /**
+     * @return Runtimes in milliseconds of all started solvers. For cancelled solvers this is the time until they
+     * have been cancelled.
+     */
+    public Map<String, Double> getRuntimes() {
+        return Collections.unmodifiableMap(runtimes);
+    }
+
+    /**
+     * @return Costs of the sub tours of all solvers that finished.
+     */
+    public Map<String, Double> getCosts() {
+        return Collections.unmodifiableMap(costs);
+    }
+
+    public Set<String> getCancelled() {
+        return Collections.unmodifiableSet(cancelled);
+    }
+
+    public Set<String> getFailed() {
+        return Collections.unmodifiableSet(failed);
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner sj = new StringJoiner(", ");
+        for (Map.Entry<String, Double> runtime : runtimes.entrySet()) {
+            String solver = runtime.getKey();
+            String state;
+            if (cancelled.contains(solver))
+                state = "cancelled";
+            else if (failed.contains(solver))
+                state = "failed";
+            else
+                state = "costs " + costs.get(solver);
+            sj.add(solver + ": " + runtime.getValue() + "ms (" + state + ")");
+        }
+        return "Cluster with " + numPoints + " points, winner: " + winner + (optimal ? " (optimal)" : "")
+                + " [" + sj + "]";
+    }
+}
@@ -0,0 +1,209 @@
+package CircleTSP.algo.portfolio;
+
+import CircleTSP.entities.Point;
+import CircleTSP.entities.Subtour;
+import CircleTSP.util.Distance;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Portfolio of sub tour solvers that are raced against each other on the points of a cluster.
+ * All applicable solvers are started concurrently and the sub tour with the lowest costs is used.
+ * The race ends if all solvers have finished, if a provably optimal sub tour has been found by an exact solver,
+ * if a sub tour is good enough compared to a lower bound of the cluster or if the deadline is reached.
+ * The sub tour with the lowest costs among all finished solvers wins the race.
+ * Solvers that are still running at this point are cancelled by interrupting them.
+ *
+ * Costs of paths and closed tours are compared the same way as in PathCircleTSP: by the length of the path and
+ * the length of the closed tour respectively.
+ */
+public class SubtourPortfolio {
+
+    private static final long DEFAULT_TIME_BUDGET = 1000;
+
+    // Lower bounds are calculated with Prim's algorithm in O(n^2), which is skipped for large clusters
+    private static final int MAX_LOWER_BOUND_POINTS = 2048;
+
+    private List<SubtourSolver> solvers;
+    private ExecutorService executor;
+    private long timeBudget;
+    private double tolerance;
+
+    /**
+     * Creates a portfolio of CircleTSP, LinearPath, AllStar and an exact solver for small clusters,
+     * that stops as soon as an optimal sub tour has been found or the default time budget of a second is used up.
+     * The solvers are started on a cached thread pool of daemon threads that is shared by all default portfolios.
+     */
+    public SubtourPortfolio() {
+        this(List.of(new CircleSubtourSolver(), new LinearPathSubtourSolver(),
+                new AllStarSubtourSolver(), new ExactSubtourSolver()),
+                DefaultExecutorHolder.EXECUTOR, DEFAULT_TIME_BUDGET, 0);
+    }
+
+    /**
+     * @param solvers Solvers to race against each other. Solvers must not modify shared state of the points (e.g.
+     *                their angle) concurrently, therefore only one solver based on CircleTSP should be part of a
+     *                portfolio.
+     * @param executor Executor the solvers are started on. Since the portfolio waits for the solvers, this should not
+     *                 be the executor of the cluster solver that uses the portfolio.
+     * @param timeBudget Time in milliseconds a cluster solver may spend on all clusters of a tour.
+     * @param tolerance A sub tour is good enough and ends the race if its costs are at most (1 + tolerance) times a
+     *                  lower bound of the cluster. A tolerance of 0 disables this criterion.
+     */
+    public SubtourPortfolio(List<SubtourSolver> solvers, ExecutorService executor,
+                            long timeBudget, double tolerance) {
+        if (solvers.isEmpty())
+            throw new IllegalArgumentException("A portfolio needs at least one solver!");
+        if (timeBudget < 0)
+            throw new IllegalArgumentException("The time budget can't be negative!");
+        this.solvers = List.copyOf(solvers);
+        this.executor = executor;
+        this.timeBudget = timeBudget;
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Creates the shared executor of the default portfolios when it is first used. Idle threads of the cached pool
+     * terminate after a minute, so the pool doesn't have to be shut down.
+     */
+    private static class DefaultExecutorHolder {
+
+        private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "SubtourPortfolio");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public long getTimeBudget() {
+        return timeBudget;
+    }
+
+    public List<SubtourSolver> getSolvers() {
+        return solvers;
+    }
+
+    ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Races all applicable solvers of this portfolio on the points of a cluster.
+     * If no solver has finished when the deadline is reached, the portfolio waits for the first solver to finish.
+     * @param points Points of a cluster.
+     * @param deadline Point in time (as returned by System.nanoTime()) at which all solvers are cancelled.
+     * @return Statistics of the race, containing the sub tour with the lowest costs.
+     * @throws IllegalStateException If no solver was able to calculate a sub tour.
+     */
+    public PortfolioResult solve(Collection<Point> points, long deadline) {
+        PortfolioResult result = new PortfolioResult(points.size());
+        long start = System.nanoTime();
+
+        CompletionService<Subtour> completionService = new ExecutorCompletionService<>(executor);
+        Map<Future<Subtour>, SubtourSolver> running = new LinkedHashMap<>();
+        Map<SubtourSolver, Double> runtimes = new ConcurrentHashMap<>();
+        for (SubtourSolver solver : solvers) {
+            if (!solver.isApplicable(points))
+                continue;
+            Future<Subtour> future = completionService.submit(() -> {
+                long time1 = System.nanoTime();
+                try {
+                    return solver.solve(points);
+                } finally {
+                    runtimes.put(solver, (System.nanoTime() - time1) / 1000000.0);
+                }
+            });
+            running.put(future, solver);
+        }
+
+        // Calculate a lower bound while the solvers are running
+        double goodEnough = Double.NEGATIVE_INFINITY;
+        if (tolerance > 0 && points.size() <= MAX_LOWER_BOUND_POINTS)
+            goodEnough = (1 + tolerance) * minimumSpanningTreeLength(points);
+
+        Subtour best = null;
+        SubtourSolver bestSolver = null;
+        try {
+            while (!running.isEmpty()) {
+                Future<Subtour> future;
+                long remaining = deadline - System.nanoTime();
+                if (remaining > 0)
+                    future = completionService.poll(remaining, TimeUnit.NANOSECONDS);
+                else if (best == null)
+                    // Wait for any sub tour if no solver finished in time
+                    future = completionService.take();
+                else
+                    break;
+                if (future == null)
+                    continue;
+
+                SubtourSolver solver = running.remove(future);
+                try {
+                    Subtour subtour = future.get();
+                    result.addFinished(solver.getName(), runtimes.get(solver), subtour.getCosts());
+                    if (best == null || subtour.getCosts() < best.getCosts()) {
+                        best = subtour;
+                        bestSolver = solver;
+                    }
+                    // An optimal closed tour can't be improved by the remaining closed tour solvers and paths that
+                    // finished earlier have already been compared to it, so the race ends here
+                    if (solver.isExact() || subtour.getCosts() <= goodEnough)
+                        break;
+                } catch (ExecutionException | CancellationException e) {
+                    result.addFailed(solver.getName(), runtimes.getOrDefault(solver, 0.0));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("The portfolio has been interrupted!");
+        } finally {
+            // Cancel the losers
+            for (Map.Entry<Future<Subtour>, SubtourSolver> loser : running.entrySet()) {
+                loser.getKey().cancel(true);
+                result.addCancelled(loser.getValue().getName(), (System.nanoTime() - start) / 1000000.0);
+            }
+        }
+
+        if (best == null)
+            throw new IllegalStateException("No solver of the portfolio could calculate a sub tour!");
+        result.setWinner(bestSolver.getName(), best, bestSolver.isExact());
+        return result;
+    }
+
+    /**
+     * Calculates the length of a minimum spanning tree of the points using Prim's algorithm, which is a lower bound
+     * for both the shortest path and the shortest closed tour through all points.
+     * @param points Points of a cluster.
+     * @return Length of a minimum spanning tree.
+     */
+    static double minimumSpanningTreeLength(Collection<Point> points) {
+        Point[] vertices = points.toArray(new Point[0]);
+        int n = vertices.length;
+        if (n < 2)
+            return 0;
+
+        double[] minDistance = new double[n];
+        boolean[] inTree = new boolean[n];
+        Arrays.fill(minDistance, Double.POSITIVE_INFINITY);
+        minDistance[0] = 0;
+
+        double length = 0;
+        for (int i = 0; i < n; i++) {
+            int next = -1;
+            for (int j = 0; j < n; j++)
+                if (!inTree[j] && (next == -1 || minDistance[j] < minDistance[next]))
+                    next = j;
+            inTree[next] = true;
+            length += minDistance[next];
+            for (int j = 0; j < n; j++) {
+                if (!inTree[j]) {
+                    double distance = Distance.euclidianDistance(vertices[next], vertices[j]);
+                    if (distance < minDistance[j])
+                        minDistance[j] = distance;
+                }
+            }
+        }
+        return length;
+    }
+}
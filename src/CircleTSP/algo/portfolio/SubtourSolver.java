@@ -0,0 +1,34 @@
+package CircleTSP.algo.portfolio;
+
+import CircleTSP.entities.Point;
+import CircleTSP.entities.Subtour;
+
+import java.util.Collection;
+
+/**
+ * Algorithm that calculates a sub tour for the points of a single cluster and can be raced against other
+ * sub tour solvers in a SubtourPortfolio.
+ * Long running implementations should stop with a CancellationException if the thread running them is interrupted.
+ */
+public interface SubtourSolver {
+
+    String getName();
+
+    /**
+     * Checks if this solver is able to calculate a sub tour for the points in reasonable time.
+     * @param points Points of a cluster.
+     * @return True if the solver shall be started for the cluster.
+     */
+    default boolean isApplicable(Collection<Point> points) {
+        return true;
+    }
+
+    /**
+     * @return True if the sub tours calculated by this solver are provably optimal.
+     */
+    default boolean isExact() {
+        return false;
+    }
+
+    Subtour solve(Collection<Point> points);
+}
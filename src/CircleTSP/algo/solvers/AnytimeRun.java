@@ -0,0 +1,196 @@
+package CircleTSP.algo.solvers;
+
+import CircleTSP.entities.Tour;
+import CircleTSP.util.Distance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Handle of a single AnytimeTSP run, that holds the best tour found so far and the history of its improvements.
+ * The best tour is available from the start and is replaced whenever a stage of the run finds a shorter tour.
+ * @see AnytimeTSP#start(java.util.Collection, long)
+ */
+public class AnytimeRun {
+
+    /**
+     * Length of a new best tour and the time it has been found at.
+     */
+    public static class Improvement {
+
+        private final String stage;
+        private final double elapsedTime;
+        private final double length;
+
+        Improvement(String stage, double elapsedTime, double length) {
+            this.stage = stage;
+            this.elapsedTime = elapsedTime;
+            this.length = length;
+        }
+
+        /**
+         * @return Name of the stage that found the tour.
+         */
+        public String getStage() {
+            return stage;
+        }
+
+        /**
+         * @return Time in milliseconds since the start of the run.
+         */
+        public double getElapsedTime() {
+            return elapsedTime;
+        }
+
+        public double getLength() {
+            return length;
+        }
+
+        @Override
+        public String toString() {
+            return stage + ": " + length + " after " + elapsedTime + "ms";
+        }
+    }
+
+    private final int numPoints;
+    private final long startTime;
+    private final long deadline;
+    private final long stopMargin;
+    private final TourPublisher publisher;
+    private Thread worker;
+
+    private volatile Tour bestTour;
+    private volatile double bestLength = Double.POSITIVE_INFINITY;
+    private final List<Improvement> history = new ArrayList<>();
+    private final Map<String, RuntimeException> failures = new LinkedHashMap<>();
+
+    AnytimeRun(int numPoints, long startTime, long deadline, long stopMargin, TourPublisher publisher) {
+        this.numPoints = numPoints;
+        this.startTime = startTime;
+        this.deadline = deadline;
+        this.stopMargin = stopMargin;
+        this.publisher = publisher;
+    }
+
+    void start(Thread worker) {
+        this.worker = worker;
+        worker.start();
+    }
+
+    /**
+     * Replaces the best tour, if the tour contains all points and is shorter than the best tour.
+     * @param stage Name of the stage that found the tour.
+     * @param tour Tour found by the stage.
+     * @return True if the tour is the new best tour.
+     */
+    boolean offer(String stage, Tour tour) {
+        if (tour == null || tour.size() != numPoints)
+            return false;
+        double length = numPoints > 1 ? Distance.calculateTourLength(tour) : 0;
+        synchronized (this) {
+            if (length >= bestLength)
+                return false;
+            bestTour = tour;
+            bestLength = length;
+            double elapsedTime = (System.nanoTime() - startTime) / 1000000.0;
+            history.add(new Improvement(stage, elapsedTime, length));
+            if (publisher != null)
+                publisher.submit(stage, elapsedTime, tour, length);
+            return true;
+        }
+    }
+
+    /**
+     * Records the exception of a stage that failed. The best tour is not affected by a failing stage.
+     * @param stage Name of the stage.
+     * @param e Exception thrown by the stage.
+     */
+    synchronized void addFailure(String stage, RuntimeException e) {
+        failures.put(stage, e);
+    }
+
+    /**
+     * @return Exceptions of the stages that failed so far by the names of the stages.
+     */
+    public synchronized Map<String, RuntimeException> getFailures() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+    }
+
+    /**
+     * @return Best tour found so far. The tour must not be modified.
+     */
+    public Tour getBestTour() {
+        return bestTour;
+    }
+
+    public double getBestLength() {
+        return bestLength;
+    }
+
+    /**
+     * @return Improvements of the best tour in the order they have been found, starting with the tour of CircleTSP.
+     */
+    public synchronized List<Improvement> getHistory() {
+        return Collections.unmodifiableList(new ArrayList<>(history));
+    }
+
+    /**
+     * @return Point in time (as returned by System.nanoTime()) at which the best tour is returned by awaitResult.
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * @return True if all stages have finished or the run has been stopped.
+     */
+    public boolean isDone() {
+        return !worker.isAlive();
+    }
+
+    /**
+     * Stops the improvement of the tour. Stages that are currently running leave their partially improved tour.
+     */
+    public void stop() {
+        worker.interrupt();
+    }
+
+    /**
+     * Waits until all stages have finished or the deadline is reached and returns the best tour found so far.
+     * Shortly before the deadline the running stage is stopped, so that its partially improved tour can still be
+     * taken into account if it is delivered in time. Tours delivered after the deadline are only available through
+     * getBestTour.
+     * @return Best tour found until the deadline.
+     */
+    public Tour awaitResult() {
+        try {
+            joinUntil(deadline - stopMargin);
+            stop();
+            joinUntil(deadline);
+        } catch (InterruptedException e) {
+            stop();
+            Thread.currentThread().interrupt();
+        }
+        return bestTour;
+    }
+
+    private void joinUntil(long time) throws InterruptedException {
+        long remaining = time - System.nanoTime();
+        if (remaining > 0)
+            worker.join(remaining / 1000000, (int) (remaining % 1000000));
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner sj = new StringJoiner(", ");
+        for (Improvement improvement : getHistory())
+            sj.add(improvement.toString());
+        for (Map.Entry<String, RuntimeException> failure : getFailures().entrySet())
+            sj.add(failure.getKey() + ": failed (" + failure.getValue() + ")");
+        return "Anytime run with " + numPoints + " points [" + sj + "]";
+    }
+}
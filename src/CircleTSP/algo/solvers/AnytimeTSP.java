@@ -0,0 +1,250 @@
+package CircleTSP.algo.solvers;
+
+import CircleTSP.algo.improvement.LinKernighan;
+import CircleTSP.algo.improvement.LocalSearch;
+import CircleTSP.algo.improvement.NeighborLists;
+import CircleTSP.algo.improvement.OrOpt;
+import CircleTSP.algo.improvement.TourImprover;
+import CircleTSP.entities.Point;
+import CircleTSP.entities.Tour;
+import CircleTSP.entities.TourOrder;
+import CircleTSP.util.Distance;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Anytime solver for applications with a fixed time budget.
+ * The tour of CircleTSP is available immediately, afterwards it is improved in the background by a sequence of
+ * stages, each of which starts from the best tour found so far. Whenever the deadline is reached, the best tour found
+ * until then is returned, together with a history of the tour length over the elapsed time.
+ * By default clustered tours are tried for small instances, followed by a 2-opt/Or-opt local search and a
+ * Lin-Kernighan style local search.
+ */
+public class AnytimeTSP implements TSPSolver {
+
+    /**
+     * Step of an anytime run, that calculates a new tour from the points or improves the best tour found so far.
+     * Stages should return as soon as possible if their thread is interrupted. Exceptions thrown by a stage are
+     * recorded on the run (see AnytimeRun.getFailures) and the run continues with the next stage.
+     */
+    public interface Stage {
+
+        String getName();
+
+        /**
+         * @param points Points of the run.
+         * @param bestTour Best tour found so far, which must not be modified.
+         * @return New tour containing all points or null if the stage is not applicable.
+         */
+        Tour calculateTour(List<Point> points, Tour bestTour);
+    }
+
+    // DBSCAN takes quadratic time, therefore clustered tours are only tried for small instances
+    public static final int MAX_CLUSTER_POINTS = 5000;
+    private static final int MIN_PTS = 4;
+    private static final double[] EPSILON_FACTORS = {1, 1.5, 2, 3};
+
+    // Time in nanoseconds reserved for converting and measuring the tour of an interrupted stage before the deadline
+    private static final long MIN_STOP_MARGIN = 5000000;
+    private static final long STOP_MARGIN_PER_POINT = 1000;
+
+    private final List<Stage> stages;
+
+    /**
+     * Creates an anytime solver with the default stages: ClusteredCircleTSP for up to MAX_CLUSTER_POINTS points,
+     * 2-opt and Or-opt, and Lin-Kernighan and Or-opt.
+     */
+    public AnytimeTSP() {
+        this(List.of(clusterStage(MAX_CLUSTER_POINTS),
+                improverStage("LocalSearch", new LocalSearch(), NeighborLists.DEFAULT_SIZE),
+                improverStage("LinKernighan", new LocalSearch(new LinKernighan(8, 5, 3, 2), new OrOpt()),
+                        LinKernighanTSP.NUM_NEIGHBORS)));
+    }
+
+    /**
+     * @param stages Stages that are run one after another in the given order.
+     */
+    public AnytimeTSP(List<Stage> stages) {
+        if (stages == null)
+            throw new IllegalArgumentException("The stages of an anytime solver can't be null!");
+        this.stages = List.copyOf(stages);
+    }
+
+    public List<Stage> getStages() {
+        return stages;
+    }
+
+    /**
+     * Calculates the tour of CircleTSP and starts improving it in the background.
+     * Since CircleTSP tags the points with their angles, the points must not be passed to other solvers while the
+     * run is active.
+     * @param points Set of points to calculate a tour from.
+     * @param deadline Point in time (as returned by System.nanoTime()) at which the best tour is returned.
+     * @return Handle of the run, whose best tour is already available.
+     */
+    public AnytimeRun start(Collection<Point> points, long deadline) {
+        return start(points, deadline, null);
+    }
+
+    /**
+     * Calculates the tour of CircleTSP and starts improving it in the background, while every new best tour is
+     * published to the subscribers of a publisher. The publisher is closed once all stages have finished or the run
+     * has been stopped.
+     * @param points Set of points to calculate a tour from.
+     * @param deadline Point in time (as returned by System.nanoTime()) at which the best tour is returned.
+     * @param publisher Publisher of the improved tours or null.
+     * @return Handle of the run, whose best tour is already available.
+     */
+    public AnytimeRun start(Collection<Point> points, long deadline, TourPublisher publisher) {
+        long startTime = System.nanoTime();
+        List<Point> pointList = new ArrayList<>(points);
+        long stopMargin = Math.max(MIN_STOP_MARGIN, STOP_MARGIN_PER_POINT * pointList.size());
+        AnytimeRun run = new AnytimeRun(pointList.size(), startTime, deadline, stopMargin, publisher);
+        run.offer("CircleTSP", CircleTSP.calculateTour(pointList));
+
+        Thread worker = new Thread(() -> {
+            try {
+                for (Stage stage : stages) {
+                    if (Thread.currentThread().isInterrupted())
+                        break;
+                    try {
+                        run.offer(stage.getName(), stage.calculateTour(pointList, run.getBestTour()));
+                    } catch (RuntimeException e) {
+                        // A failing stage does not invalidate the best tour, continue with the next stage
+                        run.addFailure(stage.getName(), e);
+                    }
+                }
+            } finally {
+                if (publisher != null)
+                    publisher.close();
+            }
+        }, "AnytimeTSP");
+        worker.setDaemon(true);
+        run.start(worker);
+        return run;
+    }
+
+    /**
+     * Calculates a tour within a time budget.
+     * @param points Set of points to calculate a tour from.
+     * @param timeBudget Time in milliseconds after which the best tour found so far is returned.
+     * @return A tour containing all points.
+     */
+    public Tour calculateTour(Collection<Point> points, long timeBudget) {
+        if (timeBudget < 0)
+            throw new IllegalArgumentException("The time budget can't be negative!");
+        return start(points, System.nanoTime() + timeBudget * 1000000).awaitResult();
+    }
+
+    /**
+     * Calculates a tour until the deadline of the context of the options, measured as phase "anytime".
+     * The result contains the number of improvements as parameter "improvements".
+     * @param points Set of points to calculate a tour from.
+     * @param options Options of the run, whose context must have a deadline.
+     * @return Future of the best tour found until the deadline.
+     */
+    @Override
+    public CompletableFuture<SolveResult> solveAsync(Collection<Point> points, SolveOptions options) {
+        if (!options.getContext().hasDeadline())
+            throw new IllegalArgumentException("An anytime run needs a deadline!");
+        return PhaseTimer.solveAsync(options, timer -> {
+            timer.start("anytime");
+            AnytimeRun run = start(points, options.getContext().getDeadline());
+            Tour tour = run.awaitResult();
+            timer.stop();
+            timer.putParameter("improvements", run.getHistory().size());
+            return tour;
+        });
+    }
+
+    /**
+     * Creates a stage that improves the best tour with a tour improver. If the stage is interrupted, the partially
+     * improved tour is returned.
+     * @param name Name of the stage.
+     * @param tourImprover Improver that is applied to the best tour.
+     * @param numNeighbors Number of nearest neighbors in the candidate lists of every point.
+     * @return Stage improving the best tour.
+     */
+    public static Stage improverStage(String name, TourImprover tourImprover, int numNeighbors) {
+        if (numNeighbors < 1)
+            throw new IllegalArgumentException("The number of neighbors has to be at least 1!");
+        return new Stage() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Tour calculateTour(List<Point> points, Tour bestTour) {
+                if (bestTour.size() < 5)
+                    return null;
+                TourOrder tour = TourImprover.createTourOrder(bestTour);
+                tourImprover.improve(tour, new NeighborLists(tour, numNeighbors));
+                return tour.toTour();
+            }
+        };
+    }
+
+    /**
+     * Creates a stage that calculates tours with ClusteredCircleTSP for several values of epsilon and returns the
+     * shortest one. If ClusteredCircleTSP fails for any value of epsilon, the stage fails as well. Epsilon is chosen relative to the average distance between neighboring points of a uniform
+     * distribution over the bounding box of the points, instead of learning it with the ParameterLearner.
+     * @param maxPoints Maximum number of points the stage is applied to.
+     * @return Stage calculating clustered tours.
+     */
+    public static Stage clusterStage(int maxPoints) {
+        return new Stage() {
+            @Override
+            public String getName() {
+                return "ClusteredCircleTSP";
+            }
+
+            @Override
+            public Tour calculateTour(List<Point> points, Tour bestTour) {
+                if (points.size() > maxPoints || points.size() < 2 * MIN_PTS)
+                    return null;
+                ClusteredCircleTSP solver = new ClusteredCircleTSP();
+                double spacing = averageSpacing(points);
+                Tour best = null;
+                double bestLength = Double.POSITIVE_INFINITY;
+                for (double factor : EPSILON_FACTORS) {
+                    if (Thread.currentThread().isInterrupted())
+                        break;
+                    Tour tour = solver.calculateTour(points, MIN_PTS, factor * spacing);
+                    if (tour.size() != points.size())
+                        continue;
+                    double length = Distance.calculateTourLength(tour);
+                    if (length < bestLength) {
+                        best = tour;
+                        bestLength = length;
+                    }
+                }
+                return best;
+            }
+        };
+    }
+
+    /**
+     * Estimates the average distance between neighboring points by the side length of the square that each point
+     * would cover if the points were uniformly distributed over their bounding box.
+     */
+    static double averageSpacing(List<Point> points) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (Point point : points) {
+            double[] coordinates = point.getCoordinates();
+            minX = Math.min(minX, coordinates[0]);
+            minY = Math.min(minY, coordinates[1]);
+            maxX = Math.max(maxX, coordinates[0]);
+            maxY = Math.max(maxY, coordinates[1]);
+        }
+        double width = maxX - minX, height = maxY - minY;
+        // Points on a line cover an area of zero
+        if (width == 0 || height == 0)
+            return Math.max(width, height) / points.size();
+        return Math.sqrt(width * height / points.size());
+    }
+}
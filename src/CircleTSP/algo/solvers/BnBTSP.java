@@ -5,31 +5,44 @@ package CircleTSP.algo.solvers;
 
 import CircleTSP.entities.Tour;
 import CircleTSP.util.Distance;
+import CircleTSP.util.SolveContext;
 import CircleTSP.entities.Point;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 
-public class BnBTSP
+public class BnBTSP implements TSPSolver
 {
 
-    private static int N;
+    // The state of a search is kept per instance, so that several
+    // searches can run concurrently (e.g. in a SubtourPortfolio).
+    private final int N;
 
     // final_path[] stores the final solution ie, the
     // path of the salesman.
-    private static int[] final_path;
+    private final int[] final_path;
 
     // visited[] keeps track of the already visited nodes
     // in a particular path
-    private static boolean[] visited;
+    private final boolean[] visited;
 
     // Stores the final minimum weight of shortest tour.
-    private static double final_res = Double.MAX_VALUE;
+    private double final_res = Double.MAX_VALUE;
+
+    // Context that is checked at every node of the search
+    // and receives the progress, and the number of
+    // branches of the root node that have been searched.
+    private final SolveContext context;
+    private int searchedBranches;
 
     // Function to copy temporary solution to
     // the final solution
-    private static void copyToFinal(int[] curr_path)
+    private void copyToFinal(int[] curr_path)
     {
         if (N >= 0) System.arraycopy(curr_path, 0, final_path, 0, N);
         final_path[N] = curr_path[0];
@@ -37,7 +50,7 @@ public class BnBTSP
 
     // Function to find the minimum Edge cost
     // having an end at the vertex i
-    private static double firstMin(double[][] adj, int i)
+    private double firstMin(double[][] adj, int i)
     {
         double min = Double.MAX_VALUE;
         for (int k = 0; k < N; k++)
@@ -48,7 +61,7 @@ public class BnBTSP
 
     // function to find the second minimum Edge cost
     // having an end at the vertex i
-    private static double secondMin(double[][] adj, int i)
+    private double secondMin(double[][] adj, int i)
     {
         double first = Integer.MAX_VALUE;
         double second = Integer.MAX_VALUE;
@@ -76,9 +89,13 @@ public class BnBTSP
     //       space tree
     // curr_path[] -> where the solution is being stored which
     //           would later be copied to final_path[]
-    private static void TSPRec(double[][] adj, double curr_bound, double curr_weight,
-                               int level, int[] curr_path)
+    private void TSPRec(double[][] adj, double curr_bound, double curr_weight,
+                        int level, int[] curr_path)
     {
+        // stop the search if it has been cancelled, its deadline
+        // has passed or the thread running it has been interrupted
+        context.checkCancelled("The branch and bound search");
+
         // base case is when we have reached level N which
         // means we have covered all the nodes once
         if (level == N)
@@ -98,6 +115,7 @@ public class BnBTSP
                 {
                     copyToFinal(curr_path);
                     final_res = curr_res;
+                    context.reportProgress("BnB", (double) searchedBranches / (N - 1), final_res);
                 }
             }
             return;
@@ -148,12 +166,19 @@ public class BnBTSP
                 Arrays.fill(visited,false);
                 for (int j = 0; j <= level - 1; j++)
                     visited[curr_path[j]] = true;
+
+                if (level == 1)
+                {
+                    searchedBranches++;
+                    context.reportProgress("BnB", (double) searchedBranches / (N - 1),
+                            final_res == Double.MAX_VALUE ? Double.NaN : final_res);
+                }
             }
         }
     }
 
     // This function sets up final_path[]
-    private static void TSP(double[][] adj)
+    private void TSP(double[][] adj)
     {
         int[] curr_path = new int[N + 1];
 
@@ -184,12 +209,52 @@ public class BnBTSP
         TSPRec(adj, curr_bound, 0, 1, curr_path);
     }
 
-    // "Main" method
-    public static Tour Run(List<Point> P)
+    private BnBTSP(int n, SolveContext context)
     {
-        N = P.size();
+        N = n;
         visited = new boolean[N];
         final_path = new int[N + 1];
+        this.context = context;
+    }
+
+    // Creates a solver for solveAsync, every search
+    // runs on its own instance with the context of its
+    // options.
+    public BnBTSP()
+    {
+        this(0, new SolveContext());
+    }
+
+    // Searches an optimal tour on the executor of the options,
+    // measured as phase "search". The tour returns to its
+    // first point.
+    @Override
+    public CompletableFuture<SolveResult> solveAsync(Collection<Point> points, SolveOptions options)
+    {
+        return PhaseTimer.solveAsync(options, timer -> {
+            timer.start("search");
+            Tour tour = Run(new ArrayList<>(points), options.getContext());
+            timer.stop();
+            return tour;
+        });
+    }
+
+    // "Main" method
+    // Throws a CancellationException if the calling thread is
+    // interrupted during the search.
+    public static Tour Run(List<Point> P)
+    {
+        return Run(P, new SolveContext());
+    }
+
+    // Throws a CancellationException if the context is cancelled
+    // during the search. If the deadline of the context passes,
+    // the best tour found so far is returned, or a
+    // CancellationException is thrown if no tour has been found.
+    public static Tour Run(List<Point> P, SolveContext context)
+    {
+        BnBTSP bnb = new BnBTSP(P.size(), context);
+        int N = bnb.N;
 
         // Create distance matrix
         double[][] dist = new double[N][N];
@@ -201,10 +266,15 @@ public class BnBTSP
             }
         }
 
-        TSP(dist);
+        try {
+            bnb.TSP(dist);
+        } catch (CancellationException e) {
+            if (context.isCancelled() || bnb.final_res == Double.MAX_VALUE)
+                throw e;
+        }
 
         Tour result = new Tour();
-        for (int node:final_path) {
+        for (int node:bnb.final_path) {
             result.add(P.get(node));
         }
         return result;
@@ -2,12 +2,14 @@ package CircleTSP.algo.solvers;
 
 import CircleTSP.algo.estimators.AverageCenter;
 import CircleTSP.algo.estimators.CenterpointEstimator;
+import CircleTSP.algo.improvement.TourImprover;
 import CircleTSP.algo.sorting.BucketSort;
-import CircleTSP.algo.sorting.PointSorter;
 import CircleTSP.entities.Point;
 import CircleTSP.entities.Tour;
+import CircleTSP.util.SolveContext;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 
 /**
@@ -67,10 +69,31 @@ public class CircleTSP implements TSPSolver {
     }
 
     public static Tour calculateTour(Collection<Point> points) {
+        return calculateTour(points, new SolveContext());
+    }
+
+    /**
+     * Calculates a tour by sorting the points by their angle around the center point.
+     * @param points Points to calculate a tour from.
+     * @param context Context of the computation, which is checked by the sorting threads.
+     * @return A tour containing all points.
+     * @throws java.util.concurrent.CancellationException If the context has been cancelled or its deadline has passed.
+     */
+    public static Tour calculateTour(Collection<Point> points, SolveContext context) {
+        return calculateTour(points, context, new PhaseTimer());
+    }
+
+    /**
+     * Calculates a tour like calculateTour(points, context), while measuring the phases "center", "angles" and
+     * "sort".
+     */
+    private static Tour calculateTour(Collection<Point> points, SolveContext context, PhaseTimer timer) {
         // Step 1: Find a center point for all given points
+        timer.start("center");
         Point center = getCenterPoint(points);
 
         // Step 2: Move all points according to found center, project point to unit circle and calculate angle
+        timer.start("angles");
         for (Point p : points) {
 
             double x = p.getCoordinates()[0] - center.getCoordinates()[0];
@@ -83,11 +106,36 @@ public class CircleTSP implements TSPSolver {
         // Step 3: Sort points
         // TODO: Let user define startpoint
         // TODO: Evaluate if relative scaling performs better than absolute scaling by 360 degrees
-        PointSorter bucketSort = new BucketSort();
+        BucketSort bucketSort = new BucketSort();
 
         for (Point p : points)
             p.setAngle(p.getAngle() / 360);
-        return new Tour(bucketSort.sort(new LinkedList<>(points)));
+        timer.start("sort");
+        int numBuckets = (int) Math.ceil(((double) points.size()) / 4.0);
+        Tour tour = new Tour(bucketSort.sort(new LinkedList<>(points), numBuckets, 1, context));
+        timer.stop();
+        return tour;
+    }
+
+    /**
+     * Calculates a tour with CircleTSP, measuring the phases "center", "angles" and "sort".
+     * @param points Set of points to calculate a tour from.
+     * @param options Options of the run, of which only the executor and the context are used.
+     * @return Future of the tour.
+     */
+    @Override
+    public CompletableFuture<SolveResult> solveAsync(Collection<Point> points, SolveOptions options) {
+        return PhaseTimer.solveAsync(options, timer -> calculateTour(points, options.getContext(), timer));
+    }
+
+    /**
+     * Calculates a tour using CircleTSP and improves it afterwards.
+     * @param points Points to calculate a tour from.
+     * @param tourImprover Post-optimization stage applied to the tour.
+     * @return Improved tour containing all points.
+     */
+    public static Tour calculateTour(Collection<Point> points, TourImprover tourImprover) {
+        return tourImprover.improve(calculateTour(points));
     }
 
     public static Point getCenterPoint(Collection<Point> points) {
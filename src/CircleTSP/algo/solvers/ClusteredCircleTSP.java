@@ -2,13 +2,49 @@ package CircleTSP.algo.solvers;
 
 import CircleTSP.algo.cluster.DBSCAN;
 import CircleTSP.algo.estimators.EntrypointHeuristic;
-import CircleTSP.algo.estimators.IntersectingEdges;
+import CircleTSP.algo.improvement.TourImprover;
 import CircleTSP.entities.*;
+import CircleTSP.util.Distance;
+import CircleTSP.util.SolveContext;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 public class ClusteredCircleTSP extends TSPClusterSolver {
 
+    // Global tours through less points are calculated directly with CircleTSP instead of clustering them again
+    private static final int MIN_LEVEL_POINTS = 64;
+
+    private int maxLevels = 1;
+
+    public ClusteredCircleTSP() {
+        super();
+    }
+
+    public ClusteredCircleTSP(Executor executor) {
+        super(executor);
+    }
+
+    public int getMaxLevels() {
+        return maxLevels;
+    }
+
+    /**
+     * Sets the maximum number of clustering levels.
+     * With a single level (default) the global tour through cluster centers and noise points is calculated with
+     * CircleTSP. With multiple levels the cluster centers and noise points are clustered again recursively, with an
+     * epsilon that is scaled to the lower density of the next level, until the maximum number of levels is reached,
+     * no further clusters are found or less than 64 points are left.
+     * The tours of all levels are merged back down using mergeTours.
+     * @param maxLevels Maximum number of clustering levels, at least 1.
+     */
+    public void setMaxLevels(int maxLevels) {
+        if (maxLevels < 1)
+            throw new IllegalArgumentException("A cluster solver needs at least one level!");
+        this.maxLevels = maxLevels;
+    }
+
     /** Enhancement of the CircleTSP algorithm using clustering to find sub tours.
      * This algorithm uses DBSCAN to find clusters in a set of points to find
      * sub tours that shall increase the quality of the solution compared to
@@ -22,54 +58,69 @@ public class ClusteredCircleTSP extends TSPClusterSolver {
      *               epsilon-neighborhood to consider a point a core point.
      * @param epsilon DBSCAN parameter, maximum distance in which a point is
      *                considered a neighbor to another point.
+     * @param context Context of the computation, which is checked by the clustering and the sub tours of each level.
      * @return A tour containing all points from pointSet.
+     * @see #setTourImprover(TourImprover) For improving the merged tour.
+     * @see #setMaxLevels(int) For clustering the cluster centers and noise points recursively.
      */
+    @Override
     public Tour calculateTour(Collection<Point> pointSet,
-                                     int minPts, double epsilon) {
-
-        // Create names for cluster centers
-        Deque<String> clusterCenterNames = new ArrayDeque<>();
-        for (char t = 'a'; t <= 'z'; t++)
-            clusterCenterNames.add(""+t);
-        for (char t1 = 'a'; t1 <= 'z'; t1++) {
-            for (char t2 = 'a'; t2 <= 'z'; t2++) {
-                clusterCenterNames.add("" + t1 + t2);
-            }
-        }
+                              int minPts, double epsilon, SolveContext context) {
+        Tour tour = improveTour(calculateLevel(pointSet, minPts, epsilon, 1, context));
+        context.reportProgress("merge", 1, Distance.calculateTourLength(tour));
+        return tour;
+    }
+
+    private Tour calculateLevel(Collection<Point> pointSet, int minPts, double epsilon, int level,
+                                SolveContext context) {
 
         // 1. Find clusters
-        DBSCAN dbscan = new DBSCAN(pointSet, minPts, epsilon);
-        List<Cluster> clusters = dbscan.getClusters();
-
-        // 1.1 Filter clusters
-        clusters.removeIf(cluster -> cluster.getPoints().size() <= 2);
-
-
-        List<Tour> clusterTours = new ArrayList<>();
-        List<Point> clusterCenters = new ArrayList<>();
-        Set<Point> clusterCentersAndNoise = new HashSet<>(Set.copyOf(pointSet));
-        // For each cluster...
-        for (Cluster cluster : clusters) {
-            // 2. Calculate sub tours
-            Collection<Point> clusterPoints = cluster.getPoints();
-            Tour clusterTour = CircleTSP.calculateTour(clusterPoints);
-            clusterTours.add(clusterTour);
-
-            // 3. Replace points of cluster in pointSet with center point of cluster
-            Point clusterCenter = new Point(clusterCenterNames.removeFirst(),
-                    CircleTSP.getCenterPoint(clusterPoints).getCoordinates());
-            clusterCenters.add(clusterCenter);
-
-            clusterCentersAndNoise.removeAll(clusterPoints);
-            clusterCentersAndNoise.add(clusterCenter);
-        }
+        DBSCAN dbscan = new DBSCAN(pointSet, minPts, epsilon, context);
+
+        // 1.1 Filter clusters and collect noise points
+        Tuple<List<List<Point>>, List<Point>> partition = partitionClusters(dbscan.getPoints(),
+                dbscan.getLabels(), dbscan.getNumClusters());
+        List<List<Point>> clusters = partition.getFirst();
+
+        // 2. Start calculating the sub tours of all clusters concurrently
+        List<CompletableFuture<Tour>> clusterTourFutures = submitClusters(clusters,
+                clusterPoints -> CircleTSP.calculateTour(clusterPoints, context), context);
+
+        // 3. Replace points of clusters with the center points of the clusters
+        List<Point> clusterCenters = new ArrayList<>(clusters.size());
+        for (int i = 0; i < clusters.size(); i++)
+            clusterCenters.add(createClusterCenter("cluster" + level + "_", i, clusters.get(i)));
 
-        // 4. Calculate global tour through noise points and cluster centers
-        Tour globalTour = CircleTSP.calculateTour(clusterCentersAndNoise);
+        List<Point> clusterCentersAndNoise = new ArrayList<>(partition.getSecond());
+        clusterCentersAndNoise.addAll(clusterCenters);
 
-        // 5. Merge local cluster tours with global tour using the IntersectingEdges heuristic
-        EntrypointHeuristic heuristic = new IntersectingEdges();
+        // 4. Calculate global tour through noise points and cluster centers, while the sub tours are calculated
+        Tour globalTour;
+        if (level < maxLevels && !clusters.isEmpty() && clusterCentersAndNoise.size() >= MIN_LEVEL_POINTS) {
+            double levelEpsilon = scaleEpsilon(epsilon, pointSet.size(), clusterCentersAndNoise.size());
+            globalTour = calculateLevel(clusterCentersAndNoise, minPts, levelEpsilon, level + 1, context);
+        } else {
+            globalTour = CircleTSP.calculateTour(clusterCentersAndNoise, context);
+        }
+        List<Tour> clusterTours = joinClusters(clusterTourFutures);
+        context.checkCancelled("ClusteredCircleTSP");
+
+        // 5. Merge local cluster tours with global tour using the entry point heuristic of this solver
+        EntrypointHeuristic heuristic = createEntrypointHeuristic();
         return mergeTours(globalTour, CircleTSP.getCenterPoint(clusterCentersAndNoise),
                 clusterTours, clusterCenters, null, heuristic);
     }
+
+    /**
+     * Scales epsilon to the next clustering level.
+     * The points of the next level cover roughly the same area as the points of the current level, so the average
+     * distance between neighboring points grows with the square root of the ratio between the number of points.
+     * @param epsilon Epsilon of the current level.
+     * @param numPoints Number of points of the current level.
+     * @param numLevelPoints Number of cluster centers and noise points, that make up the points of the next level.
+     * @return Epsilon for the next level.
+     */
+    static double scaleEpsilon(double epsilon, int numPoints, int numLevelPoints) {
+        return epsilon * Math.sqrt((double) numPoints / numLevelPoints);
+    }
 }
@@ -0,0 +1,107 @@
+package CircleTSP.algo.solvers;
+
+import CircleTSP.algo.improvement.LinKernighan;
+import CircleTSP.algo.improvement.LocalSearch;
+import CircleTSP.algo.improvement.MatrixTourOrder;
+import CircleTSP.algo.improvement.NeighborLists;
+import CircleTSP.algo.improvement.OrOpt;
+import CircleTSP.algo.improvement.TourImprover;
+import CircleTSP.entities.Point;
+import CircleTSP.entities.Tour;
+import CircleTSP.entities.TourOrder;
+import CircleTSP.util.DistanceMatrix;
+import CircleTSP.util.SolveContext;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Calculates near-optimal tours by improving the tour of CircleTSP with a Lin-Kernighan style local search.
+ */
+public class LinKernighanTSP implements TSPSolver {
+
+    public static final int NUM_NEIGHBORS = 10;
+
+    private final TourImprover tourImprover;
+    private final int numNeighbors;
+
+    /**
+     * Creates a solver that alternates between Lin-Kernighan moves of up to 5-opt and Or-opt moves, restricted to
+     * the NUM_NEIGHBORS nearest neighbors of every point.
+     */
+    public LinKernighanTSP() {
+        this(new LocalSearch(new LinKernighan(8, 5, 3, 2), new OrOpt()), NUM_NEIGHBORS);
+    }
+
+    /**
+     * @param tourImprover Improvement stage that is applied to the tour of CircleTSP.
+     * @param numNeighbors Number of nearest neighbors in the candidate lists of every point.
+     */
+    public LinKernighanTSP(TourImprover tourImprover, int numNeighbors) {
+        if (tourImprover == null)
+            throw new IllegalArgumentException("The tour improver can't be null!");
+        if (numNeighbors < 1)
+            throw new IllegalArgumentException("The number of neighbors has to be at least 1!");
+        this.tourImprover = tourImprover;
+        this.numNeighbors = numNeighbors;
+    }
+
+    public TourImprover getTourImprover() {
+        return tourImprover;
+    }
+
+    public int getNumNeighbors() {
+        return numNeighbors;
+    }
+
+    /**
+     * @param points Set of points to calculate a tour from.
+     * @return A tour containing all points.
+     */
+    public Tour calculateTour(Collection<Point> points) {
+        return calculateTour(points, null, new SolveContext(), new PhaseTimer());
+    }
+
+    /**
+     * Calculates a tour with this solver, measuring the phases "seed", "neighbors" and "improvement".
+     * The improvement stops early with the partially improved tour if the thread running it is interrupted.
+     * @param points Set of points to calculate a tour from.
+     * @param options Options of the run, of which only the executor, the context and the distance matrix are used.
+     * @return Future of the tour.
+     */
+    @Override
+    public CompletableFuture<SolveResult> solveAsync(Collection<Point> points, SolveOptions options) {
+        return PhaseTimer.solveAsync(options, timer -> {
+            timer.putParameter("numNeighbors", numNeighbors);
+            if (options.getDistanceMatrix() != null)
+                timer.putParameter("distanceMatrix", true);
+            return calculateTour(points, options.getDistanceMatrix(), options.getContext(), timer);
+        });
+    }
+
+    /**
+     * @param matrix Distances against which the improvement is evaluated, or null for the euclidean distances.
+     */
+    private Tour calculateTour(Collection<Point> points, DistanceMatrix matrix, SolveContext context,
+                               PhaseTimer timer) {
+        timer.start("seed");
+        Tour seed = CircleTSP.calculateTour(points, context);
+        if (seed.size() < 5)
+            return seed;
+        timer.start("neighbors");
+        TourOrder tour = TourImprover.createTourOrder(seed);
+        NeighborLists neighborLists;
+        if (matrix != null) {
+            // The grid search relies on euclidean distances, so the neighbors of a matrix are searched exhaustively
+            tour = new MatrixTourOrder(tour, matrix);
+            neighborLists = NeighborLists.exhaustive(tour, numNeighbors);
+        } else {
+            neighborLists = new NeighborLists(tour, numNeighbors);
+        }
+        context.checkCancelled("LinKernighanTSP");
+        timer.start("improvement");
+        tourImprover.improve(tour, neighborLists);
+        timer.stop();
+        return tour.toTour();
+    }
+}
@@ -3,19 +3,59 @@ package CircleTSP.algo.solvers;
 import CircleTSP.algo.cluster.DBSCAN;
 import CircleTSP.algo.cluster.PCA;
 import CircleTSP.algo.estimators.EntrypointHeuristic;
-import CircleTSP.algo.estimators.IntersectingEdges;
 import CircleTSP.algo.path.LinearPath;
+import CircleTSP.algo.portfolio.PortfolioResult;
+import CircleTSP.algo.portfolio.SubtourPortfolio;
 import CircleTSP.entities.*;
 import CircleTSP.util.Distance;
+import CircleTSP.util.SolveContext;
 import org.apache.commons.math3.linear.RealVector;
 
 import java.util.*;
+import java.util.concurrent.Executor;
 
 public class PathCircleTSP extends TSPClusterSolver {
 
     // private static final double DELTA = 0.382;
     // private static final double PATH_LIMIT = 128;
 
+    private SubtourPortfolio portfolio;
+    // Statistics of the last tour, replaced as a whole so that concurrent solves don't mix their statistics
+    private volatile List<PortfolioResult> portfolioResults = List.of();
+
+    public PathCircleTSP() {
+        super();
+    }
+
+    public PathCircleTSP(Executor executor) {
+        super(executor);
+    }
+
+    public SubtourPortfolio getPortfolio() {
+        return portfolio;
+    }
+
+    /**
+     * Sets a portfolio of sub tour solvers that is raced on each cluster if delta is set below 0, instead of
+     * calculating the sub tours with LinearPath and CircleTSP one after the other.
+     * All clusters of a tour share the time budget of the portfolio.
+     * @param portfolio Portfolio of sub tour solvers or null to disable the portfolio.
+     */
+    public void setPortfolio(SubtourPortfolio portfolio) {
+        this.portfolio = portfolio;
+    }
+
+    /**
+     * Gets the statistics of the portfolio for each cluster of the last calculated tour.
+     * If several tours are calculated concurrently, it is not defined which of them was the last one, the statistics
+     * of a single tour can be collected with calculateTour(pointSet, minPts, epsilon, delta, context, results) instead.
+     * @return Unmodifiable statistics of the portfolio in the order of the clusters, empty if no portfolio has been
+     * used.
+     */
+    public List<PortfolioResult> getPortfolioResults() {
+        return portfolioResults;
+    }
+
     /** Enhancement of the ClusteredCircleTSP algorithm.
      * Similar to ClusteredCircleTSP this algorithm uses DBSCAN to find clusters but distinguishes between two
      * types of clusters to use different algorithms to find sub tours.
@@ -26,11 +66,13 @@ public class PathCircleTSP extends TSPClusterSolver {
      *               epsilon-neighborhood to consider a point a core point.
      * @param epsilon DBSCAN parameter, maximum distance in which a point is
      *                considered a neighbor to another point.
+     * @param context Context of the computation, which is checked by the clustering and the sub tours.
      * @return A tour containing all points from pointSet.
      */
+    @Override
     public Tour calculateTour(Collection<Point> pointSet,
-                                     int minPts, double epsilon) {
-        return calculateTour(pointSet, minPts, epsilon, -1);
+                              int minPts, double epsilon, SolveContext context) {
+        return calculateTour(pointSet, minPts, epsilon, -1, context);
     }
 
     /** Enhancement of the ClusteredCircleTSP algorithm.
@@ -44,6 +86,8 @@ public class PathCircleTSP extends TSPClusterSolver {
      * If their ratio is below a value delta, the cluster is considered flat.
      * If delta is set below 0, both CircleTSP and LinearPath will be executed on a cluster and the tour with the
      * lower costs will be used as local tour for this cluster.
+     * If a portfolio has been set, all solvers of the portfolio are raced on the cluster instead.
+     * If a tour improver has been set, it is applied to the merged tour.
      * @param pointSet Set of points to calculate a tour from.
      * @param minPts DBSCAN parameter, minimum number of points in an
      *               epsilon-neighborhood to consider a point a core point.
@@ -55,96 +99,153 @@ public class PathCircleTSP extends TSPClusterSolver {
      */
     public Tour calculateTour(Collection<Point> pointSet,
                               int minPts, double epsilon, double delta) {
+        return calculateTour(pointSet, minPts, epsilon, delta, new SolveContext());
+    }
 
-        // Create names for cluster centers
-        Deque<String> clusterCenterNames = new ArrayDeque<>();
-        for (char t = 'a'; t <= 'z'; t++)
-            clusterCenterNames.add(""+t);
-        for (char t1 = 'a'; t1 <= 'z'; t1++) {
-            for (char t2 = 'a'; t2 <= 'z'; t2++) {
-                clusterCenterNames.add("" + t1 + t2);
-            }
-        }
+    /**
+     * Calculates a tour like calculateTour(pointSet, minPts, epsilon, delta), while checking the context during the
+     * clustering and before each sub tour.
+     * If the context has a deadline, the portfolio stops at the deadline at the latest.
+     * @param context Context of the computation.
+     * @return A tour containing all points from pointSet.
+     * @throws java.util.concurrent.CancellationException If the context has been cancelled or its deadline has passed.
+     * @see #calculateTour(Collection, int, double, double)
+     */
+    public Tour calculateTour(Collection<Point> pointSet,
+                              int minPts, double epsilon, double delta, SolveContext context) {
+        List<PortfolioResult> results = new ArrayList<>();
+        Tour tour = calculateTour(pointSet, minPts, epsilon, delta, context, results);
+        portfolioResults = Collections.unmodifiableList(results);
+        return tour;
+    }
+
+    /**
+     * Calculates a tour like calculateTour(pointSet, minPts, epsilon, delta, context) and collects the statistics of
+     * the portfolio for this tour, which is safe for tours that are calculated concurrently by the same solver.
+     * @param portfolioResults List to which the statistics of the portfolio are added in the order of the clusters,
+     *                         nothing is added if no portfolio is used.
+     * @return A tour containing all points from pointSet.
+     * @see #calculateTour(Collection, int, double, double, SolveContext)
+     */
+    public Tour calculateTour(Collection<Point> pointSet, int minPts, double epsilon, double delta,
+                              SolveContext context, List<PortfolioResult> portfolioResults) {
+
+        DBSCAN clusterer = new DBSCAN(pointSet, minPts, epsilon, context);
+        Tuple<List<List<Point>>, List<Point>> partition = partitionClusters(clusterer.getPoints(),
+                clusterer.getLabels(), clusterer.getNumClusters());
+        List<List<Point>> clusters = partition.getFirst();
 
-        DBSCAN clusterer = new DBSCAN(pointSet, minPts, epsilon);
-        List<Cluster> clusters = clusterer.getClusters();
-        clusters.removeIf(cluster -> cluster.getPoints().size() <= 2);
+        // Calculate the sub tours and their entry points of all clusters concurrently
+        List<Subtour> subtours;
+        if (delta < 0 && portfolio != null) {
+            // All clusters share the time budget of the portfolio
+            long budgetDeadline = System.nanoTime() + portfolio.getTimeBudget() * 1000000;
+            long deadline = context.hasDeadline() && context.getDeadline() - budgetDeadline < 0
+                    ? context.getDeadline() : budgetDeadline;
+            List<PortfolioResult> results = solveClusters(clusters,
+                    clusterPoints -> portfolio.solve(clusterPoints, deadline), context);
+            subtours = new ArrayList<>(results.size());
+            for (PortfolioResult result : results)
+                subtours.add(result.getSubtour());
+            portfolioResults.addAll(results);
+        }
+        else {
+            subtours = solveClusters(clusters, clusterPoints -> calculateSubtour(clusterPoints, delta, context),
+                    context);
+        }
 
-        List<Tour> clusterTours = new ArrayList<>();
-        List<Point> centerPoints = new ArrayList<>();
-        List<Tuple<Point, Point>> entryPoints = new ArrayList<>();
+        List<Tour> clusterTours = new ArrayList<>(clusters.size());
+        List<Point> centerPoints = new ArrayList<>(clusters.size());
+        List<Tuple<Point, Point>> entryPoints = new ArrayList<>(clusters.size());
         // TODO: Find goal points
         // List<Tuple<Point, Point>> goalPoints = new ArrayList<>();
-        Set<Point> clusterCentersAndNoise = new HashSet<>(Set.copyOf(pointSet));
-
-        for (Cluster cluster : clusters) {
-            Collection<Point> clusterPoints = cluster.getPoints();
-
-            Tour candidateTour;
-            Tuple<Point, Point> localEntryPoints;
-
-            // Calculate two tours with CircleTSP and LinearPath if delta is smaller than 0
-            if (delta < 0) {
-                // Calculate tour with LinearPath
-                List<Point> path = LinearPath.findPath(clusterPoints);
-                Tour linearTour = new Tour(path);
-                double linearPathLength = Distance.calculatePathLength(path);
-
-                // Calculate tour with CircleTSP
-                Tour circleTour = CircleTSP.calculateTour(clusterPoints);
-                double circleTourLength = Distance.calculateTourLength(circleTour);
-
-                // Use subtour with lower costs
-                if (linearPathLength < circleTourLength) {
-                    candidateTour = linearTour;
-                    Point e1 = path.get(0);
-                    Point e2 = path.get(path.size()-1);
-                    localEntryPoints = new Tuple<>(e1, e2);
-                } else {
-                    candidateTour = circleTour;
-                    // Entry points have to be calculated later using an entry point heuristic
-                    localEntryPoints = null;
-                }
-            }
-            else {
-                PCA pca = new PCA(clusterPoints);
-                if (isFlat(pca, delta)) {
-                    // Call LinearPath for flat cluster
-
-                    RealVector pc = pca.getEigenvector(0);
-                    List<Point> path = LinearPath.findPath(clusterPoints, pc);
-                    candidateTour = new Tour(path);
-                    Point e1 = path.get(0);
-                    Point e2 = path.get(path.size()-1);
-                    localEntryPoints = new Tuple<>(e1, e2);
-                }
-                else {
-                    candidateTour = CircleTSP.calculateTour(clusterPoints);
-                    // Entry points have to be calculated later using an entry point heuristic
-                    localEntryPoints = null;
-                }
-            }
 
+        for (int i = 0; i < clusters.size(); i++) {
             // Add better tour to localTours (clusterTours) and add fitting entrypoints
-            clusterTours.add(candidateTour);
-            Point centerPoint = new Point(clusterCenterNames.removeFirst(),
-                    CircleTSP.getCenterPoint(clusterPoints).getCoordinates());
-            centerPoints.add(centerPoint);
-
-            entryPoints.add(localEntryPoints);
-
-            // Remove points of sub tour from V' and add cluster center
-            clusterCentersAndNoise.removeAll(clusterPoints);
-            clusterCentersAndNoise.add(centerPoint);
+            clusterTours.add(subtours.get(i).getTour());
+            centerPoints.add(createClusterCenter(i, clusters.get(i)));
+            entryPoints.add(subtours.get(i).getEntryPoints());
         }
 
+        // Replace points of sub tours in V' with the cluster centers
+        List<Point> clusterCentersAndNoise = new ArrayList<>(partition.getSecond());
+        clusterCentersAndNoise.addAll(centerPoints);
+
         // Calculate global tour from noise points and cluster centers (V')
-        Tour globalTour = CircleTSP.calculateTour(clusterCentersAndNoise);
+        Tour globalTour = CircleTSP.calculateTour(clusterCentersAndNoise, context);
 
-        // Merge local cluster tours with global tour using the IntersectingEdges heuristic
-        EntrypointHeuristic heuristic = new IntersectingEdges();
-        return ClusteredCircleTSP.mergeTours(globalTour, CircleTSP.getCenterPoint(clusterCentersAndNoise),
+        // Merge local cluster tours with global tour using the entry point heuristic of this solver
+        EntrypointHeuristic heuristic = createEntrypointHeuristic();
+        Tour tour = ClusteredCircleTSP.mergeTours(globalTour, CircleTSP.getCenterPoint(clusterCentersAndNoise),
                 clusterTours, centerPoints, entryPoints, heuristic);
+        tour = improveTour(tour);
+        context.reportProgress("merge", 1, Distance.calculateTourLength(tour));
+        return tour;
+    }
+
+    /**
+     * Calculates the sub tour of a single cluster.
+     * If delta is set below 0, both CircleTSP and LinearPath will be executed on the cluster and the tour with the
+     * lower costs will be used, otherwise the cluster is classified as flat or circular using PCA.
+     * @param clusterPoints Points of the cluster.
+     * @param delta Describes the threshold for the ratio between the eigenvalues of a cluster below which a cluster is
+     *              considered to be flat.
+     * @param context Context of the computation.
+     * @return Sub tour of the cluster and its entry points, which are null if the entry points have to be calculated
+     * later using an entry point heuristic.
+     */
+    private static Subtour calculateSubtour(Collection<Point> clusterPoints, double delta, SolveContext context) {
+        Tour candidateTour;
+        Tuple<Point, Point> localEntryPoints;
+        double candidateLength;
+
+        // Calculate two tours with CircleTSP and LinearPath if delta is smaller than 0
+        if (delta < 0) {
+            // Calculate tour with LinearPath
+            List<Point> path = LinearPath.findPath(clusterPoints);
+            Tour linearTour = new Tour(path);
+            double linearPathLength = Distance.calculatePathLength(path);
+
+            // Calculate tour with CircleTSP
+            Tour circleTour = CircleTSP.calculateTour(clusterPoints, context);
+            double circleTourLength = Distance.calculateTourLength(circleTour);
+
+            // Use subtour with lower costs
+            if (linearPathLength < circleTourLength) {
+                candidateTour = linearTour;
+                candidateLength = linearPathLength;
+                Point e1 = path.get(0);
+                Point e2 = path.get(path.size()-1);
+                localEntryPoints = new Tuple<>(e1, e2);
+            } else {
+                candidateTour = circleTour;
+                candidateLength = circleTourLength;
+                // Entry points have to be calculated later using an entry point heuristic
+                localEntryPoints = null;
+            }
+        }
+        else {
+            PCA pca = new PCA(clusterPoints);
+            if (isFlat(pca, delta)) {
+                // Call LinearPath for flat cluster
+
+                RealVector pc = pca.getEigenvector(0);
+                List<Point> path = LinearPath.findPath(clusterPoints, pc);
+                candidateTour = new Tour(path);
+                candidateLength = Distance.calculatePathLength(path);
+                Point e1 = path.get(0);
+                Point e2 = path.get(path.size()-1);
+                localEntryPoints = new Tuple<>(e1, e2);
+            }
+            else {
+                candidateTour = CircleTSP.calculateTour(clusterPoints, context);
+                candidateLength = Distance.calculateTourLength(candidateTour);
+                // Entry points have to be calculated later using an entry point heuristic
+                localEntryPoints = null;
+            }
+        }
+
+        return new Subtour(candidateTour, localEntryPoints, candidateLength);
     }
 
     /**
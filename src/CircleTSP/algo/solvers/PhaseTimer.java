@@ -0,0 +1,84 @@
+package CircleTSP.algo.solvers;
+
+import CircleTSP.entities.Tour;
+import CircleTSP.util.Distance;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Measures the phases of a single solver run, which are started one after another on the thread of the run.
+ * Phases that are started several times (e.g. on every level of a recursive solver) are summed up.
+ */
+class PhaseTimer {
+
+    private final Map<String, Double> phaseTimes = new LinkedHashMap<>();
+    private final Map<String, Object> parameters = new LinkedHashMap<>();
+    private String phase;
+    private long start;
+
+    /**
+     * Stops the current phase and starts the next one.
+     * @param phase Name of the next phase.
+     */
+    void start(String phase) {
+        stop();
+        this.phase = phase;
+        this.start = System.nanoTime();
+    }
+
+    void stop() {
+        if (phase != null)
+            phaseTimes.merge(phase, (System.nanoTime() - start) / 1000000.0, Double::sum);
+        phase = null;
+    }
+
+    /**
+     * Records a parameter used by the solver in the result.
+     */
+    void putParameter(String name, Object value) {
+        parameters.put(name, value);
+    }
+
+    /**
+     * Measures the length of the final tour as phase "length" and creates the result of the run.
+     */
+    SolveResult finish(Tour tour) {
+        start("length");
+        double length = Distance.calculateTourLength(tour);
+        stop();
+        return new SolveResult(tour, length, phaseTimes, parameters);
+    }
+
+    /**
+     * Runs a solver on the executor of the options.
+     * Cancelling the returned future cancels the context of the options, so that the solver stops at its next check.
+     * If the solver throws a CancellationException, the future is cancelled with it.
+     * @param options Options of the run.
+     * @param solver Function that calculates the tour, while starting its phases on the given timer.
+     * @return Future of the result of the run.
+     */
+    static CompletableFuture<SolveResult> solveAsync(SolveOptions options, Function<PhaseTimer, Tour> solver) {
+        CompletableFuture<SolveResult> future = new CompletableFuture<>();
+        options.getExecutor().execute(() -> {
+            if (future.isDone())
+                return;
+            try {
+                PhaseTimer timer = new PhaseTimer();
+                Tour tour = solver.apply(timer);
+                future.complete(timer.finish(tour));
+            } catch (Throwable e) {
+                // Other than supplyAsync, completeExceptionally doesn't wrap the exception in a CompletionException,
+                // so that a cancelled solver cancels the future and join throws the CancellationException itself
+                future.completeExceptionally(e);
+            }
+        });
+        future.whenComplete((result, e) -> {
+            if (future.isCancelled())
+                options.getContext().cancel();
+        });
+        return future;
+    }
+}
@@ -0,0 +1,108 @@
+package CircleTSP.algo.solvers;
+
+import CircleTSP.util.DistanceMatrix;
+import CircleTSP.util.SolveContext;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Options of an asynchronous solver run started with TSPSolver.solveAsync.
+ * Solvers ignore the options they don't need, so that the same options can be passed to any solver.
+ */
+public class SolveOptions {
+
+    private Executor executor = ForkJoinPool.commonPool();
+    private SolveContext context = new SolveContext();
+    private int minPts = 4;
+    private double epsilon = Double.NaN;
+    private DistanceMatrix distanceMatrix;
+
+    /**
+     * Creates options for a run on the common ForkJoinPool without deadline, in which cluster solvers learn epsilon
+     * automatically.
+     */
+    public SolveOptions() {
+    }
+
+    /**
+     * @param context Context of the run, which carries its deadline and progress listener.
+     */
+    public SolveOptions(SolveContext context) {
+        setContext(context);
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * @param executor Executor on which the solver is run.
+     */
+    public void setExecutor(Executor executor) {
+        if (executor == null)
+            throw new IllegalArgumentException("The executor of a solver run can't be null!");
+        this.executor = executor;
+    }
+
+    public SolveContext getContext() {
+        return context;
+    }
+
+    /**
+     * @param context Context of the run, which is cancelled if the future of the run is cancelled.
+     */
+    public void setContext(SolveContext context) {
+        if (context == null)
+            throw new IllegalArgumentException("The context of a solver run can't be null!");
+        this.context = context;
+    }
+
+    public int getMinPts() {
+        return minPts;
+    }
+
+    /**
+     * @param minPts DBSCAN parameter for cluster solvers, minimum number of points in an epsilon-neighborhood to
+     *               consider a point a core point.
+     */
+    public void setMinPts(int minPts) {
+        if (minPts < 1)
+            throw new IllegalArgumentException("minPts has to be at least 1!");
+        this.minPts = minPts;
+    }
+
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    /**
+     * @param epsilon DBSCAN parameter for cluster solvers, maximum distance in which a point is considered a neighbor
+     *                to another point, or NaN if it should be learned with ParameterLearner.learnEpsilon2.
+     */
+    public void setEpsilon(double epsilon) {
+        if (epsilon < 0)
+            throw new IllegalArgumentException("Epsilon can't be negative! Epsilon: " + epsilon);
+        this.epsilon = epsilon;
+    }
+
+    /**
+     * @return True if epsilon has been set and doesn't have to be learned.
+     */
+    public boolean hasEpsilon() {
+        return !Double.isNaN(epsilon);
+    }
+
+    public DistanceMatrix getDistanceMatrix() {
+        return distanceMatrix;
+    }
+
+    /**
+     * @param distanceMatrix Weights of an EXPLICIT instance whose coordinates are only an embedding, where the point
+     *                       with the id i is node i-1. Improvement stages evaluate their moves against the matrix.
+     *                       Null if the distances are euclidean.
+     */
+    public void setDistanceMatrix(DistanceMatrix distanceMatrix) {
+        this.distanceMatrix = distanceMatrix;
+    }
+}
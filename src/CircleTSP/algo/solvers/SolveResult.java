@@ -0,0 +1,75 @@
+package CircleTSP.algo.solvers;
+
+import CircleTSP.entities.Tour;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Result of an asynchronous solver run, containing the tour, its length, the time spent in each phase of the solver
+ * and the parameters the solver used, including parameters it learned itself.
+ */
+public class SolveResult {
+
+    private final Tour tour;
+    private final double length;
+    private final Map<String, Double> phaseTimes;
+    private final Map<String, Object> parameters;
+
+    SolveResult(Tour tour, double length, Map<String, Double> phaseTimes, Map<String, Object> parameters) {
+        this.tour = tour;
+        this.length = length;
+        this.phaseTimes = new LinkedHashMap<>(phaseTimes);
+        this.parameters = new LinkedHashMap<>(parameters);
+    }
+
+    public Tour getTour() {
+        return tour;
+    }
+
+    public double getLength() {
+        return length;
+    }
+
+    /**
+     * @return Time in milliseconds spent in each phase, in the order the phases have been started.
+     */
+    public Map<String, Double> getPhaseTimes() {
+        return Collections.unmodifiableMap(phaseTimes);
+    }
+
+    /**
+     * @param phase Name of the phase.
+     * @return Time in milliseconds spent in the phase, 0 if the solver has no such phase.
+     */
+    public double getPhaseTime(String phase) {
+        return phaseTimes.getOrDefault(phase, 0.0);
+    }
+
+    /**
+     * @return Time in milliseconds spent in all phases.
+     */
+    public double getTotalTime() {
+        double total = 0;
+        for (double time : phaseTimes.values())
+            total += time;
+        return total;
+    }
+
+    /**
+     * @return Parameters used by the solver, e.g. minPts and epsilon of a cluster solver.
+     */
+    public Map<String, Object> getParameters() {
+        return Collections.unmodifiableMap(parameters);
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner sj = new StringJoiner(", ");
+        for (Map.Entry<String, Double> phaseTime : phaseTimes.entrySet())
+            sj.add(phaseTime.getKey() + ": " + phaseTime.getValue() + "ms");
+        return "Tour with " + tour.size() + " points, length: " + length + " [" + sj + "]";
+    }
+}
@@ -1,18 +1,336 @@
 package CircleTSP.algo.solvers;
 
+import CircleTSP.algo.cluster.DBSCAN;
 import CircleTSP.algo.estimators.EntrypointHeuristic;
+import CircleTSP.algo.estimators.IntersectingEdges;
+import CircleTSP.algo.improvement.TourImprover;
 import CircleTSP.entities.Point;
 import CircleTSP.entities.Tour;
 import CircleTSP.entities.TourIterator;
 import CircleTSP.entities.Tuple;
 import CircleTSP.util.Distance;
+import CircleTSP.util.ParameterLearner;
+import CircleTSP.util.SolveContext;
 
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public abstract class TSPClusterSolver implements TSPSolver {
 
-    public abstract Tour calculateTour(Collection<Point> pointSet, int minPts, double epsilon);
+    // Clusters with less points are treated as noise
+    private static final int MIN_CLUSTER_SIZE = 3;
+
+    private Executor executor;
+    private TourImprover tourImprover;
+    private Supplier<? extends EntrypointHeuristic> entrypointHeuristic = IntersectingEdges::new;
+
+    /**
+     * Creates a cluster solver that calculates the sub tours of its clusters on the common ForkJoinPool.
+     */
+    protected TSPClusterSolver() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a cluster solver that calculates the sub tours of its clusters on the given executor.
+     * @param executor Executor on which the independent sub tours of the clusters are calculated.
+     */
+    protected TSPClusterSolver(Executor executor) {
+        setExecutor(executor);
+    }
+
+    public Tour calculateTour(Collection<Point> pointSet, int minPts, double epsilon) {
+        return calculateTour(pointSet, minPts, epsilon, new SolveContext());
+    }
+
+    /**
+     * Calculates a tour by clustering the points with DBSCAN and merging the sub tours of the clusters.
+     * The context is checked by the clustering and by each sub tour, and receives the progress of the phases
+     * "DBSCAN", "subtours" and "merge".
+     * @param pointSet Set of points to calculate a tour from.
+     * @param minPts DBSCAN parameter, minimum number of points in an
+     *               epsilon-neighborhood to consider a point a core point.
+     * @param epsilon DBSCAN parameter, maximum distance in which a point is
+     *                considered a neighbor to another point.
+     * @param context Context of the computation.
+     * @return A tour containing all points from pointSet.
+     * @throws java.util.concurrent.CancellationException If the context has been cancelled or its deadline has passed.
+     */
+    public abstract Tour calculateTour(Collection<Point> pointSet, int minPts, double epsilon, SolveContext context);
+
+    /**
+     * Calculates a tour with this cluster solver. If epsilon has not been set in the options, it is learned with
+     * ParameterLearner.learnEpsilon2 in the phase "learning" first. The tour is calculated in the phase "tour".
+     * The result contains the parameters minPts and epsilon.
+     * @param points Set of points to calculate a tour from.
+     * @param options Options of the run.
+     * @return Future of the tour.
+     */
+    @Override
+    public CompletableFuture<SolveResult> solveAsync(Collection<Point> points, SolveOptions options) {
+        return PhaseTimer.solveAsync(options, timer -> {
+            SolveContext context = options.getContext();
+            double epsilon = options.getEpsilon();
+            if (!options.hasEpsilon()) {
+                timer.start("learning");
+                epsilon = ParameterLearner.learnEpsilon2(points, options.getMinPts(), this, context);
+            }
+            timer.putParameter("minPts", options.getMinPts());
+            timer.putParameter("epsilon", epsilon);
+            timer.start("tour");
+            return calculateTour(points, options.getMinPts(), epsilon, context);
+        });
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public void setExecutor(Executor executor) {
+        if (executor == null)
+            throw new IllegalArgumentException("The executor of a cluster solver can't be null!");
+        this.executor = executor;
+    }
+
+    public TourImprover getTourImprover() {
+        return tourImprover;
+    }
+
+    /**
+     * Sets a post-optimization stage that is applied to the merged tour.
+     * @param tourImprover Improvement stage or null if the merged tour should not be improved.
+     */
+    public void setTourImprover(TourImprover tourImprover) {
+        this.tourImprover = tourImprover;
+    }
+
+    public Supplier<? extends EntrypointHeuristic> getEntrypointHeuristic() {
+        return entrypointHeuristic;
+    }
+
+    /**
+     * Sets the entry point heuristic that connects the sub tours of the clusters to the global tour, e.g.
+     * CheapestInsertion::new instead of the default IntersectingEdges. A new heuristic is created for every merge,
+     * since heuristics like CheapestInsertion keep state of the tours they are applied to.
+     * @param entrypointHeuristic Creates the heuristic for a merge.
+     */
+    public void setEntrypointHeuristic(Supplier<? extends EntrypointHeuristic> entrypointHeuristic) {
+        if (entrypointHeuristic == null)
+            throw new IllegalArgumentException("The entry point heuristic of a cluster solver can't be null!");
+        this.entrypointHeuristic = entrypointHeuristic;
+    }
+
+    /**
+     * @return New entry point heuristic for merging the sub tours of a tour.
+     */
+    protected EntrypointHeuristic createEntrypointHeuristic() {
+        return entrypointHeuristic.get();
+    }
+
+    /**
+     * Applies the tour improver of this solver to a merged tour, if one has been set.
+     * @param tour Merged tour containing all points.
+     * @return Improved tour or the tour itself if no tour improver has been set.
+     */
+    protected Tour improveTour(Tour tour) {
+        if (tourImprover == null)
+            return tour;
+        return tourImprover.improve(tour);
+    }
+
+    /**
+     * Returns the shared executor that starts a new virtual thread for each sub tour.
+     * The executor is created on the first call and shared by all cluster solvers, so it must not be shut down by
+     * its callers. As it keeps no idle threads, it doesn't need to be closed either.
+     * Virtual threads are only available on Java 21 and newer, on older runtimes the common ForkJoinPool is returned.
+     * @return Executor that can be passed to a cluster solver.
+     */
+    public static Executor virtualThreadExecutor() {
+        return VirtualThreadExecutorHolder.EXECUTOR;
+    }
+
+    /**
+     * Creates the shared virtual thread executor when it is first used.
+     */
+    private static class VirtualThreadExecutorHolder {
+
+        private static final Executor EXECUTOR = createVirtualThreadExecutor();
+
+        private static Executor createVirtualThreadExecutor() {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+                return ForkJoinPool.commonPool();
+            }
+        }
+    }
+
+    /**
+     * Applies a sub tour solver to each cluster on the executor of this cluster solver.
+     * The sub tours of the clusters are independent from each other and can therefore be calculated concurrently,
+     * but the results are returned in the order of the clusters, so that the global merge step of a cluster solver
+     * stays deterministic and produces the same tour as a sequential run.
+     * @param clusters Point collections of the clusters.
+     * @param subtourSolver Function that calculates the sub tour (or any other result) of a single cluster.
+     * @param <T> Type of the result for a single cluster.
+     * @return Results of subtourSolver, in the same order as clusters.
+     */
+    protected <T> List<T> solveClusters(List<? extends Collection<Point>> clusters,
+                                        Function<Collection<Point>, T> subtourSolver) {
+        return joinClusters(submitClusters(clusters, subtourSolver));
+    }
+
+    /**
+     * Applies a sub tour solver to each cluster like solveClusters(clusters, subtourSolver), but checks the context
+     * before each cluster and reports the fraction of finished clusters as phase "subtours".
+     * @param clusters Point collections of the clusters.
+     * @param subtourSolver Function that calculates the sub tour (or any other result) of a single cluster.
+     * @param context Context of the computation.
+     * @param <T> Type of the result for a single cluster.
+     * @return Results of subtourSolver, in the same order as clusters.
+     */
+    protected <T> List<T> solveClusters(List<? extends Collection<Point>> clusters,
+                                        Function<Collection<Point>, T> subtourSolver, SolveContext context) {
+        return joinClusters(submitClusters(clusters, subtourSolver, context));
+    }
+
+    /**
+     * Starts a sub tour solver for each cluster on the executor of this cluster solver without waiting for the
+     * results, so that the caller can continue working (e.g. on the global tour) in the meantime.
+     * @param clusters Point collections of the clusters.
+     * @param subtourSolver Function that calculates the sub tour (or any other result) of a single cluster.
+     * @param <T> Type of the result for a single cluster.
+     * @return Futures of the results of subtourSolver, in the same order as clusters.
+     * @see #joinClusters(List) For waiting for the results.
+     */
+    protected <T> List<CompletableFuture<T>> submitClusters(List<? extends Collection<Point>> clusters,
+                                                           Function<Collection<Point>, T> subtourSolver) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(clusters.size());
+        for (Collection<Point> clusterPoints : clusters)
+            futures.add(CompletableFuture.supplyAsync(() -> subtourSolver.apply(clusterPoints), executor));
+        return futures;
+    }
+
+    /**
+     * Starts a sub tour solver for each cluster like submitClusters(clusters, subtourSolver), but checks the context
+     * before each cluster and reports the fraction of finished clusters as phase "subtours".
+     * Clusters that have not been started when the context is cancelled fail with a CancellationException.
+     * @param clusters Point collections of the clusters.
+     * @param subtourSolver Function that calculates the sub tour (or any other result) of a single cluster.
+     * @param context Context of the computation.
+     * @param <T> Type of the result for a single cluster.
+     * @return Futures of the results of subtourSolver, in the same order as clusters.
+     */
+    protected <T> List<CompletableFuture<T>> submitClusters(List<? extends Collection<Point>> clusters,
+                                                           Function<Collection<Point>, T> subtourSolver,
+                                                           SolveContext context) {
+        AtomicInteger numSolved = new AtomicInteger();
+        return submitClusters(clusters, clusterPoints -> {
+            context.checkCancelled("The sub tour of a cluster");
+            T result = subtourSolver.apply(clusterPoints);
+            context.reportProgress("subtours", (double) numSolved.incrementAndGet() / clusters.size(), Double.NaN);
+            return result;
+        });
+    }
+
+    /**
+     * Waits for the results of sub tour solvers started with submitClusters.
+     * @param futures Futures of the results for each cluster.
+     * @param <T> Type of the result for a single cluster.
+     * @return Results in the same order as futures.
+     */
+    protected static <T> List<T> joinClusters(List<CompletableFuture<T>> futures) {
+        List<T> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<T> future : futures) {
+            try {
+                results.add(future.join());
+            } catch (CompletionException e) {
+                // Rethrow the original exception of the sub tour solver, so that callers see the same exceptions as
+                // in a sequential run
+                if (e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) e.getCause();
+                if (e.getCause() instanceof Error)
+                    throw (Error) e.getCause();
+                throw e;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Partitions clustered points by their cluster labels in a single pass.
+     * Clusters with less than three points are treated as noise, since a sub tour through them can't be merged
+     * with the global tour.
+     * @param points Clustered points.
+     * @param labels Cluster label of each point in points as produced by DBSCAN.
+     * @param numClusters Number of clusters in labels.
+     * @return Tuple containing the point lists of all remaining clusters and the list of noise points.
+     */
+    protected static Tuple<List<List<Point>>, List<Point>> partitionClusters(List<Point> points, int[] labels,
+                                                                            int numClusters) {
+        int[] clusterSizes = new int[numClusters];
+        for (int label : labels) {
+            if (label != DBSCAN.NOISE)
+                clusterSizes[label]++;
+        }
+
+        // Map labels to indices of the remaining clusters
+        int[] clusterIndices = new int[numClusters];
+        List<List<Point>> clusters = new ArrayList<>();
+        for (int label = 0; label < numClusters; label++) {
+            if (clusterSizes[label] >= MIN_CLUSTER_SIZE) {
+                clusterIndices[label] = clusters.size();
+                clusters.add(new ArrayList<>(clusterSizes[label]));
+            } else {
+                clusterIndices[label] = DBSCAN.NOISE;
+            }
+        }
+
+        List<Point> noise = new ArrayList<>();
+        for (int i = 0; i < labels.length; i++) {
+            int clusterIndex = labels[i] == DBSCAN.NOISE ? DBSCAN.NOISE : clusterIndices[labels[i]];
+            if (clusterIndex == DBSCAN.NOISE)
+                noise.add(points.get(i));
+            else
+                clusters.get(clusterIndex).add(points.get(i));
+        }
+        return new Tuple<>(clusters, noise);
+    }
+
+    /**
+     * Creates the point that represents a cluster in the global tour, located at the mean average of the points of
+     * the cluster.
+     * @param clusterIndex Index of the cluster, used to create a unique identifier for the center point.
+     * @param clusterPoints Points of the cluster.
+     * @return Center point of the cluster.
+     */
+    protected static Point createClusterCenter(int clusterIndex, Collection<Point> clusterPoints) {
+        return createClusterCenter("cluster", clusterIndex, clusterPoints);
+    }
+
+    /**
+     * Creates the point that represents a cluster in the global tour, located at the mean average of the points of
+     * the cluster.
+     * @param prefix Prefix of the identifier of the center point, which must differ between center points that can
+     *               occur in the same global tour.
+     * @param clusterIndex Index of the cluster, used to create a unique identifier for the center point.
+     * @param clusterPoints Points of the cluster.
+     * @return Center point of the cluster.
+     */
+    protected static Point createClusterCenter(String prefix, int clusterIndex, Collection<Point> clusterPoints) {
+        return new Point(prefix + clusterIndex, CircleTSP.getCenterPoint(clusterPoints).getCoordinates());
+    }
 
     /**
      * Merges a global tour that consists of noise points and center points of
@@ -70,7 +388,7 @@ public abstract class TSPClusterSolver implements TSPSolver {
             Point e1, e2;
             if (currentEntryPoints == null) {
                 // Determine entry points using a given EntrypointHeuristic
-                currentEntryPoints = entrypointHeuristic.findEntryPoints(clusterTour, clusterCenter,
+                currentEntryPoints = entrypointHeuristic.findEntryPoints(clusterTour, clusterCenter, g1, g2,
                         globalTour, globalCenter);
             }
 
@@ -80,7 +398,7 @@ public abstract class TSPClusterSolver implements TSPSolver {
 
             // Check if (g1,e1),(g2,e2) or (g1,e2),(g2,e1) is shorter & rename so that (g1,e1),(g2,e2) is shortest
             double length1 = Distance.euclidianDistance(e1, g1) + Distance.euclidianDistance(e2, g2);
-            double length2 = Distance.euclidianDistance(e1, g2) + Distance.euclidianDistance(e1, g2);
+            double length2 = Distance.euclidianDistance(e1, g2) + Distance.euclidianDistance(e2, g1);
             if (length2 < length1) {
                 Point temp = e1;
                 e1 = e2;
@@ -1,4 +1,26 @@
 package CircleTSP.algo.solvers;
 
+import CircleTSP.entities.Point;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Common interface of all solvers, so that different solvers can be scheduled on the same executor and benchmarked
+ * the same way.
+ */
 public interface TSPSolver {
+
+    /**
+     * Calculates a tour on the executor of the options.
+     * The points may be modified by the solver (e.g. their angles) and must therefore not be passed to another run
+     * at the same time.
+     * Cancelling the returned future cancels the context of the options.
+     * @param points Set of points to calculate a tour from.
+     * @param options Options of the run.
+     * @return Future of the tour, its length and the time spent in each phase of the solver. The future is cancelled
+     * with the CancellationException of the solver if the context of the options has been cancelled or its deadline
+     * has passed, so that join and get throw the CancellationException itself.
+     */
+    CompletableFuture<SolveResult> solveAsync(Collection<Point> points, SolveOptions options);
 }
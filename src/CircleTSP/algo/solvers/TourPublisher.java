@@ -0,0 +1,272 @@
+package CircleTSP.algo.solvers;
+
+import CircleTSP.entities.Point;
+import CircleTSP.entities.Tour;
+import CircleTSP.entities.TourSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the successive improved tours of an AnytimeRun as TourSnapshots.
+ * Subscribers receive the latest tour as soon as they request it. Tours that are published while a subscriber has no
+ * outstanding demand are not buffered but skipped, so that slow subscribers (e.g. a GUI) always get the latest tour
+ * without slowing down the solver.
+ * The first snapshot delivered to a subscriber contains the whole tour, all further snapshots only contain the ranges
+ * of positions that changed since the previous snapshot of the same subscriber. Published tours are rotated and
+ * oriented like the previous tour, so that local improvements only change a few positions.
+ * @see AnytimeTSP#start(java.util.Collection, long, TourPublisher)
+ */
+public class TourPublisher implements Flow.Publisher<TourSnapshot> {
+
+    // Changed ranges separated by less unchanged positions are merged
+    private static final int MIN_GAP = 8;
+
+    /**
+     * Published tour, whose points must not be modified.
+     */
+    private static class Published {
+        final int version;
+        final String stage;
+        final double elapsedTime;
+        final double length;
+        final Point[] points;
+
+        Published(int version, String stage, double elapsedTime, double length, Point[] points) {
+            this.version = version;
+            this.stage = stage;
+            this.elapsedTime = elapsedTime;
+            this.length = length;
+            this.points = points;
+        }
+    }
+
+    private final Executor executor;
+    private final List<TourSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private volatile Published current;
+    private volatile boolean closed;
+
+    /**
+     * Creates a publisher that delivers snapshots on the common ForkJoinPool.
+     */
+    public TourPublisher() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param executor Executor on which the snapshots are delivered to the subscribers.
+     */
+    public TourPublisher(Executor executor) {
+        if (executor == null)
+            throw new IllegalArgumentException("The executor of a publisher can't be null!");
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super TourSnapshot> subscriber) {
+        if (subscriber == null)
+            throw new NullPointerException("The subscriber can't be null!");
+        TourSubscription subscription = new TourSubscription(subscriber);
+        subscriptions.add(subscription);
+        subscription.signal();
+    }
+
+    /**
+     * Publishes a new tour to all subscribers.
+     * @param stage Name of the stage that found the tour.
+     * @param elapsedTime Time in milliseconds since the start of the run.
+     * @param tour Tour containing all points, which is not modified.
+     * @param length Length of the tour.
+     */
+    public synchronized void submit(String stage, double elapsedTime, Tour tour, double length) {
+        if (closed)
+            throw new IllegalStateException("The publisher has already been closed!");
+        Published previous = current;
+        Point[] points = align(tour.toArray(new Point[0]), previous == null ? null : previous.points);
+        current = new Published(previous == null ? 0 : previous.version + 1, stage, elapsedTime, length, points);
+        for (TourSubscription subscription : subscriptions)
+            subscription.signal();
+    }
+
+    /**
+     * Completes all subscriptions, after the latest tour has been delivered to them.
+     */
+    public synchronized void close() {
+        closed = true;
+        for (TourSubscription subscription : subscriptions)
+            subscription.signal();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return Number of subscribers that have neither cancelled their subscription nor been completed.
+     */
+    public int getNumberOfSubscribers() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Rotates and orients the points of a tour, so that it starts with the same point as the previous tour and is
+     * traversed in the same direction, as far as the second point of the previous tour allows to tell.
+     */
+    static Point[] align(Point[] tour, Point[] previous) {
+        int n = tour.length;
+        if (previous == null || previous.length != n || n < 3)
+            return tour;
+        int start = -1;
+        for (int i = 0; i < n; i++) {
+            if (tour[i] == previous[0]) {
+                start = i;
+                break;
+            }
+        }
+        if (start < 0)
+            return tour;
+
+        Point[] aligned = new Point[n];
+        boolean reversed = tour[(start + 1) % n] != previous[1] && tour[(start + n - 1) % n] == previous[1];
+        for (int i = 0; i < n; i++)
+            aligned[i] = tour[reversed ? (start - i + n) % n : (start + i) % n];
+        return aligned;
+    }
+
+    /**
+     * Creates the snapshot of a published tour for a subscriber that already received the previous tour.
+     * If more than half of the positions changed, a full snapshot is created instead of a delta.
+     */
+    static TourSnapshot createSnapshot(Published delivered, Published published) {
+        Point[] points = published.points;
+        int n = points.length;
+        if (delivered == null || delivered.points.length != n)
+            return TourSnapshot.full(published.version, published.stage, published.elapsedTime, published.length,
+                    points);
+
+        Point[] old = delivered.points;
+        List<int[]> ranges = new ArrayList<>();
+        int numChanges = 0;
+        int i = 0;
+        while (i < n) {
+            if (points[i] == old[i]) {
+                i++;
+                continue;
+            }
+            // Extend the range until at least MIN_GAP unchanged positions follow
+            int start = i;
+            int end = i + 1;
+            int gap = 0;
+            for (i++; i < n && gap < MIN_GAP; i++) {
+                if (points[i] == old[i]) {
+                    gap++;
+                } else {
+                    gap = 0;
+                    end = i + 1;
+                }
+            }
+            ranges.add(new int[]{start, end});
+            numChanges += end - start;
+            if (2 * numChanges > n)
+                return TourSnapshot.full(published.version, published.stage, published.elapsedTime,
+                        published.length, points);
+        }
+
+        int[] starts = new int[ranges.size()];
+        Point[][] changed = new Point[ranges.size()][];
+        for (int r = 0; r < ranges.size(); r++) {
+            int[] range = ranges.get(r);
+            starts[r] = range[0];
+            changed[r] = new Point[range[1] - range[0]];
+            System.arraycopy(points, range[0], changed[r], 0, changed[r].length);
+        }
+        return TourSnapshot.delta(published.version, published.stage, published.elapsedTime, published.length,
+                n, starts, changed);
+    }
+
+    /**
+     * Subscription of a single subscriber, whose signals are delivered one after another on the executor.
+     */
+    private class TourSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super TourSnapshot> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile Throwable error;
+
+        // Only accessed by the delivery loop
+        private boolean subscribed;
+        private Published delivered;
+
+        TourSubscription(Flow.Subscriber<? super TourSnapshot> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("The number of requested snapshots has to be positive! n: " + n);
+            } else {
+                // Add the demand, capped at Long.MAX_VALUE
+                demand.getAndUpdate(d -> d + n < 0 ? Long.MAX_VALUE : d + n);
+            }
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+
+        /**
+         * Schedules the delivery loop, unless it is already running, in which case it runs once more.
+         */
+        void signal() {
+            if (pending.getAndIncrement() == 0)
+                executor.execute(this::deliver);
+        }
+
+        private void deliver() {
+            int missed = 1;
+            do {
+                if (!subscribed) {
+                    subscribed = true;
+                    subscriber.onSubscribe(this);
+                }
+                while (!cancelled) {
+                    if (error != null) {
+                        cancel();
+                        subscriber.onError(error);
+                        break;
+                    }
+                    Published published = current;
+                    if (published != null && published != delivered && demand.get() > 0) {
+                        TourSnapshot snapshot = createSnapshot(delivered, published);
+                        delivered = published;
+                        demand.getAndUpdate(d -> d == Long.MAX_VALUE ? d : d - 1);
+                        try {
+                            subscriber.onNext(snapshot);
+                        } catch (RuntimeException e) {
+                            // A subscriber that throws is considered to have cancelled its subscription
+                            cancel();
+                        }
+                    } else if (closed && published == delivered) {
+                        cancel();
+                        subscriber.onComplete();
+                    } else {
+                        break;
+                    }
+                }
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package CircleTSP.algo.sorting;
 
 import CircleTSP.entities.Point;
+import CircleTSP.util.SolveContext;
 
 import java.util.ArrayList;
 import java.util.LinkedList;
@@ -18,8 +19,25 @@ public class BucketSort implements PointSorter {
     	return sort(points, numBuckets, 1);
 	}
 
-	// Reference:https://reader.uni-mainz.de/WiSe2016-17/08-079-060-00/Lists/DocumentLib/Vorlesungsfolien/03_randomisierung_ann.pdf
 	public List<Point> sort(final List<Point> points, final int numBuckets, final int numThreads) {
+		return sort(points, numBuckets, numThreads, new SolveContext());
+	}
+
+	// Reference:https://reader.uni-mainz.de/WiSe2016-17/08-079-060-00/Lists/DocumentLib/Vorlesungsfolien/03_randomisierung_ann.pdf
+	/**
+	 * Sorts points by their angle, which has to be in the interval [0,1).
+	 * The sorting threads check the context before sorting each bucket and stop early if it has been cancelled.
+	 * If the calling thread is interrupted while waiting for the sorting threads, the context is cancelled and the
+	 * sorting threads are interrupted and joined before the CancellationException is thrown.
+	 * @param points Points to be sorted.
+	 * @param numBuckets Number of buckets the interval [0,1) is divided into.
+	 * @param numThreads Number of threads sorting the buckets.
+	 * @param context Context of the computation.
+	 * @return Sorted list of the points.
+	 * @throws java.util.concurrent.CancellationException If the context has been cancelled or its deadline has passed.
+	 */
+	public List<Point> sort(final List<Point> points, final int numBuckets, final int numThreads,
+							final SolveContext context) {
 		PointSorter insertionSort = new InsertionSort();
 		PointSorter mergeSort = new MergeSort();
 
@@ -51,6 +69,8 @@ public class BucketSort implements PointSorter {
 				final int threadID = i;
 				threads[threadID] = new Thread(() -> {
 					for (int j = 0; j < Math.floorDiv(numBuckets,numThreads); j++) {
+						if (context.shouldStop())
+							return;
 						int bucketIndex = (j*numThreads)+threadID;
 						List<Point> currentBucket = buckets.get(bucketIndex);
 						if (currentBucket.size() <= 1)
@@ -60,16 +80,30 @@ public class BucketSort implements PointSorter {
 						else
                             buckets.set(bucketIndex, mergeSort.sort(currentBucket));
 					}
-				});
+				}, "BucketSort-" + threadID);
 				threads[threadID].start();
 			}
+			boolean interrupted = false;
 			for (Thread t : threads) {
-				try {
-					t.join();
-				} catch (InterruptedException eArg) {
-					eArg.printStackTrace();
+				while (true) {
+					try {
+						t.join();
+						break;
+					} catch (InterruptedException eArg) {
+						// Stop the sorting threads, which must not outlive this call
+						if (!interrupted) {
+							interrupted = true;
+							context.cancel();
+							for (Thread thread : threads)
+								thread.interrupt();
+						}
+					}
 				}
 			}
+			// The buckets are incomplete, the check below throws a CancellationException
+			if (interrupted)
+				Thread.currentThread().interrupt();
+			context.checkCancelled("BucketSort");
 
 			// Concatenate buckets
             // TODO: Find more efficient way to concatenate buckets (addAll() iterates over all list entries)
@@ -0,0 +1,121 @@
+package CircleTSP.benchmark;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Appends benchmark results to an NDJSON file in the bulk format of Elasticsearch, where every result is preceded by
+ * an index line. Each result is written and flushed as soon as it is ready, so an interrupted run keeps all finished
+ * results.
+ * Every result is identified by the name of its run, which is stored in the field "run". When an existing file is
+ * opened, the runs already on disk are collected, so they can be skipped when the benchmarks are resumed. A result
+ * that was only partially written is removed.
+ */
+public class NDJSONWriter implements Closeable {
+
+    private static final String INDEX_LINE = "{ \"index\" : { \"_index\" : \"benchmarks\"} }";
+
+    private final BufferedWriter writer;
+    private final Set<String> completedRuns = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Opens a file for appending results, creating it if it doesn't exist.
+     * @param fileName Path of the NDJSON file.
+     * @throws IOException If the file can't be read or written.
+     */
+    public NDJSONWriter(String fileName) throws IOException {
+        Path path = Paths.get(fileName);
+        if (Files.exists(path))
+            recover(path);
+        this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Collects the runs of the complete results of the file and truncates it after the last complete result, which
+     * removes a result or index line that was interrupted while being written.
+     */
+    private void recover(Path path) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        JSONParser parser = new JSONParser();
+        long validEnd = 0;
+        int start = 0;
+        while (start < bytes.length) {
+            int end = start;
+            while (end < bytes.length && bytes[end] != '\n')
+                end++;
+            // A line without line break has been interrupted
+            if (end == bytes.length)
+                break;
+            String line = new String(bytes, start, end - start, StandardCharsets.UTF_8).trim();
+            if (!line.isEmpty() && !line.equals(INDEX_LINE)) {
+                try {
+                    Object run = ((JSONObject) parser.parse(line)).get("run");
+                    if (run != null)
+                        completedRuns.add(run.toString());
+                } catch (ParseException | ClassCastException e) {
+                    break;
+                }
+                validEnd = end + 1;
+            }
+            start = end + 1;
+        }
+        if (validEnd < bytes.length) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(validEnd);
+            }
+        }
+    }
+
+    /**
+     * @param run Name of a run.
+     * @return True if the result of the run is contained in the file.
+     */
+    public boolean contains(String run) {
+        return completedRuns.contains(run);
+    }
+
+    /**
+     * @return Number of results in the file.
+     */
+    public int size() {
+        return completedRuns.size();
+    }
+
+    /**
+     * Appends a result and flushes it to the file. Can be called by several threads.
+     * @param run Name of the run, which is written as field "run" of the result.
+     * @param result Result of the run, which is not modified.
+     * @throws IOException If the file can't be written.
+     */
+    public synchronized void write(String run, JSONObject result) throws IOException {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("run", run);
+        for (Object key : result.keySet())
+            line.put(key.toString(), result.get(key));
+        writer.write(INDEX_LINE + "\n");
+        writer.write(JSONObject.toJSONString(line) + "\n");
+        writer.flush();
+        completedRuns.add(run);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
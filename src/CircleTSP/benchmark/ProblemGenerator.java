@@ -7,6 +7,17 @@ import java.util.*;
 
 public class ProblemGenerator {
 
+    // Shared by all generators, so a seed makes a whole sequence of generated problems reproducible
+    private static final Random RANDOM = new Random();
+
+    /**
+     * Seeds the random numbers of all generators, e.g. for benchmarks that have to run on the same problems.
+     * @param seed Seed of the random numbers.
+     */
+    public static void setSeed(final long seed) {
+        RANDOM.setSeed(seed);
+    }
+
     public static Collection<Point> randomUniform(final int n) {
         return randomUniform(n, new double[]{-1.0, 1.0});
     }
@@ -27,7 +38,7 @@ public class ProblemGenerator {
         if (rangeY[1] <= rangeY[0])
             throw new IllegalArgumentException("The second entry of the rangeY parameter must be higher than the first!");
 
-        Random rnd = new Random();
+        Random rnd = RANDOM;
         for (int i = 0; i < n; i++) {
             double x = rnd.nextDouble();
             double y = rnd.nextDouble();
@@ -66,7 +77,7 @@ public class ProblemGenerator {
         if (rangeY[1] <= rangeY[0])
             throw new IllegalArgumentException("The second entry of the rangeY parameter must be higher than the first!");
 
-        Random rnd = new Random();
+        Random rnd = RANDOM;
         for (int i=0; i < n; i++) {
             double phi = rnd.nextDouble() * 2*Math.PI;
             double devX = rnd.nextDouble() * 2*deviation - deviation;
@@ -106,7 +117,7 @@ public class ProblemGenerator {
         if (angle < 0 || angle > 2*Math.PI)
             throw new IllegalArgumentException("The angle must be given in radians (value between 0 and 2*pi)!");
 
-        Random rnd = new Random();
+        Random rnd = RANDOM;
         double factor = Math.abs(range[1] - range[0]);
         for (int i=0; i < n; i++) {
             double section = rnd.nextDouble() * factor + range[0];
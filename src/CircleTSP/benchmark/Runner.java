@@ -1,98 +1,212 @@
 package CircleTSP.benchmark;
 
 import CircleTSP.algo.cluster.DBSCAN;
+import CircleTSP.algo.improvement.CrossingRemoval;
 import CircleTSP.algo.solvers.*;
 import CircleTSP.entities.*;
 import CircleTSP.util.Distance;
-import CircleTSP.util.ParameterLearner;
 import CircleTSP.util.Statistics;
+import CircleTSP.util.TSPInstance;
 import CircleTSP.util.TSPLIB;
+import CircleTSP.util.TSPLIBBinary;
+import CircleTSP.util.TourCodec;
 import org.json.simple.JSONObject;
 
-import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * Created by Erik Heller on 28.10.2019.
  */
-public class Runner {
+public class Runner implements AutoCloseable {
+
+    private final Executor executor;
+    // Single thread running the measured iterations of all instances if they are pinned, created when first needed
+    private ExecutorService measurementThread;
+    private int numWorkers = 1;
+    private boolean pinMeasurements = false;
+
+    /**
+     * Creates a runner that runs the solvers on the common ForkJoinPool.
+     */
+    public Runner() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param executor Executor on which all solvers are run.
+     */
+    public Runner(Executor executor) {
+        if (executor == null)
+            throw new IllegalArgumentException("The executor of a runner can't be null!");
+        this.executor = executor;
+    }
+
+    public int getNumWorkers() {
+        return numWorkers;
+    }
+
+    /**
+     * @param numWorkers Number of instances that are benchmarked at the same time, 1 by default.
+     */
+    public void setNumWorkers(int numWorkers) {
+        if (numWorkers < 1)
+            throw new IllegalArgumentException("A runner needs at least one worker!");
+        this.numWorkers = numWorkers;
+    }
+
+    public boolean isPinMeasurements() {
+        return pinMeasurements;
+    }
 
+    /**
+     * @param pinMeasurements If true, the measured iterations of all instances run one after another on a single
+     *                        thread, so they don't interfere with each other. The solvers run on this thread
+     *                        themselves, including the sub tours of cluster solvers, instead of the executor of the
+     *                        runner. The workers still generate the instances, learn the parameters and warm up in
+     *                        parallel.
+     */
+    public void setPinMeasurements(boolean pinMeasurements) {
+        this.pinMeasurements = pinMeasurements;
+    }
+
+    private synchronized ExecutorService getMeasurementThread() {
+        if (measurementThread == null)
+            measurementThread = Executors.newSingleThreadExecutor(daemonThreads("measurement"));
+        return measurementThread;
+    }
+
+    /**
+     * Shuts down the thread of the pinned measurements. The runner can still be used afterwards, the thread is created
+     * again when it is needed.
+     */
+    @Override
+    public synchronized void close() {
+        if (measurementThread != null) {
+            measurementThread.shutdown();
+            measurementThread = null;
+        }
+    }
+
+    private static ThreadFactory daemonThreads(final String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "Runner-" + name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    JSONObject performBenchmark(final Collection<Point> points, final TSPSolver solver, final int numIterations,
+                                final int warmUp) {
+        return performBenchmark(points, solver, numIterations, warmUp, null);
+    }
+
+    /**
+     * @param instance Instance whose metric is used for the costs of the tours (e.g. with TSPLIB rounding or the
+     *                 weights of a distance matrix), or null for the length computed by the solver.
+     */
     private JSONObject performBenchmark(final Collection<Point> points, final TSPSolver solver, final int numIterations,
-                                        final int warmUp) {
+                                        final int warmUp, final TSPInstance<?> instance) {
         double[] timeUsed = new double[numIterations];
         double[] tourlengths = new double[numIterations];
-        double learningTime = 0;
+        Map<String, Double> phaseTimes = new LinkedHashMap<>();
         int numClusters = 0;
 
         JSONObject solverJSON = new JSONObject();
-        JSONObject parameters = new JSONObject();
 
         solverJSON.put("name", solver.getClass().getSimpleName());
 
-        if (solver instanceof TSPClusterSolver) {
-            int minPts = 4;
-            TSPClusterSolver clusterSolver = (TSPClusterSolver) solver;
-            double time_learn1 = System.nanoTime();
-            double epsilon = ParameterLearner.learnEpsilon2(points, minPts, clusterSolver);
-            double time_learn2 = System.nanoTime();
-            learningTime = (double)(time_learn2 - time_learn1) / 1000000.0;
-
-            parameters.put("minPts", minPts);
-            parameters.put("epsilon", epsilon);
-
-            DBSCAN clusterer = new DBSCAN(points, 4, epsilon);
+        // The first run learns the parameters that are not set in the options (e.g. epsilon of cluster solvers),
+        // which are then used by all further runs
+        SolveOptions options = new SolveOptions();
+        options.setExecutor(executor);
+        if (instance != null)
+            options.setDistanceMatrix(instance.getMatrix());
+        SolveResult learningRun = solver.solveAsync(points, options).join();
+        double learningTime = learningRun.getPhaseTime("learning");
+        JSONObject parameters = new JSONObject(learningRun.getParameters());
+
+        Object epsilon = learningRun.getParameters().get("epsilon");
+        if (epsilon != null) {
+            options.setEpsilon((double) epsilon);
+            DBSCAN clusterer = new DBSCAN(points, options.getMinPts(), options.getEpsilon());
             List<Cluster> clusters = clusterer.getClusters();
             numClusters = clusters.size();
+        }
 
-            Tour tour;
-            for (int j = 0 - warmUp; j < numIterations; j++) {
-                long time1 = System.nanoTime();
-                tour = clusterSolver.calculateTour(points, 4, epsilon);
-                long time2 = System.nanoTime();
-
-                if (j >= 0) {
-                    timeUsed[j] = (double)(time2 - time1) / 1000000.0;
-                    tourlengths[j] = Distance.calculateTourLength(tour);
-                }
-            }
+        // Warm-up runs are not measured and run on the worker, even if the measurements are pinned
+        for (int j = 0; j < warmUp; j++)
+            solver.solveAsync(points, options).join();
+
+        // The executor of the sub tours is restored after the measurements, as the solver may be used elsewhere
+        Executor clusterExecutor = solver instanceof TSPClusterSolver
+                ? ((TSPClusterSolver) solver).getExecutor() : null;
+        if (pinMeasurements) {
+            // The measured iterations run entirely on the measurement thread, which calls the solver
+            options.setExecutor(Runnable::run);
+            if (clusterExecutor != null)
+                ((TSPClusterSolver) solver).setExecutor(Runnable::run);
         }
-        else if (solver instanceof CircleTSP) {
-            Tour tour;
-            for (int j = 0 - warmUp; j < numIterations; j++) {
-                long time1 = System.nanoTime();
-                tour = CircleTSP.calculateTour(points);
-                long time2 = System.nanoTime();
-
-                if (j >= 0) {
-                    timeUsed[j] = (double)(time2 - time1) / 1000000.0;
-                    tourlengths[j] = Distance.calculateTourLength(tour);
-                }
+        Supplier<Tour> measurement = () -> {
+            Tour tour = null;
+            for (int j = 0; j < numIterations; j++) {
+                SolveResult result = solver.solveAsync(points, options).join();
+                // Measuring the length of the tour is not part of the runtime
+                timeUsed[j] = result.getTotalTime() - result.getPhaseTime("length");
+                tourlengths[j] = instance == null ? result.getLength()
+                        : instance.calculateTourLength(result.getTour());
+                tour = result.getTour();
+                for (Map.Entry<String, Double> phaseTime : result.getPhaseTimes().entrySet())
+                    phaseTimes.merge(phaseTime.getKey(), phaseTime.getValue() / numIterations, Double::sum);
             }
-        }
-        else {
-            throw new IllegalArgumentException("Solver is not a valid TSPSolver!");
+            return tour;
+        };
+        Tour lastTour;
+        try {
+            lastTour = pinMeasurements ? CompletableFuture.supplyAsync(measurement, getMeasurementThread()).join()
+                    : measurement.get();
+        } finally {
+            if (clusterExecutor != null)
+                ((TSPClusterSolver) solver).setExecutor(clusterExecutor);
         }
 
         solverJSON.put("parameters", parameters);
 
         JSONObject benchmark = new JSONObject();
         benchmark.put("numClusters", numClusters);
+        // Crossing edges prove that a tour can still be improved
+        if (lastTour != null)
+            benchmark.put("crossings", CrossingRemoval.countCrossings(lastTour));
+        if (lastTour != null)
+            benchmark.put("codec", measureCodec(lastTour, points));
 
         Map<String, Double> runtime = new LinkedHashMap<>();
         runtime.put("average", Statistics.average(timeUsed));
         runtime.put("variance", Statistics.variance(timeUsed));
         runtime.put("learning", learningTime);
         benchmark.put("runtime", runtime);
+        // Average time of each phase of the solver
+        benchmark.put("phases", phaseTimes);
 
         Map<String, Double> costs = new LinkedHashMap<>();
         costs.put("average", Statistics.average(tourlengths));
@@ -106,6 +220,58 @@ public class Runner {
         return result;
     }
 
+    /**
+     * Encodes a tour with the TourCodec and decodes it again. Points are encoded by their node ids if all identifiers
+     * are integers, like the canonical numbering of TSPLIB instances. Otherwise they are encoded by their index in the
+     * order of their identifiers, which doesn't depend on the iteration order of the collection.
+     * @return Size of the encoded tour relative to the text of Tour.toString(), and the throughput of encoding and
+     * decoding in points per millisecond.
+     */
+    static Map<String, Double> measureCodec(final Tour tour, final Collection<Point> points) {
+        List<Point> pointList = new ArrayList<>(points);
+        Map<String, Integer> indices = new HashMap<>();
+        Map<Integer, Point> pointsByValue = new HashMap<>();
+        try {
+            for (Point p : pointList) {
+                int nodeId = Integer.parseInt(p.getId());
+                indices.put(p.getId(), nodeId);
+                pointsByValue.put(nodeId, p);
+            }
+        } catch (NumberFormatException e) {
+            indices.clear();
+            pointsByValue.clear();
+            pointList.sort(Comparator.comparing(Point::getId));
+            for (int i = 0; i < pointList.size(); i++) {
+                indices.put(pointList.get(i).getId(), i);
+                pointsByValue.put(i, pointList.get(i));
+            }
+        }
+
+        Map<String, Double> codec = new LinkedHashMap<>();
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            long time = System.nanoTime();
+            long size = TourCodec.encode(tour, p -> indices.get(p.getId()), out);
+            double encodeTime = (System.nanoTime() - time) / 1e6;
+
+            time = System.nanoTime();
+            Tour decoded = TourCodec.decodeTour(new ByteArrayInputStream(out.toByteArray()), pointsByValue::get);
+            double decodeTime = (System.nanoTime() - time) / 1e6;
+            if (!decoded.equals(tour))
+                throw new IllegalStateException("The decoded tour differs from the encoded tour!");
+
+            long textSize = tour.toString().getBytes(StandardCharsets.UTF_8).length;
+            codec.put("bytes", (double) size);
+            codec.put("ratio", (double) size / textSize);
+            codec.put("encodeThroughput", tour.size() / Math.max(encodeTime, 1e-3));
+            codec.put("decodeThroughput", tour.size() / Math.max(decodeTime, 1e-3));
+        } catch (IOException e) {
+            // Streams in memory don't throw
+            throw new IllegalStateException(e);
+        }
+        return codec;
+    }
+
     private JSONObject writeResults(final String experiment, final String dataset,
                                     final int numPoints, final int numInstances,
                                     final int numIterations, final JSONObject benchmark) {
@@ -126,108 +292,128 @@ public class Runner {
         return instanceResult;
     }
 
+    /**
+     * Benchmarks the runs that are not contained in the output on the workers and appends each result to the output
+     * as soon as it is ready. Runs that fail are reported and skipped, so they are repeated when the benchmarks are
+     * resumed.
+     * @param runs Benchmark of each run by its name, returning null if the run has to be skipped.
+     * @return Number of results written.
+     */
+    private int runAll(final Map<String, Supplier<JSONObject>> runs, final NDJSONWriter out) {
+        List<Map.Entry<String, Supplier<JSONObject>>> pending = runs.entrySet().stream()
+                .filter(run -> !out.contains(run.getKey()))
+                .collect(Collectors.toList());
+        if (pending.size() < runs.size())
+            System.out.println("Skipping " + (runs.size() - pending.size()) + " benchmarks found in the output");
+
+        ExecutorService workers = Executors.newFixedThreadPool(numWorkers, daemonThreads("worker"));
+        AtomicInteger finished = new AtomicInteger();
+        AtomicInteger written = new AtomicInteger();
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>(pending.size());
+            for (Map.Entry<String, Supplier<JSONObject>> run : pending) {
+                futures.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        JSONObject result = run.getValue().get();
+                        if (result != null) {
+                            out.write(run.getKey(), result);
+                            written.incrementAndGet();
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        System.err.println("Benchmark " + run.getKey() + " failed:");
+                        e.printStackTrace();
+                    }
+                    synchronized (finished) {
+                        System.out.print("Finished benchmark " + finished.incrementAndGet() + " of "
+                                + pending.size() + "\r");
+                    }
+                }, workers));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } finally {
+            workers.shutdown();
+        }
+        return written.get();
+    }
+
     // TODO: Create more experiments (Parameter randomization, deviation, rotation, stretching)
 
-    public List<String> circleBenchmarks(final int numIterations, final int numInstances, final int warmUp,
-                                         final double[] experiments, final int numPoints)
-            throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+    /**
+     * Benchmarks the solvers on points on a circle with different deviations.
+     * @param out Output to which the results are appended, runs already contained in it are skipped.
+     * @return Number of results written.
+     */
+    public int circleBenchmarks(final int numIterations, final int numInstances, final int warmUp,
+                                final double[] experiments, final int numPoints, final NDJSONWriter out) {
         String experimentName = "circleBenchmarks";
-        TSPSolver[] solvers = new TSPSolver[] {
-                new CircleTSP(),
-                new ClusteredCircleTSP(),
-                new PathCircleTSP()
-        };
-        List<String> results = new ArrayList<>();
-
-        int numExperiments = experiments.length;
-
-        int countSolver = 0;
-        int maxSolvers = solvers.length;
-        for (TSPSolver solver : solvers) {
-            for (int i = 0; i < numExperiments; i++) {
-                final double deviation = experiments[i];
-
-                    for (int j = 0; j < numInstances; j++) {
-
-                        int maxBenchmark = maxSolvers * numExperiments * numInstances;
-                        int currentBenchmark = j + i*(numInstances) + countSolver*(numInstances*numExperiments) + 1;
-                        System.out.print("Running benchmark " + currentBenchmark + " of " + maxBenchmark + "\r");
-
+        // Every run gets its own solver, as the runs are benchmarked concurrently
+        List<Supplier<TSPSolver>> solvers = List.of(CircleTSP::new, ClusteredCircleTSP::new, PathCircleTSP::new);
+
+        Map<String, Supplier<JSONObject>> runs = new LinkedHashMap<>();
+        for (Supplier<TSPSolver> solver : solvers) {
+            String solverName = solver.get().getClass().getSimpleName();
+            for (final double deviation : experiments) {
+                for (int j = 0; j < numInstances; j++) {
+                    String run = String.join("/", experimentName, "Dev" + deviation, "" + numPoints, solverName,
+                            "" + j);
+                    runs.put(run, () -> {
                         Collection<Point> points = ProblemGenerator.randomCircle(numPoints, deviation);
-                        JSONObject benchmark = performBenchmark(points, solver, numIterations, warmUp);
-
-                        JSONObject result = writeResults(experimentName, "Dev" + deviation, numPoints,
+                        JSONObject benchmark = performBenchmark(points, solver.get(), numIterations, warmUp);
+                        return writeResults(experimentName, "Dev" + deviation, numPoints,
                                 numInstances, numIterations, benchmark);
-
-                        results.add(result.toJSONString());
-                    }
+                    });
+                }
             }
-            countSolver++;
         }
-        return results;
+        return runAll(runs, out);
     }
 
-    public List<String> randomBenchmarks(final int numIterations, final int numInstances, final int warmUp,
-                                         final int[] experiments)
-            throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+    /**
+     * Benchmarks the solvers on points of all generators of the ProblemGenerator.
+     * @param out Output to which the results are appended, runs already contained in it are skipped.
+     * @return Number of results written.
+     */
+    public int randomBenchmarks(final int numIterations, final int numInstances, final int warmUp,
+                                final int[] experiments, final NDJSONWriter out) {
         String experimentName = "randomBenchmarks";
-        TSPSolver[] solvers = new TSPSolver[] {
-                new CircleTSP(),
-                new ClusteredCircleTSP(),
-                new PathCircleTSP()
-        };
-        List<String> results = new ArrayList<>();
-
-        int numExperiments = experiments.length;
-
-        int countSolver = 0;
-        int maxSolvers = solvers.length;
-        for (TSPSolver solver : solvers) {
-            for (int i = 0; i < numExperiments; i++) {
-                final int numPoints = experiments[i];
-
-                Map<String, Method> generators = new HashMap<>();
-                generators.put("4UC", ProblemGenerator.class.getMethod(
-                        "fourUniformClusters", int.class));
-                generators.put("4CC", ProblemGenerator.class.getMethod(
-                        "fourCircleClusters", int.class));
-                generators.put("4LC", ProblemGenerator.class.getMethod(
-                        "fourLinearClusters", int.class));
-                generators.put("RU", ProblemGenerator.class.getMethod(
-                        "randomUniform", int.class));
-                generators.put("RC", ProblemGenerator.class.getMethod(
-                        "randomCircle", int.class));
-                generators.put("RL", ProblemGenerator.class.getMethod(
-                        "randomLinear", int.class));
-
-                int countGenerator = 0;
-                int maxGenerators = generators.size();
-                for (String id : generators.keySet()) {
+        List<Supplier<TSPSolver>> solvers = List.of(CircleTSP::new, ClusteredCircleTSP::new, PathCircleTSP::new);
+
+        Map<String, IntFunction<Collection<Point>>> generators = new LinkedHashMap<>();
+        generators.put("4UC", ProblemGenerator::fourUniformClusters);
+        generators.put("4CC", ProblemGenerator::fourCircleClusters);
+        generators.put("4LC", ProblemGenerator::fourLinearClusters);
+        generators.put("RU", ProblemGenerator::randomUniform);
+        generators.put("RC", ProblemGenerator::randomCircle);
+        generators.put("RL", ProblemGenerator::randomLinear);
+
+        Map<String, Supplier<JSONObject>> runs = new LinkedHashMap<>();
+        for (Supplier<TSPSolver> solver : solvers) {
+            String solverName = solver.get().getClass().getSimpleName();
+            for (final int numPoints : experiments) {
+                for (Map.Entry<String, IntFunction<Collection<Point>>> generator : generators.entrySet()) {
+                    String id = generator.getKey();
                     for (int j = 0; j < numInstances; j++) {
-
-                        int maxBenchmark = maxSolvers * numExperiments * maxGenerators * numInstances;
-                        int currentBenchmark = j + countGenerator*numInstances
-                                + i*(numInstances*maxGenerators) +
-                                countSolver*(numInstances*maxGenerators*numExperiments) + 1;
-                        System.out.print("Running benchmark " + currentBenchmark + " of " + maxBenchmark + "\r");
-
-                        Collection<Point> points = (Collection<Point>) generators.get(id).invoke(null, numPoints);
-                        JSONObject benchmark = performBenchmark(points, solver, numIterations, warmUp);
-
-                        JSONObject result = writeResults(experimentName, id, numPoints,
-                                numInstances, numIterations, benchmark);
-
-                        results.add(result.toJSONString());
+                        String run = String.join("/", experimentName, id, "" + numPoints, solverName, "" + j);
+                        runs.put(run, () -> {
+                            Collection<Point> points = generator.getValue().apply(numPoints);
+                            JSONObject benchmark = performBenchmark(points, solver.get(), numIterations, warmUp);
+                            return writeResults(experimentName, id, numPoints,
+                                    numInstances, numIterations, benchmark);
+                        });
                     }
-                    countGenerator++;
                 }
             }
-            countSolver++;
         }
-        return results;
+        return runAll(runs, out);
     }
 
-    public List<String> tsplibBenchmarks(final int numIterations, final int warmUp, final String folder) throws IOException {
+    /**
+     * Benchmarks the solvers on all TSPLIB instances of a folder that have an optimal tour in its subfolder "tour".
+     * @param out Output to which the results are appended, runs already contained in it are skipped.
+     * @return Number of results written.
+     */
+    public int tsplibBenchmarks(final int numIterations, final int warmUp, final String folder,
+                                final NDJSONWriter out) throws IOException {
         // Find files
 
         Set<String> benchmarkFiles = new TreeSet<>();
@@ -250,87 +436,94 @@ public class Runner {
 
         // Perform benchmarks
         String experimentName = "TSPLIB";
-        TSPSolver[] solvers = new TSPSolver[] {
-                new CircleTSP(),
-                new ClusteredCircleTSP(),
-                new PathCircleTSP()
-        };
-        List<String> results = new ArrayList<>();
+        List<Supplier<TSPSolver>> solvers = List.of(CircleTSP::new, ClusteredCircleTSP::new, PathCircleTSP::new,
+                LinKernighanTSP::new);
 
-        int maxBenchmark = solvers.length * benchmarkFiles.size();
-        int currentBenchmark = 1;
+        Map<String, Supplier<JSONObject>> runs = new LinkedHashMap<>();
         for (String filename:benchmarkFiles) {
-            String pointsFile = folder + "/" + filename + ".tsp";
+            String plainFile = folder + "/" + filename + ".tsp";
+            // Archived instances are read from the compressed file
+            String pointsFile = !new File(plainFile).exists() && new File(plainFile + ".gz").exists()
+                    ? plainFile + ".gz" : plainFile;
             String tourFile = folder + "/tour/" + filename + ".opt.tour";
 
-            HashMap<String, Point> pointMap;
-            try {
-                pointMap = TSPLIB.readPoints(pointsFile);
-            } catch (IllegalArgumentException e) {
-                currentBenchmark += solvers.length;
-                continue;
-            }
-
-            for (TSPSolver solver : solvers) {
-                System.out.print("Running benchmark " + currentBenchmark + " of " + maxBenchmark + "\r");
-
-                Collection<Point> points = pointMap.values();
-                JSONObject benchmark = performBenchmark(points, solver, numIterations, warmUp);
-
-                JSONObject result = writeResults(experimentName, filename,
-                        pointMap.size(),1, numIterations, benchmark);
-
-                // Get optimal results
-                Tour optimalTour = TSPLIB.readOpt(tourFile, pointMap);
-                double optimalCosts = 0;
-                try {
-                    optimalCosts = Distance.calculateTourLength(optimalTour);
-                } catch (NullPointerException e) {
-                    e.printStackTrace();
-                }
-                double averageCosts = (double)((LinkedHashMap)((JSONObject)benchmark.get("benchmark"))
-                        .get("costs")).get("average");
-                double ratio = averageCosts / optimalCosts;
-
-                JSONObject optimal = new JSONObject();
-                optimal.put("costs", optimalCosts);
-                optimal.put("ratio", ratio);
-                result.put("optimal", optimal);
-
-                results.add(result.toJSONString());
+            for (Supplier<TSPSolver> solver : solvers) {
+                String run = String.join("/", experimentName, filename, solver.get().getClass().getSimpleName());
+                runs.put(run, () -> {
+                    TSPInstance<?> instance;
+                    HashMap<String, Point> pointMap;
+                    try {
+                        // Uses the binary instance next to the TSPLIB file if it has been converted before. Every
+                        // run gets its own points, as the solvers change the angles of the points
+                        instance = TSPLIBBinary.readCached(pointsFile);
+                        pointMap = instance.getPoints().toPointMap();
+                    } catch (IllegalArgumentException e) {
+                        return null;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
 
-                currentBenchmark++;
+                    Collection<Point> points = pointMap.values();
+                    // Tours are compared with the optimal tour using the rounding rules or the distance matrix of
+                    // the instance
+                    JSONObject benchmark = performBenchmark(points, solver.get(), numIterations, warmUp, instance);
+
+                    JSONObject result = writeResults(experimentName, filename,
+                            pointMap.size(),1, numIterations, benchmark);
+                    result.put("metric", instance.getEdgeWeightType());
+
+                    // Get optimal results
+                    double averageCosts = (double)((LinkedHashMap)((JSONObject)benchmark.get("benchmark"))
+                            .get("costs")).get("average");
+                    try {
+                        result.put("optimal", compareWithOptimal(instance, pointMap, tourFile, averageCosts));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return result;
+                });
             }
         }
-
-        return results;
+        return runAll(runs, out);
     }
 
-    private static void writeFile(final String filename, List<String> results) {
-        File file = new File(filename);
-        BufferedWriter br = null;
+    /**
+     * Compares the average costs of a benchmark with the optimal tour of a TSPLIB instance.
+     * @param instance Instance whose rounding rules or distance matrix are used to measure the optimal tour.
+     * @param pointMap Points of the instance, mapped by their identifiers.
+     * @param tourFile Path of the optimal tour.
+     * @param averageCosts Average costs of the tours of the benchmark.
+     * @return Costs of the optimal tour and the ratio and gap of the average costs, or null if the tour file doesn't
+     * contain a tour visiting every point exactly once.
+     * @throws IOException If the tour file can't be read.
+     */
+    static JSONObject compareWithOptimal(final TSPInstance<?> instance, final HashMap<String, Point> pointMap,
+                                         final String tourFile, final double averageCosts) throws IOException {
+        Tour optimalTour;
         try {
-            br = new BufferedWriter(new FileWriter(file));
-            for (String result : results) {
-                br.write("{ \"index\" : { \"_index\" : \"benchmarks\"} }\n");
-                String s = result + System.getProperty("line.separator");
-                br.write(s);
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }finally{
-            try {
-                if (br != null) {
-                    br.close();
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+            optimalTour = TSPLIB.readOpt(tourFile, pointMap);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid optimal tour " + tourFile + ": " + e.getMessage());
+            return null;
         }
+        // A short tour would be shorter than the optimum and result in a wrong ratio
+        if (optimalTour.size() != pointMap.size() || new HashSet<>(optimalTour).size() != pointMap.size()) {
+            System.err.println("Optimal tour " + tourFile + " doesn't visit all " + pointMap.size() + " points!");
+            return null;
+        }
+        double optimalCosts = instance.calculateTourLength(optimalTour);
+        double ratio = averageCosts / optimalCosts;
+        // Relative excess of the average tour over the optimal tour
+        double gap = ratio - 1;
+
+        JSONObject optimal = new JSONObject();
+        optimal.put("costs", optimalCosts);
+        optimal.put("ratio", ratio);
+        optimal.put("gap", gap);
+        return optimal;
     }
 
-    public static void main(String[] args) throws NoSuchMethodException,
-            IllegalAccessException, InvocationTargetException, IOException {
+    public static void main(String[] args) throws IOException {
 
         int[] randomLow = new int[]{4, 8, 16, 32, 64, 128, 256, 512, 1024};
         int[] randomMid = new int[]{2048, 4096, 8192, 16384, 32768};
@@ -338,32 +531,41 @@ public class Runner {
         // int[] randomVeryHigh = new int[]{262144, 524288, 1048576};
         double[] circleDeviations = new double[]{0.0, 0.1, 0.2, 0.3, 0.4, 0.5, 0.6, 0.7, 0.8, 0.9, 1.0};
 
-        Runner runner = new Runner();
-
-        System.out.println("=== Circle Benchmarks ===\n");
-        List<String> circleResults = runner.circleBenchmarks(1024, 256, 10, circleDeviations, 512);
-        writeFile("circleBenchmarks.ndjson", circleResults);
-        System.out.println("Done!\n");
+        // Instances are generated and prepared in parallel, while the measured iterations don't overlap. Results
+        // that are already in the output files are skipped, so an interrupted run can be resumed
+        try (Runner runner = new Runner()) {
+            runner.setNumWorkers(Runtime.getRuntime().availableProcessors());
+            runner.setPinMeasurements(true);
 
-        System.out.println("=== Random Benchmarks (Low) ===\n");
-        List<String> randomResultsLow = runner.randomBenchmarks(1024, 128, 10, randomLow);
-        writeFile("randomBenchmarks_low.ndjson", randomResultsLow);
-        System.out.println("Done!\n");
+            System.out.println("=== Circle Benchmarks ===\n");
+            try (NDJSONWriter out = new NDJSONWriter("circleBenchmarks.ndjson")) {
+                runner.circleBenchmarks(1024, 256, 10, circleDeviations, 512, out);
+            }
+            System.out.println("Done!\n");
 
-        System.out.println("=== Random Benchmarks (Mid) ===\n");
-        List<String> randomResultsMid = runner.randomBenchmarks(64, 8, 10, randomMid);
-        writeFile("randomBenchmarks_mid.ndjson", randomResultsMid);
-        System.out.println("Done!\n");
+            System.out.println("=== Random Benchmarks (Low) ===\n");
+            try (NDJSONWriter out = new NDJSONWriter("randomBenchmarks_low.ndjson")) {
+                runner.randomBenchmarks(1024, 128, 10, randomLow, out);
+            }
+            System.out.println("Done!\n");
 
-        System.out.println("=== Random Benchmarks (High) ===\n");
-        List<String> randomResultsHigh = runner.randomBenchmarks(4, 1, 4, randomHigh);
-        writeFile("randomBenchmarks_high.ndjson", randomResultsHigh);
-        System.out.println("Done!\n");
+            System.out.println("=== Random Benchmarks (Mid) ===\n");
+            try (NDJSONWriter out = new NDJSONWriter("randomBenchmarks_mid.ndjson")) {
+                runner.randomBenchmarks(64, 8, 10, randomMid, out);
+            }
+            System.out.println("Done!\n");
 
-        System.out.println("=== TSPLIB Benchmarks ===\n");
-        List<String> tsplibResults = runner.tsplibBenchmarks(2048, 10, args[0]);
-        writeFile("tsplibBenchmarks.ndjson", tsplibResults);
-        System.out.println("Done!\n");
+            System.out.println("=== Random Benchmarks (High) ===\n");
+            try (NDJSONWriter out = new NDJSONWriter("randomBenchmarks_high.ndjson")) {
+                runner.randomBenchmarks(4, 1, 4, randomHigh, out);
+            }
+            System.out.println("Done!\n");
 
+            System.out.println("=== TSPLIB Benchmarks ===\n");
+            try (NDJSONWriter out = new NDJSONWriter("tsplibBenchmarks.ndjson")) {
+                runner.tsplibBenchmarks(2048, 10, args[0], out);
+            }
+            System.out.println("Done!\n");
+        }
     }
 }
@@ -0,0 +1,176 @@
+package CircleTSP.entities;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Point store backed by primitive arrays.
+ * Identifiers are kept as integers, as TSPLIB uses integer node ids. Identifiers that can't be restored from their
+ * integer value (e.g. with leading zeros, or letters, in which case the node ids are assigned by the reader) are kept as
+ * strings in addition.
+ */
+public class ArrayPointStore implements PointStore {
+
+    private final int size;
+    private final int[] nodeIds;
+    private final double[] xs;
+    private final double[] ys;
+    // Identifiers that differ from the string representation of their node id, null if there are none
+    private final String[] names;
+    // Index of every node id, where node id i is stored at position i-1, null if the ids are not indexed
+    private final int[] indices;
+    // Index of every node id if the ids are not indexed, created on the first lookup
+    private volatile Map<Integer, Integer> indexMap;
+
+    /**
+     * @param size Number of points, the arrays may be longer.
+     * @param nodeIds Integer identifiers of the points.
+     * @param xs x coordinates of the points.
+     * @param ys y coordinates of the points.
+     * @param names Identifiers of points that differ from the string representation of their node ids, or null for
+     *              all other points. The whole array can be null if there are no such points.
+     */
+    public ArrayPointStore(int size, int[] nodeIds, double[] xs, double[] ys, String[] names) {
+        this(size, nodeIds, xs, ys, names, null);
+    }
+
+    /**
+     * @param size Number of points, the arrays may be longer.
+     * @param nodeIds Integer identifiers of the points.
+     * @param xs x coordinates of the points.
+     * @param ys y coordinates of the points.
+     * @param names Identifiers of points that differ from the string representation of their node ids, or null for
+     *              all other points. The whole array can be null if there are no such points.
+     * @param indices Index of every node id, where the node id i is stored at position i-1, if the points are
+     *                numbered from 1 to size. Null if the node ids are not indexed, they are then looked up in a map.
+     */
+    public ArrayPointStore(int size, int[] nodeIds, double[] xs, double[] ys, String[] names, int[] indices) {
+        if (size < 0 || nodeIds.length < size || xs.length < size || ys.length < size
+                || (names != null && names.length < size) || (indices != null && indices.length != size))
+            throw new IllegalArgumentException("The arrays of a point store have to contain all points!");
+        this.size = size;
+        this.nodeIds = nodeIds;
+        this.xs = xs;
+        this.ys = ys;
+        this.names = names;
+        this.indices = indices;
+    }
+
+    /**
+     * Copies the identifiers and coordinates of points into a new store.
+     * @param points Points whose identifiers are integers.
+     * @return Store containing the points in the same order.
+     */
+    public static ArrayPointStore of(Iterable<Point> points) {
+        int n = 0;
+        for (Point ignored : points)
+            n++;
+        int[] nodeIds = new int[n];
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        String[] names = null;
+        int i = 0;
+        for (Point p : points) {
+            String id = p.getId();
+            try {
+                nodeIds[i] = Integer.parseInt(id);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("The identifier of a point has to be an integer! Id: " + id);
+            }
+            if (!Integer.toString(nodeIds[i]).equals(id)) {
+                if (names == null)
+                    names = new String[n];
+                names[i] = id;
+            }
+            xs[i] = p.getCoordinates()[0];
+            ys[i] = p.getCoordinates()[1];
+            i++;
+        }
+        return new ArrayPointStore(n, nodeIds, xs, ys, names);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getNodeId(int index) {
+        checkIndex(index);
+        return nodeIds[index];
+    }
+
+    @Override
+    public int getIndex(int nodeId) {
+        if (indices == null) {
+            Integer index = getIndexMap().get(nodeId);
+            if (index == null)
+                throw new IllegalArgumentException("Unknown node id: " + nodeId + "!");
+            return index;
+        }
+        if (nodeId < 1 || nodeId > size)
+            throw new IllegalArgumentException("Unknown node id: " + nodeId + "!");
+        return indices[nodeId - 1];
+    }
+
+    /**
+     * Maps the node ids to their indices, if an id occurs several times the last point is kept like in toPointMap.
+     */
+    private Map<Integer, Integer> getIndexMap() {
+        Map<Integer, Integer> map = indexMap;
+        if (map == null) {
+            map = new HashMap<>();
+            for (int i = 0; i < size; i++)
+                map.put(nodeIds[i], i);
+            indexMap = map;
+        }
+        return map;
+    }
+
+    /**
+     * @return True if the points are numbered from 1 to size and getIndex doesn't need a map.
+     */
+    public boolean hasIndex() {
+        return indices != null;
+    }
+
+    @Override
+    public String getId(int index) {
+        checkIndex(index);
+        if (names != null && names[index] != null)
+            return names[index];
+        return Integer.toString(nodeIds[index]);
+    }
+
+    @Override
+    public double getX(int index) {
+        checkIndex(index);
+        return xs[index];
+    }
+
+    @Override
+    public double getY(int index) {
+        checkIndex(index);
+        return ys[index];
+    }
+
+    /**
+     * @return Copy of the x coordinates of all points.
+     */
+    public double[] getXs() {
+        return Arrays.copyOf(xs, size);
+    }
+
+    /**
+     * @return Copy of the y coordinates of all points.
+     */
+    public double[] getYs() {
+        return Arrays.copyOf(ys, size);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+    }
+}
@@ -0,0 +1,171 @@
+package CircleTSP.entities;
+
+import java.util.Collection;
+
+/**
+ * Array based representation of a closed tour for tour improvement algorithms.
+ * The points of the tour are identified by their index 0..n-1 in the order of the tour the ArrayTour was created from.
+ * The current order of the tour is stored as an array of point indices, together with the inverse array holding the
+ * position of every point in the tour, so that successor, predecessor and betweenness queries run in O(1).
+ * Segments of the tour are reversed in place.
+ */
+public class ArrayTour implements TourOrder {
+
+    private final Point[] points;
+    private final double[] xs;
+    private final double[] ys;
+    // order[i] is the point at position i of the tour, pos[p] is the position of point p in the tour
+    private final int[] order;
+    private final int[] pos;
+
+    /**
+     * @param tour Points in the order they are visited.
+     */
+    public ArrayTour(Collection<Point> tour) {
+        int n = tour.size();
+        points = tour.toArray(new Point[0]);
+        xs = new double[n];
+        ys = new double[n];
+        order = new int[n];
+        pos = new int[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = points[i].getCoordinates()[0];
+            ys[i] = points[i].getCoordinates()[1];
+            order[i] = i;
+            pos[i] = i;
+        }
+    }
+
+    @Override
+    public int size() {
+        return order.length;
+    }
+
+    @Override
+    public Point getPoint(int p) {
+        return points[p];
+    }
+
+    @Override
+    public double getX(int p) {
+        return xs[p];
+    }
+
+    @Override
+    public double getY(int p) {
+        return ys[p];
+    }
+
+    /**
+     * @param i Position in the tour.
+     * @return Index of the point at position i.
+     */
+    public int get(int i) {
+        return order[i];
+    }
+
+    /**
+     * @param p Index of a point.
+     * @return Position of point p in the tour.
+     */
+    public int position(int p) {
+        return pos[p];
+    }
+
+    @Override
+    public int next(int p) {
+        int i = pos[p] + 1;
+        return order[i == order.length ? 0 : i];
+    }
+
+    @Override
+    public int prev(int p) {
+        int i = pos[p] - 1;
+        return order[i < 0 ? order.length - 1 : i];
+    }
+
+    @Override
+    public boolean between(int a, int b, int c) {
+        int pa = pos[a], pb = pos[b], pc = pos[c];
+        if (pa <= pc)
+            return pa <= pb && pb <= pc;
+        else
+            return pb >= pa || pb <= pc;
+    }
+
+    @Override
+    public double distance(int a, int b) {
+        double dx = xs[a] - xs[b];
+        double dy = ys[a] - ys[b];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Reverses the path going forward in the tour from point from to point to, both included.
+     * If the path is longer than half of the tour, the remaining part of the tour is reversed instead, which results in
+     * the same cyclic tour traversed in the opposite direction.
+     * @param from Index of the first point of the path.
+     * @param to Index of the last point of the path.
+     */
+    public void reverse(int from, int to) {
+        int n = order.length;
+        int i = pos[from];
+        int j = pos[to];
+        int length = j - i;
+        if (length < 0)
+            length += n;
+        length++;
+        if (2 * length > n) {
+            int temp = i;
+            i = j + 1;
+            j = temp - 1;
+            if (i == n)
+                i = 0;
+            if (j < 0)
+                j = n - 1;
+            length = n - length;
+        }
+        for (int swaps = length / 2; swaps > 0; swaps--) {
+            int pi = order[i];
+            int pj = order[j];
+            order[i] = pj;
+            pos[pj] = i;
+            order[j] = pi;
+            pos[pi] = j;
+            if (++i == n)
+                i = 0;
+            if (--j < 0)
+                j = n - 1;
+        }
+    }
+
+    @Override
+    public void twoOptMove(int a, int b, int c, int d) {
+        if (next(a) == b)
+            reverse(b, c);
+        else
+            reverse(c, b);
+    }
+
+    /**
+     * @return Length of the closed tour.
+     */
+    @Override
+    public double length() {
+        double length = 0;
+        for (int i = 0; i < order.length; i++)
+            length += distance(order[i], order[i + 1 == order.length ? 0 : i + 1]);
+        return length;
+    }
+
+    /**
+     * @return Points of this tour in their current order.
+     */
+    @Override
+    public Tour toTour() {
+        Tour tour = new Tour();
+        for (int p : order)
+            tour.add(points[p]);
+        return tour;
+    }
+}
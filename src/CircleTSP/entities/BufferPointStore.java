@@ -0,0 +1,87 @@
+package CircleTSP.entities;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Point store that reads the identifiers and coordinates directly from a (usually memory-mapped) buffer, without
+ * copying them into arrays.
+ * The buffer contains the integer node ids, the index of every node id and the x and y coordinates of the points as
+ * consecutive little-endian arrays. The node ids are numbered from 1 to size.
+ */
+public class BufferPointStore implements PointStore {
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int nodeIdsOffset;
+    private final int indicesOffset;
+    private final int xsOffset;
+    private final int ysOffset;
+
+    /**
+     * @param buffer Buffer containing the arrays, which must not be modified while the store is used.
+     * @param size Number of points.
+     * @param nodeIdsOffset Position of the int array of the node ids.
+     * @param indicesOffset Position of the int array of the indices, where the index of the node id i is stored at
+     *                      position i-1.
+     * @param xsOffset Position of the double array of the x coordinates.
+     * @param ysOffset Position of the double array of the y coordinates.
+     */
+    public BufferPointStore(ByteBuffer buffer, int size, int nodeIdsOffset, int indicesOffset,
+                            int xsOffset, int ysOffset) {
+        if (size < 0 || !contains(buffer, nodeIdsOffset, 4L * size) || !contains(buffer, indicesOffset, 4L * size)
+                || !contains(buffer, xsOffset, 8L * size) || !contains(buffer, ysOffset, 8L * size))
+            throw new IllegalArgumentException("The buffer of a point store has to contain all points!");
+        // Absolute reads don't change the state of the buffer, so a little-endian view can be shared by all threads
+        this.buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        this.size = size;
+        this.nodeIdsOffset = nodeIdsOffset;
+        this.indicesOffset = indicesOffset;
+        this.xsOffset = xsOffset;
+        this.ysOffset = ysOffset;
+    }
+
+    private static boolean contains(ByteBuffer buffer, int offset, long length) {
+        return offset >= 0 && offset + length <= buffer.limit();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getNodeId(int index) {
+        checkIndex(index);
+        return buffer.getInt(nodeIdsOffset + 4 * index);
+    }
+
+    @Override
+    public int getIndex(int nodeId) {
+        if (nodeId < 1 || nodeId > size)
+            throw new IllegalArgumentException("Unknown node id: " + nodeId + "!");
+        return buffer.getInt(indicesOffset + 4 * (nodeId - 1));
+    }
+
+    @Override
+    public String getId(int index) {
+        return Integer.toString(getNodeId(index));
+    }
+
+    @Override
+    public double getX(int index) {
+        checkIndex(index);
+        return buffer.getDouble(xsOffset + 8 * index);
+    }
+
+    @Override
+    public double getY(int index) {
+        checkIndex(index);
+        return buffer.getDouble(ysOffset + 8 * index);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+    }
+}
@@ -0,0 +1,70 @@
+package CircleTSP.entities;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Read-only store of the identifiers and coordinates of a set of points, which keeps the coordinates in primitive
+ * form instead of creating a Point object for every point.
+ * Points are addressed by their index in the store, from 0 to size()-1.
+ */
+public interface PointStore {
+
+    int size();
+
+    /**
+     * @param index Index of the point in the store.
+     * @return Identifier of the point, as used by Point.getId().
+     */
+    String getId(int index);
+
+    double getX(int index);
+
+    double getY(int index);
+
+    /**
+     * @param index Index of the point in the store.
+     * @return Integer identifier of the point, e.g. its TSPLIB node id.
+     */
+    int getNodeId(int index);
+
+    /**
+     * @param nodeId Integer identifier of a point.
+     * @return Index of the point in the store.
+     * @throws IllegalStateException If the store can't look up its node ids.
+     */
+    int getIndex(int nodeId);
+
+    /**
+     * @param index Index of the point in the store.
+     * @return New Point object with the identifier and coordinates of the point.
+     */
+    default Point createPoint(int index) {
+        return new Point(getId(index), new double[]{getX(index), getY(index)});
+    }
+
+    /**
+     * @return New Point objects for all points in the order of the store.
+     */
+    default List<Point> toPoints() {
+        List<Point> points = new ArrayList<>(size());
+        for (int i = 0; i < size(); i++)
+            points.add(createPoint(i));
+        return points;
+    }
+
+    /**
+     * Creates Point objects for all points, mapped by their identifiers.
+     * If an identifier occurs several times, the last point with this identifier is kept.
+     * @return Map from the identifiers to the points.
+     */
+    default HashMap<String, Point> toPointMap() {
+        HashMap<String, Point> points = new HashMap<>();
+        for (int i = 0; i < size(); i++) {
+            Point point = createPoint(i);
+            points.put(point.getId(), point);
+        }
+        return points;
+    }
+}
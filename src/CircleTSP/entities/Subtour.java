@@ -0,0 +1,41 @@
+package CircleTSP.entities;
+
+/**
+ * Result of a sub tour calculation for a single cluster.
+ * A sub tour is either a closed tour, whose entry points have to be determined later using an entry point heuristic,
+ * or a hamiltonian path, whose first and last point are used as entry points.
+ */
+public class Subtour {
+
+    private Tour tour;
+    private Tuple<Point, Point> entryPoints;
+    private double costs;
+
+    /**
+     * @param tour Points of the sub tour in the order they are visited.
+     * @param entryPoints Entry points of the sub tour or null if the entry points have to be calculated later using an
+     *                    entry point heuristic.
+     * @param costs Length of the sub tour. For paths this is the length of the path without the closing edge.
+     */
+    public Subtour(Tour tour, Tuple<Point, Point> entryPoints, double costs) {
+        this.tour = tour;
+        this.entryPoints = entryPoints;
+        this.costs = costs;
+    }
+
+    public Tour getTour() {
+        return tour;
+    }
+
+    public Tuple<Point, Point> getEntryPoints() {
+        return entryPoints;
+    }
+
+    public double getCosts() {
+        return costs;
+    }
+
+    public boolean isPath() {
+        return entryPoints != null;
+    }
+}
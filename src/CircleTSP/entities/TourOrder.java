@@ -0,0 +1,74 @@
+package CircleTSP.entities;
+
+/**
+ * Cyclic order of the points of a tour, as needed by tour improvement algorithms.
+ * The points are identified by their index 0..n-1 in the order of the tour the structure was created from.
+ */
+public interface TourOrder {
+
+    int size();
+
+    Point getPoint(int p);
+
+    double getX(int p);
+
+    double getY(int p);
+
+    /**
+     * @param p Index of a point.
+     * @return Index of the point subsequent to p in the tour.
+     */
+    int next(int p);
+
+    /**
+     * @param p Index of a point.
+     * @return Index of the point prior to p in the tour.
+     */
+    int prev(int p);
+
+    /**
+     * Checks if point b is visited when going forward in the tour from point a to point c, where a and c are included.
+     */
+    boolean between(int a, int b, int c);
+
+    /**
+     * Replaces the edges (a,b) and (c,d) with the edges (a,c) and (b,d).
+     * The edges have to be traversed in the same direction, i.e. either b = next(a) and d = next(c) or
+     * b = prev(a) and d = prev(c).
+     * Implementations may reverse the orientation of the whole tour while doing so.
+     */
+    void twoOptMove(int a, int b, int c, int d);
+
+    default double distance(int a, int b) {
+        double dx = getX(a) - getX(b);
+        double dy = getY(a) - getY(b);
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * @return Length of the closed tour.
+     */
+    default double length() {
+        double length = 0;
+        int p = 0;
+        for (int i = 0; i < size(); i++) {
+            int next = next(p);
+            length += distance(p, next);
+            p = next;
+        }
+        return length;
+    }
+
+    /**
+     * @return Points of this tour in their current order, starting with the point at index 0.
+     */
+    default Tour toTour() {
+        Tour tour = new Tour();
+        int p = 0;
+        for (int i = 0; i < size(); i++) {
+            tour.add(getPoint(p));
+            p = next(p);
+        }
+        return tour;
+    }
+}
@@ -0,0 +1,134 @@
+package CircleTSP.entities;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Snapshot of an improved tour as published by a TourPublisher.
+ * A snapshot is either a full snapshot containing all points of the tour, or a delta containing only the ranges of
+ * positions that changed since the previous snapshot delivered to the same subscriber.
+ * Subscribers keep an array of the points of the tour and apply every snapshot to it using applyTo().
+ */
+public class TourSnapshot {
+
+    private final int version;
+    private final String stage;
+    private final double elapsedTime;
+    private final double length;
+    private final int size;
+
+    // Full snapshot: all points, delta: start positions and points of the changed ranges
+    private final Point[] points;
+    private final int[] starts;
+    private final Point[][] ranges;
+
+    private TourSnapshot(int version, String stage, double elapsedTime, double length, int size,
+                         Point[] points, int[] starts, Point[][] ranges) {
+        this.version = version;
+        this.stage = stage;
+        this.elapsedTime = elapsedTime;
+        this.length = length;
+        this.size = size;
+        this.points = points;
+        this.starts = starts;
+        this.ranges = ranges;
+    }
+
+    /**
+     * @param points Points of the tour in the order they are visited, which must not be modified afterwards.
+     */
+    public static TourSnapshot full(int version, String stage, double elapsedTime, double length, Point[] points) {
+        return new TourSnapshot(version, stage, elapsedTime, length, points.length, points, null, null);
+    }
+
+    /**
+     * @param starts Positions of the first points of the changed ranges.
+     * @param ranges Points of the changed ranges.
+     */
+    public static TourSnapshot delta(int version, String stage, double elapsedTime, double length, int size,
+                                     int[] starts, Point[][] ranges) {
+        if (starts.length != ranges.length)
+            throw new IllegalArgumentException("Every changed range needs a start position!");
+        return new TourSnapshot(version, stage, elapsedTime, length, size, null, starts, ranges);
+    }
+
+    /**
+     * @return Sequence number of the tour, which increases with every tour that has been published.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return Name of the stage that found the tour.
+     */
+    public String getStage() {
+        return stage;
+    }
+
+    /**
+     * @return Time in milliseconds since the start of the run.
+     */
+    public double getElapsedTime() {
+        return elapsedTime;
+    }
+
+    public double getLength() {
+        return length;
+    }
+
+    /**
+     * @return Number of points of the tour.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return points != null;
+    }
+
+    /**
+     * @return Number of positions contained in this snapshot.
+     */
+    public int getNumChanges() {
+        if (isFull())
+            return size;
+        int numChanges = 0;
+        for (Point[] range : ranges)
+            numChanges += range.length;
+        return numChanges;
+    }
+
+    /**
+     * @return Points of a full snapshot in the order they are visited.
+     * @throws IllegalStateException If this snapshot is a delta.
+     */
+    public List<Point> getPoints() {
+        if (!isFull())
+            throw new IllegalStateException("A delta does not contain all points of the tour!");
+        return Collections.unmodifiableList(Arrays.asList(points));
+    }
+
+    /**
+     * Updates the points of a tour to this snapshot.
+     * @param tour Points of the tour of the previous snapshot, or any array of size() points for a full snapshot.
+     */
+    public void applyTo(Point[] tour) {
+        if (tour.length != size)
+            throw new IllegalArgumentException("The tour has to contain " + size + " points! Points: " + tour.length);
+        if (isFull()) {
+            System.arraycopy(points, 0, tour, 0, size);
+            return;
+        }
+        for (int i = 0; i < starts.length; i++)
+            System.arraycopy(ranges[i], 0, tour, starts[i], ranges[i].length);
+    }
+
+    @Override
+    public String toString() {
+        return stage + ": " + length + " after " + elapsedTime + "ms (" + (isFull() ? "full" : "delta") + ", "
+                + getNumChanges() + "/" + size + " points)";
+    }
+}
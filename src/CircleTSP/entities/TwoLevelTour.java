@@ -0,0 +1,401 @@
+package CircleTSP.entities;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Two-level doubly-linked list representation of a closed tour for tour improvement algorithms on large instances.
+ * The tour is divided into a cyclic list of about sqrt(n) segments of consecutive points, where each segment is a
+ * doubly-linked list of points with a reversal bit.
+ * Reversing a path of the tour splits the segments at both ends of the path and reverses the order and the reversal
+ * bits of the segments in between, so that next, prev and between run in O(1) and reversals in O(sqrt(n)) amortized.
+ * Splitting creates new segments, once there is no space left for further segments the whole list is rebuilt.
+ * The points are identified by their index 0..n-1 in the order of the tour the TwoLevelTour was created from.
+ * @see <a href="https://doi.org/10.1137/S0097539793251244">Data Structures for Traveling Salesmen -
+ * M. L. Fredman, D. S. Johnson, L. A. McGeoch, G. Ostheimer</a>
+ */
+public class TwoLevelTour implements TourOrder, Iterable<Point> {
+
+    private static final int NONE = -1;
+
+    private final Point[] points;
+    private final double[] xs;
+    private final double[] ys;
+    private final int groupSize;
+
+    // Points: segment, sequence number within the segment and links in the unreversed order of the segment
+    private final int[] parent;
+    private final int[] seq;
+    private final int[] nextInSegment;
+    private final int[] prevInSegment;
+
+    // Segments: first and last point in unreversed order, reversal bit, position in the cyclic list and links
+    private final int[] head;
+    private final int[] tail;
+    private final boolean[] reversed;
+    private final int[] rank;
+    private final int[] nextSegment;
+    private final int[] prevSegment;
+    private int numSegments;
+
+    // Buffers for reversing segments and rebuilding the list
+    private final int[] segmentBuffer;
+    private final int[] orderBuffer;
+
+    /**
+     * @param tour Points in the order they are visited.
+     */
+    public TwoLevelTour(Collection<Point> tour) {
+        int n = tour.size();
+        if (n == 0)
+            throw new IllegalArgumentException("A tour needs at least one point!");
+        points = tour.toArray(new Point[0]);
+        xs = new double[n];
+        ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = points[i].getCoordinates()[0];
+            ys[i] = points[i].getCoordinates()[1];
+        }
+        groupSize = Math.max(8, (int) Math.sqrt(n));
+
+        parent = new int[n];
+        seq = new int[n];
+        nextInSegment = new int[n];
+        prevInSegment = new int[n];
+
+        // Every reversal creates at most two segments, leave room for about as many reversals as there are segments
+        int capacity = 2 * ((n + groupSize - 1) / groupSize) + 4;
+        head = new int[capacity];
+        tail = new int[capacity];
+        reversed = new boolean[capacity];
+        rank = new int[capacity];
+        nextSegment = new int[capacity];
+        prevSegment = new int[capacity];
+        segmentBuffer = new int[capacity];
+        orderBuffer = new int[n];
+
+        for (int i = 0; i < n; i++)
+            orderBuffer[i] = i;
+        build();
+    }
+
+    /**
+     * Divides the points in the order of the orderBuffer into segments of groupSize points.
+     */
+    private void build() {
+        int n = points.length;
+        numSegments = (n + groupSize - 1) / groupSize;
+        for (int s = 0; s < numSegments; s++) {
+            int from = s * groupSize;
+            int to = Math.min(from + groupSize, n) - 1;
+            head[s] = orderBuffer[from];
+            tail[s] = orderBuffer[to];
+            reversed[s] = false;
+            rank[s] = s;
+            nextSegment[s] = s + 1 == numSegments ? 0 : s + 1;
+            prevSegment[s] = s == 0 ? numSegments - 1 : s - 1;
+            for (int i = from; i <= to; i++) {
+                int p = orderBuffer[i];
+                parent[p] = s;
+                seq[p] = i - from;
+                nextInSegment[p] = i == to ? NONE : orderBuffer[i + 1];
+                prevInSegment[p] = i == from ? NONE : orderBuffer[i - 1];
+            }
+        }
+    }
+
+    private void rebuild() {
+        int p = 0;
+        for (int i = 0; i < points.length; i++) {
+            orderBuffer[i] = p;
+            p = next(p);
+        }
+        build();
+    }
+
+    @Override
+    public int size() {
+        return points.length;
+    }
+
+    @Override
+    public Point getPoint(int p) {
+        return points[p];
+    }
+
+    @Override
+    public double getX(int p) {
+        return xs[p];
+    }
+
+    @Override
+    public double getY(int p) {
+        return ys[p];
+    }
+
+    private int first(int s) {
+        return reversed[s] ? tail[s] : head[s];
+    }
+
+    private int last(int s) {
+        return reversed[s] ? head[s] : tail[s];
+    }
+
+    @Override
+    public int next(int p) {
+        int s = parent[p];
+        int next = reversed[s] ? prevInSegment[p] : nextInSegment[p];
+        return next == NONE ? first(nextSegment[s]) : next;
+    }
+
+    @Override
+    public int prev(int p) {
+        int s = parent[p];
+        int prev = reversed[s] ? nextInSegment[p] : prevInSegment[p];
+        return prev == NONE ? last(prevSegment[s]) : prev;
+    }
+
+    /**
+     * @return Position of point p within its segment, increasing in the direction of the tour.
+     */
+    private int offset(int p) {
+        return reversed[parent[p]] ? -seq[p] : seq[p];
+    }
+
+    /**
+     * Compares the positions of two points in the tour, starting from the segment with rank 0.
+     */
+    private int compare(int a, int b) {
+        int ra = rank[parent[a]];
+        int rb = rank[parent[b]];
+        if (ra != rb)
+            return Integer.compare(ra, rb);
+        return Integer.compare(offset(a), offset(b));
+    }
+
+    @Override
+    public boolean between(int a, int b, int c) {
+        if (compare(a, c) <= 0)
+            return compare(a, b) <= 0 && compare(b, c) <= 0;
+        else
+            return compare(b, a) >= 0 || compare(b, c) <= 0;
+    }
+
+    @Override
+    public void twoOptMove(int a, int b, int c, int d) {
+        if (next(a) == b)
+            reverse(b, c);
+        else
+            reverse(c, b);
+    }
+
+    /**
+     * Reverses the path going forward in the tour from point from to point to, both included.
+     * If the path covers more than half of the segments, the remaining part of the tour is reversed instead, which
+     * results in the same cyclic tour traversed in the opposite direction.
+     * @param from Index of the first point of the path.
+     * @param to Index of the last point of the path.
+     */
+    public void reverse(int from, int to) {
+        if (from == to)
+            return;
+        if (parent[from] == parent[to]) {
+            if (offset(from) <= offset(to)) {
+                reverseInSegment(from, to);
+            } else {
+                // The path wraps around the whole tour, reverse the remaining part within the segment instead
+                int remainderFrom = next(to);
+                if (remainderFrom != from)
+                    reverseInSegment(remainderFrom, prev(from));
+            }
+            return;
+        }
+
+        if (numSegments + 2 > head.length)
+            rebuild();
+        splitBefore(from);
+        int afterTo = next(to);
+        if (parent[afterTo] == parent[to])
+            splitBefore(afterTo);
+
+        int first = parent[from];
+        int last = parent[to];
+        int count = rank[last] - rank[first];
+        if (count < 0)
+            count += numSegments;
+        count++;
+        // Reversing the whole tour results in the same cyclic tour
+        if (count == numSegments)
+            return;
+        if (2 * count > numSegments)
+            reverseSegments(nextSegment[last], prevSegment[first]);
+        else
+            reverseSegments(first, last);
+    }
+
+    /**
+     * Reverses the path from point from to point to, where from does not occur after to in their common segment.
+     */
+    private void reverseInSegment(int from, int to) {
+        int s = parent[from];
+        int u = reversed[s] ? to : from;
+        int v = reversed[s] ? from : to;
+        int beforeU = prevInSegment[u];
+        int afterV = nextInSegment[v];
+        int seqSum = seq[u] + seq[v];
+
+        int p = u;
+        while (true) {
+            int next = nextInSegment[p];
+            nextInSegment[p] = prevInSegment[p];
+            prevInSegment[p] = next;
+            seq[p] = seqSum - seq[p];
+            if (p == v)
+                break;
+            p = next;
+        }
+
+        nextInSegment[u] = afterV;
+        prevInSegment[v] = beforeU;
+        if (beforeU == NONE)
+            head[s] = v;
+        else
+            nextInSegment[beforeU] = v;
+        if (afterV == NONE)
+            tail[s] = u;
+        else
+            prevInSegment[afterV] = u;
+    }
+
+    /**
+     * Splits the segment of point p, so that p is the first point of its segment in the direction of the tour.
+     * The smaller part of the segment is moved to a new segment.
+     */
+    private void splitBefore(int p) {
+        int s = parent[p];
+        if (first(s) == p)
+            return;
+
+        // Cut the unreversed list of the segment between x and y
+        int x = reversed[s] ? p : prevInSegment[p];
+        int y = nextInSegment[x];
+        int leftSize = seq[x] - seq[head[s]] + 1;
+        int rightSize = seq[tail[s]] - seq[y] + 1;
+
+        int t = numSegments++;
+        reversed[t] = reversed[s];
+        nextInSegment[x] = NONE;
+        prevInSegment[y] = NONE;
+        boolean moveLeft = leftSize <= rightSize;
+        if (moveLeft) {
+            head[t] = head[s];
+            tail[t] = x;
+            head[s] = y;
+        } else {
+            head[t] = y;
+            tail[t] = tail[s];
+            tail[s] = x;
+        }
+        for (int q = head[t]; q != NONE; q = nextInSegment[q])
+            parent[q] = t;
+
+        // The left part comes first in the tour, unless the segment is reversed
+        if (moveLeft != reversed[s])
+            linkBefore(t, s);
+        else
+            linkBefore(t, nextSegment[s]);
+        renumberSegments(t);
+    }
+
+    /**
+     * Inserts segment t into the cyclic list of segments in front of segment s.
+     */
+    private void linkBefore(int t, int s) {
+        int before = prevSegment[s];
+        nextSegment[before] = t;
+        prevSegment[t] = before;
+        nextSegment[t] = s;
+        prevSegment[s] = t;
+    }
+
+    private void renumberSegments(int start) {
+        int s = start;
+        for (int r = 0; r < numSegments; r++) {
+            rank[s] = r;
+            s = nextSegment[s];
+        }
+    }
+
+    /**
+     * Reverses the order of the segments going forward from segment first to segment last and flips their reversal
+     * bits.
+     */
+    private void reverseSegments(int first, int last) {
+        int count = 0;
+        for (int s = first; ; s = nextSegment[s]) {
+            segmentBuffer[count++] = s;
+            if (s == last)
+                break;
+        }
+        int before = prevSegment[first];
+        int after = nextSegment[last];
+        int firstRank = rank[first];
+
+        int previous = before;
+        for (int i = count - 1; i >= 0; i--) {
+            int s = segmentBuffer[i];
+            reversed[s] = !reversed[s];
+            int r = firstRank + count - 1 - i;
+            rank[s] = r >= numSegments ? r - numSegments : r;
+            nextSegment[previous] = s;
+            prevSegment[s] = previous;
+            previous = s;
+        }
+        nextSegment[previous] = after;
+        prevSegment[after] = previous;
+    }
+
+    @Override
+    public Iterator<Point> iterator() {
+        return tourIterator(0);
+    }
+
+    /**
+     * Iterates through all points of the tour once, beginning with the point start.
+     * @see TourIterator
+     */
+    public Iterator<Point> tourIterator(int start) {
+        return tourIterator(start, false);
+    }
+
+    /**
+     * Iterates through all points of the tour once, beginning with the point start.
+     * @param start Index of the first point.
+     * @param reversedDirection If true, the tour is traversed in the opposite direction.
+     * @see TourIterator
+     */
+    public Iterator<Point> tourIterator(int start, boolean reversedDirection) {
+        if (start < 0 || start >= points.length)
+            throw new IllegalArgumentException("Start index can't be outside of tour bounds!");
+        return new Iterator<Point>() {
+            private int current = start;
+            private int remaining = points.length;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public Point next() {
+                if (remaining == 0)
+                    throw new NoSuchElementException("The tour has no further point! Start index: " + start);
+                Point point = points[current];
+                current = reversedDirection ? prev(current) : TwoLevelTour.this.next(current);
+                remaining--;
+                return point;
+            }
+        };
+    }
+}
@@ -2,8 +2,12 @@ package CircleTSP.gui;
 
 import CircleTSP.entities.Point;
 import CircleTSP.entities.Tour;
+import CircleTSP.entities.TourSnapshot;
+import CircleTSP.util.TourIO;
 
+import java.io.IOException;
 import java.util.Iterator;
+import java.util.concurrent.Flow;
 
 public class Display {
     public static void displayResults(Tour tour, Point centerPoint,
@@ -15,7 +19,13 @@ public class Display {
         // gui = gui && (tour.size() < 25);
 
         System.out.println("Path taken:");
-        System.out.println(tour.toString());
+        // Streams the ids instead of building the whole tour as one string
+        try {
+            TourIO.writeIds(tour, System.out, " ");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        System.out.println();
 
         if (gui) {
             frame = new GraphDraw("CircleTSP", size, size+300);
@@ -39,4 +49,40 @@ public class Display {
         System.out.println("\nTour length: " + tourLength);
         System.out.println("Time used: " + timeUsed + "ms\n");
     }
+
+    /**
+     * Displays the improved tours of a publisher as they are found.
+     * @param publisher Publisher of the improved tours, e.g. of an AnytimeTSP run.
+     * @param gui If true, the tours are drawn in a GraphDraw frame, otherwise only their lengths are printed.
+     */
+    public static void displayProgress(Flow.Publisher<TourSnapshot> publisher, boolean gui) {
+        if (gui)
+            publisher.subscribe(new TourView("CircleTSP", 500, 800));
+
+        publisher.subscribe(new Flow.Subscriber<TourSnapshot>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(TourSnapshot snapshot) {
+                System.out.println(snapshot);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                throwable.printStackTrace();
+            }
+
+            @Override
+            public void onComplete() {
+                System.out.println("No further improvements.\n");
+            }
+        });
+    }
 }
@@ -8,6 +8,7 @@ import CircleTSP.entities.Tuple;
 import javax.swing.*;
 import java.awt.*;
 import java.util.ArrayList;
+import java.util.Collection;
 
 public class GraphDraw extends JFrame {
 
@@ -94,6 +95,50 @@ public class GraphDraw extends JFrame {
     }
 
     public void addNode(Point p) {
+        updateBounds(p);
+
+        setScaling();
+        setCentering();
+
+        points.add(p);
+        this.repaint();
+    }
+
+    /**
+     * Replaces all nodes and edges with the points and edges of a closed tour.
+     * @param tour Points in the order they are visited.
+     */
+    public void setTour(Collection<Point> tour) {
+        maxX = Double.NEGATIVE_INFINITY;
+        minX = Double.POSITIVE_INFINITY;
+        minY = Double.POSITIVE_INFINITY;
+        maxY = Double.NEGATIVE_INFINITY;
+        maxLength = Double.NEGATIVE_INFINITY;
+        points = new ArrayList<>(tour.size());
+        edges = new ArrayList<>(tour.size());
+
+        Point first = null;
+        Point previous = null;
+        for (Point p : tour) {
+            updateBounds(p);
+            points.add(p);
+            if (previous == null)
+                first = p;
+            else
+                edges.add(new Edge(previous, p));
+            previous = p;
+        }
+        if (points.size() > 1)
+            edges.add(new Edge(previous, first));
+
+        if (!points.isEmpty()) {
+            setScaling();
+            setCentering();
+        }
+        this.repaint();
+    }
+
+    private void updateBounds(Point p) {
         double x = p.getCoordinates()[0];
         double y = p.getCoordinates()[1];
 
@@ -104,12 +149,6 @@ public class GraphDraw extends JFrame {
 
         double length = Math.sqrt(Math.pow(x, 2) + Math.pow(y, 2));
         maxLength = Math.max(length, maxLength);
-
-        setScaling();
-        setCentering();
-
-        points.add(p);
-        this.repaint();
     }
 
     private void setScaling() {
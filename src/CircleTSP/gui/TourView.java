@@ -0,0 +1,60 @@
+package CircleTSP.gui;
+
+import CircleTSP.entities.Point;
+import CircleTSP.entities.TourSnapshot;
+
+import javax.swing.*;
+import java.util.Arrays;
+import java.util.concurrent.Flow;
+
+/**
+ * Subscriber that shows the latest tour of a TourPublisher in a GraphDraw frame.
+ * The next snapshot is only requested after the previous one has been painted, so that the frame never falls behind
+ * the solver and skips tours it could not have painted in time.
+ */
+public class TourView implements Flow.Subscriber<TourSnapshot> {
+
+    private final String name;
+    private final GraphDraw frame;
+    private Flow.Subscription subscription;
+    private Point[] tour;
+
+    public TourView(String name, int panelHeight, int panelWidth) {
+        this.name = name;
+        this.frame = new GraphDraw(name, panelHeight, panelWidth);
+    }
+
+    public GraphDraw getFrame() {
+        return frame;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(TourSnapshot snapshot) {
+        if (tour == null || tour.length != snapshot.size())
+            tour = new Point[snapshot.size()];
+        snapshot.applyTo(tour);
+
+        // The tour is not modified until the next snapshot is requested
+        SwingUtilities.invokeLater(() -> {
+            frame.setTour(Arrays.asList(tour));
+            frame.setTitle(name + " - " + snapshot.getStage() + ": " + snapshot.getLength()
+                    + " (" + snapshot.getElapsedTime() + "ms)");
+            subscription.request(1);
+        });
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        throwable.printStackTrace();
+    }
+
+    @Override
+    public void onComplete() {
+    }
+}
@@ -3,10 +3,55 @@ package CircleTSP.util;
 import CircleTSP.entities.Point;
 import CircleTSP.entities.Tour;
 
+import java.util.Iterator;
 import java.util.List;
 
 public class Distance {
 
+    /**
+     * Exact euclidean distance, as used by the solvers.
+     */
+    public static final DistanceKernel EUCLIDEAN = (x1, y1, x2, y2) -> Math.sqrt((x1 - x2) * (x1 - x2)
+            + (y1 - y2) * (y1 - y2));
+
+    /**
+     * TSPLIB EUC_2D: euclidean distance rounded to the nearest integer.
+     */
+    public static final DistanceKernel EUC_2D = (x1, y1, x2, y2) -> (int) (EUCLIDEAN.distance(x1, y1, x2, y2) + 0.5);
+
+    /**
+     * TSPLIB CEIL_2D: euclidean distance rounded up to the next integer.
+     */
+    public static final DistanceKernel CEIL_2D = (x1, y1, x2, y2) -> Math.ceil(EUCLIDEAN.distance(x1, y1, x2, y2));
+
+    /**
+     * TSPLIB ATT: pseudo-euclidean distance of the att instances, rounded up unless the rounded value is exact.
+     */
+    public static final DistanceKernel ATT = (x1, y1, x2, y2) -> {
+        double r = Math.sqrt(((x1 - x2) * (x1 - x2) + (y1 - y2) * (y1 - y2)) / 10.0);
+        int t = (int) (r + 0.5);
+        return t < r ? t + 1 : t;
+    };
+
+    /**
+     * @param edgeWeightType TSPLIB EDGE_WEIGHT_TYPE with a fixed distance function.
+     * @return Kernel computing the distances of the edge weight type.
+     * @throws IllegalArgumentException If the edge weight type is not supported. GEO distances depend on the projection
+     * of the instance, see GeoProjection.
+     */
+    public static DistanceKernel kernel(String edgeWeightType) {
+        switch (edgeWeightType) {
+            case "EUC_2D":
+                return EUC_2D;
+            case "CEIL_2D":
+                return CEIL_2D;
+            case "ATT":
+                return ATT;
+            default:
+                throw new IllegalArgumentException("Unsupported edge weight type: " + edgeWeightType + "!");
+        }
+    }
+
     public static double euclidianDistance(Point p1, Point p2) {
         return euclidianDistance(p1.getCoordinates(), p2.getCoordinates());
     }
@@ -28,15 +73,51 @@ public class Distance {
     }
 
     public static double calculateTourLength(Tour tour) {
+        // Tours are linked lists, so the points are visited by an iterator instead of their index
         double tourLength = 0;
-        for (int i = 0; i < tour.size()-1; i++) {
-            Point currentPoint = tour.get(i);
-            Point nextPoint = tour.get(i+1);
+        Iterator<Point> it = tour.iterator();
+        Point startPoint = it.next();
+        Point currentPoint = startPoint;
+        while (it.hasNext()) {
+            Point nextPoint = it.next();
             tourLength += euclidianDistance(currentPoint.getCoordinates(), nextPoint.getCoordinates());
+            currentPoint = nextPoint;
+        }
+        tourLength += euclidianDistance(startPoint.getCoordinates(), currentPoint.getCoordinates());
+        return tourLength;
+    }
+
+    /**
+     * @return Length of the path measured by the kernel.
+     */
+    public static double calculatePathLength(List<Point> path, DistanceKernel kernel) {
+        double pathLength = 0;
+        Iterator<Point> it = path.iterator();
+        if (!it.hasNext())
+            return 0;
+        Point currentPoint = it.next();
+        while (it.hasNext()) {
+            Point nextPoint = it.next();
+            pathLength += kernel.distance(currentPoint, nextPoint);
+            currentPoint = nextPoint;
+        }
+        return pathLength;
+    }
+
+    /**
+     * @return Length of the tour measured by the kernel, including the edge back to the start.
+     */
+    public static double calculateTourLength(Tour tour, DistanceKernel kernel) {
+        Iterator<Point> it = tour.iterator();
+        Point startPoint = it.next();
+        Point currentPoint = startPoint;
+        double tourLength = 0;
+        while (it.hasNext()) {
+            Point nextPoint = it.next();
+            tourLength += kernel.distance(currentPoint, nextPoint);
+            currentPoint = nextPoint;
         }
-        Point startPoint = tour.get(0);
-        Point endPoint = tour.get(tour.size()-1);
-        tourLength += euclidianDistance(startPoint.getCoordinates(), endPoint.getCoordinates());
+        tourLength += kernel.distance(currentPoint, startPoint);
         return tourLength;
     }
 }
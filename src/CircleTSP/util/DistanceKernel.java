@@ -0,0 +1,21 @@
+package CircleTSP.util;
+
+import CircleTSP.entities.Point;
+
+/**
+ * Distance function between two points in the plane.
+ * Kernels are chosen once for an instance (e.g. by the EDGE_WEIGHT_TYPE of a TSPLIB file), so computing a tour
+ * length doesn't branch on the metric for every edge.
+ * @see Distance For the kernels of the TSPLIB metrics.
+ */
+@FunctionalInterface
+public interface DistanceKernel {
+
+    double distance(double x1, double y1, double x2, double y2);
+
+    default double distance(Point p1, Point p2) {
+        double[] c1 = p1.getCoordinates();
+        double[] c2 = p2.getCoordinates();
+        return distance(c1[0], c1[1], c2[0], c2[1]);
+    }
+}
@@ -0,0 +1,106 @@
+package CircleTSP.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Symmetric matrix of the distances between n nodes, stored off-heap as packed lower triangle.
+ * The distance between the nodes i > j is stored at position i*(i-1)/2 + j, the diagonal is zero and not stored.
+ * Integer weights (as given by TSPLIB) are stored as int, other weights as float, so n nodes need 2n(n-1) bytes.
+ */
+public class DistanceMatrix {
+
+    private final int size;
+    private final boolean integer;
+    private final ByteBuffer buffer;
+
+    /**
+     * Creates a matrix with all distances set to zero.
+     * @param size Number of nodes.
+     * @param integer True if the distances are integers, which are stored exactly. Otherwise they are stored as float.
+     */
+    public DistanceMatrix(int size, boolean integer) {
+        if (size < 0)
+            throw new IllegalArgumentException("The size of a distance matrix can't be negative!");
+        long entries = (long) size * (size - 1) / 2;
+        if (4 * entries > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Distance matrices larger than 2GB are not supported! Size: " + size);
+        this.size = size;
+        this.integer = integer;
+        this.buffer = ByteBuffer.allocateDirect((int) (4 * entries)).order(ByteOrder.nativeOrder());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return True if the distances are stored as int, otherwise as float.
+     */
+    public boolean isInteger() {
+        return integer;
+    }
+
+    private int offset(int i, int j) {
+        if (i < 0 || j < 0 || i >= size || j >= size)
+            throw new IndexOutOfBoundsException("Nodes: " + i + ", " + j + ", size: " + size);
+        if (i < j)
+            return 4 * (j * (j - 1) / 2 + i);
+        return 4 * (i * (i - 1) / 2 + j);
+    }
+
+    /**
+     * @return Distance between the nodes i and j.
+     */
+    public double get(int i, int j) {
+        if (i == j)
+            return 0;
+        int offset = offset(i, j);
+        return integer ? buffer.getInt(offset) : buffer.getFloat(offset);
+    }
+
+    /**
+     * Sets the distance between the nodes i and j, and between j and i.
+     * @throws IllegalArgumentException If the matrix stores integers and the distance is not an int, or if a distance
+     * on the diagonal is not zero.
+     */
+    public void set(int i, int j, double distance) {
+        if (i == j) {
+            if (distance != 0)
+                throw new IllegalArgumentException("The distance of a node to itself has to be zero!");
+            return;
+        }
+        int offset = offset(i, j);
+        if (integer) {
+            if (distance != (int) distance)
+                throw new IllegalArgumentException("The distance has to be an integer! Distance: " + distance);
+            buffer.putInt(offset, (int) distance);
+        } else {
+            buffer.putFloat(offset, (float) distance);
+        }
+    }
+
+    /**
+     * Copies the distances of this matrix into a new matrix that stores them as float.
+     * @return Matrix of floats with the same distances.
+     */
+    public DistanceMatrix toFloatMatrix() {
+        DistanceMatrix copy = new DistanceMatrix(size, false);
+        for (int i = 1; i < size; i++) {
+            for (int j = 0; j < i; j++)
+                copy.set(i, j, get(i, j));
+        }
+        return copy;
+    }
+
+    /**
+     * @param order Nodes in the order they are visited.
+     * @return Length of the closed tour.
+     */
+    public double tourLength(int[] order) {
+        double length = 0;
+        for (int i = 0; i < order.length; i++)
+            length += get(order[i], order[i + 1 == order.length ? 0 : i + 1]);
+        return length;
+    }
+}
@@ -0,0 +1,78 @@
+package CircleTSP.util;
+
+/**
+ * Equirectangular projection of TSPLIB GEO coordinates into the plane, so the angular solvers can work on them, and
+ * the GEO distance of TSPLIB for the projected points.
+ * TSPLIB GEO coordinates are given as DDD.MM (degrees and minutes), with the latitude as x and the longitude as y
+ * coordinate. The projected x coordinate is the distance in km to the east at the reference latitude, which is the
+ * middle of the latitudes of the instance, the y coordinate is the distance in km to the north. The projection can be
+ * inverted exactly enough to compute the TSPLIB distances on the projected points.
+ */
+public class GeoProjection implements DistanceKernel {
+
+    // Values of the TSPLIB definition of GEO distances
+    public static final double RADIUS = 6378.388;
+    private static final double PI = 3.141592;
+
+    private final double eastScale;
+
+    /**
+     * @param referenceLatitude Latitude in radians at which distances in x direction are preserved.
+     */
+    public GeoProjection(double referenceLatitude) {
+        this.eastScale = RADIUS * Math.cos(referenceLatitude);
+    }
+
+    /**
+     * Projects TSPLIB GEO coordinates into the plane, using the middle of the latitudes as reference.
+     * @param xs Latitudes in DDD.MM format, replaced by the projected x coordinates.
+     * @param ys Longitudes in DDD.MM format, replaced by the projected y coordinates.
+     * @param n Number of points.
+     * @return The projection, which computes TSPLIB GEO distances for the projected points.
+     */
+    public static GeoProjection project(double[] xs, double[] ys, int n) {
+        double[] longitudes = new double[n];
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            longitudes[i] = toRadians(ys[i]);
+            ys[i] = RADIUS * toRadians(xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        GeoProjection projection = ofBounds(minY, maxY);
+        for (int i = 0; i < n; i++)
+            xs[i] = projection.eastScale * longitudes[i];
+        return projection;
+    }
+
+    /**
+     * Restores the projection of an instance from the bounds of its projected y coordinates.
+     * @return The projection using the middle of the latitudes as reference.
+     */
+    public static GeoProjection ofBounds(double minY, double maxY) {
+        if (minY > maxY)
+            return new GeoProjection(0);
+        return new GeoProjection((minY + maxY) / (2 * RADIUS));
+    }
+
+    /**
+     * Converts a TSPLIB GEO coordinate in DDD.MM format to radians.
+     */
+    public static double toRadians(double coordinate) {
+        int degrees = (int) coordinate;
+        double minutes = coordinate - degrees;
+        return PI * (degrees + 5.0 * minutes / 3.0) / 180.0;
+    }
+
+    /**
+     * @return TSPLIB GEO distance between two projected points, in whole km.
+     */
+    @Override
+    public double distance(double x1, double y1, double x2, double y2) {
+        double latitude1 = y1 / RADIUS, latitude2 = y2 / RADIUS;
+        double q1 = Math.cos((x1 - x2) / eastScale);
+        double q2 = Math.cos(latitude1 - latitude2);
+        double q3 = Math.cos(latitude1 + latitude2);
+        return (int) (RADIUS * Math.acos(0.5 * ((1.0 + q1) * q2 - (1.0 - q1) * q3)) + 1.0);
+    }
+}
@@ -3,20 +3,28 @@ package CircleTSP.util;
 import CircleTSP.entities.Edge;
 import CircleTSP.entities.Point;
 
+import java.math.BigDecimal;
+
 // https://www.geeksforgeeks.org/check-if-two-given-line-segments-intersect/
 public class Intersection {
 
+    // Relative error bound of the floating point orientation determinant
+    // See: Adaptive Precision Floating-Point Arithmetic and Fast Robust Geometric Predicates - Jonathan R. Shewchuk
+    private static final double EPSILON = Math.ulp(1.0) / 2;
+    private static final double ORIENTATION_ERROR_BOUND = (3 + 16 * EPSILON) * EPSILON;
+
     // Given three colinear points p, q, r, the function checks if
     // point q lies on line segment 'pr'
     public static boolean onSegment(Point p, Point q, Point r)
     {
-        if (q.getCoordinates()[0] <= Math.max(p.getCoordinates()[0], r.getCoordinates()[0])
-                && q.getCoordinates()[0] >= Math.min(p.getCoordinates()[0], r.getCoordinates()[0]) &&
-                q.getCoordinates()[1] <= Math.max(p.getCoordinates()[1], r.getCoordinates()[1])
-                && q.getCoordinates()[1] >= Math.min(p.getCoordinates()[1], r.getCoordinates()[1]))
-            return true;
+        double[] pc = p.getCoordinates(), qc = q.getCoordinates(), rc = r.getCoordinates();
+        return onSegment(pc[0], pc[1], qc[0], qc[1], rc[0], rc[1]);
+    }
 
-        return false;
+    public static boolean onSegment(double px, double py, double qx, double qy, double rx, double ry)
+    {
+        return qx <= Math.max(px, rx) && qx >= Math.min(px, rx) &&
+                qy <= Math.max(py, ry) && qy >= Math.min(py, ry);
     }
 
     // To find orientation of ordered triplet (p, q, r).
@@ -25,17 +33,52 @@ public class Intersection {
     // 1 --> Clockwise
     // 2 --> Counterclockwise
     public static int orientation(Point p, Point q, Point r)
+    {
+        double[] pc = p.getCoordinates(), qc = q.getCoordinates(), rc = r.getCoordinates();
+        return orientation(pc[0], pc[1], qc[0], qc[1], rc[0], rc[1]);
+    }
+
+    public static int orientation(double px, double py, double qx, double qy, double rx, double ry)
     {
         // See https://www.geeksforgeeks.org/orientation-3-ordered-points/
         // for details of below formula.
-        double val = (q.getCoordinates()[1] - p.getCoordinates()[1]) * (r.getCoordinates()[0] - q.getCoordinates()[0]) -
-                (q.getCoordinates()[0] - p.getCoordinates()[0]) * (r.getCoordinates()[1] - q.getCoordinates()[1]);
+        double val = (qy - py) * (rx - qx) - (qx - px) * (ry - qy);
 
         if (val == 0) return 0; // colinear
 
         return (val > 0)? 1: 2; // clock or counterclock wise
     }
 
+    /**
+     * Finds the orientation of the ordered triplet (p, q, r) like orientation(), but always returns the exact result.
+     * The floating point determinant is only used if it is larger than its error bound, otherwise it is recalculated
+     * with exact arithmetic. This is only necessary for nearly colinear points, such as the points on the drilling
+     * paths of the pla* and rl* instances of TSPLIB.
+     * @return 0 if p, q and r are colinear, 1 if they are in clockwise order and 2 if they are in counterclockwise order.
+     */
+    public static int robustOrientation(double px, double py, double qx, double qy, double rx, double ry)
+    {
+        double dy1 = qy - py, dx2 = rx - qx;
+        double dx1 = qx - px, dy2 = ry - qy;
+        double left = dy1 * dx2;
+        double right = dx1 * dy2;
+        double val = left - right;
+        double errorBound = ORIENTATION_ERROR_BOUND * (Math.abs(left) + Math.abs(right));
+        if (val > errorBound) return 1;
+        if (-val > errorBound) return 2;
+        // Differences of equal coordinates are exact
+        if ((dy1 == 0 || dx2 == 0) && (dx1 == 0 || dy2 == 0)) return 0;
+
+        // Every double has an exact decimal representation
+        BigDecimal exactLeft = new BigDecimal(qy).subtract(new BigDecimal(py))
+                .multiply(new BigDecimal(rx).subtract(new BigDecimal(qx)));
+        BigDecimal exactRight = new BigDecimal(qx).subtract(new BigDecimal(px))
+                .multiply(new BigDecimal(ry).subtract(new BigDecimal(qy)));
+        int sign = exactLeft.compareTo(exactRight);
+        if (sign == 0) return 0;
+        return (sign > 0)? 1: 2;
+    }
+
     public static boolean doIntersect(Edge e1, Edge e2) {
         return doIntersect(e1.getFirst(), e1.getSecond(), e2.getFirst(), e2.getSecond());
     }
@@ -43,13 +86,24 @@ public class Intersection {
     // The main function that returns true if line segment 'p1q1'
     // and 'p2q2' intersect.
     public static boolean doIntersect(Point p1, Point q1, Point p2, Point q2)
+    {
+        double[] a = p1.getCoordinates(), b = q1.getCoordinates(), c = p2.getCoordinates(), d = q2.getCoordinates();
+        return doIntersect(a[0], a[1], b[0], b[1], c[0], c[1], d[0], d[1], false);
+    }
+
+    /**
+     * Checks if the line segment (x1,y1)-(x2,y2) intersects with the line segment (x3,y3)-(x4,y4).
+     * @param robust If true, the orientations are determined exactly using robustOrientation().
+     */
+    public static boolean doIntersect(double x1, double y1, double x2, double y2,
+                                      double x3, double y3, double x4, double y4, boolean robust)
     {
         // Find the four orientations needed for general and
         // special cases
-        int o1 = orientation(p1, q1, p2);
-        int o2 = orientation(p1, q1, q2);
-        int o3 = orientation(p2, q2, p1);
-        int o4 = orientation(p2, q2, q1);
+        int o1 = robust ? robustOrientation(x1, y1, x2, y2, x3, y3) : orientation(x1, y1, x2, y2, x3, y3);
+        int o2 = robust ? robustOrientation(x1, y1, x2, y2, x4, y4) : orientation(x1, y1, x2, y2, x4, y4);
+        int o3 = robust ? robustOrientation(x3, y3, x4, y4, x1, y1) : orientation(x3, y3, x4, y4, x1, y1);
+        int o4 = robust ? robustOrientation(x3, y3, x4, y4, x2, y2) : orientation(x3, y3, x4, y4, x2, y2);
 
         // General case
         if (o1 != o2 && o3 != o4)
@@ -57,17 +111,51 @@ public class Intersection {
 
         // Special Cases
         // p1, q1 and p2 are colinear and p2 lies on segment p1q1
-        if (o1 == 0 && onSegment(p1, p2, q1)) return true;
+        if (o1 == 0 && onSegment(x1, y1, x3, y3, x2, y2)) return true;
 
         // p1, q1 and q2 are colinear and q2 lies on segment p1q1
-        if (o2 == 0 && onSegment(p1, q2, q1)) return true;
+        if (o2 == 0 && onSegment(x1, y1, x4, y4, x2, y2)) return true;
 
         // p2, q2 and p1 are colinear and p1 lies on segment p2q2
-        if (o3 == 0 && onSegment(p2, p1, q2)) return true;
+        if (o3 == 0 && onSegment(x3, y3, x1, y1, x4, y4)) return true;
 
         // p2, q2 and q1 are colinear and q1 lies on segment p2q2
-        if (o4 == 0 && onSegment(p2, q1, q2)) return true;
+        if (o4 == 0 && onSegment(x3, y3, x2, y2, x4, y4)) return true;
 
         return false; // Doesn't fall in any of the above cases
     }
+
+    /**
+     * Tests the line segment (x1,y1)-(x2,y2) against a contiguous run of edges, where edge i connects the points
+     * (xs[i],ys[i]) and (xs[i+1],ys[i+1]). To include the closing edge of a tour, the first point has to be repeated at
+     * the end of the arrays.
+     * The orientation of every point relative to the segment is only calculated once and shared by both of its edges,
+     * edges whose points lie strictly on the same side of the segment are rejected without further tests.
+     * @param from Index of the first edge to test.
+     * @param to Index after the last edge to test, at most xs.length - 1.
+     * @param robust If true, the orientations are determined exactly using robustOrientation().
+     * @param result Buffer the indices of the intersecting edges are written to in ascending order.
+     * @return Number of intersecting edges written to the buffer.
+     */
+    public static int intersectingEdges(double x1, double y1, double x2, double y2,
+                                        double[] xs, double[] ys, int from, int to, boolean robust, int[] result)
+    {
+        if (from < 0 || to > xs.length - 1 || to > ys.length - 1)
+            throw new IllegalArgumentException("Edges can't be outside of the coordinate arrays!");
+        int count = 0;
+        if (from >= to)
+            return count;
+
+        int previousSide = robust ? robustOrientation(x1, y1, x2, y2, xs[from], ys[from])
+                : orientation(x1, y1, x2, y2, xs[from], ys[from]);
+        for (int i = from; i < to; i++) {
+            int side = robust ? robustOrientation(x1, y1, x2, y2, xs[i + 1], ys[i + 1])
+                    : orientation(x1, y1, x2, y2, xs[i + 1], ys[i + 1]);
+            if ((previousSide == 0 || previousSide != side)
+                    && doIntersect(x1, y1, x2, y2, xs[i], ys[i], xs[i + 1], ys[i + 1], robust))
+                result[count++] = i;
+            previousSide = side;
+        }
+        return count;
+    }
 }
@@ -7,6 +7,7 @@ import CircleTSP.entities.Point;
 import CircleTSP.entities.Tour;
 
 import java.util.*;
+import java.util.concurrent.CancellationException;
 
 public class ParameterLearner {
 
@@ -28,14 +29,31 @@ public class ParameterLearner {
      */
     public static double learnEpsilon2(final Collection<Point> points, final int minPts,
                                        final TSPClusterSolver solver) {
+        return learnEpsilon2(points, minPts, solver, new SolveContext());
+    }
+
+    /**
+     * Learns the epsilon parameter like learnEpsilon2(points, minPts, solver), while passing the context to the
+     * solver.
+     * @param points Collection of point to perform the learning on.
+     * @param minPts Specifies the minPts value for the solver.
+     * @param solver Solver used for calculating the cost of a parameter value.
+     * @param context Context of the computation.
+     * @return Epsilon value with a local minimum cost for solver.
+     * @throws CancellationException If the context has been cancelled.
+     * @see #learnEpsilon2(Collection, int, double, double, TSPClusterSolver, SolveContext)
+     */
+    public static double learnEpsilon2(final Collection<Point> points, final int minPts,
+                                       final TSPClusterSolver solver, final SolveContext context) {
         double maxDistance = 0.0;
         for (Point p1 : points) {
+            context.checkCancelled("Learning epsilon");
             for (Point p2 : points) {
                 maxDistance = Math.max(maxDistance, Distance.euclidianDistance(p1, p2));
             }
         }
 
-        return learnEpsilon2(points, minPts, maxDistance, maxDistance/100, solver);
+        return learnEpsilon2(points, minPts, maxDistance, maxDistance/100, solver, context);
     }
 
     /**
@@ -55,6 +73,25 @@ public class ParameterLearner {
     public static double learnEpsilon2(final Collection<Point> points, final int minPts,
                                        final double maxEpsilon, final double stepSize,
                                        final TSPClusterSolver solver) {
+        return learnEpsilon2(points, minPts, maxEpsilon, stepSize, solver, new SolveContext());
+    }
+
+    /**
+     * Learns the epsilon parameter like learnEpsilon2(points, minPts, maxEpsilon, stepSize, solver), while passing
+     * the context to the solver and reporting the progress as phase "learnEpsilon" with the lowest costs so far.
+     * If the deadline of the context passes, the best epsilon found until then is returned.
+     * @param points Collection of point to perform the learning on.
+     * @param minPts Specifies the minPts value for the solver.
+     * @param maxEpsilon Maximum value epsilon is allowed to have.
+     * @param stepSize Specifies the value by which epsilon gets increased each learning iteration step.
+     * @param solver Solver used for calculating the cost of a parameter value.
+     * @param context Context of the computation.
+     * @return Epsilon value with a local minimum cost for solver.
+     * @throws CancellationException If the context has been cancelled.
+     */
+    public static double learnEpsilon2(final Collection<Point> points, final int minPts,
+                                       final double maxEpsilon, final double stepSize,
+                                       final TSPClusterSolver solver, final SolveContext context) {
         double result = 0.0;
         double epsilon = 0.0;
         double minDistance = Double.POSITIVE_INFINITY;
@@ -68,10 +105,16 @@ public class ParameterLearner {
             // Calculate costs for tour by directly calculating a tour using the desired solver
             Tour tour_cluster;
             try {
-                tour_cluster = solver.calculateTour(points, minPts, epsilon);
+                context.checkCancelled("Learning epsilon");
+                tour_cluster = solver.calculateTour(points, minPts, epsilon, context);
             } catch (NullPointerException e) {
                 // TODO: WARNING: This is a clue for a deeper underlying problem!
                 continue;
+            } catch (CancellationException e) {
+                // Keep the best epsilon found before the deadline, but don't hide a cancellation
+                if (context.isCancelled() || !context.isExpired())
+                    throw e;
+                break;
             }
             double currentDistance = Distance.calculateTourLength(tour_cluster);
 
@@ -92,6 +135,7 @@ public class ParameterLearner {
                 result = epsilon;
             }
             previousDistance = currentDistance;
+            context.reportProgress("learnEpsilon", epsilon / maxEpsilon, minDistance);
         }
         return result;
     }
@@ -0,0 +1,122 @@
+package CircleTSP.util;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Context of a long running computation, that carries a cancellation token, an optional deadline and an optional
+ * progress listener through the solvers.
+ * Solvers check the context regularly, which only costs a volatile read and, if a deadline has been set, a call to
+ * System.nanoTime(). Interrupting the thread of a computation has the same effect as cancelling it, so that solvers
+ * can still be stopped by Future.cancel(true).
+ * A context can be shared by all threads of a computation, therefore progress listeners have to be thread-safe.
+ */
+public class SolveContext {
+
+    /**
+     * Receives the progress of a computation.
+     */
+    public interface ProgressListener {
+
+        /**
+         * @param phase Name of the current phase of the computation.
+         * @param fraction Estimated fraction of the phase that has been done, between 0 and 1.
+         * @param bestCost Costs of the best solution found so far, or NaN if no solution has been found yet.
+         */
+        void onProgress(String phase, double fraction, double bestCost);
+    }
+
+    private final boolean hasDeadline;
+    private final long deadline;
+    private final ProgressListener listener;
+    private volatile boolean cancelled;
+
+    /**
+     * Creates a context without deadline and progress listener, which can only be cancelled.
+     */
+    public SolveContext() {
+        this(false, 0, null);
+    }
+
+    /**
+     * Creates a context without deadline.
+     * @param listener Listener receiving the progress or null.
+     */
+    public SolveContext(ProgressListener listener) {
+        this(false, 0, listener);
+    }
+
+    /**
+     * @param deadline Point in time (as returned by System.nanoTime()) at which the computation should stop.
+     * @param listener Listener receiving the progress or null.
+     */
+    public SolveContext(long deadline, ProgressListener listener) {
+        this(true, deadline, listener);
+    }
+
+    private SolveContext(boolean hasDeadline, long deadline, ProgressListener listener) {
+        this.hasDeadline = hasDeadline;
+        this.deadline = deadline;
+        this.listener = listener;
+    }
+
+    /**
+     * Cancels all computations using this context.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return True if this context has been cancelled or the current thread has been interrupted.
+     */
+    public boolean isCancelled() {
+        return cancelled || Thread.currentThread().isInterrupted();
+    }
+
+    /**
+     * @return True if the deadline of this context has passed.
+     */
+    public boolean isExpired() {
+        return hasDeadline && System.nanoTime() - deadline >= 0;
+    }
+
+    /**
+     * @return True if the computation should stop, because it has been cancelled or its deadline has passed.
+     */
+    public boolean shouldStop() {
+        return isCancelled() || isExpired();
+    }
+
+    /**
+     * Stops a computation by throwing a CancellationException, if it has been cancelled or its deadline has passed.
+     * @param computation Name of the computation used in the message of the exception.
+     */
+    public void checkCancelled(String computation) {
+        if (isCancelled())
+            throw new CancellationException(computation + " has been cancelled!");
+        if (isExpired())
+            throw new CancellationException(computation + " has exceeded its deadline!");
+    }
+
+    public boolean hasDeadline() {
+        return hasDeadline;
+    }
+
+    /**
+     * @return Deadline as returned by System.nanoTime(), only valid if hasDeadline() is true.
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Reports the progress of the computation to the progress listener, if one has been set.
+     * @param phase Name of the current phase of the computation.
+     * @param fraction Estimated fraction of the phase that has been done, between 0 and 1.
+     * @param bestCost Costs of the best solution found so far, or NaN if no solution has been found yet.
+     */
+    public void reportProgress(String phase, double fraction, double bestCost) {
+        if (listener != null)
+            listener.onProgress(phase, Math.min(1, Math.max(0, fraction)), bestCost);
+    }
+}
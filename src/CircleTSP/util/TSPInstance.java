@@ -0,0 +1,74 @@
+package CircleTSP.util;
+
+import CircleTSP.entities.Point;
+import CircleTSP.entities.PointStore;
+import CircleTSP.entities.Tour;
+
+/**
+ * Points of a TSP instance together with the metric of its edge weights.
+ * @param <P> Type of the point store.
+ */
+public class TSPInstance<P extends PointStore> {
+
+    private final P points;
+    private final String edgeWeightType;
+    private final DistanceKernel kernel;
+    private final DistanceMatrix matrix;
+
+    /**
+     * @param points Points of the instance in planar coordinates.
+     * @param edgeWeightType TSPLIB EDGE_WEIGHT_TYPE of the instance.
+     * @param kernel Distance between the points according to the edge weight type.
+     */
+    public TSPInstance(P points, String edgeWeightType, DistanceKernel kernel) {
+        this(points, edgeWeightType, kernel, null);
+    }
+
+    /**
+     * @param points Points of the instance in planar coordinates, numbered from 1 to n if there is a matrix.
+     * @param edgeWeightType TSPLIB EDGE_WEIGHT_TYPE of the instance.
+     * @param kernel Distance between the points according to the edge weight type, or an approximation of the matrix.
+     * @param matrix Weights of an EXPLICIT instance, where the point with the id i is node i-1, or null.
+     */
+    public TSPInstance(P points, String edgeWeightType, DistanceKernel kernel, DistanceMatrix matrix) {
+        if (matrix != null && matrix.size() != points.size())
+            throw new IllegalArgumentException("The distance matrix has to contain all points!");
+        this.points = points;
+        this.edgeWeightType = edgeWeightType;
+        this.kernel = kernel;
+        this.matrix = matrix;
+    }
+
+    public P getPoints() {
+        return points;
+    }
+
+    public String getEdgeWeightType() {
+        return edgeWeightType;
+    }
+
+    public DistanceKernel getKernel() {
+        return kernel;
+    }
+
+    /**
+     * @return Weights of an EXPLICIT instance, or null if the distances are given by the kernel.
+     */
+    public DistanceMatrix getMatrix() {
+        return matrix;
+    }
+
+    /**
+     * @return Length of the tour according to the metric of the instance, e.g. with the rounding rules of TSPLIB or the
+     * weights of the matrix.
+     */
+    public double calculateTourLength(Tour tour) {
+        if (matrix == null)
+            return Distance.calculateTourLength(tour, kernel);
+        int[] order = new int[tour.size()];
+        int i = 0;
+        for (Point p : tour)
+            order[i++] = Integer.parseInt(p.getId()) - 1;
+        return matrix.tourLength(order);
+    }
+}
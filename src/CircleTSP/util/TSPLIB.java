@@ -1,70 +1,90 @@
 package CircleTSP.util;
 
+import CircleTSP.entities.ArrayPointStore;
 import CircleTSP.entities.Point;
+import CircleTSP.entities.PointStore;
 import CircleTSP.entities.Tour;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.HashMap;
 
 public class TSPLIB {
+    /**
+     * Reads the nodes of a TSPLIB file into Point objects.
+     * @param fileName Path of a TSP instance with EUC_2D, CEIL_2D, ATT or GEO node coordinates.
+     * @return Map from the node ids to the points, GEO coordinates are projected into the plane.
+     * @throws IOException If the file can't be read.
+     * @throws IllegalArgumentException If the file format is not supported.
+     * @see #readPointStore(String) For reading the coordinates without creating Point objects.
+     * @see #readInstance(String) For the distances of the edge weight type.
+     */
     public static HashMap<String, Point> readPoints(String fileName) throws IOException {
-        HashMap<String, Point> P = new HashMap<>();
+        return readPointStore(fileName).toPointMap();
+    }
 
-        File file = new File(fileName);
-        try {
-            BufferedReader br = new BufferedReader(new FileReader(file));
-            String s;
+    /**
+     * Reads the nodes of a TSPLIB file into a point store by memory-mapping the file. Gzip-compressed files (e.g.
+     * .tsp.gz) are decompressed while parsing, without temporary files.
+     * @param fileName Path of a TSP instance with EUC_2D, CEIL_2D, ATT or GEO node coordinates, optionally gzipped.
+     * @return Store containing the nodes in the order of the file, GEO coordinates are projected into the plane.
+     * @throws IOException If the file can't be read.
+     * @throws IllegalArgumentException If the file format is not supported.
+     */
+    public static ArrayPointStore readPointStore(String fileName) throws IOException {
+        return readInstance(fileName).getPoints();
+    }
 
-            // Check header
-            boolean[] supportedFeatures = {false, false, false};
-            while ((s = br.readLine()) != null) {
-                if (s.trim().equals("EOF"))
-                    break;
-                if (s.contains("EDGE_WEIGHT_TYPE")) {
-                    String type = s.split(":")[1].trim();
-                    supportedFeatures[1] = type.equals("EUC_2D");
-                }
-                else if (s.contains("TYPE")){
-                    String type = s.split(":")[1].trim();
-                    supportedFeatures[0] = type.equals("TSP");
-                }
-                else if (s.contains("NODE_COORD_SECTION")) {
-                    supportedFeatures[2] = true;
-                    break;
-                }
-            }
-            for (boolean supported:supportedFeatures) {
-                if (!supported)
-                    throw new IllegalArgumentException("Unsupported file format!");
-            }
+    /**
+     * Reads the nodes of a TSPLIB file together with the distance kernel of its EDGE_WEIGHT_TYPE, which measures tours
+     * with the rounding rules of TSPLIB, e.g. for comparing them to optimal tours.
+     * @param fileName Path of a TSP instance with EUC_2D, CEIL_2D, ATT or GEO node coordinates.
+     * @return Instance with the nodes in the order of the file, GEO coordinates are projected into the plane.
+     * @throws IOException If the file can't be read.
+     * @throws IllegalArgumentException If the file format is not supported.
+     */
+    public static TSPInstance<ArrayPointStore> readInstance(String fileName) throws IOException {
+        try {
+            return TSPLIBParser.readInstance(fileName);
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw e;
+        }
+    }
 
-            // Read points
-            while ((s = br.readLine()) != null) {
-                if (s.trim().equals("EOF"))
-                    break;
-                String[] point = s.trim().split("\\s+");
-                String id = point[0].trim();
-                double x = Double.parseDouble(point[1]);
-                double y = Double.parseDouble(point[2]);
-                P.put(id, new Point(id, new double[] {x,y}));
-            }
+    /**
+     * Reads a TSPLIB tour file and resolves its node ids to the indices of the points, without creating a string for
+     * every id or looking up Point objects.
+     * @param optFile Path of the tour file.
+     * @param points Store that can look up the node ids of the tour, e.g. read with readPointStore.
+     * @return Indices of the points in the order of the tour.
+     * @throws IOException If the file can't be read.
+     * @throws IllegalArgumentException If the file is not a tour, a node id is unknown or occurs more than once.
+     */
+    public static int[] readOptIndices(String optFile, PointStore points) throws IOException {
+        boolean[] visited = new boolean[points.size()];
+        try {
+            return TSPLIBParser.readTour(optFile, nodeId -> {
+                int index = points.getIndex(nodeId);
+                if (visited[index])
+                    throw new IllegalArgumentException("The node id " + nodeId + " occurs more than once!");
+                visited[index] = true;
+                return index;
+            });
         } catch (IOException e) {
             e.printStackTrace();
             throw e;
         }
-        return P;
     }
 
     public static Tour readOpt(String optFile, HashMap<String, Point> points) throws IOException {
         Tour tour = new Tour();
+        HashMap<String, Point> nodeIds = null;
 
         File file = new File(optFile);
-        try {
-            BufferedReader br = new BufferedReader(new FileReader(file));
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
             String s;
             // Check header
             boolean[] supportedFeatures = {false, false};
@@ -96,8 +116,15 @@ public class TSPLIB {
                         if (!id.equals(""))
                             if (points.get(id) != null)
                                 tour.add(points.get(id));
-                            else
-                                throw new IllegalArgumentException("Points in file do not match previously read points!");
+                            else {
+                                // Instances like gr666 use leading zeros for their node ids, but not their tours
+                                if (nodeIds == null)
+                                    nodeIds = mapNodeIds(points);
+                                if (nodeIds.get(id) != null)
+                                    tour.add(nodeIds.get(id));
+                                else
+                                    throw new IllegalArgumentException("Points in file do not match previously read points!");
+                            }
                     else
                         return tour;
                 }
@@ -109,4 +136,18 @@ public class TSPLIB {
         }
         return tour;
     }
+
+    /**
+     * @return Map from the canonical form of the integer identifiers (e.g. "1" for "0001") to the points.
+     */
+    private static HashMap<String, Point> mapNodeIds(HashMap<String, Point> points) {
+        HashMap<String, Point> nodeIds = new HashMap<>();
+        for (Point point : points.values()) {
+            try {
+                nodeIds.put(Integer.toString(Integer.parseInt(point.getId())), point);
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return nodeIds;
+    }
 }
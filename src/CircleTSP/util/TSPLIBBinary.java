@@ -0,0 +1,279 @@
+package CircleTSP.util;
+
+import CircleTSP.entities.ArrayPointStore;
+import CircleTSP.entities.BufferPointStore;
+import CircleTSP.entities.PointStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary format for TSP instances that can be memory-mapped and used without parsing.
+ * All values are little-endian. The header of 72 bytes contains:
+ * <ul>
+ *     <li>the magic bytes "TSPB" and the version of the format,</li>
+ *     <li>the number of nodes n,</li>
+ *     <li>the EDGE_WEIGHT_TYPE of the instance as zero padded ASCII string of 16 bytes,</li>
+ *     <li>the bounds of the coordinates (min x, min y, max x, max y),</li>
+ *     <li>a 64-bit hash of the content after the header.</li>
+ * </ul>
+ * The header is followed by the node ids (int[n]) in the order of the TSPLIB file, the index of every node id
+ * (int[n]) and the x and y coordinates (double[n] each).
+ */
+public class TSPLIBBinary {
+
+    public static final String EXTENSION = ".tspb";
+
+    private static final byte[] MAGIC = {'T', 'S', 'P', 'B'};
+    private static final int VERSION = 1;
+    private static final int METRIC_LENGTH = 16;
+    private static final int HEADER_SIZE = 72;
+
+    // Offsets of the header entries
+    private static final int VERSION_OFFSET = 4;
+    private static final int SIZE_OFFSET = 8;
+    private static final int METRIC_OFFSET = 16;
+    private static final int BOUNDS_OFFSET = 32;
+    private static final int HASH_OFFSET = 64;
+
+    private final String metric;
+    private final double[] bounds;
+    private final long contentHash;
+    private final ByteBuffer buffer;
+    private final BufferPointStore pointStore;
+
+    private TSPLIBBinary(ByteBuffer buffer) {
+        this.buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (this.buffer.limit() < HEADER_SIZE)
+            throw new IllegalArgumentException("The file is too short for a binary TSP instance!");
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (this.buffer.get(i) != MAGIC[i])
+                throw new IllegalArgumentException("The file is not a binary TSP instance!");
+        }
+        int version = this.buffer.getInt(VERSION_OFFSET);
+        if (version != VERSION)
+            throw new IllegalArgumentException("Unsupported version of the binary format: " + version + "!");
+        int n = this.buffer.getInt(SIZE_OFFSET);
+        if (n < 0 || this.buffer.limit() != HEADER_SIZE + 24L * n)
+            throw new IllegalArgumentException("The size of the file does not match the number of nodes!");
+
+        byte[] metricBytes = new byte[METRIC_LENGTH];
+        this.buffer.get(METRIC_OFFSET, metricBytes);
+        int length = 0;
+        while (length < METRIC_LENGTH && metricBytes[length] != 0)
+            length++;
+        this.metric = new String(metricBytes, 0, length, StandardCharsets.US_ASCII);
+        this.bounds = new double[4];
+        for (int i = 0; i < bounds.length; i++)
+            bounds[i] = this.buffer.getDouble(BOUNDS_OFFSET + 8 * i);
+        this.contentHash = this.buffer.getLong(HASH_OFFSET);
+
+        int indicesOffset = HEADER_SIZE + 4 * n;
+        int xsOffset = HEADER_SIZE + 8 * n;
+        this.pointStore = new BufferPointStore(this.buffer, n, HEADER_SIZE, indicesOffset, xsOffset, xsOffset + 8 * n);
+    }
+
+    /**
+     * Memory-maps a binary TSP instance. Only the header is read, the points are read from the mapped file when they
+     * are accessed.
+     * @param fileName Path of the binary file.
+     * @return The instance, whose points can be accessed with getPointStore().
+     * @throws IOException If the file can't be read.
+     * @throws IllegalArgumentException If the file is not a binary TSP instance.
+     */
+    public static TSPLIBBinary read(String fileName) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Files larger than 2GB can't be mapped! Size: " + size);
+            return new TSPLIBBinary(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    /**
+     * Writes the points of a TSP instance in the binary format.
+     * @param points Points whose node ids are numbered from 1 to n.
+     * @param metric EDGE_WEIGHT_TYPE of the instance.
+     * @param fileName Path of the binary file.
+     * @throws IOException If the file can't be written.
+     * @throws IllegalArgumentException If the node ids are not indexed or differ from the identifiers of the points.
+     */
+    public static void write(ArrayPointStore points, String metric, String fileName) throws IOException {
+        byte[] metricBytes = metric.getBytes(StandardCharsets.US_ASCII);
+        if (metricBytes.length > METRIC_LENGTH)
+            throw new IllegalArgumentException("The name of the metric is too long: " + metric + "!");
+        if (!points.hasIndex())
+            throw new IllegalArgumentException("The points have to be numbered from 1 to n!");
+        int n = points.size();
+        if (HEADER_SIZE + 24L * n > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Instances larger than 2GB are not supported! Nodes: " + n);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 24 * n).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(MAGIC).putInt(VERSION).putInt(n).putInt(0).put(metricBytes);
+        double[] bounds = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+                Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        buffer.position(HEADER_SIZE);
+        for (int i = 0; i < n; i++) {
+            int nodeId = points.getNodeId(i);
+            // Identifiers with leading zeros can't be restored from the node ids
+            if (!points.getId(i).equals(Integer.toString(nodeId)))
+                throw new IllegalArgumentException("Identifiers have to be canonical integers! Id: "
+                        + points.getId(i));
+            buffer.putInt(nodeId);
+        }
+        for (int nodeId = 1; nodeId <= n; nodeId++)
+            buffer.putInt(points.getIndex(nodeId));
+        for (int i = 0; i < n; i++) {
+            double x = points.getX(i);
+            buffer.putDouble(x);
+            bounds[0] = Math.min(bounds[0], x);
+            bounds[2] = Math.max(bounds[2], x);
+        }
+        for (int i = 0; i < n; i++) {
+            double y = points.getY(i);
+            buffer.putDouble(y);
+            bounds[1] = Math.min(bounds[1], y);
+            bounds[3] = Math.max(bounds[3], y);
+        }
+        for (int i = 0; i < bounds.length; i++)
+            buffer.putDouble(BOUNDS_OFFSET + 8 * i, bounds[i]);
+        buffer.putLong(HASH_OFFSET, hash(buffer));
+
+        // Write to a temporary file first, so readers never see a partially written instance
+        Path file = Paths.get(fileName).toAbsolutePath();
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                buffer.clear();
+                while (buffer.hasRemaining())
+                    channel.write(buffer);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Converts a TSPLIB file to the binary format.
+     * @param tspFile Path of a TSP instance with EUC_2D, CEIL_2D, ATT or GEO node coordinates.
+     * @param binaryFile Path of the binary file.
+     * @throws IOException If one of the files can't be accessed.
+     * @throws IllegalArgumentException If the format of the TSPLIB file is not supported or the instance is EXPLICIT.
+     */
+    public static void convert(String tspFile, String binaryFile) throws IOException {
+        TSPInstance<ArrayPointStore> instance = TSPLIB.readInstance(tspFile);
+        if (instance.getMatrix() != null)
+            throw new IllegalArgumentException("Explicit distance matrices can't be stored in the binary format!");
+        write(instance.getPoints(), instance.getEdgeWeightType(), binaryFile);
+    }
+
+    /**
+     * @param tspFile Path of a TSPLIB file.
+     * @return Path of the binary file next to the TSPLIB file.
+     */
+    public static String getBinaryFile(String tspFile) {
+        String name = tspFile.endsWith(".tsp.gz") ? tspFile.substring(0, tspFile.length() - 7)
+                : tspFile.endsWith(".tsp") ? tspFile.substring(0, tspFile.length() - 4) : tspFile;
+        return name + EXTENSION;
+    }
+
+    /**
+     * Reads a TSPLIB file, using the binary file next to it if it exists and is not older than the TSPLIB file.
+     * @param tspFile Path of a TSP instance with EUC_2D, CEIL_2D, ATT or GEO node coordinates.
+     * @return Instance with the nodes in the order of the TSPLIB file.
+     * @throws IOException If the file can't be read.
+     * @throws IllegalArgumentException If the file format is not supported.
+     */
+    public static TSPInstance<? extends PointStore> readCached(String tspFile) throws IOException {
+        File binaryFile = new File(getBinaryFile(tspFile));
+        if (binaryFile.isFile() && binaryFile.lastModified() >= new File(tspFile).lastModified())
+            return read(binaryFile.getPath()).getInstance();
+        return TSPLIB.readInstance(tspFile);
+    }
+
+    /**
+     * 64-bit FNV-1a hash over the longs after the header.
+     */
+    private static long hash(ByteBuffer buffer) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = HEADER_SIZE; i + 8 <= buffer.limit(); i += 8) {
+            hash ^= buffer.getLong(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Computes the hash of the content and compares it with the hash in the header.
+     * This reads the whole file, so it is not done when the file is read.
+     * @return True if the content matches the header.
+     */
+    public boolean verify() {
+        return hash(buffer) == contentHash;
+    }
+
+    /**
+     * @return Store reading the points from the mapped file.
+     */
+    public BufferPointStore getPointStore() {
+        return pointStore;
+    }
+
+    /**
+     * @return Instance of the points and the distance kernel of the metric. The projection of GEO instances is
+     * restored from the bounds.
+     */
+    public TSPInstance<BufferPointStore> getInstance() {
+        DistanceKernel kernel = metric.equals("GEO") ? GeoProjection.ofBounds(bounds[1], bounds[3])
+                : Distance.kernel(metric);
+        return new TSPInstance<>(pointStore, metric, kernel);
+    }
+
+    /**
+     * @return EDGE_WEIGHT_TYPE of the instance.
+     */
+    public String getMetric() {
+        return metric;
+    }
+
+    /**
+     * @return Bounds of the coordinates as {min x, min y, max x, max y}.
+     */
+    public double[] getBounds() {
+        return bounds.clone();
+    }
+
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Converts all supported TSPLIB files of a folder to the binary format.
+     * @param args Folder containing the TSPLIB files.
+     */
+    public static void main(String[] args) throws IOException {
+        File[] files = new File(args[0]).listFiles((dir, name) -> name.endsWith(".tsp"));
+        if (files == null)
+            throw new IllegalArgumentException("Not a folder: " + args[0] + "!");
+        int numConverted = 0;
+        for (File file : files) {
+            try {
+                convert(file.getPath(), getBinaryFile(file.getPath()));
+                numConverted++;
+            } catch (IllegalArgumentException e) {
+                System.out.println("Skipping " + file.getName() + ": " + e.getMessage());
+            }
+        }
+        System.out.println("Converted " + numConverted + " of " + files.length + " files");
+    }
+}
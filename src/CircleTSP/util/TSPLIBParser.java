@@ -0,0 +1,920 @@
+package CircleTSP.util;
+
+import CircleTSP.algo.embedding.LandmarkMDS;
+import CircleTSP.entities.ArrayPointStore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Parser for TSPLIB files that works directly on the bytes of a memory-mapped file.
+ * The header and the node coordinates are scanned without creating strings, numbers are parsed into primitive arrays.
+ * The results are the same as splitting the lines at whitespace and parsing the numbers with Double.parseDouble.
+ * Large sections of node coordinates are split into chunks of whole lines that are parsed in parallel.
+ * GEO coordinates are projected into the plane after parsing, EXPLICIT weights are embedded into the plane.
+ * Gzip-compressed files are detected by their magic bytes and decompressed and parsed in a pipeline of two threads.
+ */
+final class TSPLIBParser {
+
+    // 2^53, all integers up to this value can be represented exactly by a double
+    private static final long MAX_EXACT_SIGNIFICAND = 1L << 53;
+    // Powers of ten that can be represented exactly by a double
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // Edge weight types of instances that can be parsed, EXPLICIT instances need an EDGE_WEIGHT_SECTION instead of
+    // node coordinates
+    private static final String[] EDGE_WEIGHT_TYPES = {"EUC_2D", "CEIL_2D", "ATT", "GEO", "EXPLICIT"};
+
+    // Sections smaller than this are parsed by a single thread
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+
+    private final ByteBuffer buffer;
+    private final int limit;
+    // Value of the DIMENSION entry of the header, or -1 if the header doesn't have one. Only the size of EXPLICIT
+    // matrices depends on it, the number of nodes is taken from the NODE_COORD_SECTION like the line based reader did
+    private int dimension = -1;
+    // Identifiers that differ from the string representation of their node ids, created for the first such identifier
+    private String[] names;
+    // False if the identifier of a parsed node is not an integer
+    private boolean integerIds = true;
+    // True if parseNodes stopped at a line containing only EOF
+    private boolean foundEOF;
+    private String edgeWeightType;
+    private String edgeWeightFormat;
+    private DistanceKernel kernel;
+    // Weights of EXPLICIT instances
+    private DistanceMatrix matrix;
+
+    TSPLIBParser(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.limit = buffer.limit();
+    }
+
+    /**
+     * Memory-maps a TSPLIB file and parses its node coordinates.
+     * @param fileName Path of the file.
+     * @return Instance with the nodes in the order of the file.
+     * @throws IOException If the file can't be read.
+     * @throws IllegalArgumentException If the file is not a TSP instance with supported node coordinates.
+     */
+    static TSPInstance<ArrayPointStore> readInstance(String fileName) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            if (isGzip(channel))
+                return readGzipInstance(Channels.newInputStream(channel));
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Files larger than 2GB can't be mapped! Size: " + size);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            TSPLIBParser parser = new TSPLIBParser(buffer);
+            ArrayPointStore points = parser.parse();
+            return new TSPInstance<>(points, parser.edgeWeightType, parser.kernel, parser.matrix);
+        }
+    }
+
+    /**
+     * Checks for the magic bytes of gzip at the start of a file.
+     */
+    private static boolean isGzip(FileChannel channel) throws IOException {
+        ByteBuffer magic = ByteBuffer.allocate(2);
+        while (magic.hasRemaining() && channel.read(magic, magic.position()) > 0);
+        return magic.position() == 2 && (magic.get(0) & 0xFF) == 0x1F && (magic.get(1) & 0xFF) == 0x8B;
+    }
+
+    /**
+     * Parses a gzip-compressed TSPLIB file in a pipeline of two threads: a producer thread decompresses the stream
+     * into chunks, while the calling thread parses the complete lines of each chunk into the arrays of the point
+     * store. Lines crossing the end of a chunk are carried over to the next chunk. The EDGE_WEIGHT_SECTION of EXPLICIT
+     * instances is collected and parsed as a whole, as the weights are only embedded after the whole matrix is read.
+     * @param in Compressed stream positioned at the start of the gzip data, which is read to the end by the producer.
+     * @return Instance with the nodes in the order of the file.
+     * @throws IOException If the stream can't be read or is not valid gzip.
+     */
+    static TSPInstance<ArrayPointStore> readGzipInstance(InputStream in) throws IOException {
+        GzipProducer producer = new GzipProducer(in);
+        Thread thread = new Thread(producer, "TSPLIB-gzip");
+        thread.setDaemon(true);
+        thread.start();
+        try {
+            return parseChunks(producer);
+        } finally {
+            // Stops the producer if parsing ended before the stream, e.g. at EOF or because of an error
+            producer.close();
+        }
+    }
+
+    private static TSPInstance<ArrayPointStore> parseChunks(GzipProducer producer) throws IOException {
+        // Bytes that haven't been parsed yet: the header until its section is found, afterwards an incomplete line
+        byte[] pending = new byte[0];
+        int pendingLength = 0;
+        TSPLIBParser header = null;
+        int sectionStart = -1;
+        int n = 0;
+        int[] nodeIds = new int[0];
+        double[] xs = new double[0];
+        double[] ys = new double[0];
+        String[] names = null;
+        boolean integerIds = true;
+
+        byte[] chunk;
+        boolean last = false;
+        while (!last) {
+            chunk = producer.take();
+            last = chunk.length == 0;
+            if (pendingLength + chunk.length > pending.length)
+                pending = Arrays.copyOf(pending, Math.max(pendingLength + chunk.length, 2 * pendingLength));
+            System.arraycopy(chunk, 0, pending, pendingLength, chunk.length);
+            pendingLength += chunk.length;
+
+            // Only complete lines are parsed, except for the last line of the stream
+            int complete = pendingLength;
+            if (!last) {
+                while (complete > 0 && pending[complete - 1] != '\n')
+                    complete--;
+                if (complete == 0)
+                    continue;
+            }
+            ByteBuffer lines = ByteBuffer.wrap(pending, 0, complete);
+
+            int from = 0;
+            if (header == null) {
+                TSPLIBParser parser = new TSPLIBParser(lines);
+                sectionStart = parser.scanHeader();
+                if (sectionStart < 0) {
+                    if (last)
+                        throw new IllegalArgumentException("Unsupported file format!");
+                    continue;
+                }
+                header = parser;
+                // The weights are parsed when the whole section has been collected
+                if (header.edgeWeightType.equals("EXPLICIT"))
+                    continue;
+                from = sectionStart;
+            } else if (header.edgeWeightType.equals("EXPLICIT")) {
+                continue;
+            }
+
+            // Every node needs its own line, so the number of lines is an upper bound for the number of nodes
+            TSPLIBParser parser = new TSPLIBParser(lines);
+            int maxNodes = n + parser.countLines(from, complete);
+            if (maxNodes > nodeIds.length) {
+                int capacity = Math.max(maxNodes, 2 * nodeIds.length);
+                nodeIds = Arrays.copyOf(nodeIds, capacity);
+                xs = Arrays.copyOf(xs, capacity);
+                ys = Arrays.copyOf(ys, capacity);
+                if (names != null)
+                    names = Arrays.copyOf(names, capacity);
+            }
+            int count = parser.parseNodes(from, complete, nodeIds, xs, ys, n);
+            if (parser.names != null) {
+                if (names == null)
+                    names = new String[nodeIds.length];
+                System.arraycopy(parser.names, n, names, n, count);
+            }
+            integerIds &= parser.integerIds;
+            n += count;
+            if (parser.foundEOF)
+                break;
+
+            System.arraycopy(pending, complete, pending, 0, pendingLength - complete);
+            pendingLength -= complete;
+        }
+        producer.rethrow();
+
+        if (header == null)
+            throw new IllegalArgumentException("Unsupported file format!");
+        if (header.edgeWeightType.equals("EXPLICIT")) {
+            TSPLIBParser parser = new TSPLIBParser(ByteBuffer.wrap(pending, 0, pendingLength));
+            parser.parseHeader();
+            ArrayPointStore points = parser.parseMatrix(sectionStart);
+            return new TSPInstance<>(points, parser.edgeWeightType, parser.kernel, parser.matrix);
+        }
+        header.names = names;
+        header.integerIds = integerIds;
+        ArrayPointStore points = header.createStore(nodeIds, xs, ys, n);
+        return new TSPInstance<>(points, header.edgeWeightType, header.kernel, header.matrix);
+    }
+
+    /**
+     * Decompresses a gzip stream into chunks, which are passed to the parsing thread through a bounded queue. The end
+     * of the stream is marked by an empty chunk, which is also sent if decompressing fails.
+     */
+    private static final class GzipProducer implements Runnable {
+
+        private static final int CHUNK_SIZE = 1 << 20;
+        private static final int QUEUE_CAPACITY = 4;
+        private static final byte[] END = new byte[0];
+
+        private final InputStream in;
+        private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private volatile boolean closed;
+        private volatile IOException error;
+
+        GzipProducer(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public void run() {
+            try (GZIPInputStream gzip = new GZIPInputStream(in, CHUNK_SIZE)) {
+                byte[] chunk = new byte[CHUNK_SIZE];
+                int length = 0;
+                int read;
+                while (!closed && (read = gzip.read(chunk, length, chunk.length - length)) >= 0) {
+                    length += read;
+                    if (length == chunk.length) {
+                        put(chunk);
+                        chunk = new byte[CHUNK_SIZE];
+                        length = 0;
+                    }
+                }
+                if (length > 0)
+                    put(Arrays.copyOf(chunk, length));
+            } catch (IOException e) {
+                error = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                try {
+                    put(END);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        /**
+         * Waits until the queue has space for the chunk or the consumer is closed.
+         */
+        private void put(byte[] chunk) throws InterruptedException {
+            while (!closed && !queue.offer(chunk, 10, TimeUnit.MILLISECONDS));
+        }
+
+        /**
+         * @return Next chunk, or an empty chunk at the end of the stream.
+         * @throws IOException If decompressing failed.
+         */
+        byte[] take() throws IOException {
+            try {
+                byte[] chunk = queue.take();
+                if (chunk.length == 0)
+                    rethrow();
+                return chunk;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for decompressed data!");
+            }
+        }
+
+        void rethrow() throws IOException {
+            if (error != null)
+                throw error;
+        }
+
+        void close() {
+            closed = true;
+            queue.clear();
+        }
+    }
+
+    /**
+     * Memory-maps a TSPLIB tour file and resolves the node ids of the tour to indices.
+     * @param fileName Path of the tour file.
+     * @param indexOf Function returning the index of a node id.
+     * @return Indices of the nodes in the order of the tour.
+     * @throws IOException If the file can't be read.
+     * @throws IllegalArgumentException If the file is not a tour.
+     */
+    static int[] readTour(String fileName, IntUnaryOperator indexOf) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Files larger than 2GB can't be mapped! Size: " + size);
+            return new TSPLIBParser(channel.map(FileChannel.MapMode.READ_ONLY, 0, size)).parseTour(indexOf);
+        }
+    }
+
+    /**
+     * Checks the header of a tour file and parses the node ids of the TOUR_SECTION until -1 or EOF, without creating
+     * strings for canonical ids.
+     * @param indexOf Function returning the index of a node id.
+     * @return Indices of the nodes in the order of the tour.
+     */
+    int[] parseTour(IntUnaryOperator indexOf) {
+        boolean tour = false;
+        int pos = 0;
+        while (pos < limit) {
+            int end = lineEnd(pos);
+            if (isKeyword(pos, end, "EOF"))
+                break;
+            if (hasKey(pos, end, "TYPE")) {
+                tour = value(pos, end).equals("TOUR");
+            } else if (contains(pos, end, "DIMENSION")) {
+                dimension = parseValue(pos, end);
+            } else if (contains(pos, end, "TOUR_SECTION")) {
+                if (tour)
+                    break;
+                throw new IllegalArgumentException("Unsupported file format!");
+            }
+            pos = end + 1;
+        }
+        if (!tour || pos >= limit)
+            throw new IllegalArgumentException("Unsupported file format!");
+
+        int[] indices = new int[Math.max(dimension, 16)];
+        int[] nodeId = new int[1];
+        int n = 0;
+        pos = lineEnd(pos) + 1;
+        while (pos < limit) {
+            int start = skipWhitespace(pos, limit);
+            pos = tokenEnd(start, limit);
+            if (start == pos || isKeyword(start, pos, "EOF") || equals(start, pos, "-1"))
+                break;
+            String name = parseNodeId(start, pos, nodeId, 0);
+            if (!integerIds)
+                throw new IllegalArgumentException("Node ids of tours have to be integers! Id: " + name);
+            if (n == indices.length)
+                indices = Arrays.copyOf(indices, 2 * n);
+            indices[n++] = indexOf.applyAsInt(nodeId[0]);
+        }
+        return Arrays.copyOf(indices, n);
+    }
+
+    /**
+     * Checks the header and parses all nodes of the NODE_COORD_SECTION, using one chunk per megabyte of the section
+     * and at most four chunks per processor.
+     * @return Store containing the nodes in the order of the file.
+     */
+    ArrayPointStore parse() {
+        int sectionStart = parseHeader();
+        if (edgeWeightType.equals("EXPLICIT"))
+            return parseMatrix(sectionStart);
+        int maxChunks = 4 * Runtime.getRuntime().availableProcessors();
+        return parseSection(sectionStart, Math.min(maxChunks, (limit - sectionStart) / MIN_CHUNK_SIZE));
+    }
+
+    /**
+     * Checks the header and parses all nodes of the NODE_COORD_SECTION in the given number of chunks.
+     * @return Store containing the nodes in the order of the file.
+     */
+    ArrayPointStore parse(int numChunks) {
+        int sectionStart = parseHeader();
+        if (edgeWeightType.equals("EXPLICIT"))
+            return parseMatrix(sectionStart);
+        return parseSection(sectionStart, numChunks);
+    }
+
+    /**
+     * Parses the EDGE_WEIGHT_SECTION of an EXPLICIT instance into an off-heap distance matrix and embeds the nodes in
+     * the plane with landmark MDS, so the solvers get coordinates. The distances of the embedding only approximate the
+     * weights, tours have to be measured with the matrix. The weights are stored as int, unless the section contains a
+     * fractional weight, in which case all weights are stored as float.
+     * @return Store containing the embedded nodes, numbered from 1 to DIMENSION.
+     */
+    private ArrayPointStore parseMatrix(int sectionStart) {
+        if (dimension < 0)
+            throw new IllegalArgumentException("Explicit instances need a DIMENSION!");
+        int n = dimension;
+        matrix = new DistanceMatrix(n, true);
+        // Column-wise formats of symmetric matrices list the same weights as the transposed row-wise formats
+        String format = edgeWeightFormat == null ? "" : edgeWeightFormat;
+        boolean full = format.equals("FULL_MATRIX");
+        boolean upper = format.equals("UPPER_ROW") || format.equals("UPPER_DIAG_ROW")
+                || format.equals("LOWER_COL") || format.equals("LOWER_DIAG_COL");
+        boolean diagonal = format.endsWith("_DIAG_ROW") || format.endsWith("_DIAG_COL");
+        if (!full && !upper && !format.equals("LOWER_ROW") && !format.equals("LOWER_DIAG_ROW")
+                && !format.equals("UPPER_COL") && !format.equals("UPPER_DIAG_COL"))
+            throw new IllegalArgumentException("Unsupported edge weight format: " + format + "!");
+
+        int pos = sectionStart;
+        for (int i = 0; i < n; i++) {
+            int from = full ? 0 : upper ? (diagonal ? i : i + 1) : 0;
+            int to = full ? n : upper ? n : (diagonal ? i + 1 : i);
+            for (int j = from; j < to; j++) {
+                int start = skipWhitespace(pos, limit);
+                pos = tokenEnd(start, limit);
+                if (start == pos || isKeyword(start, pos, "EOF"))
+                    throw new IllegalArgumentException("The EDGE_WEIGHT_SECTION is incomplete! Row: " + (i + 1));
+                double weight = parseDouble(start, pos);
+                // TSPLIB weights are integers, the matrix only switches to float for files with fractional weights
+                if (matrix.isInteger() && weight != (int) weight && i != j)
+                    matrix = matrix.toFloatMatrix();
+                // The diagonal is zero and full matrices are symmetric, so only one triangle is stored
+                if (j < i || (upper && j > i))
+                    matrix.set(i, j, weight);
+            }
+        }
+
+        double[][] coordinates = new LandmarkMDS().embed(matrix);
+        int[] nodeIds = new int[n];
+        int[] indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            nodeIds[i] = i + 1;
+            indices[i] = i;
+        }
+        kernel = Distance.EUCLIDEAN;
+        return new ArrayPointStore(n, nodeIds, coordinates[0], coordinates[1], null, indices);
+    }
+
+    /**
+     * Splits the NODE_COORD_SECTION into chunks of whole lines, which are parsed in parallel on the common
+     * ForkJoinPool into preallocated slices of the coordinate arrays. The slices are then merged, while the node ids
+     * are resolved to their indices if they are numbered from 1 to n.
+     */
+    private ArrayPointStore parseSection(int sectionStart, int numChunks) {
+        int[] bounds = chunkBounds(sectionStart, Math.max(1, numChunks));
+        int chunks = bounds.length - 1;
+
+        // Every node needs its own line, so the number of lines of a chunk is an upper bound for its number of nodes
+        List<Integer> maxNodes = runChunks(chunks, chunk -> countLines(bounds[chunk], bounds[chunk + 1]));
+        int[] offsets = new int[chunks + 1];
+        for (int chunk = 0; chunk < chunks; chunk++)
+            offsets[chunk + 1] = offsets[chunk] + maxNodes.get(chunk);
+        int[] nodeIds = new int[offsets[chunks]];
+        double[] xs = new double[offsets[chunks]];
+        double[] ys = new double[offsets[chunks]];
+
+        // Each chunk gets its own view of the buffer and collects its own non-canonical identifiers
+        TSPLIBParser[] parsers = new TSPLIBParser[chunks];
+        List<CompletableFuture<Integer>> futures = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            TSPLIBParser parser = new TSPLIBParser(buffer.duplicate());
+            int from = bounds[chunk], to = bounds[chunk + 1], offset = offsets[chunk];
+            parsers[chunk] = parser;
+            futures.add(chunks == 1
+                    ? CompletableFuture.completedFuture(parser.parseNodes(from, to, nodeIds, xs, ys, offset))
+                    : CompletableFuture.supplyAsync(() -> parser.parseNodes(from, to, nodeIds, xs, ys, offset)));
+        }
+
+        // Merge the slices up to the first chunk containing EOF, chunks after it (and their errors) are ignored
+        int n = 0;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int count = join(futures.get(chunk));
+            int offset = offsets[chunk];
+            if (offset != n) {
+                System.arraycopy(nodeIds, offset, nodeIds, n, count);
+                System.arraycopy(xs, offset, xs, n, count);
+                System.arraycopy(ys, offset, ys, n, count);
+            }
+            if (parsers[chunk].names != null) {
+                if (names == null)
+                    names = new String[nodeIds.length];
+                System.arraycopy(parsers[chunk].names, offset, names, n, count);
+            }
+            integerIds &= parsers[chunk].integerIds;
+            n += count;
+            if (parsers[chunk].foundEOF)
+                break;
+        }
+
+        return createStore(nodeIds, xs, ys, n);
+    }
+
+    /**
+     * Indexes the node ids and creates the store of the parsed nodes. Node ids that are not numbered from 1 to n are
+     * not indexed, the store looks them up in a map instead.
+     */
+    private ArrayPointStore createStore(int[] nodeIds, double[] xs, double[] ys, int n) {
+        int[] indices = integerIds ? createIndex(nodeIds, n) : numberNodes(nodeIds, n);
+        // GEO coordinates are projected into the plane, the projection computes the distances of the projected points
+        if (edgeWeightType.equals("GEO"))
+            kernel = GeoProjection.project(xs, ys, n);
+        else
+            kernel = Distance.kernel(edgeWeightType);
+        return new ArrayPointStore(n, nodeIds, xs, ys, names, indices);
+    }
+
+    /**
+     * Resolves the node ids to the indices of the nodes, if they are numbered from 1 to n as in TSPLIB.
+     * @return Index of each node id, where the node id i is stored at position i-1, or null if a node id is out of
+     * range or occurs more than once.
+     */
+    private static int[] createIndex(int[] nodeIds, int n) {
+        int[] indices = new int[n];
+        Arrays.fill(indices, -1);
+        for (int i = 0; i < n; i++) {
+            int id = nodeIds[i];
+            if (id < 1 || id > n || indices[id - 1] >= 0)
+                return null;
+            indices[id - 1] = i;
+        }
+        return indices;
+    }
+
+    /**
+     * Numbers the nodes in the order of the file, for files whose identifiers are not all integers (e.g. A0, A1, ...).
+     * The identifiers are kept as names, so the points have the same identifiers as in the file.
+     * @return Index of each node id, where the node id i is stored at position i-1.
+     */
+    private int[] numberNodes(int[] nodeIds, int n) {
+        if (names == null)
+            names = new String[n];
+        int[] indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            if (names[i] == null)
+                names[i] = Integer.toString(nodeIds[i]);
+            nodeIds[i] = i + 1;
+            indices[i] = i;
+        }
+        return indices;
+    }
+
+    /**
+     * Splits the bytes between the start and the limit into chunks of roughly the same size, which end at line
+     * breaks.
+     * @return Start positions of the chunks, followed by the limit.
+     */
+    private int[] chunkBounds(int start, int numChunks) {
+        List<Integer> bounds = new ArrayList<>(numChunks + 1);
+        bounds.add(start);
+        long chunkSize = ((long) limit - start) / numChunks;
+        for (int chunk = 1; chunk < numChunks; chunk++) {
+            int bound = Math.min(limit, lineEnd((int) (start + chunk * chunkSize)) + 1);
+            if (bound > bounds.get(bounds.size() - 1) && bound < limit)
+                bounds.add(bound);
+        }
+        bounds.add(limit);
+        int[] result = new int[bounds.size()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = bounds.get(i);
+        return result;
+    }
+
+    private int countLines(int from, int to) {
+        int lines = 1;
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == '\n')
+                lines++;
+        }
+        return lines;
+    }
+
+    /**
+     * Applies a function to all chunks on the common ForkJoinPool.
+     * @return Results of the function in the order of the chunks.
+     */
+    private static <T> List<T> runChunks(int numChunks, IntFunction<T> function) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(numChunks);
+        for (int chunk = 0; chunk < numChunks; chunk++) {
+            int c = chunk;
+            futures.add(numChunks == 1 ? CompletableFuture.completedFuture(function.apply(c))
+                    : CompletableFuture.supplyAsync(() -> function.apply(c)));
+        }
+        List<T> results = new ArrayList<>(numChunks);
+        for (CompletableFuture<T> future : futures)
+            results.add(join(future));
+        return results;
+    }
+
+    /**
+     * Waits for the result of a chunk and rethrows the original exception of the chunk.
+     */
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * Checks the header lines until the NODE_COORD_SECTION, or the EDGE_WEIGHT_SECTION of EXPLICIT instances: a line
+     * containing EDGE_WEIGHT_TYPE has to have one of the supported EDGE_WEIGHT_TYPES and the TYPE has to be TSP (other
+     * keys containing TYPE, like DISPLAY_DATA_TYPE, are ignored). The values of DIMENSION and EDGE_WEIGHT_FORMAT are
+     * kept for checking the number of nodes and reading the weights.
+     * @return Position of the first line of the section.
+     */
+    private int parseHeader() {
+        int sectionStart = scanHeader();
+        if (sectionStart < 0)
+            throw new IllegalArgumentException("Unsupported file format!");
+        return sectionStart;
+    }
+
+    /**
+     * Checks the header lines like parseHeader, but allows the buffer to end within the header, as when the header is
+     * read from a stream.
+     * @return Position of the first line of the section, or -1 if the buffer ends before the section.
+     */
+    private int scanHeader() {
+        boolean tsp = false;
+        int pos = 0;
+        while (pos < limit) {
+            int end = lineEnd(pos);
+            int next = end + 1;
+            if (isKeyword(pos, end, "EOF"))
+                throw new IllegalArgumentException("Unsupported file format!");
+            if (contains(pos, end, "EDGE_WEIGHT_TYPE")) {
+                edgeWeightType = null;
+                for (String type : EDGE_WEIGHT_TYPES) {
+                    if (hasValue(pos, end, type))
+                        edgeWeightType = type;
+                }
+            } else if (hasKey(pos, end, "EDGE_WEIGHT_FORMAT")) {
+                edgeWeightFormat = value(pos, end);
+            } else if (hasKey(pos, end, "TYPE")) {
+                // Some files add a comment to the type, e.g. "TSP (M.~Hofmeister)"
+                String type = value(pos, end);
+                tsp = type.equals("TSP") || type.startsWith("TSP ");
+            } else if (contains(pos, end, "DIMENSION")) {
+                dimension = parseValue(pos, end);
+            } else if (contains(pos, end, "NODE_COORD_SECTION")) {
+                if (tsp && edgeWeightType != null && !edgeWeightType.equals("EXPLICIT"))
+                    return Math.min(next, limit);
+                throw new IllegalArgumentException("Unsupported file format!");
+            } else if (contains(pos, end, "EDGE_WEIGHT_SECTION")) {
+                if (tsp && "EXPLICIT".equals(edgeWeightType))
+                    return Math.min(next, limit);
+                throw new IllegalArgumentException("Unsupported file format!");
+            }
+            pos = next;
+        }
+        return -1;
+    }
+
+    /**
+     * Parses the nodes of the lines between two positions into the arrays, until a line containing only EOF is found.
+     * The arrays may be shared by several parsers working on different chunks of the file, as long as their slices
+     * don't overlap.
+     * @param from Position of the first line.
+     * @param to Position after the last line.
+     * @param offset Index at which the first node is stored.
+     * @return Number of parsed nodes.
+     */
+    int parseNodes(int from, int to, int[] nodeIds, double[] xs, double[] ys, int offset) {
+        int n = 0;
+        int pos = from;
+        while (pos < to) {
+            int end = lineEnd(pos);
+            int start = skipWhitespace(pos, end);
+            if (start < end) {
+                if (isKeyword(start, end, "EOF")) {
+                    foundEOF = true;
+                    break;
+                }
+                int idEnd = tokenEnd(start, end);
+                int xStart = skipWhitespace(idEnd, end);
+                int xEnd = tokenEnd(xStart, end);
+                int yStart = skipWhitespace(xEnd, end);
+                int yEnd = tokenEnd(yStart, end);
+                if (yStart == yEnd)
+                    throw new IllegalArgumentException("A node needs an id and two coordinates! Line: "
+                            + string(start, end));
+
+                int index = offset + n;
+                String name = parseNodeId(start, idEnd, nodeIds, index);
+                if (name != null) {
+                    if (names == null)
+                        names = new String[nodeIds.length];
+                    names[index] = name;
+                }
+                xs[index] = parseDouble(xStart, xEnd);
+                ys[index] = parseDouble(yStart, yEnd);
+                n++;
+            }
+            pos = end + 1;
+        }
+        return n;
+    }
+
+    /**
+     * Parses a node id into nodeIds[index]. Identifiers that are not integers are only returned as string and mark the
+     * parsed ids as not integers, nodeIds[index] is set to 0.
+     * @return The identifier as string if it differs from the string representation of the node id (e.g. because of
+     * leading zeros or letters), otherwise null.
+     */
+    private String parseNodeId(int start, int end, int[] nodeIds, int index) {
+        boolean canonical = end - start <= 9 && (buffer.get(start) != '0' || end - start == 1);
+        int id = 0;
+        for (int i = start; i < end && canonical; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9)
+                canonical = false;
+            id = id * 10 + digit;
+        }
+        if (canonical) {
+            nodeIds[index] = id;
+            return null;
+        }
+
+        String name = string(start, end);
+        try {
+            nodeIds[index] = Integer.parseInt(name);
+        } catch (NumberFormatException e) {
+            integerIds = false;
+            nodeIds[index] = 0;
+            return name;
+        }
+        return Integer.toString(nodeIds[index]).equals(name) ? null : name;
+    }
+
+    /**
+     * Parses a decimal number without creating a string.
+     * Numbers with up to 2^53 as significand and a decimal exponent of at most 22 are calculated with a single
+     * multiplication or division of two exact doubles, which rounds correctly and therefore gives the same result as
+     * Double.parseDouble. All other numbers are passed to Double.parseDouble.
+     */
+    double parseDouble(int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+
+        long significand = 0;
+        int exponent = 0;
+        int numDigits = 0;
+        boolean exact = true;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                numDigits++;
+                if (significand <= MAX_EXACT_SIGNIFICAND) {
+                    significand = significand * 10 + (b - '0');
+                    if (fraction)
+                        exponent--;
+                } else {
+                    exact = false;
+                }
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+
+        if (i < end && (buffer.get(i) == 'e' || buffer.get(i) == 'E') && numDigits > 0) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+                negativeExponent = buffer.get(i) == '-';
+                i++;
+            }
+            int exponentStart = i;
+            int value = 0;
+            for (; i < end && buffer.get(i) >= '0' && buffer.get(i) <= '9' && value < 1000; i++)
+                value = value * 10 + (buffer.get(i) - '0');
+            if (i == exponentStart)
+                exact = false;
+            exponent += negativeExponent ? -value : value;
+        }
+
+        if (!exact || i != end || numDigits == 0 || significand > MAX_EXACT_SIGNIFICAND
+                || exponent < -22 || exponent > 22)
+            return Double.parseDouble(string(start, end));
+
+        double value = exponent >= 0 ? significand * POWERS_OF_TEN[exponent]
+                : significand / POWERS_OF_TEN[-exponent];
+        return negative ? -value : value;
+    }
+
+    /**
+     * @return Position of the line break ending the line starting at pos, or the limit for the last line.
+     */
+    int lineEnd(int pos) {
+        for (int i = pos; i < limit; i++) {
+            if (buffer.get(i) == '\n')
+                return i;
+        }
+        return limit;
+    }
+
+    private int skipWhitespace(int pos, int end) {
+        while (pos < end && isWhitespace(buffer.get(pos)))
+            pos++;
+        return pos;
+    }
+
+    private int tokenEnd(int pos, int end) {
+        while (pos < end && !isWhitespace(buffer.get(pos)))
+            pos++;
+        return pos;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        // Same characters as removed by String.trim(), which include all whitespace matched by \s
+        return b >= 0 && b <= ' ';
+    }
+
+    /**
+     * @return True if the trimmed line equals the keyword.
+     */
+    private boolean isKeyword(int start, int end, String keyword) {
+        start = skipWhitespace(start, end);
+        while (end > start && isWhitespace(buffer.get(end - 1)))
+            end--;
+        return equals(start, end, keyword);
+    }
+
+    private boolean contains(int start, int end, String s) {
+        for (int i = start; i + s.length() <= end; i++) {
+            if (equals(i, i + s.length(), s))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return True if the trimmed text before the first colon of the line equals the key.
+     */
+    private boolean hasKey(int start, int end, String key) {
+        int colon = start;
+        while (colon < end && buffer.get(colon) != ':')
+            colon++;
+        return colon < end && isKeyword(start, colon, key);
+    }
+
+    /**
+     * @return True if the trimmed text between the first and the second colon of the line equals the value.
+     */
+    private boolean hasValue(int start, int end, String value) {
+        int colon = start;
+        while (colon < end && buffer.get(colon) != ':')
+            colon++;
+        if (colon == end)
+            return false;
+        int valueEnd = colon + 1;
+        while (valueEnd < end && buffer.get(valueEnd) != ':')
+            valueEnd++;
+        return isKeyword(colon + 1, valueEnd, value);
+    }
+
+    /**
+     * @return The trimmed text between the first and the second colon of the line.
+     */
+    private String value(int start, int end) {
+        int colon = start;
+        while (colon < end && buffer.get(colon) != ':')
+            colon++;
+        int valueEnd = colon < end ? colon + 1 : end;
+        while (valueEnd < end && buffer.get(valueEnd) != ':')
+            valueEnd++;
+        int valueStart = skipWhitespace(Math.min(colon + 1, valueEnd), valueEnd);
+        while (valueEnd > valueStart && isWhitespace(buffer.get(valueEnd - 1)))
+            valueEnd--;
+        return string(valueStart, valueEnd);
+    }
+
+    /**
+     * @return The integer between the first and the second colon of the line.
+     */
+    private int parseValue(int start, int end) {
+        int colon = start;
+        while (colon < end && buffer.get(colon) != ':')
+            colon++;
+        int valueStart = skipWhitespace(colon + 1, end);
+        int valueEnd = tokenEnd(valueStart, end);
+        if (colon == end || valueStart == valueEnd)
+            throw new IllegalArgumentException("Missing value in line: " + string(start, end));
+        String value = string(valueStart, valueEnd);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid integer value in line: " + string(start, end));
+        }
+    }
+
+    private boolean equals(int start, int end, String s) {
+        if (end - start != s.length())
+            return false;
+        for (int i = 0; i < s.length(); i++) {
+            if (buffer.get(start + i) != s.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    private String string(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++)
+            bytes[i] = buffer.get(start + i);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
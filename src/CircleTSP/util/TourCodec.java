@@ -0,0 +1,211 @@
+package CircleTSP.util;
+
+import CircleTSP.entities.Point;
+import CircleTSP.entities.Tour;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Compact encoding of a tour as permutation of non-negative integers (node ids or indices of the points).
+ * A tour is encoded as the number of nodes n followed by the n differences between consecutive values, where the
+ * first value is compared with 0. The differences are zigzag encoded (0, -1, 1, -2, ... to 0, 1, 2, 3, ...) and
+ * written as varints of 7 bits per byte, least significant group first. Tours of points that are numbered in a
+ * spatial order have small differences, which mostly fit into one or two bytes.
+ * Encoded tours don't contain a header, so several tours can be appended to one stream.
+ */
+public class TourCodec {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    // A varint of 32 bits needs at most 5 bytes
+    private static final int MAX_VARINT_SIZE = 5;
+
+    /**
+     * Encodes a tour whose point identifiers are integer node ids.
+     * @param tour Tour to encode.
+     * @param out Stream to write to, which is not flushed or closed.
+     * @return Number of bytes written.
+     * @throws IOException If the stream can't be written.
+     * @throws IllegalArgumentException If an identifier is not an integer.
+     */
+    public static long encode(Tour tour, OutputStream out) throws IOException {
+        return encode(tour, p -> {
+            try {
+                return Integer.parseInt(p.getId());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("The identifier of a point has to be a node id! Id: " + p.getId());
+            }
+        }, out);
+    }
+
+    /**
+     * Encodes a tour, mapping every point to its value while iterating.
+     * @param tour Tour to encode.
+     * @param valueOf Value of a point, e.g. its index in the list of all points.
+     * @param out Stream to write to, which is not flushed or closed.
+     * @return Number of bytes written.
+     * @throws IOException If the stream can't be written.
+     */
+    public static long encode(Tour tour, ToIntFunction<Point> valueOf, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int pos = writeVarint(buffer, 0, tour.size());
+        long written = 0;
+        int previous = 0;
+        for (Point p : tour) {
+            if (pos > buffer.length - MAX_VARINT_SIZE) {
+                out.write(buffer, 0, pos);
+                written += pos;
+                pos = 0;
+            }
+            int value = valueOf.applyAsInt(p);
+            pos = writeVarint(buffer, pos, zigzag(value - previous));
+            previous = value;
+        }
+        out.write(buffer, 0, pos);
+        return written + pos;
+    }
+
+    /**
+     * Encodes a permutation of values.
+     * @param values Values in the order of the tour.
+     * @param out Stream to write to, which is not flushed or closed.
+     * @return Number of bytes written.
+     * @throws IOException If the stream can't be written.
+     */
+    public static long encode(int[] values, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int pos = writeVarint(buffer, 0, values.length);
+        long written = 0;
+        int previous = 0;
+        for (int value : values) {
+            if (pos > buffer.length - MAX_VARINT_SIZE) {
+                out.write(buffer, 0, pos);
+                written += pos;
+                pos = 0;
+            }
+            pos = writeVarint(buffer, pos, zigzag(value - previous));
+            previous = value;
+        }
+        out.write(buffer, 0, pos);
+        return written + pos;
+    }
+
+    /**
+     * Decodes one tour, passing every value to the consumer in the order of the tour.
+     * Only the bytes of the tour are read, so the stream should be buffered.
+     * @param in Stream positioned at the start of an encoded tour.
+     * @param consumer Consumer of the values.
+     * @return Number of nodes of the tour.
+     * @throws IOException If the stream can't be read or ends within the tour.
+     */
+    public static int decode(InputStream in, IntConsumer consumer) throws IOException {
+        int n = readVarint(in);
+        int value = 0;
+        for (int i = 0; i < n; i++) {
+            value += unzigzag(readVarint(in));
+            consumer.accept(value);
+        }
+        return n;
+    }
+
+    /**
+     * Decodes one tour from a buffer, e.g. a memory-mapped archive, and advances its position to the next tour.
+     * @param buffer Buffer positioned at the start of an encoded tour.
+     * @param consumer Consumer of the values.
+     * @return Number of nodes of the tour.
+     * @throws IllegalArgumentException If the buffer ends within the tour.
+     */
+    public static int decode(ByteBuffer buffer, IntConsumer consumer) {
+        try {
+            int n = readVarint(buffer);
+            int value = 0;
+            for (int i = 0; i < n; i++) {
+                value += unzigzag(readVarint(buffer));
+                consumer.accept(value);
+            }
+            return n;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("The buffer ends within an encoded tour!");
+        }
+    }
+
+    /**
+     * Decodes one tour.
+     * @param in Stream positioned at the start of an encoded tour.
+     * @param pointOf Point of a value, e.g. the point at an index of the list of all points.
+     * @return Tour of the points.
+     * @throws IOException If the stream can't be read or ends within the tour.
+     */
+    public static Tour decodeTour(InputStream in, IntFunction<Point> pointOf) throws IOException {
+        Tour tour = new Tour();
+        decode(in, value -> tour.add(pointOf.apply(value)));
+        return tour;
+    }
+
+    /**
+     * Decodes one tour that was encoded with the integer node ids of its points.
+     * @param in Stream positioned at the start of an encoded tour.
+     * @param points Points of the tour by their identifiers.
+     * @return Tour of the points.
+     * @throws IOException If the stream can't be read or ends within the tour.
+     * @throws IllegalArgumentException If a node id is not contained in the points.
+     */
+    public static Tour decodeTour(InputStream in, HashMap<String, Point> points) throws IOException {
+        return decodeTour(in, nodeId -> {
+            Point p = points.get(Integer.toString(nodeId));
+            if (p == null)
+                throw new IllegalArgumentException("Unknown node id: " + nodeId + "!");
+            return p;
+        });
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int writeVarint(byte[] buffer, int pos, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[pos++] = (byte) value;
+        return pos;
+    }
+
+    private static int readVarint(InputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 7 * MAX_VARINT_SIZE; shift += 7) {
+            int b = in.read();
+            if (b < 0)
+                throw new EOFException("The stream ends within an encoded tour!");
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("A varint of an encoded tour is longer than " + MAX_VARINT_SIZE + " bytes!");
+    }
+
+    private static int readVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 7 * MAX_VARINT_SIZE; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IllegalArgumentException("A varint of an encoded tour is longer than " + MAX_VARINT_SIZE
+                + " bytes!");
+    }
+}
@@ -0,0 +1,231 @@
+package CircleTSP.util;
+
+import CircleTSP.entities.Point;
+import CircleTSP.entities.PointStore;
+import CircleTSP.entities.Tour;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes tours to channels through a fixed buffer instead of building the whole tour as one string.
+ * Tours can be written in the TSPLIB .tour format, which can be read with TSPLIB.readOpt or TSPLIB.readOptIndices,
+ * or as a compact binary permutation of node ids. The permutation file contains the magic bytes "TSPT", the version of
+ * the format and the number of nodes n, followed by the node ids (int[n]), all little-endian.
+ */
+public class TourIO {
+
+    public static final String EXTENSION = ".tourb";
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final byte[] MAGIC = {'T', 'S', 'P', 'T'};
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+
+    /**
+     * Writes a tour in the TSPLIB .tour format.
+     * @param tour Tour whose point identifiers are the node ids.
+     * @param name NAME of the tour.
+     * @param fileName Path of the tour file, which is replaced if it exists.
+     * @throws IOException If the file can't be written.
+     */
+    public static void writeTour(Tour tour, String name, String fileName) throws IOException {
+        try (FileChannel channel = openForWriting(fileName)) {
+            AsciiWriter out = new AsciiWriter(channel);
+            writeTourHeader(out, name, tour.size());
+            for (Point p : tour)
+                out.append(p.getId()).append('\n');
+            writeTourFooter(out);
+        }
+    }
+
+    /**
+     * Writes a tour given as indices of a point store in the TSPLIB .tour format, without creating strings for the
+     * node ids.
+     * @param order Indices of the points in the order of the tour.
+     * @param points Store containing the node ids of the points.
+     * @param name NAME of the tour.
+     * @param fileName Path of the tour file, which is replaced if it exists.
+     * @throws IOException If the file can't be written.
+     */
+    public static void writeTour(int[] order, PointStore points, String name, String fileName) throws IOException {
+        try (FileChannel channel = openForWriting(fileName)) {
+            AsciiWriter out = new AsciiWriter(channel);
+            writeTourHeader(out, name, order.length);
+            for (int index : order)
+                out.append(points.getNodeId(index)).append('\n');
+            writeTourFooter(out);
+        }
+    }
+
+    private static void writeTourHeader(AsciiWriter out, String name, int dimension) throws IOException {
+        out.append("NAME : ").append(name).append('\n');
+        out.append("TYPE : TOUR\n");
+        out.append("DIMENSION : ").append(dimension).append('\n');
+        out.append("TOUR_SECTION\n");
+    }
+
+    private static void writeTourFooter(AsciiWriter out) throws IOException {
+        out.append("-1\nEOF\n");
+        out.flush();
+    }
+
+    /**
+     * Writes the identifiers of the points of a tour to a stream, as returned by Tour.toString(delimiter).
+     * The stream is flushed, but not closed.
+     * @param tour Tour to write.
+     * @param stream Stream to write to, e.g. System.out.
+     * @param delimiter Delimiter between two identifiers.
+     * @throws IOException If the stream can't be written.
+     */
+    public static void writeIds(Tour tour, OutputStream stream, String delimiter) throws IOException {
+        // The channel is not closed, as this would close the stream
+        AsciiWriter out = new AsciiWriter(Channels.newChannel(stream));
+        boolean first = true;
+        for (Point p : tour) {
+            if (!first)
+                out.append(delimiter);
+            out.append(p.getId());
+            first = false;
+        }
+        out.flush();
+        stream.flush();
+    }
+
+    /**
+     * Writes a tour as binary permutation of its node ids.
+     * @param tour Tour whose point identifiers are integer node ids.
+     * @param fileName Path of the file, which is replaced if it exists.
+     * @throws IOException If the file can't be written.
+     * @throws IllegalArgumentException If an identifier is not an integer.
+     */
+    public static void writePermutation(Tour tour, String fileName) throws IOException {
+        int[] nodeIds = new int[tour.size()];
+        int i = 0;
+        for (Point p : tour) {
+            try {
+                nodeIds[i++] = Integer.parseInt(p.getId());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("The identifier of a point has to be a node id! Id: " + p.getId());
+            }
+        }
+        writePermutation(nodeIds, fileName);
+    }
+
+    /**
+     * Writes node ids as binary permutation.
+     * @param nodeIds Node ids in the order of the tour.
+     * @param fileName Path of the file, which is replaced if it exists.
+     * @throws IOException If the file can't be written.
+     */
+    public static void writePermutation(int[] nodeIds, String fileName) throws IOException {
+        try (FileChannel channel = openForWriting(fileName)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.put(MAGIC).putInt(VERSION).putInt(nodeIds.length);
+            for (int nodeId : nodeIds) {
+                if (!buffer.hasRemaining())
+                    drain(buffer, channel);
+                buffer.putInt(nodeId);
+            }
+            drain(buffer, channel);
+        }
+    }
+
+    /**
+     * Reads the node ids of a binary permutation.
+     * @param fileName Path of the file.
+     * @return Node ids in the order of the tour.
+     * @throws IOException If the file can't be read.
+     * @throws IllegalArgumentException If the file is not a binary permutation.
+     */
+    public static int[] readPermutation(String fileName) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Files larger than 2GB can't be mapped! Size: " + channel.size());
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.limit() < HEADER_SIZE)
+                throw new IllegalArgumentException("The file is too short for a binary tour!");
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (buffer.get(i) != MAGIC[i])
+                    throw new IllegalArgumentException("The file is not a binary tour!");
+            }
+            if (buffer.getInt(4) != VERSION)
+                throw new IllegalArgumentException("Unsupported version of a binary tour: " + buffer.getInt(4) + "!");
+            int n = buffer.getInt(8);
+            if (n < 0 || HEADER_SIZE + 4L * n != buffer.limit())
+                throw new IllegalArgumentException("The size of the binary tour doesn't match its header!");
+            int[] nodeIds = new int[n];
+            buffer.position(HEADER_SIZE);
+            buffer.asIntBuffer().get(nodeIds);
+            return nodeIds;
+        }
+    }
+
+    private static FileChannel openForWriting(String fileName) throws IOException {
+        return FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static void drain(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Encodes ASCII text into a buffer and writes it to the channel whenever the buffer is full.
+     */
+    private static class AsciiWriter {
+
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        // Digits of an integer in reverse order
+        private final byte[] digits = new byte[11];
+
+        AsciiWriter(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        AsciiWriter append(char c) throws IOException {
+            if (!buffer.hasRemaining())
+                flush();
+            buffer.put((byte) c);
+            return this;
+        }
+
+        AsciiWriter append(String s) throws IOException {
+            for (int i = 0; i < s.length(); i++)
+                append(s.charAt(i));
+            return this;
+        }
+
+        AsciiWriter append(int value) throws IOException {
+            long v = value;
+            if (v < 0) {
+                append('-');
+                v = -v;
+            }
+            int n = 0;
+            do {
+                digits[n++] = (byte) ('0' + v % 10);
+                v /= 10;
+            } while (v > 0);
+            while (n > 0)
+                append((char) digits[--n]);
+            return this;
+        }
+
+        void flush() throws IOException {
+            drain(buffer, channel);
+        }
+    }
+}
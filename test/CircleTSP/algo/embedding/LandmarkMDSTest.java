@@ -0,0 +1,85 @@
+package CircleTSP.algo.embedding;
+
+import CircleTSP.algo.solvers.LinKernighanTSP;
+import CircleTSP.algo.solvers.SolveOptions;
+import CircleTSP.entities.ArrayPointStore;
+import CircleTSP.entities.Tour;
+import CircleTSP.util.DistanceMatrix;
+import CircleTSP.util.TSPInstance;
+import CircleTSP.util.TSPLIB;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LandmarkMDSTest {
+
+    @Test
+    void testDistanceMatrix() {
+        DistanceMatrix matrix = new DistanceMatrix(4, true);
+        matrix.set(0, 3, 7);
+        matrix.set(2, 1, 5);
+        assertEquals(7, matrix.get(3, 0));
+        assertEquals(5, matrix.get(1, 2));
+        assertEquals(0, matrix.get(2, 2));
+        assertEquals(0, matrix.get(0, 1));
+        assertEquals(7 + 0 + 5 + 0, matrix.tourLength(new int[]{3, 0, 1, 2}));
+        assertThrows(IllegalArgumentException.class, () -> matrix.set(0, 1, 1.5));
+        assertThrows(IllegalArgumentException.class, () -> matrix.set(1, 1, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> matrix.get(0, 4));
+
+        DistanceMatrix floats = new DistanceMatrix(3, false);
+        floats.set(0, 1, 1.5);
+        assertEquals(1.5, floats.get(1, 0));
+    }
+
+    @Test
+    void testEuclideanDistances() {
+        // Euclidean distances are reproduced exactly (up to rotation and reflection) by the embedding
+        Random random = new Random(3);
+        int n = 500;
+        double[] xs = new double[n], ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = random.nextDouble() * 1000;
+            ys[i] = random.nextDouble() * 1000;
+        }
+        DistanceMatrix matrix = new DistanceMatrix(n, false);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < i; j++)
+                matrix.set(i, j, Math.hypot(xs[i] - xs[j], ys[i] - ys[j]));
+        }
+
+        long time = System.nanoTime();
+        double[][] coordinates = new LandmarkMDS(16).embed(matrix);
+        System.out.println("Embedded " + n + " nodes in " + (System.nanoTime() - time) / 1000000 + "ms");
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < i; j++) {
+                double d = Math.hypot(coordinates[0][i] - coordinates[0][j], coordinates[1][i] - coordinates[1][j]);
+                assertEquals(matrix.get(i, j), d, 1e-2);
+            }
+        }
+    }
+
+    @Test
+    void testExplicitInstance() throws IOException {
+        // The tour is built on the embedding, but improved against the true weights
+        TSPInstance<ArrayPointStore> instance = TSPLIB.readInstance("res/TSPLIB/TSP/gr120.tsp");
+        int optimum = 6942;
+
+        Tour embedded = new LinKernighanTSP().calculateTour(instance.getPoints().toPoints());
+        SolveOptions options = new SolveOptions();
+        options.setDistanceMatrix(instance.getMatrix());
+        Tour tour = new LinKernighanTSP().solveAsync(instance.getPoints().toPoints(), options).join().getTour();
+
+        double embeddedLength = instance.calculateTourLength(embedded);
+        double length = instance.calculateTourLength(tour);
+        System.out.println("gr120: " + length + " with the matrix, " + embeddedLength + " with the embedding "
+                + "(optimum: " + optimum + ")");
+        assertEquals(instance.getPoints().size(), new HashSet<>(tour).size());
+        assertTrue(length <= embeddedLength);
+        assertTrue(length < 1.1 * optimum);
+    }
+}
@@ -0,0 +1,116 @@
+package CircleTSP.algo.estimators;
+
+import CircleTSP.algo.solvers.CircleTSP;
+import CircleTSP.entities.Point;
+import CircleTSP.entities.Tour;
+import CircleTSP.entities.Tuple;
+import CircleTSP.util.Distance;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheapestInsertionTest {
+
+    private static Tour localTour;
+    private static List<Point> goalPoints;
+
+    @BeforeAll
+    static void setUp() {
+        final int n = 4096;
+        Random random = new Random(42);
+        List<Point> points = new ArrayList<>(n);
+        for (int i = 0; i < n; i++)
+            points.add(new Point("" + i, new double[]{random.nextDouble(), random.nextDouble()}));
+        localTour = CircleTSP.calculateTour(points);
+
+        goalPoints = new ArrayList<>();
+        for (int i = 0; i < 64; i++)
+            goalPoints.add(new Point("g" + i, new double[]{4 * random.nextDouble() - 1.5, 4 * random.nextDouble() - 1.5}));
+    }
+
+    private static double insertionCosts(Point e1, Point e2, Point g1, Point g2) {
+        return Math.min(Distance.euclidianDistance(g1, e1) + Distance.euclidianDistance(e2, g2),
+                Distance.euclidianDistance(g1, e2) + Distance.euclidianDistance(e1, g2))
+                - Distance.euclidianDistance(e1, e2);
+    }
+
+    @Test
+    void testFindsCheapestEdge() {
+        Point[] tour = localTour.toArray(new Point[0]);
+        CheapestInsertion heuristic = new CheapestInsertion();
+
+        long time = 0;
+        for (int i = 0; i < goalPoints.size(); i += 2) {
+            Point g1 = goalPoints.get(i);
+            Point g2 = goalPoints.get(i + 1);
+
+            double bestCosts = Double.POSITIVE_INFINITY;
+            for (int j = 0; j < tour.length; j++)
+                bestCosts = Math.min(bestCosts, insertionCosts(tour[j], tour[(j + 1) % tour.length], g1, g2));
+
+            long time1 = System.nanoTime();
+            Tuple<Point, Point> entryPoints = heuristic.findEntryPoints(localTour, null, g1, g2, null, null);
+            time += System.nanoTime() - time1;
+
+            Point e1 = entryPoints.getFirst();
+            Point e2 = entryPoints.getSecond();
+            int e1Index = localTour.indexOf(e1);
+            assertEquals(e2, localTour.getNextPoint(e1Index));
+            assertEquals(bestCosts, insertionCosts(e1, e2, g1, g2), 1e-9);
+        }
+        System.out.println("Time used (CheapestInsertion): " + time / 1000000 + "ms");
+    }
+
+    @Test
+    void testIndexIsUpdatedIncrementally() {
+        Tour tour = new Tour(localTour);
+        CheapestInsertion heuristic = new CheapestInsertion();
+        TourSegmentIndex index = heuristic.getIndex(tour);
+        assertSame(index, heuristic.getIndex(tour));
+
+        // Move points far away, so that their edges become the cheapest insertions
+        Random random = new Random(7);
+        for (int i = 0; i < goalPoints.size(); i += 2) {
+            Point g1 = goalPoints.get(i);
+            Point g2 = goalPoints.get(i + 1);
+            int moved = random.nextInt(tour.size());
+            Point p = new Point("m" + i, new double[]{g1.getCoordinates()[0], g1.getCoordinates()[1]});
+            tour.set(moved, p);
+            index.set(moved, p);
+
+            Tuple<Point, Point> entryPoints = heuristic.findEntryPoints(tour, null, g1, g2, null, null);
+            Point[] points = tour.toArray(new Point[0]);
+            double bestCosts = Double.POSITIVE_INFINITY;
+            for (int j = 0; j < points.length; j++)
+                bestCosts = Math.min(bestCosts, insertionCosts(points[j], points[(j + 1) % points.length], g1, g2));
+            assertEquals(bestCosts, insertionCosts(entryPoints.getFirst(), entryPoints.getSecond(), g1, g2), 1e-9);
+        }
+        assertSame(index, heuristic.getIndex(tour));
+
+        // Adding a point rebuilds the index
+        tour.add(new Point("added", new double[]{0.5, 0.5}));
+        assertNotSame(index, heuristic.getIndex(tour));
+        assertEquals(tour.size(), heuristic.getIndex(tour).size());
+    }
+
+    @Test
+    void testSmallTours() {
+        Point a = new Point("a", new double[]{0, 0});
+        Point b = new Point("b", new double[]{1, 0});
+        Tour tour = new Tour();
+        tour.add(a);
+        tour.add(b);
+        Point g = new Point("g", new double[]{5, 5});
+
+        Tuple<Point, Point> entryPoints = new CheapestInsertion().findEntryPoints(tour, null, g, g, null, null);
+        assertNotNull(entryPoints);
+        assertNotEquals(entryPoints.getFirst(), entryPoints.getSecond());
+
+        assertThrows(IllegalArgumentException.class, () -> new TourSegmentIndex(new Tour()));
+    }
+}
@@ -0,0 +1,73 @@
+package CircleTSP.algo.improvement;
+
+import CircleTSP.algo.solvers.CircleTSP;
+import CircleTSP.entities.Point;
+import CircleTSP.entities.Tour;
+import CircleTSP.util.Distance;
+import CircleTSP.util.Intersection;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrossingRemovalTest {
+
+    private static List<Point> randomPoints;
+
+    @BeforeAll
+    static void setUp() {
+        final int n = 100000;
+        Random random = new Random(17);
+        randomPoints = new ArrayList<>(n);
+        for (int i = 0; i < n; i++)
+            randomPoints.add(new Point("" + i, new double[]{random.nextDouble(), random.nextDouble()}));
+    }
+
+    private static int countCrossingsBruteForce(Tour tour) {
+        Point[] points = tour.toArray(new Point[0]);
+        int n = points.length;
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 2; j < n; j++) {
+                if (i == 0 && j == n - 1)
+                    continue;
+                if (Intersection.doIntersect(points[i], points[i + 1], points[j], points[(j + 1) % n]))
+                    count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    void testCountCrossings() {
+        Tour tour = new TwoOpt().improve(CircleTSP.calculateTour(new ArrayList<>(randomPoints.subList(0, 2000))));
+        int crossings = CrossingRemoval.countCrossings(tour);
+        System.out.println("Crossings after TwoOpt: " + crossings);
+        assertEquals(countCrossingsBruteForce(tour), crossings);
+
+        Tour circleTour = CircleTSP.calculateTour(new ArrayList<>(randomPoints.subList(0, 500)));
+        assertEquals(countCrossingsBruteForce(circleTour), CrossingRemoval.countCrossings(circleTour));
+    }
+
+    @Test
+    void testRemoveCrossings() {
+        Tour tour = new LocalSearch().improve(CircleTSP.calculateTour(randomPoints));
+        int crossings = CrossingRemoval.countCrossings(tour);
+
+        long time1 = System.currentTimeMillis();
+        Tour planarTour = new CrossingRemoval().improve(tour);
+        long time2 = System.currentTimeMillis();
+        System.out.println("Time used (CrossingRemoval, n=" + randomPoints.size() + ", crossings=" + crossings
+                + "): " + (time2 - time1) + "ms");
+
+        assertEquals(randomPoints.size(), new HashSet<>(planarTour).size());
+        assertEquals(0, CrossingRemoval.countCrossings(planarTour));
+        if (crossings > 0)
+            assertTrue(Distance.calculateTourLength(planarTour) < Distance.calculateTourLength(tour));
+    }
+}
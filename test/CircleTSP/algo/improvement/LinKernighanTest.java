@@ -0,0 +1,66 @@
+package CircleTSP.algo.improvement;
+
+import CircleTSP.algo.solvers.CircleTSP;
+import CircleTSP.algo.solvers.LinKernighanTSP;
+import CircleTSP.entities.Point;
+import CircleTSP.entities.Tour;
+import CircleTSP.util.Distance;
+import CircleTSP.util.TSPLIB;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LinKernighanTest {
+
+    private static HashMap<String, Point> berlin52;
+    private static double berlin52Optimum;
+    private static List<Point> randomPoints;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        berlin52 = TSPLIB.readPoints("res/TSPLIB/TSP/berlin52.tsp");
+        berlin52Optimum = Distance.calculateTourLength(TSPLIB.readOpt("res/TSPLIB/TSP/tour/berlin52.opt.tour",
+                berlin52));
+
+        final int n = 20000;
+        Random random = new Random(3);
+        randomPoints = new ArrayList<>(n);
+        for (int i = 0; i < n; i++)
+            randomPoints.add(new Point("" + i, new double[]{random.nextDouble(), random.nextDouble()}));
+    }
+
+    @Test
+    void testBerlin52() {
+        Tour tour = new LinKernighanTSP().calculateTour(berlin52.values());
+        double length = Distance.calculateTourLength(tour);
+        System.out.println("LinKernighanTSP (berlin52): " + length + ", optimum: " + berlin52Optimum);
+
+        assertEquals(berlin52.size(), new HashSet<>(tour).size());
+        assertTrue(length <= 1.05 * berlin52Optimum);
+    }
+
+    @Test
+    void testImproveLocalOptimum() {
+        Tour circleTour = CircleTSP.calculateTour(randomPoints);
+        Tour localSearchTour = new LocalSearch().improve(circleTour);
+
+        long time1 = System.currentTimeMillis();
+        Tour tour = new LinKernighan().improve(localSearchTour);
+        long time2 = System.currentTimeMillis();
+        System.out.println("Time used (LinKernighan, n=" + randomPoints.size() + "): " + (time2 - time1) + "ms");
+
+        double localSearchLength = Distance.calculateTourLength(localSearchTour);
+        double length = Distance.calculateTourLength(tour);
+        System.out.println("LocalSearch: " + localSearchLength + ", LinKernighan: " + length);
+        assertEquals(randomPoints.size(), new HashSet<>(tour).size());
+        assertTrue(length < localSearchLength);
+    }
+}
@@ -0,0 +1,77 @@
+package CircleTSP.algo.improvement;
+
+import CircleTSP.algo.solvers.CircleTSP;
+import CircleTSP.entities.ArrayTour;
+import CircleTSP.entities.Point;
+import CircleTSP.entities.Tour;
+import CircleTSP.util.Distance;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrOptTest {
+
+    private static List<Point> randomPoints;
+
+    @BeforeAll
+    static void setUp() {
+        final int n = 10000;
+        Random random = new Random(7);
+        randomPoints = new ArrayList<>(n);
+        for (int i = 0; i < n; i++)
+            randomPoints.add(new Point("" + i, new double[]{random.nextDouble(), random.nextDouble()}));
+    }
+
+    @Test
+    void testRelocateSegment() {
+        // Points on a circle, where the segment 2,3 has been moved to the wrong side of the tour
+        List<Point> points = new ArrayList<>();
+        int[] order = {0, 1, 4, 5, 6, 7, 8, 2, 3, 9, 10, 11};
+        for (int i : order) {
+            double angle = 2 * Math.PI * i / order.length;
+            points.add(new Point("" + i, new double[]{Math.cos(angle), Math.sin(angle)}));
+        }
+        ArrayTour tour = new ArrayTour(points);
+        double length = tour.length();
+
+        assertTrue(new OrOpt().improve(tour, new NeighborLists(tour, 4)));
+        assertTrue(tour.length() < length);
+        // All points are visited in the order of their angles again
+        int start = tour.position(0);
+        int step = points.get(tour.get((start + 1) % order.length)).getId().equals("1") ? 1 : order.length - 1;
+        for (int i = 0; i < order.length; i++)
+            assertEquals("" + i, tour.getPoint(tour.get((start + i * step) % order.length)).getId());
+    }
+
+    @Test
+    void testLocalSearch() {
+        Tour circleTour = CircleTSP.calculateTour(randomPoints);
+
+        Tour orOptTour = new OrOpt().improve(circleTour);
+        Tour twoOptTour = new TwoOpt().improve(circleTour);
+        long time1 = System.currentTimeMillis();
+        Tour localSearchTour = new LocalSearch().improve(circleTour);
+        long time2 = System.currentTimeMillis();
+        System.out.println("Time used (LocalSearch, n=" + randomPoints.size() + "): " + (time2 - time1) + "ms");
+
+        double circleLength = Distance.calculateTourLength(circleTour);
+        double orOptLength = Distance.calculateTourLength(orOptTour);
+        double twoOptLength = Distance.calculateTourLength(twoOptTour);
+        double localSearchLength = Distance.calculateTourLength(localSearchTour);
+        System.out.println("CircleTSP: " + circleLength + ", OrOpt: " + orOptLength + ", TwoOpt: " + twoOptLength
+                + ", LocalSearch: " + localSearchLength);
+
+        for (Tour tour : List.of(orOptTour, twoOptTour, localSearchTour)) {
+            assertEquals(randomPoints.size(), tour.size());
+            assertEquals(randomPoints.size(), new HashSet<>(tour).size());
+        }
+        assertTrue(orOptLength < circleLength);
+        assertTrue(localSearchLength < twoOptLength);
+    }
+}
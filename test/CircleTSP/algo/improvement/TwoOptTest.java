@@ -0,0 +1,87 @@
+package CircleTSP.algo.improvement;
+
+import CircleTSP.algo.solvers.CircleTSP;
+import CircleTSP.entities.ArrayTour;
+import CircleTSP.entities.Point;
+import CircleTSP.entities.Tour;
+import CircleTSP.util.Distance;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TwoOptTest {
+
+    private static List<Point> randomPoints;
+
+    @BeforeAll
+    static void setUp() {
+        final int n = 100000;
+        Random random = new Random(42);
+        randomPoints = new ArrayList<>(n);
+        for (int i = 0; i < n; i++)
+            randomPoints.add(new Point("" + i, new double[]{random.nextDouble() * n, random.nextDouble() * n}));
+    }
+
+    @Test
+    void testReverse() {
+        List<Point> points = randomPoints.subList(0, 10);
+        ArrayTour tour = new ArrayTour(points);
+        tour.reverse(2, 5);
+        int[] expected = {0, 1, 5, 4, 3, 2, 6, 7, 8, 9};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], tour.get(i));
+            assertEquals(i, tour.position(tour.get(i)));
+        }
+
+        // Reversing a path around the end of the tour results in the edges (6,1) and (7,5)
+        tour.reverse(7, 1);
+        assertEquals(10, new HashSet<>(tour.toTour()).size());
+        assertTrue(adjacent(tour, 6, 1));
+        assertTrue(adjacent(tour, 7, 5));
+        assertTrue(adjacent(tour, 0, 9));
+        assertTrue(tour.between(0, tour.next(0), tour.next(tour.next(0))));
+    }
+
+    private static boolean adjacent(ArrayTour tour, int a, int b) {
+        return tour.next(a) == b || tour.prev(a) == b;
+    }
+
+    @Test
+    void testNeighborLists() {
+        List<Point> points = randomPoints.subList(0, 2000);
+        ArrayTour tour = new ArrayTour(points);
+        NeighborLists neighbors = new NeighborLists(tour, 5);
+        for (int p = 0; p < tour.size(); p += 97) {
+            double[] distances = new double[tour.size()];
+            for (int q = 0; q < tour.size(); q++)
+                distances[q] = q == p ? Double.POSITIVE_INFINITY : tour.distance(p, q);
+            Arrays.sort(distances);
+            for (int i = 0; i < neighbors.size(); i++)
+                assertEquals(distances[i], tour.distance(p, neighbors.get(p, i)));
+        }
+    }
+
+    @Test
+    void testImproveCircleTSP() {
+        Tour circleTour = CircleTSP.calculateTour(randomPoints);
+        double circleLength = Distance.calculateTourLength(circleTour);
+
+        long time1 = System.currentTimeMillis();
+        Tour tour = new TwoOpt().improve(circleTour);
+        long time2 = System.currentTimeMillis();
+        System.out.println("Time used (TwoOpt, n=" + randomPoints.size() + "): " + (time2 - time1) + "ms");
+
+        double length = Distance.calculateTourLength(tour);
+        System.out.println("CircleTSP: " + circleLength + ", TwoOpt: " + length);
+        assertEquals(randomPoints.size(), tour.size());
+        assertEquals(randomPoints.size(), new HashSet<>(tour).size());
+        assertTrue(length < circleLength);
+    }
+}
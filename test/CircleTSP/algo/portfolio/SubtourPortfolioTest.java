@@ -0,0 +1,91 @@
+package CircleTSP.algo.portfolio;
+
+import CircleTSP.algo.solvers.BnBTSP;
+import CircleTSP.algo.solvers.PathCircleTSP;
+import CircleTSP.benchmark.ProblemGenerator;
+import CircleTSP.entities.Point;
+import CircleTSP.entities.Tour;
+import CircleTSP.util.Distance;
+import CircleTSP.util.SolveContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubtourPortfolioTest {
+
+    private static void assertWinnerIsBest(PortfolioResult result) {
+        assertNotNull(result.getWinner());
+        assertEquals(result.getSubtour().getCosts(), result.getCosts().get(result.getWinner()), 1e-9);
+        for (double costs : result.getCosts().values())
+            assertTrue(result.getSubtour().getCosts() <= costs);
+        // Every started solver has either finished, failed or been cancelled
+        assertEquals(result.getRuntimes().size(),
+                result.getCosts().size() + result.getFailed().size() + result.getCancelled().size());
+    }
+
+    @Test
+    void testExactSolverEndsRaceOnSmallCluster() {
+        Collection<Point> points = ProblemGenerator.randomUniform(8);
+        SubtourPortfolio portfolio = new SubtourPortfolio();
+
+        PortfolioResult result = portfolio.solve(points, System.nanoTime() + 10000000000L);
+        assertWinnerIsBest(result);
+
+        double optimalCosts = Distance.calculateTourLength(BnBTSP.Run(new ArrayList<>(points)));
+        assertEquals(optimalCosts, result.getCosts().get("BnBTSP"), 1e-9);
+        assertTrue(result.getSubtour().getCosts() <= optimalCosts);
+        assertEquals(points.size(), result.getSubtour().getTour().size());
+    }
+
+    @Test
+    void testDefaultPortfoliosShareExecutor() {
+        // Default portfolios don't create a thread pool each that is never shut down
+        assertSame(new SubtourPortfolio().getExecutor(), new SubtourPortfolio().getExecutor());
+    }
+
+    @Test
+    void testDeadlineCancelsSlowSolvers() {
+        Collection<Point> points = ProblemGenerator.randomUniform(18);
+        // Allow the exact solver and AllStar to run on a cluster that is too large to be solved in time
+        SubtourPortfolio portfolio = new SubtourPortfolio(List.of(new CircleSubtourSolver(),
+                new AllStarSubtourSolver(64), new ExactSubtourSolver(64)),
+                Executors.newCachedThreadPool(), 100, 0);
+
+        long time1 = System.nanoTime();
+        PortfolioResult result = portfolio.solve(points, time1 + 100000000L);
+        long time2 = System.nanoTime();
+        assertWinnerIsBest(result);
+
+        assertTrue((time2 - time1) / 1000000.0 < 1000);
+        // AllStar may finish in time as well, but the exact solver can't
+        assertTrue(result.getCosts().containsKey("CircleTSP"));
+        assertNotEquals("BnBTSP", result.getWinner());
+        assertTrue(result.getCancelled().contains("BnBTSP"));
+        assertEquals(points.size(), result.getSubtour().getTour().size());
+    }
+
+    @Test
+    void testPathCircleTSPWithPortfolio() {
+        Collection<Point> points = ProblemGenerator.fourLinearClusters(256);
+        PathCircleTSP solver = new PathCircleTSP();
+        solver.setPortfolio(new SubtourPortfolio());
+
+        Tour tour = solver.calculateTour(points, 4, 0.1, -1);
+
+        assertEquals(points.size(), tour.size());
+        assertFalse(solver.getPortfolioResults().isEmpty());
+        for (PortfolioResult result : solver.getPortfolioResults())
+            assertNotNull(result.getWinner());
+
+        // Statistics of a single tour
+        List<PortfolioResult> results = new ArrayList<>();
+        tour = solver.calculateTour(points, 4, 0.1, -1, new SolveContext(), results);
+        assertEquals(points.size(), tour.size());
+        assertEquals(solver.getPortfolioResults().size(), results.size());
+    }
+}
@@ -0,0 +1,126 @@
+package CircleTSP.algo.solvers;
+
+import CircleTSP.algo.improvement.LocalSearch;
+import CircleTSP.algo.improvement.NeighborLists;
+import CircleTSP.entities.Point;
+import CircleTSP.entities.Tour;
+import CircleTSP.util.Distance;
+import CircleTSP.util.TSPLIB;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnytimeTSPTest {
+
+    private static HashMap<String, Point> berlin52;
+    private static double berlin52Optimum;
+    private static List<Point> randomPoints;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        berlin52 = TSPLIB.readPoints("res/TSPLIB/TSP/berlin52.tsp");
+        berlin52Optimum = Distance.calculateTourLength(TSPLIB.readOpt("res/TSPLIB/TSP/tour/berlin52.opt.tour",
+                berlin52));
+
+        final int n = 50000;
+        Random random = new Random(11);
+        randomPoints = new ArrayList<>(n);
+        for (int i = 0; i < n; i++)
+            randomPoints.add(new Point("" + i, new double[]{random.nextDouble(), random.nextDouble()}));
+    }
+
+    @Test
+    void testFinishesEarly() {
+        long time1 = System.nanoTime();
+        AnytimeRun run = new AnytimeTSP().start(berlin52.values(), System.nanoTime() + 60000000000L);
+        assertNotNull(run.getBestTour());
+
+        Tour tour = run.awaitResult();
+        double time = (System.nanoTime() - time1) / 1000000.0;
+        System.out.println("AnytimeTSP (berlin52): " + run + ", optimum: " + berlin52Optimum + ", " + time + "ms");
+
+        assertTrue(run.isDone());
+        assertTrue(run.getFailures().isEmpty());
+        assertTrue(time < 10000);
+        assertEquals(berlin52.size(), new HashSet<>(tour).size());
+        assertEquals(run.getBestLength(), Distance.calculateTourLength(tour), 1e-9);
+        assertTrue(run.getBestLength() <= 1.05 * berlin52Optimum);
+    }
+
+    @Test
+    void testDeadline() {
+        final long timeBudget = 1000;
+        long time1 = System.nanoTime();
+        long deadline = time1 + timeBudget * 1000000;
+        AnytimeRun run = new AnytimeTSP().start(randomPoints, deadline);
+        Tour circleTour = run.getBestTour();
+        double circleLength = run.getBestLength();
+
+        Tour tour = run.awaitResult();
+        double time = (System.nanoTime() - time1) / 1000000.0;
+        System.out.println("AnytimeTSP (n=" + randomPoints.size() + ", budget=" + timeBudget + "ms): " + run
+                + ", " + time + "ms");
+
+        // Returned at the deadline, with a tour that is at least as good as the tour of CircleTSP
+        assertTrue(System.nanoTime() >= deadline || run.isDone());
+        assertTrue(time < timeBudget + 250);
+        assertEquals(randomPoints.size(), new HashSet<>(tour).size());
+        assertTrue(run.getBestLength() <= circleLength);
+        assertEquals(randomPoints.size(), circleTour.size());
+
+        // The history starts with CircleTSP and only contains improvements
+        List<AnytimeRun.Improvement> history = run.getHistory();
+        assertEquals("CircleTSP", history.get(0).getStage());
+        for (int i = 1; i < history.size(); i++) {
+            assertTrue(history.get(i).getLength() < history.get(i - 1).getLength());
+            assertTrue(history.get(i).getElapsedTime() >= history.get(i - 1).getElapsedTime());
+        }
+        assertEquals(run.getBestLength(), history.get(history.size() - 1).getLength());
+
+        // The worker stops shortly after the deadline
+        long time2 = System.nanoTime();
+        while (!run.isDone() && System.nanoTime() - time2 < 5000000000L)
+            Thread.onSpinWait();
+        assertTrue(run.isDone());
+    }
+
+    @Test
+    void testCalculateTour() {
+        Tour tour = new AnytimeTSP().calculateTour(randomPoints.subList(0, 2000), 500);
+        assertEquals(2000, new HashSet<>(tour).size());
+        assertThrows(IllegalArgumentException.class, () -> new AnytimeTSP().calculateTour(randomPoints, -1));
+    }
+
+    @Test
+    void testFailingStage() {
+        AnytimeTSP.Stage failing = new AnytimeTSP.Stage() {
+            @Override
+            public String getName() {
+                return "Failing";
+            }
+
+            @Override
+            public Tour calculateTour(List<Point> points, Tour bestTour) {
+                throw new IllegalStateException("Bug in a stage");
+            }
+        };
+        AnytimeTSP solver = new AnytimeTSP(List.of(failing,
+                AnytimeTSP.improverStage("LocalSearch", new LocalSearch(), NeighborLists.DEFAULT_SIZE)));
+        AnytimeRun run = solver.start(berlin52.values(), System.nanoTime() + 60000000000L);
+        run.awaitResult();
+
+        assertTrue(run.isDone());
+        assertEquals(List.of("Failing"), new ArrayList<>(run.getFailures().keySet()));
+        assertEquals("Bug in a stage", run.getFailures().get("Failing").getMessage());
+        // The stages after the failing one are still run
+        assertEquals("LocalSearch", run.getHistory().get(run.getHistory().size() - 1).getStage());
+    }
+}
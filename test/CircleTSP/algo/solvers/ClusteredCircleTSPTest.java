@@ -0,0 +1,94 @@
+package CircleTSP.algo.solvers;
+
+import CircleTSP.algo.estimators.CheapestInsertion;
+import CircleTSP.algo.estimators.IntersectingEdges;
+import CircleTSP.benchmark.ProblemGenerator;
+import CircleTSP.entities.Point;
+import CircleTSP.entities.Tour;
+import CircleTSP.util.Distance;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClusteredCircleTSPTest {
+
+    private static final int MIN_PTS = 4;
+    private static final double EPSILON = 0.1;
+
+    private static Collection<Point> points;
+
+    @BeforeAll
+    static void setUp() {
+        points = ProblemGenerator.fourCircleClusters(1024);
+    }
+
+    @Test
+    void testParallelSubtoursAreDeterministic() {
+        Tour sequentialTour = new ClusteredCircleTSP(Runnable::run).calculateTour(points, MIN_PTS, EPSILON);
+        Tour parallelTour = new ClusteredCircleTSP().calculateTour(points, MIN_PTS, EPSILON);
+
+        assertEquals(points.size(), parallelTour.size());
+        assertEquals(sequentialTour.toString(), parallelTour.toString());
+    }
+
+    @Test
+    void testParallelPathSubtoursAreDeterministic() {
+        Tour sequentialTour = new PathCircleTSP(Runnable::run).calculateTour(points, MIN_PTS, EPSILON);
+        Tour parallelTour = new PathCircleTSP(TSPClusterSolver.virtualThreadExecutor())
+                .calculateTour(points, MIN_PTS, EPSILON);
+
+        assertEquals(points.size(), parallelTour.size());
+        assertEquals(sequentialTour.toString(), parallelTour.toString());
+        // All solvers share one virtual thread executor
+        assertSame(TSPClusterSolver.virtualThreadExecutor(), TSPClusterSolver.virtualThreadExecutor());
+    }
+
+    @Test
+    void testEntrypointHeuristic() {
+        ClusteredCircleTSP solver = new ClusteredCircleTSP(Runnable::run);
+        assertTrue(solver.getEntrypointHeuristic().get() instanceof IntersectingEdges);
+        Tour defaultTour = solver.calculateTour(points, MIN_PTS, EPSILON);
+
+        // CheapestInsertion is opt-in and connects every sub tour at one of its edges
+        solver.setEntrypointHeuristic(CheapestInsertion::new);
+        Tour cheapestTour = solver.calculateTour(points, MIN_PTS, EPSILON);
+        assertEquals(new HashSet<>(points), new HashSet<>(cheapestTour));
+        assertEquals(defaultTour.size(), cheapestTour.size());
+        assertThrows(IllegalArgumentException.class, () -> solver.setEntrypointHeuristic(null));
+    }
+
+    @Test
+    void testMultiLevelClustering() {
+        // 10x10 groups of 3x3 clusters with 5 points each, which are found as clusters on two levels
+        Random rnd = new Random(42);
+        Set<Point> nestedPoints = new HashSet<>();
+        for (int group = 0; group < 100; group++) {
+            for (int cluster = 0; cluster < 9; cluster++) {
+                double centerX = (group % 10) * 100 + (cluster % 3) * 2;
+                double centerY = (group / 10) * 100 + (cluster / 3) * 2;
+                for (int i = 0; i < 5; i++) {
+                    double x = centerX + rnd.nextDouble() * 0.4 - 0.2;
+                    double y = centerY + rnd.nextDouble() * 0.4 - 0.2;
+                    nestedPoints.add(new Point(group + "_" + cluster + "_" + i, new double[]{x, y}));
+                }
+            }
+        }
+
+        ClusteredCircleTSP flatSolver = new ClusteredCircleTSP();
+        Tour flatTour = flatSolver.calculateTour(nestedPoints, MIN_PTS, 1);
+
+        ClusteredCircleTSP multiLevelSolver = new ClusteredCircleTSP();
+        multiLevelSolver.setMaxLevels(3);
+        Tour multiLevelTour = multiLevelSolver.calculateTour(nestedPoints, MIN_PTS, 1);
+
+        assertEquals(nestedPoints.size(), multiLevelTour.size());
+        assertEquals(nestedPoints, new HashSet<>(multiLevelTour));
+        assertTrue(Distance.calculateTourLength(multiLevelTour) < Distance.calculateTourLength(flatTour));
+    }
+}
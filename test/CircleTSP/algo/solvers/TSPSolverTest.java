@@ -0,0 +1,104 @@
+package CircleTSP.algo.solvers;
+
+import CircleTSP.entities.Point;
+import CircleTSP.util.Distance;
+import CircleTSP.util.SolveContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TSPSolverTest {
+
+    private static List<Point> randomPoints(int n, long seed) {
+        Random random = new Random(seed);
+        List<Point> points = new ArrayList<>(n);
+        for (int i = 0; i < n; i++)
+            points.add(new Point("" + i, new double[]{random.nextDouble(), random.nextDouble()}));
+        return points;
+    }
+
+    @Test
+    void testSolveAsync() throws InterruptedException {
+        TSPSolver[] solvers = new TSPSolver[] {
+                new CircleTSP(),
+                new ClusteredCircleTSP(),
+                new PathCircleTSP(),
+                new LinKernighanTSP(),
+                new BnBTSP()
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        SolveOptions options = new SolveOptions();
+        options.setExecutor(executor);
+        options.setEpsilon(0.05);
+
+        // Points are modified by the solvers, so every solver gets its own points
+        List<List<Point>> points = new ArrayList<>();
+        List<CompletableFuture<SolveResult>> futures = new ArrayList<>();
+        for (TSPSolver solver : solvers) {
+            points.add(randomPoints(solver instanceof BnBTSP ? 10 : 2000, 3));
+            futures.add(solver.solveAsync(points.get(points.size() - 1), options));
+        }
+
+        for (int i = 0; i < solvers.length; i++) {
+            SolveResult result = futures.get(i).join();
+            System.out.println(solvers[i].getClass().getSimpleName() + ": " + result);
+            assertEquals(new HashSet<>(points.get(i)), new HashSet<>(result.getTour()));
+            assertEquals(Distance.calculateTourLength(result.getTour()), result.getLength(), 1e-9);
+            assertTrue(result.getPhaseTimes().containsKey("length"));
+            assertTrue(result.getPhaseTimes().size() > 1);
+            assertEquals(result.getPhaseTimes().values().stream().mapToDouble(Double::doubleValue).sum(),
+                    result.getTotalTime(), 1e-9);
+        }
+        assertEquals(List.of("center", "angles", "sort", "length"),
+                new ArrayList<>(futures.get(0).join().getPhaseTimes().keySet()));
+        assertEquals(0.05, futures.get(1).join().getParameters().get("epsilon"));
+        assertEquals(LinKernighanTSP.NUM_NEIGHBORS, futures.get(3).join().getParameters().get("numNeighbors"));
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testLearning() {
+        SolveResult result = new ClusteredCircleTSP().solveAsync(randomPoints(500, 4), new SolveOptions()).join();
+        System.out.println("ClusteredCircleTSP with learning: " + result + " " + result.getParameters());
+        assertTrue(result.getPhaseTime("learning") > 0);
+        assertEquals(4, result.getParameters().get("minPts"));
+        assertTrue((double) result.getParameters().get("epsilon") >= 0);
+    }
+
+    @Test
+    void testCancellation() {
+        // Cancelling the future stops the solver through its context
+        SolveOptions options = new SolveOptions();
+        CompletableFuture<SolveResult> future = new ClusteredCircleTSP().solveAsync(randomPoints(2000, 5), options);
+        assertTrue(future.cancel(true));
+        assertTrue(options.getContext().isCancelled());
+
+        // Deadlines of the context are passed to the solvers
+        SolveOptions expired = new SolveOptions(new SolveContext(System.nanoTime(), null));
+        CompletableFuture<SolveResult> expiredFuture = new BnBTSP().solveAsync(randomPoints(10, 6), expired);
+        assertThrows(CancellationException.class, expiredFuture::join);
+        assertTrue(expiredFuture.isCancelled());
+
+        // Other exceptions of a solver are wrapped as usual
+        CompletableFuture<SolveResult> failed = new BnBTSP().solveAsync(null, new SolveOptions());
+        CompletionException e = assertThrows(CompletionException.class, failed::join);
+        assertTrue(e.getCause() instanceof NullPointerException);
+
+        // An anytime run needs a deadline
+        assertThrows(IllegalArgumentException.class,
+                () -> new AnytimeTSP().solveAsync(randomPoints(10, 7), new SolveOptions()));
+    }
+}
@@ -0,0 +1,191 @@
+package CircleTSP.algo.solvers;
+
+import CircleTSP.entities.Point;
+import CircleTSP.entities.Tour;
+import CircleTSP.entities.TourSnapshot;
+import CircleTSP.util.Distance;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TourPublisherTest {
+
+    private static List<Point> randomPoints;
+
+    @BeforeAll
+    static void setUp() {
+        final int n = 20000;
+        Random random = new Random(13);
+        randomPoints = new ArrayList<>(n);
+        for (int i = 0; i < n; i++)
+            randomPoints.add(new Point("" + i, new double[]{random.nextDouble(), random.nextDouble()}));
+    }
+
+    /**
+     * Subscriber that applies all snapshots to its own copy of the tour.
+     */
+    private static class TourCopy implements Flow.Subscriber<TourSnapshot> {
+        final long initialRequest;
+        final List<TourSnapshot> snapshots = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch completed = new CountDownLatch(1);
+        Flow.Subscription subscription;
+        Throwable error;
+        Point[] tour;
+
+        TourCopy(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialRequest);
+        }
+
+        @Override
+        public void onNext(TourSnapshot snapshot) {
+            if (tour == null)
+                tour = new Point[snapshot.size()];
+            snapshot.applyTo(tour);
+            snapshots.add(snapshot);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+
+    /**
+     * Checks if two tours visit the same points in the same cyclic order, in any direction.
+     */
+    private static boolean sameCycle(Point[] a, List<Point> tour) {
+        Point[] b = tour.toArray(new Point[0]);
+        int n = a.length;
+        if (n != b.length)
+            return false;
+        int start = tour.indexOf(a[0]);
+        if (start < 0)
+            return false;
+        boolean forward = true, backward = true;
+        for (int i = 0; i < n; i++) {
+            forward &= a[i] == b[(start + i) % n];
+            backward &= a[i] == b[(start - i + n) % n];
+        }
+        return forward || backward;
+    }
+
+    /**
+     * Creates a sequence of tours, where each tour differs from the previous one by a few reversed paths.
+     */
+    private static List<Tour> createTours(int numTours, Random random) {
+        List<Tour> tours = new ArrayList<>();
+        List<Point> tour = new ArrayList<>(randomPoints);
+        for (int t = 0; t < numTours; t++) {
+            for (int k = 0; k < 5; k++) {
+                int i = random.nextInt(tour.size());
+                int j = Math.min(tour.size(), i + random.nextInt(100));
+                Collections.reverse(tour.subList(i, j));
+            }
+            // Rotate and reverse the whole tour like a tour improver might
+            Tour next = new Tour(tour);
+            Collections.rotate(next, random.nextInt(tour.size()));
+            if (random.nextBoolean())
+                Collections.reverse(next);
+            tours.add(next);
+        }
+        return tours;
+    }
+
+    @Test
+    void testDeltas() {
+        TourPublisher publisher = new TourPublisher(Runnable::run);
+        TourCopy subscriber = new TourCopy(Long.MAX_VALUE);
+        publisher.subscribe(subscriber);
+
+        List<Tour> tours = createTours(50, new Random(1));
+        long numChanges = 0;
+        for (int i = 0; i < tours.size(); i++) {
+            publisher.submit("test", i, tours.get(i), tours.size() - i);
+            assertTrue(sameCycle(subscriber.tour, tours.get(i)));
+            numChanges += subscriber.snapshots.get(i).getNumChanges();
+        }
+        publisher.close();
+        System.out.println("Delivered positions: " + numChanges + " of " + (long) tours.size() * randomPoints.size());
+
+        assertEquals(0, subscriber.completed.getCount());
+        assertEquals(0, publisher.getNumberOfSubscribers());
+        assertTrue(subscriber.snapshots.get(0).isFull());
+        for (int i = 1; i < tours.size(); i++)
+            assertFalse(subscriber.snapshots.get(i).isFull());
+        assertTrue(numChanges < 2L * randomPoints.size());
+    }
+
+    @Test
+    void testBackpressure() {
+        TourPublisher publisher = new TourPublisher(Runnable::run);
+        TourCopy subscriber = new TourCopy(1);
+        publisher.subscribe(subscriber);
+
+        List<Tour> tours = createTours(10, new Random(2));
+        for (int i = 0; i < tours.size(); i++)
+            publisher.submit("test", i, tours.get(i), tours.size() - i);
+        assertEquals(1, subscriber.snapshots.size());
+        assertTrue(sameCycle(subscriber.tour, tours.get(0)));
+
+        // Skipped tours are not delivered, the next snapshot leads directly to the latest tour
+        subscriber.subscription.request(1);
+        assertEquals(2, subscriber.snapshots.size());
+        assertEquals(tours.size() - 1, subscriber.snapshots.get(1).getVersion());
+        assertTrue(sameCycle(subscriber.tour, tours.get(tours.size() - 1)));
+
+        publisher.close();
+        assertEquals(0, subscriber.completed.getCount());
+        assertNull(subscriber.error);
+
+        // Late subscribers receive the latest tour before completion
+        TourCopy lateSubscriber = new TourCopy(1);
+        publisher.subscribe(lateSubscriber);
+        assertTrue(sameCycle(lateSubscriber.tour, tours.get(tours.size() - 1)));
+        assertEquals(0, lateSubscriber.completed.getCount());
+
+        TourCopy invalidSubscriber = new TourCopy(0);
+        new TourPublisher(Runnable::run).subscribe(invalidSubscriber);
+        assertTrue(invalidSubscriber.error instanceof IllegalArgumentException);
+    }
+
+    @Test
+    void testAnytimeRun() throws InterruptedException {
+        TourPublisher publisher = new TourPublisher();
+        TourCopy subscriber = new TourCopy(Long.MAX_VALUE);
+        publisher.subscribe(subscriber);
+
+        AnytimeRun run = new AnytimeTSP().start(randomPoints, System.nanoTime() + 30000000000L, publisher);
+        run.awaitResult();
+        assertTrue(subscriber.completed.await(30, TimeUnit.SECONDS));
+        System.out.println("TourPublisher: " + subscriber.snapshots);
+
+        assertNull(subscriber.error);
+        // Tours may be skipped if they are found faster than they can be delivered
+        assertTrue(subscriber.snapshots.size() <= run.getHistory().size());
+        assertTrue(sameCycle(subscriber.tour, run.getBestTour()));
+        assertEquals(run.getBestLength(), Distance.calculateTourLength(new Tour(List.of(subscriber.tour))), 1e-6);
+        for (int i = 1; i < subscriber.snapshots.size(); i++)
+            assertTrue(subscriber.snapshots.get(i).getLength() < subscriber.snapshots.get(i - 1).getLength());
+    }
+}
@@ -2,10 +2,12 @@ package CircleTSP.algo.sorting;
 
 import CircleTSP.algo.sorting.BucketSort;
 import CircleTSP.entities.Point;
+import CircleTSP.util.SolveContext;
 
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CancellationException;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -49,6 +51,20 @@ class BucketSortTest {
         assertThrows(IllegalArgumentException.class, () -> bucketSort.sort(points, 0));
     }
 
+    @org.junit.jupiter.api.Test
+    void testInterruptStopsThreads() {
+        BucketSort bucketSort = new BucketSort();
+        SolveContext context = new SolveContext();
+        Thread.currentThread().interrupt();
+        assertThrows(CancellationException.class, () -> bucketSort.sort(points, 1000, 4, context));
+
+        // The interrupt status is restored and the sorting threads have been joined
+        assertTrue(Thread.interrupted());
+        assertTrue(context.isCancelled());
+        for (Thread thread : Thread.getAllStackTraces().keySet())
+            assertFalse(thread.getName().startsWith("BucketSort-"));
+    }
+
     private boolean checkSorted(List<Point> points){
         boolean isSorted = true;
         for (int i = 0; i < points.size()-1; i++) {
@@ -0,0 +1,171 @@
+package CircleTSP.benchmark;
+
+import CircleTSP.algo.solvers.CircleTSP;
+import CircleTSP.algo.solvers.ClusteredCircleTSP;
+import CircleTSP.algo.solvers.SolveOptions;
+import CircleTSP.algo.solvers.TSPSolver;
+import CircleTSP.entities.Point;
+import CircleTSP.entities.Tour;
+import CircleTSP.util.TSPInstance;
+import CircleTSP.util.TSPLIB;
+import CircleTSP.util.TourCodec;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunnerTest {
+
+    private static Set<String> readRuns(Path file) throws IOException, ParseException {
+        List<String> lines = Files.readAllLines(file);
+        Set<String> runs = new HashSet<>();
+        for (int i = 0; i < lines.size(); i += 2) {
+            assertTrue(lines.get(i).contains("\"index\""));
+            JSONObject result = (JSONObject) new JSONParser().parse(lines.get(i + 1));
+            assertTrue(runs.add((String) result.get("run")));
+        }
+        return runs;
+    }
+
+    @Test
+    void testParallelRuns(@TempDir Path folder) throws IOException, ParseException {
+        // 3 solvers, 2 sizes and 6 generators
+        int numRuns = 3 * 2 * 6;
+        Path file = folder.resolve("random.ndjson");
+
+        long time = System.nanoTime();
+        try (Runner runner = new Runner(); NDJSONWriter out = new NDJSONWriter(file.toString())) {
+            runner.setNumWorkers(4);
+            runner.setPinMeasurements(true);
+            assertEquals(numRuns, runner.randomBenchmarks(2, 1, 1, new int[]{16, 64}, out));
+        }
+        System.out.println("Ran " + numRuns + " benchmarks with 4 workers in " + (System.nanoTime() - time) / 1000000
+                + "ms");
+        Set<String> runs = readRuns(file);
+        assertEquals(numRuns, runs.size());
+        assertTrue(runs.contains("randomBenchmarks/RU/64/ClusteredCircleTSP/0"));
+
+        // Results on disk are skipped
+        try (Runner runner = new Runner(); NDJSONWriter out = new NDJSONWriter(file.toString())) {
+            assertEquals(numRuns, out.size());
+            assertEquals(0, runner.randomBenchmarks(2, 1, 1, new int[]{16, 64}, out));
+        }
+        assertEquals(runs, readRuns(file));
+    }
+
+    @Test
+    void testResume(@TempDir Path folder) throws IOException, ParseException {
+        Runner runner = new Runner();
+        Path file = folder.resolve("circle.ndjson");
+        try (NDJSONWriter out = new NDJSONWriter(file.toString())) {
+            assertEquals(3 * 2, runner.circleBenchmarks(1, 2, 0, new double[]{0.1}, 32, out));
+        }
+        Set<String> runs = readRuns(file);
+
+        // A run that was interrupted while writing its result is removed and repeated
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 10));
+        try (NDJSONWriter out = new NDJSONWriter(file.toString())) {
+            assertEquals(3 * 2 - 1, out.size());
+            assertEquals(1, runner.circleBenchmarks(1, 2, 0, new double[]{0.1}, 32, out));
+        }
+        assertEquals(runs, readRuns(file));
+
+        assertThrows(IllegalArgumentException.class, () -> runner.setNumWorkers(0));
+    }
+
+    @Test
+    void testCodecIndependentOfIterationOrder() throws IOException {
+        // TSPLIB tours are encoded by their node ids, whatever the order of the points
+        HashMap<String, Point> pr1002 = TSPLIB.readPoints("res/TSPLIB/TSP/pr1002.tsp");
+        Tour optTour = TSPLIB.readOpt("res/TSPLIB/TSP/tour/pr1002.opt.tour", pr1002);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long nodeIdSize = TourCodec.encode(optTour, out);
+        assertEquals((double) nodeIdSize, Runner.measureCodec(optTour, pr1002.values()).get("bytes"));
+
+        // Points without node ids are encoded in the order of their identifiers
+        List<Point> points = new ArrayList<>(ProblemGenerator.fourUniformClusters(2000));
+        Tour tour = new CircleTSP().calculateTour(points);
+        Map<String, Double> codec = Runner.measureCodec(tour, points);
+        Collections.shuffle(points, new Random(1));
+        assertEquals(codec.get("bytes"), Runner.measureCodec(tour, new HashSet<>(points)).get("bytes"));
+    }
+
+    @Test
+    void testPinnedMeasurements() {
+        // Records the thread that runs each solve of CircleTSP
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        TSPSolver solver = (points, options) -> {
+            Executor executor = options.getExecutor();
+            SolveOptions recorded = new SolveOptions();
+            recorded.setExecutor(task -> executor.execute(() -> {
+                threads.add(Thread.currentThread().getName());
+                task.run();
+            }));
+            return new CircleTSP().solveAsync(points, recorded);
+        };
+        List<Point> points = new ArrayList<>(ProblemGenerator.randomUniform(100));
+
+        try (Runner runner = new Runner()) {
+            runner.performBenchmark(points, solver, 4, 2);
+            // Learning run, warm-up and measurements all run on the executor of the runner
+            assertEquals(7, threads.size());
+            assertTrue(threads.stream().noneMatch(name -> name.startsWith("Runner-measurement")));
+
+            threads.clear();
+            runner.setPinMeasurements(true);
+            runner.performBenchmark(points, solver, 4, 2);
+            assertEquals(7, threads.size());
+            assertTrue(threads.subList(0, 3).stream().noneMatch(name -> name.startsWith("Runner-measurement")));
+            assertEquals(Collections.nCopies(4, "Runner-measurement-1"), threads.subList(3, 7));
+
+            // The executor of a cluster solver is only replaced during the measurements
+            ClusteredCircleTSP clusterSolver = new ClusteredCircleTSP();
+            Executor clusterExecutor = clusterSolver.getExecutor();
+            runner.performBenchmark(points, clusterSolver, 2, 0);
+            assertSame(clusterExecutor, clusterSolver.getExecutor());
+        }
+    }
+
+    @Test
+    void testBrokenOptimalTour(@TempDir Path folder) throws IOException {
+        Path tsp = folder.resolve("square.tsp");
+        Files.write(tsp, List.of("TYPE : TSP", "EDGE_WEIGHT_TYPE : EUC_2D", "NODE_COORD_SECTION",
+                "1 0 0", "2 3 0", "3 3 4", "4 0 4", "EOF"));
+        TSPInstance<?> instance = TSPLIB.readInstance(tsp.toString());
+        HashMap<String, Point> points = instance.getPoints().toPointMap();
+        Path tour = folder.resolve("square.opt.tour");
+
+        Files.write(tour, List.of("TYPE : TOUR", "TOUR_SECTION", "1", "2", "3", "4", "-1", "EOF"));
+        JSONObject optimal = Runner.compareWithOptimal(instance, points, tour.toString(), 21);
+        assertNotNull(optimal);
+        assertEquals(14.0, optimal.get("costs"));
+        assertEquals(0.5, (double) optimal.get("gap"), 1e-9);
+
+        // Tours that miss points, visit points twice or contain unknown points are not compared
+        Files.write(tour, List.of("TYPE : TOUR", "TOUR_SECTION", "1", "2", "3", "-1", "EOF"));
+        assertNull(Runner.compareWithOptimal(instance, points, tour.toString(), 21));
+        Files.write(tour, List.of("TYPE : TOUR", "TOUR_SECTION", "1", "2", "3", "3", "-1", "EOF"));
+        assertNull(Runner.compareWithOptimal(instance, points, tour.toString(), 21));
+        Files.write(tour, List.of("TYPE : TOUR", "TOUR_SECTION", "1", "2", "3", "5", "-1", "EOF"));
+        assertNull(Runner.compareWithOptimal(instance, points, tour.toString(), 21));
+    }
+}
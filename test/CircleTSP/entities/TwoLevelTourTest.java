@@ -0,0 +1,82 @@
+package CircleTSP.entities;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TwoLevelTourTest {
+
+    private static List<Point> points;
+
+    @BeforeAll
+    static void setUp() {
+        final int n = 1000;
+        Random random = new Random(11);
+        points = new ArrayList<>(n);
+        for (int i = 0; i < n; i++)
+            points.add(new Point("" + i, new double[]{random.nextDouble(), random.nextDouble()}));
+    }
+
+    @Test
+    void testConversion() {
+        Tour tour = new Tour(points);
+        TwoLevelTour twoLevelTour = new TwoLevelTour(tour);
+        assertEquals(tour, twoLevelTour.toTour());
+        assertEquals(tour.size(), twoLevelTour.size());
+        for (int p = 0; p < tour.size(); p++) {
+            assertEquals(tour.getNextPoint(p), twoLevelTour.getPoint(twoLevelTour.next(p)));
+            assertEquals(tour.getPreviousPoint(p), twoLevelTour.getPoint(twoLevelTour.prev(p)));
+        }
+    }
+
+    @Test
+    void testTourIterator() {
+        Tour tour = new Tour(points);
+        TwoLevelTour twoLevelTour = new TwoLevelTour(tour);
+        for (boolean reversed : new boolean[]{false, true}) {
+            TourIterator expected = tour.tourIterator(42, reversed);
+            Iterator<Point> actual = twoLevelTour.tourIterator(42, reversed);
+            while (expected.hasNext())
+                assertEquals(expected.next(), actual.next());
+            assertFalse(actual.hasNext());
+        }
+    }
+
+    @Test
+    void testReverse() {
+        Random random = new Random(13);
+        ArrayTour arrayTour = new ArrayTour(points);
+        TwoLevelTour twoLevelTour = new TwoLevelTour(points);
+        int n = points.size();
+
+        long time1 = System.currentTimeMillis();
+        for (int i = 0; i < 20000; i++) {
+            int from = random.nextInt(n);
+            int to = random.nextInt(n);
+            // Both tours may be traversed in opposite directions after reversing the shorter side of a path
+            boolean sameDirection = arrayTour.next(0) == twoLevelTour.next(0);
+            arrayTour.reverse(from, to);
+            if (sameDirection)
+                twoLevelTour.reverse(from, to);
+            else
+                twoLevelTour.reverse(to, from);
+
+            sameDirection = arrayTour.next(0) == twoLevelTour.next(0);
+            for (int p = 0; p < n; p += 7) {
+                assertEquals(arrayTour.next(p), sameDirection ? twoLevelTour.next(p) : twoLevelTour.prev(p));
+                int a = random.nextInt(n), b = random.nextInt(n), c = random.nextInt(n);
+                assertEquals(sameDirection ? arrayTour.between(a, b, c) : arrayTour.between(c, b, a),
+                        twoLevelTour.between(a, b, c));
+            }
+        }
+        long time2 = System.currentTimeMillis();
+        System.out.println("Time used (TwoLevelTour reversals): " + (time2 - time1) + "ms");
+        assertEquals(arrayTour.length(), twoLevelTour.length(), 1e-9);
+    }
+}
@@ -0,0 +1,118 @@
+package CircleTSP.util;
+
+import CircleTSP.entities.Point;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntersectionTest {
+
+    private static double[] xs;
+    private static double[] ys;
+
+    @BeforeAll
+    static void setUp() {
+        // Random polygon on an integer grid, so that there are many colinear points
+        final int n = 20000;
+        Random random = new Random(5);
+        xs = new double[n + 1];
+        ys = new double[n + 1];
+        for (int i = 0; i < n; i++) {
+            xs[i] = random.nextInt(200);
+            ys[i] = random.nextInt(200);
+        }
+        xs[n] = xs[0];
+        ys[n] = ys[0];
+    }
+
+    private static int exactOrientation(double px, double py, double qx, double qy, double rx, double ry) {
+        BigDecimal left = new BigDecimal(qy).subtract(new BigDecimal(py))
+                .multiply(new BigDecimal(rx).subtract(new BigDecimal(qx)));
+        BigDecimal right = new BigDecimal(qx).subtract(new BigDecimal(px))
+                .multiply(new BigDecimal(ry).subtract(new BigDecimal(qy)));
+        int sign = left.compareTo(right);
+        return sign == 0 ? 0 : sign > 0 ? 1 : 2;
+    }
+
+    @Test
+    void testPrimitivesMatchPoints() {
+        for (int i = 0; i + 3 < xs.length; i += 2) {
+            Point p1 = new Point("p1", new double[]{xs[i], ys[i]});
+            Point q1 = new Point("q1", new double[]{xs[i + 1], ys[i + 1]});
+            Point p2 = new Point("p2", new double[]{xs[i + 2], ys[i + 2]});
+            Point q2 = new Point("q2", new double[]{xs[i + 3], ys[i + 3]});
+            boolean expected = Intersection.doIntersect(p1, q1, p2, q2);
+            assertEquals(expected, Intersection.doIntersect(xs[i], ys[i], xs[i + 1], ys[i + 1],
+                    xs[i + 2], ys[i + 2], xs[i + 3], ys[i + 3], false));
+            assertEquals(expected, Intersection.doIntersect(xs[i], ys[i], xs[i + 1], ys[i + 1],
+                    xs[i + 2], ys[i + 2], xs[i + 3], ys[i + 3], true));
+            assertEquals(Intersection.orientation(p1, q1, p2),
+                    Intersection.robustOrientation(xs[i], ys[i], xs[i + 1], ys[i + 1], xs[i + 2], ys[i + 2]));
+        }
+    }
+
+    @Test
+    void testIntersectingEdges() {
+        int n = xs.length - 1;
+        int[] result = new int[n];
+        Random random = new Random(6);
+        long batchTime = 0;
+        for (int k = 0; k < 500; k++) {
+            double x1 = random.nextInt(200), y1 = random.nextInt(200);
+            double x2 = random.nextInt(200), y2 = random.nextInt(200);
+            int from = random.nextInt(n);
+            int to = from + random.nextInt(n - from + 1);
+
+            for (boolean robust : new boolean[]{false, true}) {
+                long startTime = System.nanoTime();
+                int count = Intersection.intersectingEdges(x1, y1, x2, y2, xs, ys, from, to, robust, result);
+                batchTime += System.nanoTime() - startTime;
+
+                int expected = 0;
+                for (int i = from; i < to; i++) {
+                    if (Intersection.doIntersect(x1, y1, x2, y2, xs[i], ys[i], xs[i + 1], ys[i + 1], robust)) {
+                        assertTrue(expected < count);
+                        assertEquals(i, result[expected++]);
+                    }
+                }
+                assertEquals(expected, count);
+            }
+        }
+        System.out.println("Batch intersection time: " + batchTime / 1e6 + "ms");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> Intersection.intersectingEdges(0, 0, 1, 1, xs, ys, 0, xs.length, false, result));
+    }
+
+    @Test
+    void testRobustOrientation() {
+        // Points close to the line through q and r, whose orientation is subject to rounding errors
+        // See: Classroom Examples of Robustness Problems in Geometric Computations - L. Kettner et al.
+        double qx = 12, qy = 12, rx = 24, ry = 24;
+        int mismatches = 0;
+        for (int i = 0; i < 256; i++) {
+            for (int j = 0; j < 256; j++) {
+                double px = 0.5 + i * Math.ulp(0.5);
+                double py = 0.5 + j * Math.ulp(0.5);
+                int exact = exactOrientation(px, py, qx, qy, rx, ry);
+                assertEquals(exact, Intersection.robustOrientation(px, py, qx, qy, rx, ry));
+                if (Intersection.orientation(px, py, qx, qy, rx, ry) != exact)
+                    mismatches++;
+            }
+        }
+        System.out.println("Wrong orientations without exact arithmetic: " + mismatches + " / " + 256 * 256);
+
+        // Nearly colinear points with large coordinates, like the drilling paths of the pla* instances
+        Random random = new Random(7);
+        for (int k = 0; k < 10000; k++) {
+            double px = 1e7 * random.nextDouble(), py = px + random.nextInt(3) - 1;
+            double t = random.nextDouble();
+            double cx = 1e7 * t, cy = cx + Math.ulp(cx) * (random.nextInt(5) - 2);
+            assertEquals(exactOrientation(px, py, 0, 0, cx, cy), Intersection.robustOrientation(px, py, 0, 0, cx, cy));
+        }
+    }
+}
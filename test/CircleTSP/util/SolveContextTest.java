@@ -0,0 +1,121 @@
+package CircleTSP.util;
+
+import CircleTSP.algo.path.AllStar;
+import CircleTSP.algo.solvers.BnBTSP;
+import CircleTSP.algo.solvers.ClusteredCircleTSP;
+import CircleTSP.algo.solvers.PathCircleTSP;
+import CircleTSP.entities.Point;
+import CircleTSP.entities.Tour;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolveContextTest {
+
+    private static List<Point> randomPoints;
+
+    @BeforeAll
+    static void setUp() {
+        final int n = 5000;
+        Random random = new Random(17);
+        randomPoints = new ArrayList<>(n);
+        for (int i = 0; i < n; i++)
+            randomPoints.add(new Point("" + i, new double[]{random.nextDouble(), random.nextDouble()}));
+    }
+
+    @Test
+    void testProgress() {
+        List<String> phases = Collections.synchronizedList(new ArrayList<>());
+        List<Double> costs = Collections.synchronizedList(new ArrayList<>());
+        SolveContext context = new SolveContext((phase, fraction, bestCost) -> {
+            assertTrue(fraction >= 0 && fraction <= 1);
+            phases.add(phase);
+            costs.add(bestCost);
+        });
+
+        Tour tour = new ClusteredCircleTSP().calculateTour(randomPoints, 4, 0.02, context);
+        assertEquals(randomPoints.size(), tour.size());
+        assertTrue(phases.contains("DBSCAN"));
+        assertTrue(phases.contains("subtours"));
+        assertEquals("merge", phases.get(phases.size() - 1));
+        assertEquals(Distance.calculateTourLength(tour), costs.get(costs.size() - 1), 1e-9);
+    }
+
+    @Test
+    void testCancellation() {
+        // Cancel from the listener, while the points are being clustered
+        List<String> phases = Collections.synchronizedList(new ArrayList<>());
+        SolveContext[] contexts = new SolveContext[1];
+        contexts[0] = new SolveContext((phase, fraction, bestCost) -> {
+            phases.add(phase);
+            if (fraction >= 0.5)
+                contexts[0].cancel();
+        });
+        long start = System.nanoTime();
+        assertThrows(CancellationException.class,
+                () -> new PathCircleTSP().calculateTour(randomPoints, 4, 0.02, contexts[0]));
+        System.out.println("Cancelled PathCircleTSP after " + (System.nanoTime() - start) / 1000000 + "ms");
+        assertTrue(contexts[0].isCancelled());
+        assertFalse(phases.contains("subtours"));
+        assertFalse(phases.contains("merge"));
+
+        // Cancel from another thread
+        SolveContext context = new SolveContext();
+        Thread canceller = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                return;
+            }
+            context.cancel();
+        });
+        canceller.start();
+        assertThrows(CancellationException.class, () -> ParameterLearner.learnEpsilon2(randomPoints, 4, 1, 0.001,
+                new ClusteredCircleTSP(), context));
+
+        // A cancelled context stops the search immediately
+        List<Point> points = randomPoints.subList(0, 20);
+        assertThrows(CancellationException.class,
+                () -> AllStar.findPath(points, points.get(0), points.get(1), context));
+    }
+
+    @Test
+    void testDeadline() {
+        // The learner returns the best epsilon found before the deadline
+        long start = System.nanoTime();
+        SolveContext context = new SolveContext(start + 500000000L, null);
+        double epsilon = ParameterLearner.learnEpsilon2(randomPoints, 4, 1, 0.001, new ClusteredCircleTSP(),
+                context);
+        long time = (System.nanoTime() - start) / 1000000;
+        System.out.println("learnEpsilon2 with deadline: " + epsilon + " after " + time + "ms");
+        assertTrue(epsilon >= 0 && epsilon < 1);
+        assertTrue(time < 5000);
+        assertFalse(context.isCancelled());
+        assertTrue(context.isExpired());
+
+        // The branch and bound search returns the best tour found before the deadline
+        List<Point> points = new ArrayList<>(randomPoints.subList(0, 16));
+        List<Double> costs = Collections.synchronizedList(new ArrayList<>());
+        start = System.nanoTime();
+        Tour tour = BnBTSP.Run(points, new SolveContext(start + 100000000L,
+                (phase, fraction, bestCost) -> costs.add(bestCost)));
+        time = (System.nanoTime() - start) / 1000000;
+        System.out.println("BnB with deadline: " + Distance.calculateTourLength(tour) + " after " + time + "ms");
+        assertTrue(time < 5000);
+        // The tour returns to its first point
+        assertEquals(points.size() + 1, tour.size());
+        assertTrue(tour.containsAll(points));
+        assertFalse(costs.isEmpty());
+
+        // Without any tour, the search fails
+        SolveContext expired = new SolveContext(System.nanoTime(), null);
+        assertThrows(CancellationException.class, () -> BnBTSP.Run(points, expired));
+    }
+}
@@ -0,0 +1,111 @@
+package CircleTSP.util;
+
+import CircleTSP.entities.ArrayPointStore;
+import CircleTSP.entities.BufferPointStore;
+import CircleTSP.entities.PointStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TSPLIBBinaryTest {
+
+    private static final String FOLDER = "res/TSPLIB/TSP";
+
+    @Test
+    void testConvert(@TempDir Path folder) throws IOException {
+        for (String name : List.of("berlin52", "usa13509", "d18512", "att48", "ulysses22")) {
+            String tspFile = FOLDER + "/" + name + ".tsp";
+            String binaryFile = folder.resolve(name + TSPLIBBinary.EXTENSION).toString();
+            TSPLIBBinary.convert(tspFile, binaryFile);
+
+            long time1 = System.nanoTime();
+            ArrayPointStore expected = TSPLIB.readPointStore(tspFile);
+            long time2 = System.nanoTime();
+            TSPLIBBinary binary = TSPLIBBinary.read(binaryFile);
+            BufferPointStore actual = binary.getPointStore();
+            long time3 = System.nanoTime();
+            System.out.println(name + ": parsed in " + (time2 - time1) / 1000 + "us, mapped in "
+                    + (time3 - time2) / 1000 + "us");
+
+            TSPInstance<ArrayPointStore> instance = TSPLIB.readInstance(tspFile);
+            assertEquals(instance.getEdgeWeightType(), binary.getMetric());
+            assertTrue(binary.verify());
+            assertEquals(expected.size(), actual.size());
+            double[] bounds = {Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.getNodeId(i), actual.getNodeId(i));
+                assertEquals(i, actual.getIndex(actual.getNodeId(i)));
+                assertEquals(expected.getX(i), actual.getX(i));
+                assertEquals(expected.getY(i), actual.getY(i));
+                bounds[0] = Math.min(bounds[0], actual.getX(i));
+                bounds[1] = Math.min(bounds[1], actual.getY(i));
+                bounds[2] = Math.max(bounds[2], actual.getX(i));
+                bounds[3] = Math.max(bounds[3], actual.getY(i));
+            }
+            assertArrayEquals(bounds, binary.getBounds());
+            // The kernel restored from the header (e.g. the GEO projection) measures the same distances
+            DistanceKernel kernel = binary.getInstance().getKernel();
+            for (int i = 1; i < expected.size(); i++) {
+                assertEquals(instance.getKernel().distance(expected.getX(i - 1), expected.getY(i - 1),
+                        expected.getX(i), expected.getY(i)),
+                        kernel.distance(actual.getX(i - 1), actual.getY(i - 1), actual.getX(i), actual.getY(i)));
+            }
+            // The benchmarks depend on the iteration order of the point map
+            assertEquals(new ArrayList<>(expected.toPointMap().keySet()),
+                    new ArrayList<>(actual.toPointMap().keySet()));
+            assertEquals(expected.toPointMap(), actual.toPointMap());
+        }
+    }
+
+    @Test
+    void testReadCached(@TempDir Path folder) throws IOException {
+        Path tspFile = folder.resolve("berlin52.tsp");
+        Files.copy(Path.of(FOLDER, "berlin52.tsp"), tspFile);
+        assertEquals(folder.resolve("berlin52.tspb").toString(), TSPLIBBinary.getBinaryFile(tspFile.toString()));
+
+        // Without a binary file the TSPLIB file is parsed
+        PointStore parsed = TSPLIBBinary.readCached(tspFile.toString()).getPoints();
+        assertTrue(parsed instanceof ArrayPointStore);
+
+        TSPLIBBinary.convert(tspFile.toString(), TSPLIBBinary.getBinaryFile(tspFile.toString()));
+        PointStore cached = TSPLIBBinary.readCached(tspFile.toString()).getPoints();
+        assertTrue(cached instanceof BufferPointStore);
+        assertEquals(parsed.toPointMap(), cached.toPointMap());
+
+        // An outdated binary file is ignored
+        assertTrue(tspFile.toFile().setLastModified(System.currentTimeMillis() + 10000));
+        assertTrue(TSPLIBBinary.readCached(tspFile.toString()).getPoints() instanceof ArrayPointStore);
+    }
+
+    @Test
+    void testInvalidFiles(@TempDir Path folder) throws IOException {
+        Path file = folder.resolve("berlin52.tspb");
+        TSPLIBBinary.convert(FOLDER + "/berlin52.tsp", file.toString());
+        byte[] bytes = Files.readAllBytes(file);
+
+        // Modified content is detected by the hash
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(file, bytes);
+        assertFalse(TSPLIBBinary.read(file.toString()).verify());
+
+        // Truncated files and other formats are rejected
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 8));
+        assertThrows(IllegalArgumentException.class, () -> TSPLIBBinary.read(file.toString()));
+        Files.copy(Path.of(FOLDER, "berlin52.tsp"), file, StandardCopyOption.REPLACE_EXISTING);
+        assertThrows(IllegalArgumentException.class, () -> TSPLIBBinary.read(file.toString()));
+
+        // Identifiers with leading zeros can't be stored
+        ArrayPointStore names = new ArrayPointStore(1, new int[]{1}, new double[]{0}, new double[]{0},
+                new String[]{"01"}, new int[]{0});
+        assertThrows(IllegalArgumentException.class, () -> TSPLIBBinary.write(names, "EUC_2D", file.toString()));
+    }
+}
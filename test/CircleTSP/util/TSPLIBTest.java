@@ -0,0 +1,390 @@
+package CircleTSP.util;
+
+import CircleTSP.entities.ArrayPointStore;
+import CircleTSP.entities.Point;
+import CircleTSP.entities.Tour;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TSPLIBTest {
+
+    private static final String FOLDER = "res/TSPLIB/TSP";
+    private static final List<String> EDGE_WEIGHT_TYPES = List.of("EUC_2D", "CEIL_2D", "ATT", "GEO");
+
+    /**
+     * Line based reference parser splitting the lines at whitespace and parsing the numbers with Double.parseDouble.
+     */
+    private static HashMap<String, Point> readPointsReference(String fileName) throws IOException {
+        HashMap<String, Point> points = new HashMap<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(fileName))) {
+            String s;
+            boolean[] supportedFeatures = {false, false, false};
+            while ((s = br.readLine()) != null) {
+                if (s.trim().equals("EOF"))
+                    break;
+                if (s.contains("EDGE_WEIGHT_TYPE")) {
+                    supportedFeatures[1] = EDGE_WEIGHT_TYPES.contains(s.split(":")[1].trim());
+                } else if (s.split(":")[0].trim().equals("TYPE")) {
+                    supportedFeatures[0] = s.split(":")[1].trim().equals("TSP");
+                } else if (s.contains("NODE_COORD_SECTION")) {
+                    supportedFeatures[2] = true;
+                    break;
+                }
+            }
+            for (boolean supported : supportedFeatures) {
+                if (!supported)
+                    throw new IllegalArgumentException("Unsupported file format!");
+            }
+            while ((s = br.readLine()) != null) {
+                if (s.trim().equals("EOF"))
+                    break;
+                // Blank lines are skipped (e.g. at the end of usa13509 which has no EOF)
+                if (s.trim().isEmpty())
+                    continue;
+                String[] point = s.trim().split("\\s+");
+                points.put(point[0], new Point(point[0],
+                        new double[]{Double.parseDouble(point[1]), Double.parseDouble(point[2])}));
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Projects GEO coordinates of the reference parser, keeping the iteration order of the map.
+     */
+    private static HashMap<String, Point> project(HashMap<String, Point> points) {
+        List<String> ids = new ArrayList<>(points.keySet());
+        double[] xs = new double[ids.size()];
+        double[] ys = new double[ids.size()];
+        for (int i = 0; i < ids.size(); i++) {
+            xs[i] = points.get(ids.get(i)).getCoordinates()[0];
+            ys[i] = points.get(ids.get(i)).getCoordinates()[1];
+        }
+        GeoProjection.project(xs, ys, ids.size());
+        HashMap<String, Point> projected = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++)
+            projected.put(ids.get(i), new Point(ids.get(i), new double[]{xs[i], ys[i]}));
+        return projected;
+    }
+
+    private static void assertSamePoints(HashMap<String, Point> expected, HashMap<String, Point> actual) {
+        assertEquals(expected, actual);
+        // The iteration order is used by the benchmarks and has to stay the same as well
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(actual.keySet()));
+    }
+
+    @Test
+    void testReadPoints() throws IOException {
+        File[] files = new File(FOLDER).listFiles((dir, name) -> name.endsWith(".tsp"));
+        assertNotNull(files);
+        int numSupported = 0, numExplicit = 0;
+        long referenceTime = 0, time = 0;
+        for (File file : files) {
+            HashMap<String, Point> expected;
+            long time1 = System.nanoTime();
+            try {
+                expected = readPointsReference(file.getPath());
+            } catch (IllegalArgumentException e) {
+                // Explicit instances have no coordinates, their nodes are embedded into the plane
+                TSPInstance<ArrayPointStore> instance = TSPLIB.readInstance(file.getPath());
+                assertNotNull(instance.getMatrix(), file.getName());
+                assertEquals(instance.getMatrix().size(), instance.getPoints().size());
+                numExplicit++;
+                continue;
+            }
+            long time2 = System.nanoTime();
+            HashMap<String, Point> actual = TSPLIB.readPoints(file.getPath());
+            long time3 = System.nanoTime();
+            referenceTime += time2 - time1;
+            time += time3 - time2;
+
+            if (TSPLIB.readInstance(file.getPath()).getEdgeWeightType().equals("GEO"))
+                expected = project(expected);
+
+            assertSamePoints(expected, actual);
+            numSupported++;
+        }
+        System.out.println("Read " + numSupported + " of " + files.length + " files in " + time / 1000000
+                + "ms (reference: " + referenceTime / 1000000 + "ms) and " + numExplicit + " explicit files");
+        assertEquals(files.length, numSupported + numExplicit);
+        assertTrue(numSupported > 0);
+    }
+
+    @Test
+    void testOptimalTourLengths() throws IOException {
+        // Published optimal tour lengths, which are only reached with the rounding rules of the edge weight types
+        Map<String, Integer> optima = Map.ofEntries(Map.entry("berlin52", 7542), Map.entry("a280", 2579),
+                Map.entry("pr1002", 259045), Map.entry("att48", 10628), Map.entry("ulysses16", 6859),
+                Map.entry("ulysses22", 7013), Map.entry("gr202", 40160), Map.entry("gr666", 294358),
+                // Explicit instances in all formats of the folder
+                Map.entry("bayg29", 1610), Map.entry("bays29", 2020), Map.entry("fri26", 937),
+                Map.entry("gr24", 1272), Map.entry("gr120", 6942), Map.entry("brg180", 1950),
+                Map.entry("pa561", 2763));
+        for (Map.Entry<String, Integer> optimum : optima.entrySet()) {
+            String name = optimum.getKey();
+            TSPInstance<ArrayPointStore> instance = TSPLIB.readInstance(FOLDER + "/" + name + ".tsp");
+            Tour tour = TSPLIB.readOpt(FOLDER + "/tour/" + name + ".opt.tour", instance.getPoints().toPointMap());
+            assertEquals(instance.getPoints().size(), tour.size(), name);
+            assertEquals((double) optimum.getValue(), instance.calculateTourLength(tour), name);
+        }
+
+        // Projected GEO instances can be solved in the plane, where the length of a tour of a regional instance is
+        // close to its GEO length
+        TSPInstance<ArrayPointStore> instance = TSPLIB.readInstance(FOLDER + "/gr202.tsp");
+        Tour tour = TSPLIB.readOpt(FOLDER + "/tour/gr202.opt.tour", instance.getPoints().toPointMap());
+        double ratio = Distance.calculateTourLength(tour) / instance.calculateTourLength(tour);
+        System.out.println("Planar length of the optimal gr202 tour relative to its GEO length: " + ratio);
+        assertTrue(ratio > 0.9 && ratio < 1.1);
+    }
+
+    @Test
+    void testKernels() {
+        assertEquals(5, Distance.EUCLIDEAN.distance(0, 0, 3, 4));
+        assertEquals(1, Distance.EUC_2D.distance(0, 0, 1, 0.5));
+        assertEquals(2, Distance.EUC_2D.distance(0, 0, 1, 1.5));
+        assertEquals(2, Distance.CEIL_2D.distance(0, 0, 1, 0.5));
+        assertEquals(5, Distance.CEIL_2D.distance(0, 0, 3, 4));
+        // sqrt(1000/10) = 10 is exact, sqrt(1010/10) is rounded up
+        assertEquals(10, Distance.ATT.distance(0, 0, 30, 10));
+        assertEquals(11, Distance.ATT.distance(0, 0, 31, 13));
+        assertEquals(Distance.EUC_2D, Distance.kernel("EUC_2D"));
+        assertThrows(IllegalArgumentException.class, () -> Distance.kernel("GEO"));
+    }
+
+    @Test
+    void testNumberFormats(@TempDir Path folder) throws IOException {
+        Random random = new Random(3);
+        List<String> lines = new ArrayList<>();
+        lines.add("NAME: formats");
+        lines.add("TYPE : TSP\r");
+        lines.add("EDGE_WEIGHT_TYPE:EUC_2D");
+        lines.add("NODE_COORD_SECTION");
+        String[] fixed = {"-0", "+1.5", "1e3", "1.25E-2", ".5", "5.", "0.1", "123456789012345678901234567890",
+                "1e-30", "4.9e-324", "1.7976931348623157e308", "1.0d", "0x1p3", "Infinity", "-0.0000000000000000001"};
+        int id = 1;
+        for (String number : fixed)
+            lines.add("\t" + id++ + " " + number + "\t  " + number + "   ");
+        for (int i = 0; i < 2000; i++) {
+            double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(40) - 20);
+            lines.add(id++ + " " + value + " " + random.nextInt(100000) + "." + random.nextInt(1000));
+        }
+        // Leading zeros are kept in the identifier of the point
+        lines.add("0" + id++ + " 1 2");
+        lines.add("");
+        lines.add(" EOF ");
+        lines.add("1 2 3");
+        Path file = folder.resolve("formats.tsp");
+        Files.write(file, lines);
+
+        HashMap<String, Point> points = TSPLIB.readPoints(file.toString());
+        assertSamePoints(readPointsReference(file.toString()), points);
+        assertEquals(-0.0, points.get("1").getCoordinates()[0]);
+        assertEquals(1 / -0.0, 1 / points.get("1").getCoordinates()[0]);
+        String lastId = "0" + (id - 1);
+        assertTrue(points.containsKey(lastId));
+
+        ArrayPointStore store = TSPLIB.readPointStore(file.toString());
+        assertEquals(points.size(), store.size());
+        assertEquals(lastId, store.getId(store.size() - 1));
+        assertEquals(id - 1, store.getNodeId(store.size() - 1));
+        assertEquals(store.size() - 1, store.getIndex(id - 1));
+        assertEquals(0.5, store.getX(4));
+
+        // Unsupported files and invalid nodes
+        Files.write(file, List.of("TYPE : TSP", "EDGE_WEIGHT_TYPE : MAN_2D", "NODE_COORD_SECTION", "1 2 3", "EOF"));
+        assertThrows(IllegalArgumentException.class, () -> TSPLIB.readPoints(file.toString()));
+        Files.write(file, List.of("TYPE : TSP", "EDGE_WEIGHT_TYPE : EUC_2D", "NODE_COORD_SECTION", "1 2", "EOF"));
+        assertThrows(IllegalArgumentException.class, () -> TSPLIB.readPoints(file.toString()));
+        Files.write(file, List.of("TYPE : TSP", "EDGE_WEIGHT_TYPE : EUC_2D", "NODE_COORD_SECTION", "1 2 x", "EOF"));
+        assertThrows(NumberFormatException.class, () -> TSPLIB.readPoints(file.toString()));
+        assertThrows(IOException.class, () -> TSPLIB.readPoints(folder.resolve("missing.tsp").toString()));
+
+        // Node ids that are not numbered from 1 to n are looked up in a map, duplicates keep the last point
+        Files.write(file, List.of("TYPE : TSP", "EDGE_WEIGHT_TYPE : EUC_2D", "NODE_COORD_SECTION", "1 2 3", "1 4 5"));
+        assertSamePoints(readPointsReference(file.toString()), TSPLIB.readPoints(file.toString()));
+        store = TSPLIB.readPointStore(file.toString());
+        assertFalse(store.hasIndex());
+        assertEquals(1, store.getIndex(1));
+        Files.write(file, List.of("TYPE : TSP", "EDGE_WEIGHT_TYPE : EUC_2D", "NODE_COORD_SECTION", "1 2 3", "3 4 5"));
+        store = TSPLIB.readPointStore(file.toString());
+        assertFalse(store.hasIndex());
+        assertEquals(1, store.getIndex(3));
+        ArrayPointStore gaps = store;
+        assertThrows(IllegalArgumentException.class, () -> gaps.getIndex(2));
+
+        // The DIMENSION is not checked against the number of nodes, like the line based reader did
+        Files.write(file, List.of("TYPE : TSP", "DIMENSION : 3", "EDGE_WEIGHT_TYPE : EUC_2D", "NODE_COORD_SECTION",
+                "1 2 3", "2 4 5", "EOF"));
+        store = TSPLIB.readPointStore(file.toString());
+        assertEquals(2, store.size());
+        assertTrue(store.hasIndex());
+    }
+
+    @Test
+    void testStringIds() throws IOException {
+        // The instances of the visualization use letters in their identifiers
+        for (String file : List.of("res/points.tsp", "res/points_no_noise.tsp"))
+            assertSamePoints(readPointsReference(file), TSPLIB.readPoints(file));
+        assertEquals(26, TSPLIB.readPoints("res/points.tsp").size());
+        assertEquals(24, TSPLIB.readPoints("res/points_no_noise.tsp").size());
+
+        // Nodes are numbered in the order of the file
+        ArrayPointStore store = TSPLIB.readPointStore("res/points.tsp");
+        assertTrue(store.hasIndex());
+        for (int i = 0; i < store.size(); i++) {
+            assertEquals(i + 1, store.getNodeId(i));
+            assertEquals(i, store.getIndex(i + 1));
+        }
+        assertEquals("A0", store.getId(0));
+    }
+
+    @Test
+    void testMatrixPrecision(@TempDir Path folder) throws IOException {
+        Path file = folder.resolve("matrix.tsp");
+        Files.write(file, List.of("TYPE : TSP", "DIMENSION : 4", "EDGE_WEIGHT_TYPE : EXPLICIT",
+                "EDGE_WEIGHT_FORMAT : LOWER_ROW", "EDGE_WEIGHT_SECTION", "3", "4 5", "6 7 8", "EOF"));
+        DistanceMatrix integerMatrix = TSPLIB.readInstance(file.toString()).getMatrix();
+        assertTrue(integerMatrix.isInteger());
+        assertEquals(8, integerMatrix.get(3, 2));
+
+        // A fractional weight after integer weights switches the whole matrix to float
+        Files.write(file, List.of("TYPE : TSP", "DIMENSION : 4", "EDGE_WEIGHT_TYPE : EXPLICIT",
+                "EDGE_WEIGHT_FORMAT : LOWER_ROW", "EDGE_WEIGHT_SECTION", "3", "4 5", "6 7.25 8", "EOF"));
+        DistanceMatrix floatMatrix = TSPLIB.readInstance(file.toString()).getMatrix();
+        assertFalse(floatMatrix.isInteger());
+        assertEquals(3, floatMatrix.get(0, 1));
+        assertEquals(5, floatMatrix.get(1, 2));
+        assertEquals(7.25, floatMatrix.get(1, 3));
+        assertEquals(8, floatMatrix.get(3, 2));
+    }
+
+    @Test
+    void testParallelParsing(@TempDir Path folder) throws IOException {
+        // Nodes in shuffled order, blank lines and trailing nodes after EOF
+        Random random = new Random(4);
+        int n = 200000;
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 1; i <= n; i++)
+            ids.add(i);
+        Collections.shuffle(ids, random);
+        List<String> lines = new ArrayList<>(List.of("NAME : parallel", "TYPE : TSP", "DIMENSION : " + n,
+                "EDGE_WEIGHT_TYPE : EUC_2D", "NODE_COORD_SECTION"));
+        for (int id : ids) {
+            lines.add(id + " " + random.nextDouble() * 1e6 + " " + random.nextInt(1000000));
+            if (random.nextInt(1000) == 0)
+                lines.add("");
+        }
+        lines.add("EOF");
+        for (int i = 0; i < 1000; i++)
+            lines.add("x");
+        Path file = folder.resolve("parallel.tsp");
+        Files.write(file, lines);
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        long time1 = System.nanoTime();
+        ArrayPointStore expected = new TSPLIBParser(buffer.duplicate()).parse(1);
+        long time2 = System.nanoTime();
+        ArrayPointStore actual = new TSPLIBParser(buffer.duplicate()).parse(64);
+        long time3 = System.nanoTime();
+        System.out.println("Parsed " + n + " nodes in " + (time2 - time1) / 1000000 + "ms with one chunk and "
+                + (time3 - time2) / 1000000 + "ms with 64 chunks");
+        assertSamePoints(expected.toPointMap(), actual.toPointMap());
+        assertEquals(n, actual.size());
+        for (int i = 0; i < n; i++) {
+            assertEquals(ids.get(i), actual.getNodeId(i));
+            assertEquals(i, actual.getIndex(ids.get(i)));
+        }
+
+        // Chunking doesn't change the results for the TSPLIB files
+        for (String name : List.of("berlin52", "usa13509", "d18512")) {
+            ByteBuffer tsp = ByteBuffer.wrap(Files.readAllBytes(Path.of(FOLDER, name + ".tsp")));
+            assertSamePoints(new TSPLIBParser(tsp.duplicate()).parse(1).toPointMap(),
+                    new TSPLIBParser(tsp.duplicate()).parse(16).toPointMap());
+        }
+
+        // Duplicates are detected across chunks, the node ids are then looked up in a map
+        lines.set(lines.size() - 1002, ids.get(0) + " 2 3");
+        Files.write(file, lines);
+        ByteBuffer duplicate = ByteBuffer.wrap(Files.readAllBytes(file));
+        ArrayPointStore duplicates = new TSPLIBParser(duplicate).parse(64);
+        assertFalse(duplicates.hasIndex());
+        assertSamePoints(new TSPLIBParser(duplicate.duplicate()).parse(1).toPointMap(),
+                duplicates.toPointMap());
+        assertEquals(duplicates.size() - 1, duplicates.getIndex(ids.get(0)));
+    }
+
+    private static Path gzip(Path file, Path folder) throws IOException {
+        Path compressed = folder.resolve(file.getFileName() + ".gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed))) {
+            Files.copy(file, out);
+        }
+        return compressed;
+    }
+
+    @Test
+    void testGzip(@TempDir Path folder) throws IOException {
+        // Compressed files give the same instances, including leading zeros, GEO projection and explicit weights
+        for (String name : List.of("berlin52", "gr666", "si175", "gr120", "pa561", "usa13509")) {
+            Path file = Path.of(FOLDER, name + ".tsp");
+            TSPInstance<ArrayPointStore> expected = TSPLIB.readInstance(file.toString());
+            TSPInstance<ArrayPointStore> actual = TSPLIB.readInstance(gzip(file, folder).toString());
+            assertEquals(expected.getEdgeWeightType(), actual.getEdgeWeightType(), name);
+            assertEquals(expected.getPoints().size(), actual.getPoints().size(), name);
+            assertSamePoints(expected.getPoints().toPointMap(), actual.getPoints().toPointMap());
+            if (expected.getMatrix() != null) {
+                for (int i = 0; i < expected.getPoints().size(); i++)
+                    assertEquals(expected.getMatrix().get(i, 0), actual.getMatrix().get(i, 0), name);
+            }
+        }
+
+        // Lines cross the boundaries of the decompressed chunks
+        Random random = new Random(5);
+        int n = 500000;
+        List<String> lines = new ArrayList<>(List.of("NAME : gzip", "TYPE : TSP", "DIMENSION : " + n,
+                "EDGE_WEIGHT_TYPE : EUC_2D", "NODE_COORD_SECTION"));
+        for (int i = 1; i <= n; i++)
+            lines.add(String.format("%0" + (1 + random.nextInt(7)) + "d", i) + " " + random.nextDouble() * 1e6
+                    + " " + random.nextInt(1000000));
+        lines.add("EOF");
+        Path file = folder.resolve("gzip.tsp");
+        Files.write(file, lines);
+        Path compressed = gzip(file, folder);
+
+        long time1 = System.nanoTime();
+        ArrayPointStore expected = TSPLIB.readPointStore(file.toString());
+        long time2 = System.nanoTime();
+        ArrayPointStore actual = TSPLIB.readPointStore(compressed.toString());
+        long time3 = System.nanoTime();
+        System.out.println("Parsed " + n + " nodes in " + (time2 - time1) / 1000000 + "ms from the file and "
+                + (time3 - time2) / 1000000 + "ms from the gzipped file (" + Files.size(file) / 1024 + "KB, "
+                + Files.size(compressed) / 1024 + "KB compressed)");
+        assertSamePoints(expected.toPointMap(), actual.toPointMap());
+        for (int i = 0; i < n; i++)
+            assertEquals(expected.getId(i), actual.getId(i));
+
+        // Truncated streams are errors
+        byte[] bytes = Files.readAllBytes(compressed);
+        Path truncated = folder.resolve("truncated.tsp.gz");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length / 2));
+        assertThrows(IOException.class, () -> TSPLIB.readPointStore(truncated.toString()));
+    }
+}
@@ -0,0 +1,130 @@
+package CircleTSP.util;
+
+import CircleTSP.algo.solvers.CircleTSP;
+import CircleTSP.benchmark.ProblemGenerator;
+import CircleTSP.entities.ArrayPointStore;
+import CircleTSP.entities.Point;
+import CircleTSP.entities.Tour;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TourCodecTest {
+
+    private static int[] decodeAll(byte[] bytes) throws IOException {
+        List<Integer> values = new ArrayList<>();
+        TourCodec.decode(new ByteArrayInputStream(bytes), values::add);
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Test
+    void testValues() throws IOException {
+        int[] values = {0, 1, 0, 63, -64, 64, -65, 8191, Integer.MAX_VALUE, Integer.MIN_VALUE, -1, 5};
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long size = TourCodec.encode(values, out);
+        assertEquals(out.size(), size);
+        assertArrayEquals(values, decodeAll(out.toByteArray()));
+
+        // Small differences need a single byte per node
+        out.reset();
+        assertEquals(1 + 100, TourCodec.encode(new int[100], out));
+        out.reset();
+        int[] consecutive = new int[1000];
+        Arrays.setAll(consecutive, i -> i + 1);
+        assertEquals(2 + 1000, TourCodec.encode(consecutive, out));
+    }
+
+    @Test
+    void testConcatenatedTours() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TourCodec.encode(new int[]{3, 1, 2}, out);
+        TourCodec.encode(new int[]{}, out);
+        TourCodec.encode(new int[]{7, 70000}, out);
+        byte[] bytes = out.toByteArray();
+
+        InputStream in = new ByteArrayInputStream(bytes);
+        List<Integer> values = new ArrayList<>();
+        assertEquals(3, TourCodec.decode(in, values::add));
+        assertEquals(0, TourCodec.decode(in, values::add));
+        assertEquals(2, TourCodec.decode(in, values::add));
+        assertEquals(List.of(3, 1, 2, 7, 70000), values);
+        assertEquals(-1, in.read());
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        values.clear();
+        while (buffer.hasRemaining())
+            TourCodec.decode(buffer, values::add);
+        assertEquals(List.of(3, 1, 2, 7, 70000), values);
+
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 1);
+        assertThrows(EOFException.class, () -> {
+            InputStream stream = new ByteArrayInputStream(truncated);
+            for (int i = 0; i < 3; i++)
+                TourCodec.decode(stream, value -> {});
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            ByteBuffer b = ByteBuffer.wrap(truncated);
+            for (int i = 0; i < 3; i++)
+                TourCodec.decode(b, value -> {});
+        });
+    }
+
+    @Test
+    void testTourRoundTrip() throws IOException {
+        ArrayPointStore points = TSPLIB.readPointStore("res/TSPLIB/TSP/pr1002.tsp");
+        Tour tour = TSPLIB.readOpt("res/TSPLIB/TSP/tour/pr1002.opt.tour", points.toPointMap());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long size = TourCodec.encode(tour, out);
+        assertEquals(tour, TourCodec.decodeTour(new ByteArrayInputStream(out.toByteArray()), points.toPointMap()));
+
+        long textSize = tour.toString().getBytes(StandardCharsets.UTF_8).length;
+        System.out.println("pr1002 optimal tour: " + size + " bytes encoded, " + textSize + " bytes as text");
+        assertTrue(size < textSize / 2);
+
+        Tour named = new Tour(List.of(new Point("a", new double[]{0, 0})));
+        assertThrows(IllegalArgumentException.class, () -> TourCodec.encode(named, out));
+    }
+
+    @Test
+    void testIndexRoundTrip() throws IOException {
+        // Identifiers of clustered points aren't integers, so the tour is encoded by the indices of the points
+        List<Point> points = new ArrayList<>(ProblemGenerator.fourUniformClusters(100000));
+        List<Point> shuffled = new ArrayList<>(points);
+        Collections.shuffle(shuffled, new Random(1));
+        Tour random = new Tour(shuffled);
+        Tour angular = new CircleTSP().calculateTour(points);
+
+        Map<String, Integer> indices = new HashMap<>();
+        for (int i = 0; i < points.size(); i++)
+            indices.put(points.get(i).getId(), i);
+        for (Tour tour : List.of(random, angular)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            long time = System.nanoTime();
+            long size = TourCodec.encode(tour, p -> indices.get(p.getId()), out);
+            long encodeTime = System.nanoTime() - time;
+            time = System.nanoTime();
+            Tour decoded = TourCodec.decodeTour(new ByteArrayInputStream(out.toByteArray()), points::get);
+            long decodeTime = System.nanoTime() - time;
+            System.out.println(tour.size() + " points " + (tour == random ? "in random order" : "of CircleTSP")
+                    + ": " + size + " bytes, encoded in " + encodeTime / 1000 + "us, decoded in "
+                    + decodeTime / 1000 + "us");
+            assertEquals(tour, decoded);
+            assertTrue(size <= 1 + 4L * tour.size());
+        }
+    }
+}
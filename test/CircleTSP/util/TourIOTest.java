@@ -0,0 +1,161 @@
+package CircleTSP.util;
+
+import CircleTSP.entities.ArrayPointStore;
+import CircleTSP.entities.Point;
+import CircleTSP.entities.Tour;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TourIOTest {
+
+    private static final String FOLDER = "res/TSPLIB/TSP";
+
+    private static ArrayPointStore randomStore(int n, long seed) {
+        Random random = new Random(seed);
+        int[] nodeIds = new int[n];
+        double[] xs = new double[n], ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            nodeIds[i] = i + 1;
+            xs[i] = random.nextDouble() * 1000;
+            ys[i] = random.nextDouble() * 1000;
+        }
+        int[] indices = new int[n];
+        for (int i = 0; i < n; i++)
+            indices[i] = i;
+        return new ArrayPointStore(n, nodeIds, xs, ys, null, indices);
+    }
+
+    private static Tour shuffledTour(ArrayPointStore points, long seed) {
+        List<Point> list = new ArrayList<>(points.toPoints());
+        Collections.shuffle(list, new Random(seed));
+        return new Tour(list);
+    }
+
+    private static int[] indicesOf(Tour tour, ArrayPointStore points) {
+        int[] order = new int[tour.size()];
+        int i = 0;
+        for (Point p : tour)
+            order[i++] = points.getIndex(Integer.parseInt(p.getId()));
+        return order;
+    }
+
+    @Test
+    void testTourRoundTrip(@TempDir Path folder) throws IOException {
+        ArrayPointStore points = randomStore(1000, 1);
+        Tour tour = shuffledTour(points, 2);
+        String fileName = folder.resolve("random.tour").toString();
+
+        TourIO.writeTour(tour, "random", fileName);
+        HashMap<String, Point> pointMap = points.toPointMap();
+        assertEquals(tour, TSPLIB.readOpt(fileName, pointMap));
+        assertArrayEquals(indicesOf(tour, points), TSPLIB.readOptIndices(fileName, points));
+
+        // Writing the indices gives the same file
+        String indexFileName = folder.resolve("indices.tour").toString();
+        TourIO.writeTour(indicesOf(tour, points), points, "random", indexFileName);
+        assertArrayEquals(Files.readAllBytes(Path.of(fileName)), Files.readAllBytes(Path.of(indexFileName)));
+    }
+
+    @Test
+    void testPermutationRoundTrip(@TempDir Path folder) throws IOException {
+        ArrayPointStore points = randomStore(100000, 3);
+        Tour tour = shuffledTour(points, 4);
+        String fileName = folder.resolve("random" + TourIO.EXTENSION).toString();
+
+        TourIO.writePermutation(tour, fileName);
+        assertEquals(12 + 4L * tour.size(), Files.size(Path.of(fileName)));
+        int[] nodeIds = TourIO.readPermutation(fileName);
+        assertEquals(tour.size(), nodeIds.length);
+        int i = 0;
+        for (Point p : tour)
+            assertEquals(p.getId(), Integer.toString(nodeIds[i++]));
+
+        Files.write(Path.of(fileName), new byte[]{'T', 'S', 'P', 'B', 1, 0, 0, 0, 0, 0, 0, 0});
+        assertThrows(IllegalArgumentException.class, () -> TourIO.readPermutation(fileName));
+        Tour named = new Tour(List.of(new Point("a", new double[]{0, 0})));
+        assertThrows(IllegalArgumentException.class, () -> TourIO.writePermutation(named, fileName));
+    }
+
+    @Test
+    void testWriteIds() throws IOException {
+        ArrayPointStore points = randomStore(5000, 5);
+        Tour tour = shuffledTour(points, 6);
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        TourIO.writeIds(tour, stream, " ");
+        assertEquals(tour.toString(), stream.toString());
+
+        stream.reset();
+        TourIO.writeIds(tour, stream, ", ");
+        assertEquals(tour.toString(", "), stream.toString());
+    }
+
+    @Test
+    void testOptimalTours() throws IOException {
+        File[] files = new File(FOLDER + "/tour").listFiles((dir, name) -> name.endsWith(".opt.tour"));
+        assertNotNull(files);
+        int numTours = 0;
+        for (File file : files) {
+            String name = file.getName().substring(0, file.getName().indexOf('.'));
+            File tspFile = new File(FOLDER + "/" + name + ".tsp");
+            if (!tspFile.exists())
+                continue;
+            ArrayPointStore points = TSPLIB.readPointStore(tspFile.getPath());
+            Tour tour = TSPLIB.readOpt(file.getPath(), points.toPointMap());
+            int[] order = TSPLIB.readOptIndices(file.getPath(), points);
+            assertEquals(tour.size(), order.length, name);
+            int i = 0;
+            for (Point p : tour)
+                assertEquals(p.getId(), points.getId(order[i++]), name);
+            numTours++;
+        }
+        assertTrue(numTours > 0);
+    }
+
+    @Test
+    void testInvalidTours(@TempDir Path folder) throws IOException {
+        ArrayPointStore points = randomStore(3, 7);
+        Path file = folder.resolve("invalid.tour");
+        Files.writeString(file, "NAME : invalid\nTYPE : TOUR\nDIMENSION : 3\nTOUR_SECTION\n1\n2\n1\n-1\nEOF\n");
+        assertThrows(IllegalArgumentException.class, () -> TSPLIB.readOptIndices(file.toString(), points));
+        Files.writeString(file, "NAME : invalid\nTYPE : TOUR\nDIMENSION : 3\nTOUR_SECTION\n1\n2\n4\n-1\nEOF\n");
+        assertThrows(IllegalArgumentException.class, () -> TSPLIB.readOptIndices(file.toString(), points));
+        Files.writeString(file, "NAME : invalid\nTYPE : TSP\nDIMENSION : 3\nNODE_COORD_SECTION\n1 0 0\nEOF\n");
+        assertThrows(IllegalArgumentException.class, () -> TSPLIB.readOptIndices(file.toString(), points));
+    }
+
+    @Test
+    void testLargeTour(@TempDir Path folder) throws IOException {
+        ArrayPointStore points = randomStore(1000000, 8);
+        Tour tour = shuffledTour(points, 9);
+        String fileName = folder.resolve("large.tour").toString();
+
+        long time = System.nanoTime();
+        TourIO.writeTour(tour, "large", fileName);
+        long writeTime = System.nanoTime() - time;
+        time = System.nanoTime();
+        Tour read = TSPLIB.readOpt(fileName, points.toPointMap());
+        long readOptTime = System.nanoTime() - time;
+        time = System.nanoTime();
+        int[] order = TSPLIB.readOptIndices(fileName, points);
+        long readIndicesTime = System.nanoTime() - time;
+        System.out.println("Wrote a tour of " + tour.size() + " nodes in " + writeTime / 1000000 + "ms, read it in "
+                + readOptTime / 1000000 + "ms with readOpt and " + readIndicesTime / 1000000
+                + "ms with readOptIndices");
+
+        assertEquals(tour.size(), read.size());
+        assertArrayEquals(indicesOf(tour, points), order);
+    }
+}